@@ -6,6 +6,8 @@ import android.graphics.*;
 import android.graphics.drawable.Drawable;
 import androidx.core.view.GestureDetectorCompat;
 import android.util.Log;
+import android.os.SystemClock;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.ScaleGestureDetector;
 
@@ -28,6 +30,7 @@ import com.github.fujianlian.klinechart.utils.ViewUtil;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * k线图
@@ -40,6 +43,12 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
 
     public HTDrawContext drawContext;
 
+    // Price lines, zones, markers and labels fed by the updateOverlays command
+    public final HTOverlayLayer overlayLayer = new HTOverlayLayer();
+
+    // Trade executions and events fed by the appendMarkers command
+    public final HTMarkerStore markerStore = new HTMarkerStore();
+
 
 
     private int mChildDrawPosition = -1;
@@ -126,6 +135,15 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
     private Paint mPredictionLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     private Paint mPredictionGradientPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
+    // Stop loss and target zone shaders with the fromY, toY they were built for
+    private final LinearGradient[] mPredictionGradients = new LinearGradient[2];
+
+    private final float[] mPredictionGradientKeys = new float[4];
+
+    private final Paint.FontMetrics mPredictionFontMetrics = new Paint.FontMetrics();
+
+    private final RectF mPredictionLabelRect = new RectF();
+
     // Prediction selection state
     protected String mSelectedPredictionType = null;
     protected Integer mSelectedPredictionIndex = null;
@@ -143,6 +161,45 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
     private static final float GRID_MIN_V_SPACING_DP = 84f;
     private final List<Float> priceGridLevels = new ArrayList<>();
 
+    // Formatted labels for priceGridLevels, rebuilt only when the level set changes
+    private final List<String> priceGridLabels = new ArrayList<>();
+
+    private float mGridFirstLevel = Float.NaN;
+
+    private float mGridStep = Float.NaN;
+
+    private int mGridLevelCount = 0;
+
+    private int mGridGeneration = -1;
+
+    private boolean mGridChildOnly = false;
+
+    private final HTYAxisAnimator mYAxisAnimator = new HTYAxisAnimator();
+
+    // Per-phase onDraw timings, enabled by the perfProfiler / perfOverlay config
+    public final HTFrameProfiler frameProfiler = new HTFrameProfiler();
+
+    public interface PerfStatsListener {
+        void onPerfStats(HTFrameProfiler profiler);
+    }
+
+    private PerfStatsListener mPerfStatsListener;
+
+    private static final long PERF_REPORT_INTERVAL_MS = 1000;
+
+    private static final long PERF_OVERLAY_REFRESH_MS = 500;
+
+    private long mLastPerfReportMillis = 0;
+
+    private long mPerfOverlayUpdateMillis = 0;
+
+    // Set while drawing into a canvas other than the view's own, e.g. the magnifier lens
+    private boolean mOffscreenDraw = false;
+
+    private final List<String> mPerfOverlayLines = new ArrayList<>();
+
+    private Paint mPerfOverlayPaint;
+
     private int mSelectedIndex;
 
     private IChartDraw mMainDraw;
@@ -178,6 +235,36 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
 
     private float mLineWidth;
 
+    // Live update mode (configManager.liveMaxFps > 0): last-candle updates are coalesced
+    // and repainted at most once per frame budget.
+    private boolean mLiveFramePending = false;
+
+    private long mLastLiveFrameNanos = 0;
+
+    private long mCoalescedLiveUpdates = 0;
+
+    // Grid and candles are kept in a cached bitmap in live mode (minus the last two candles),
+    // during crosshair sessions and, with scrollLayerCache, while panning. Drawings are cached
+    // during crosshair sessions. Text, close price line, overlays and the selector are always
+    // drawn live on top.
+    private final HTChartLayer mSeriesLayer = new HTChartLayer();
+
+    private final HTChartLayer mDrawingsLayer = new HTChartLayer();
+
+    private int mLayerGeneration = 0;
+
+    // Layer keys, see fillRangeKey
+    private final float[] mLayerKey = new float[8];
+
+    private final int[] mLayerIntKey = new int[9];
+
+    private final Choreographer.FrameCallback mLiveFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            applyLiveUpdate(frameTimeNanos);
+        }
+    };
+
     public BaseKLineChartView(Context context, HTKLineConfigManager configManager) {
         super(context);
         this.configManager = configManager;
@@ -377,25 +464,63 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         if (isChildOnlyMode() && (mChildRect == null || mChildRect.height() == 0)) {
             return;
         }
+        HTFrameProfiler profiler = frameProfiler;
+        profiler.enabled = !mOffscreenDraw && (configManager.perfProfiler || configManager.perfOverlay);
+        profiler.beginFrame();
+        long phaseStart = profiler.now();
         calculateValue();
+        profiler.record(HTFrameProfiler.PHASE_CALCULATE_VALUE, phaseStart);
         canvas.save();
         canvas.scale(1, 1);
-        drawGird(canvas);
+        boolean liveSplit = isLiveSplitActive();
+        phaseStart = profiler.now();
+        boolean seriesLayerDrawn = drawSeriesLayer(canvas, liveSplit);
+        if (!seriesLayerDrawn) {
+            drawGird(canvas);
+            profiler.record(HTFrameProfiler.PHASE_GRID, phaseStart);
+        }
         if (mItemCount > 0) {
-            drawK(canvas);
+            if (!seriesLayerDrawn) {
+                phaseStart = profiler.now();
+                drawK(canvas);
+            } else if (liveSplit) {
+                drawLiveCandles(canvas);
+            }
+            // With a series layer this covers the layer blit (and any re-render) plus live candles
+            profiler.record(HTFrameProfiler.PHASE_K, phaseStart);
+            phaseStart = profiler.now();
             drawText(canvas);
+            profiler.record(HTFrameProfiler.PHASE_TEXT, phaseStart);
             if (!isChildOnlyMode()) {
+                phaseStart = profiler.now();
                 drawMaxAndMin(canvas);
+                profiler.record(HTFrameProfiler.PHASE_MAX_AND_MIN, phaseStart);
             }
+            phaseStart = profiler.now();
             drawValue(canvas, isLongPress ? mSelectedIndex : mStopIndex);
+            profiler.record(HTFrameProfiler.PHASE_VALUE, phaseStart);
             if (!isChildOnlyMode()) {
+                phaseStart = profiler.now();
                 drawClosePriceLine(canvas);
+                profiler.record(HTFrameProfiler.PHASE_CLOSE_PRICE_LINE, phaseStart);
             }
+            phaseStart = profiler.now();
             drawChildOverlays(canvas);
+            profiler.record(HTFrameProfiler.PHASE_CHILD_OVERLAYS, phaseStart);
             if (!isChildOnlyMode()) {
+                phaseStart = profiler.now();
                 drawPrediction(canvas);
+                profiler.record(HTFrameProfiler.PHASE_PREDICTION, phaseStart);
+            }
+            if (!isChildOnlyMode()) {
+                phaseStart = profiler.now();
+                markerStore.draw(canvas, this);
+                overlayLayer.draw(canvas, this);
+                profiler.record(HTFrameProfiler.PHASE_OVERLAYS, phaseStart);
             }
+            phaseStart = profiler.now();
             drawSelector(canvas);
+            profiler.record(HTFrameProfiler.PHASE_SELECTOR, phaseStart);
         }
         canvas.restore();
 
@@ -403,7 +528,82 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
 //        Path path = new Path();
 //        path.addRect(0, mMainRect.top, getMaxScrollX() + getWidth(), mMainRect.bottom, Path.Direction.CW);
 //        canvas.clipPath(path);
-        drawContext.onDraw(canvas);
+        phaseStart = profiler.now();
+        if (!drawDrawingsLayer(canvas)) {
+            drawContext.onDraw(canvas);
+        }
+        profiler.record(HTFrameProfiler.PHASE_DRAW_CONTEXT, phaseStart);
+        profiler.endFrame();
+        if (profiler.enabled) {
+            reportPerfStatsIfDue();
+            if (configManager.perfOverlay) {
+                drawPerfOverlay(canvas);
+            }
+        }
+    }
+
+    /**
+     * Draws the chart into canvas without counting it as a frame or drawing the perf overlay.
+     */
+    public void drawOffscreen(Canvas canvas) {
+        mOffscreenDraw = true;
+        try {
+            draw(canvas);
+        } finally {
+            mOffscreenDraw = false;
+        }
+    }
+
+    private void reportPerfStatsIfDue() {
+        long now = SystemClock.uptimeMillis();
+        if (mPerfStatsListener == null || now - mLastPerfReportMillis < PERF_REPORT_INTERVAL_MS) {
+            return;
+        }
+        mLastPerfReportMillis = now;
+        mPerfStatsListener.onPerfStats(frameProfiler);
+    }
+
+    /**
+     * Debug overlay with p50/p95 per phase, refreshed twice a second to keep formatting off the
+     * per-frame path.
+     */
+    private void drawPerfOverlay(Canvas canvas) {
+        long now = SystemClock.uptimeMillis();
+        if (now - mPerfOverlayUpdateMillis >= PERF_OVERLAY_REFRESH_MS || mPerfOverlayLines.isEmpty()) {
+            mPerfOverlayUpdateMillis = now;
+            mPerfOverlayLines.clear();
+            mPerfOverlayLines.add("frames " + frameProfiler.getFrameCount() + "  p50 / p95 ms");
+            for (int phase = 0; phase < HTFrameProfiler.PHASE_COUNT; phase++) {
+                if (frameProfiler.getSampleCount(phase) == 0) {
+                    continue;
+                }
+                mPerfOverlayLines.add(String.format(Locale.US, "%s %.2f / %.2f",
+                        HTFrameProfiler.PHASE_NAMES[phase],
+                        frameProfiler.percentile(phase, 50f) / 1e6,
+                        frameProfiler.percentile(phase, 95f) / 1e6));
+            }
+        }
+        if (mPerfOverlayPaint == null) {
+            mPerfOverlayPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mPerfOverlayPaint.setTextSize(sp2px(9));
+        }
+        Paint.FontMetrics fm = mPerfOverlayPaint.getFontMetrics();
+        float lineHeight = fm.descent - fm.ascent;
+        float padding = dp2px(4);
+        float width = 0;
+        for (String line : mPerfOverlayLines) {
+            width = Math.max(width, mPerfOverlayPaint.measureText(line));
+        }
+        mPerfOverlayPaint.setColor(0x99000000);
+        canvas.drawRect(0, 0, width + padding * 2, lineHeight * mPerfOverlayLines.size() + padding * 2, mPerfOverlayPaint);
+        mPerfOverlayPaint.setColor(Color.WHITE);
+        float y = padding - fm.ascent;
+        for (String line : mPerfOverlayLines) {
+            canvas.drawText(line, padding, y, mPerfOverlayPaint);
+            y += lineHeight;
+        }
+        // Keep the numbers moving while the overlay is visible
+        postInvalidateDelayed(PERF_OVERLAY_REFRESH_MS);
     }
 
     public float yFromValue(float value) {
@@ -458,6 +658,10 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         return new HTPoint(xFromValue(point.x), yFromValue(point.y));
     }
 
+    public float getMainTop() {
+        return mMainRect.top;
+    }
+
     public float getMainBottom() {
         return mMainRect.bottom;
     }
@@ -522,20 +726,12 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         boolean childOnly = isChildOnlyMode();
 
         // Horizontal price grid
-        priceGridLevels.clear();
-        float minPrice = childOnly ? mChildMinValue : mMainMinValue;
-        float maxPrice = childOnly ? mChildMaxValue : mMainMaxValue;
-        float range = maxPrice - minPrice;
-        if (range > 0 && PRICE_TICK_COUNT >= 2) {
-            int levelsCount = Math.max(2, PRICE_TICK_COUNT);
-            float step = range / (levelsCount - 1);
-            for (int i = 0; i < levelsCount; i++) {
-                float value = minPrice + step * i;
-                priceGridLevels.add(value);
-                float y = childOnly ? getChildY(value) : yFromValue(value);
-                y = alignToPixel(y);
-                canvas.drawLine(0, y, mWidth, y, mGridPaint);
-            }
+        updatePriceGridLevels(childOnly);
+        for (int i = 0; i < priceGridLevels.size(); i++) {
+            float value = priceGridLevels.get(i);
+            float y = childOnly ? getChildY(value) : yFromValue(value);
+            y = alignToPixel(y);
+            canvas.drawLine(0, y, mWidth, y, mGridPaint);
         }
 
         // Separators main/vol/child
@@ -568,6 +764,70 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         }
     }
 
+    /**
+     * Rebuilds priceGridLevels and their labels when the tick set changes. With the y-axis
+     * animation enabled levels sit on nice multiples of a step, so they stay put while the range
+     * eases and labels are only re-formatted when the step or the first level moves.
+     */
+    private void updatePriceGridLevels(boolean childOnly) {
+        float minPrice = childOnly ? mChildMinValue : mMainMinValue;
+        float maxPrice = childOnly ? mChildMaxValue : mMainMaxValue;
+        float range = maxPrice - minPrice;
+        if (!(range > 0) || Float.isInfinite(range)) {
+            priceGridLevels.clear();
+            priceGridLabels.clear();
+            mGridStep = Float.NaN;
+            return;
+        }
+        float firstLevel;
+        float step;
+        int count;
+        if (configManager.yAxisAnimationDuration > 0) {
+            step = niceValueStep(range / (PRICE_TICK_COUNT - 1));
+            firstLevel = (float) (Math.ceil(minPrice / (double) step) * step);
+            count = (int) Math.floor((maxPrice - firstLevel) / step + 1e-4) + 1;
+        } else {
+            step = range / (PRICE_TICK_COUNT - 1);
+            firstLevel = minPrice;
+            count = PRICE_TICK_COUNT;
+        }
+        if (step == mGridStep && firstLevel == mGridFirstLevel && count == mGridLevelCount
+                && childOnly == mGridChildOnly && mGridGeneration == mLayerGeneration) {
+            return;
+        }
+        mGridStep = step;
+        mGridFirstLevel = firstLevel;
+        mGridLevelCount = count;
+        mGridChildOnly = childOnly;
+        mGridGeneration = mLayerGeneration;
+        priceGridLevels.clear();
+        priceGridLabels.clear();
+        for (int i = 0; i < count; i++) {
+            float value = (float) (firstLevel + (double) step * i);
+            priceGridLevels.add(value);
+            priceGridLabels.add(formatValue(value));
+        }
+    }
+
+    // 1, 2, 2.5 or 5 times a power of ten, the smallest one not below rawStep
+    private static float niceValueStep(float rawStep) {
+        double base = Math.pow(10, Math.floor(Math.log10(rawStep)));
+        double fraction = rawStep / base;
+        double nice;
+        if (fraction <= 1) {
+            nice = 1;
+        } else if (fraction <= 2) {
+            nice = 2;
+        } else if (fraction <= 2.5) {
+            nice = 2.5;
+        } else if (fraction <= 5) {
+            nice = 5;
+        } else {
+            nice = 10;
+        }
+        return (float) (nice * base);
+    }
+
     private void drawClosePriceLine(Canvas canvas) {
         if (mItemCount <= 0) {
             return;
@@ -622,7 +882,6 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
             mClosePricePointPaint.setColor(configManager.closePriceRightBackgroundColor);
             mClosePricePointPaint.setStyle(Paint.Style.FILL);
             mClosePriceRightTextPaint.setColor(configManager.closePriceRightSeparatorColor);
-
             canvas.drawLine(x, y, mWidth, y, mClosePriceLinePaint);
             canvas.drawRect(mWidth - width, y - height / 2, mWidth, y + height / 2, mClosePricePointPaint);
             canvas.drawText(text, mWidth - width, fixTextY1(y), mClosePriceRightTextPaint);
@@ -644,29 +903,17 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
      * Draw prediction visualization (Entry, SL, TP lines with gradients)
      */
     private void drawPrediction(Canvas canvas) {
-        if (configManager.predictionEntry == null || configManager.predictionStartTime == null) {
-            return;
-        }
-        if (configManager.modelArray.isEmpty()) {
+        HTPredictionModel prediction = configManager.predictionModel;
+        if (!prediction.isActive) {
             return;
         }
-
-        // Find target index by predictionStartTime
-        int targetIndex = -1;
-        long startTime = configManager.predictionStartTime.longValue();
-        for (int i = 0; i < configManager.modelArray.size(); i++) {
-            KLineEntity entity = configManager.modelArray.get(i);
-            if (entity.id >= startTime) {
-                targetIndex = i;
-                break;
-            }
-        }
+        int targetIndex = prediction.startIndex(configManager.modelArray);
         if (targetIndex < 0) {
-            targetIndex = configManager.modelArray.size() - 1;
+            return;
         }
 
         int count = configManager.modelArray.size();
-        float entryPrice = configManager.predictionEntry.floatValue();
+        float entryPrice = prediction.entry;
         float entryY = yFromValue(entryPrice);
 
         // Calculate background extension
@@ -681,51 +928,23 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         endX = Math.min(endX, rightBound);
 
         // --- Draw Gradient Zones ---
-        String bias = configManager.predictionBias;
-
         // SL Zone (Red Gradient)
-        if (configManager.predictionStopLoss != null) {
-            float slPrice = configManager.predictionStopLoss.floatValue();
-            float slY = yFromValue(slPrice);
+        if (prediction.hasStopLoss) {
+            float slY = yFromValue(prediction.stopLoss);
             float top = Math.min(entryY, slY);
             float bottom = Math.max(entryY, slY);
-
-            int startColor = Color.argb(50, 230, 50, 50);
-            int endColor = Color.argb(10, 230, 50, 50);
-            LinearGradient gradient = new LinearGradient(startX, entryY, startX, slY,
-                    startColor, endColor, Shader.TileMode.CLAMP);
-            mPredictionGradientPaint.setShader(gradient);
+            mPredictionGradientPaint.setShader(predictionGradient(0, entryY, slY,
+                    Color.argb(50, 230, 50, 50), Color.argb(10, 230, 50, 50)));
             canvas.drawRect(startX, top, endX, bottom, mPredictionGradientPaint);
         }
 
         // TP Zone (Green Gradient)
-        if (!configManager.predictionList.isEmpty()) {
-            float extremeTarget = entryPrice;
-            for (java.util.Map<String, Object> prediction : configManager.predictionList) {
-                Object valObj = prediction.get("value");
-                if (valObj instanceof Number) {
-                    float val = ((Number) valObj).floatValue();
-                    if (bias != null && bias.equalsIgnoreCase("bullish")) {
-                        extremeTarget = Math.max(extremeTarget, val);
-                    } else if (bias != null && bias.equalsIgnoreCase("bearish")) {
-                        extremeTarget = Math.min(extremeTarget, val);
-                    } else {
-                        // Default: furthest from entry
-                        if (Math.abs(val - entryPrice) > Math.abs(extremeTarget - entryPrice)) {
-                            extremeTarget = val;
-                        }
-                    }
-                }
-            }
-            float targetY = yFromValue(extremeTarget);
+        if (prediction.targetCount > 0) {
+            float targetY = yFromValue(prediction.extremeTarget);
             float top = Math.min(entryY, targetY);
             float bottom = Math.max(entryY, targetY);
-
-            int startColor = Color.argb(50, 76, 175, 80);
-            int endColor = Color.argb(10, 76, 175, 80);
-            LinearGradient gradient = new LinearGradient(startX, entryY, startX, targetY,
-                    startColor, endColor, Shader.TileMode.CLAMP);
-            mPredictionGradientPaint.setShader(gradient);
+            mPredictionGradientPaint.setShader(predictionGradient(1, entryY, targetY,
+                    Color.argb(50, 76, 175, 80), Color.argb(10, 76, 175, 80)));
             canvas.drawRect(startX, top, endX, bottom, mPredictionGradientPaint);
         }
 
@@ -738,8 +957,8 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         drawPredictionLabel(canvas, "Entry", entryPrice, endX, entryY, entryColor, Color.BLACK);
 
         // --- Draw SL Line (Red) ---
-        if (configManager.predictionStopLoss != null) {
-            float slPrice = configManager.predictionStopLoss.floatValue();
+        if (prediction.hasStopLoss) {
+            float slPrice = prediction.stopLoss;
             float slY = yFromValue(slPrice);
             boolean isSlSelected = "sl".equals(mSelectedPredictionType);
             int slColor = Color.rgb(244, 67, 54); // Red
@@ -750,21 +969,13 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         }
 
         // --- Draw TP Lines (Green) ---
-        for (int i = 0; i < configManager.predictionList.size(); i++) {
-            java.util.Map<String, Object> prediction = configManager.predictionList.get(i);
-            Object valObj = prediction.get("value");
-            Object colorObj = prediction.get("color");
-
-            if (!(valObj instanceof Number)) continue;
-
-            float tpPrice = ((Number) valObj).floatValue();
+        for (int i = 0; i < prediction.targetCount; i++) {
+            float tpPrice = prediction.targets[i];
             float tpY = yFromValue(tpPrice);
-            int tpColor = Color.rgb(76, 175, 80); // Default green
-            if (colorObj instanceof Number) {
-                tpColor = ((Number) colorObj).intValue();
-            }
+            int tpColor = prediction.targetColors[i];
+            int listIndex = prediction.targetListIndexes[i];
 
-            boolean isTpSelected = "tp".equals(mSelectedPredictionType) && mSelectedPredictionIndex != null && mSelectedPredictionIndex == i;
+            boolean isTpSelected = "tp".equals(mSelectedPredictionType) && mSelectedPredictionIndex != null && mSelectedPredictionIndex == listIndex;
             mPredictionLinePaint.setColor(tpColor);
             mPredictionLinePaint.setStrokeWidth(ViewUtil.Dp2Px(getContext(), isTpSelected ? 3f : 1.5f));
 
@@ -774,21 +985,36 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         }
 
         // Draw bias label
-        if (bias != null) {
-            String labelText = bias.equalsIgnoreCase("bullish") ? "LONG" : "SHORT";
-            int labelColor = bias.equalsIgnoreCase("bullish") ? Color.rgb(76, 175, 80) : Color.rgb(244, 67, 54);
+        if (prediction.biasLabel != null) {
+            int labelColor = prediction.isBullish ? Color.rgb(76, 175, 80) : Color.rgb(244, 67, 54);
             mPredictionLabelPaint.setColor(labelColor);
             mPredictionLabelPaint.setTextSize(ViewUtil.Dp2Px(getContext(), 12f));
-            canvas.drawText(labelText, startX + 10, mMainRect.top + 20, mPredictionLabelPaint);
+            canvas.drawText(prediction.biasLabel, startX + 10, mMainRect.top + 20, mPredictionLabelPaint);
         }
     }
 
+    /**
+     * Vertical zone gradient from fromY to toY. The shader only depends on y, so it is kept per
+     * slot until the zone edges move vertically (range change), not rebuilt while scrolling.
+     */
+    private LinearGradient predictionGradient(int slot, float fromY, float toY, int startColor, int endColor) {
+        LinearGradient gradient = mPredictionGradients[slot];
+        if (gradient == null || mPredictionGradientKeys[slot * 2] != fromY || mPredictionGradientKeys[slot * 2 + 1] != toY) {
+            gradient = new LinearGradient(0, fromY, 0, toY, startColor, endColor, Shader.TileMode.CLAMP);
+            mPredictionGradients[slot] = gradient;
+            mPredictionGradientKeys[slot * 2] = fromY;
+            mPredictionGradientKeys[slot * 2 + 1] = toY;
+        }
+        return gradient;
+    }
+
     private void drawPredictionLabel(Canvas canvas, String prefix, float price, float x, float y, int bgColor, int textColor) {
         String text = prefix + " " + formatValue(price);
         float textWidth = mPredictionLabelPaint.measureText(text);
         float paddingX = ViewUtil.Dp2Px(getContext(), 4f);
         float paddingY = ViewUtil.Dp2Px(getContext(), 2f);
-        Paint.FontMetrics fm = mPredictionLabelPaint.getFontMetrics();
+        Paint.FontMetrics fm = mPredictionFontMetrics;
+        mPredictionLabelPaint.getFontMetrics(fm);
         float textHeight = fm.descent - fm.ascent;
 
         float labelX = x + ViewUtil.Dp2Px(getContext(), 2f);
@@ -799,7 +1025,8 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         // Background
         mPredictionGradientPaint.setShader(null);
         mPredictionGradientPaint.setColor(bgColor);
-        RectF rect = new RectF(labelX, labelY, labelRight, labelBottom);
+        RectF rect = mPredictionLabelRect;
+        rect.set(labelX, labelY, labelRight, labelBottom);
         canvas.drawRoundRect(rect, ViewUtil.Dp2Px(getContext(), 3f), ViewUtil.Dp2Px(getContext(), 3f), mPredictionGradientPaint);
 
         // Text
@@ -814,14 +1041,24 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
      * @param canvas
      */
     private void drawK(Canvas canvas) {
+        drawKRange(canvas, mStartIndex, mStopIndex, mStartIndex, mStopIndex, true);
+    }
+
+    /**
+     * Draws candle backgrounds for [backgroundFrom, backgroundTo] and candles/indicator segments for
+     * [seriesFrom, seriesTo], keeping the usual backgrounds-then-series order.
+     */
+    private void drawKRange(Canvas canvas, int backgroundFrom, int backgroundTo, int seriesFrom, int seriesTo, boolean drawMinute) {
         boolean childOnly = isChildOnlyMode();
         //保存之前的平移，缩放
         canvas.save();
         canvas.translate(-mScrollX * mScaleX, 0);
         canvas.scale(mScaleX, 1);
         if (!childOnly) {
-            mainDraw.drawMinuteMinute(mTopPadding, mStartIndex, getMainBottom(), mStopIndex, canvas, this);
-            for (int i = mStartIndex; i <= mStopIndex; i++) {
+            if (drawMinute) {
+                mainDraw.drawMinuteMinute(mTopPadding, mStartIndex, getMainBottom(), mStopIndex, canvas, this);
+            }
+            for (int i = backgroundFrom; i <= backgroundTo; i++) {
                 if (i < 0 || i >= configManager.modelArray.size()) {
                     continue;
                 }
@@ -834,7 +1071,7 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
                 }
             }
         }
-        for (int i = mStartIndex; i <= mStopIndex; i++) {
+        for (int i = seriesFrom; i <= seriesTo; i++) {
             if (i < 0 || i >= configManager.modelArray.size()) {
                 continue;
             }
@@ -857,6 +1094,162 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         canvas.restore();
     }
 
+    private boolean isLiveSplitActive() {
+        return configManager.liveMaxFps > 0 && !isMinute && mItemCount >= 3;
+    }
+
+    /**
+     * Draws grid and candles from the cached series layer, re-rendering it when the visible window,
+     * ranges or data moved. With liveSplit the last two candles are left out of the layer so ticks
+     * do not invalidate it. While panning with an unchanged y-range the previous content is shifted
+     * and only the exposed columns are rendered. Returns false when no layer is in use.
+     */
+    private boolean drawSeriesLayer(Canvas canvas, boolean liveSplit) {
+        boolean scrolling = configManager.scrollLayerCache && isScrollInProgress();
+        if (!liveSplit && !isLongPress && !scrolling) {
+            if (configManager.scrollLayerCache) {
+                // Keep the buffers for the next pan, but never reuse content across uncached frames
+                mSeriesLayer.invalidate();
+            } else {
+                mSeriesLayer.release();
+            }
+            return false;
+        }
+        float[] key = mLayerKey;
+        int[] intKey = mLayerIntKey;
+        fillRangeKey(key, intKey);
+        key[7] = mPointWidth;
+        intKey[7] = liveSplit ? 1 : 0;
+        intKey[8] = 0;
+        if (!mSeriesLayer.isCurrent(key, intKey)) {
+            int dx = scrolling ? seriesLayerShift(key, intKey) : 0;
+            Canvas layerCanvas = dx != 0 ? mSeriesLayer.shift(dx) : null;
+            if (layerCanvas != null) {
+                float stripLeft = dx > 0 ? 0 : mWidth + dx;
+                float stripRight = dx > 0 ? dx : mWidth;
+                layerCanvas.save();
+                layerCanvas.clipRect(stripLeft, 0, stripRight, mHeight);
+                drawSeriesContent(layerCanvas, liveSplit,
+                        Math.max(mStartIndex, indexFromScrollX(viewXToScrollX(stripLeft)) - 1),
+                        Math.min(mStopIndex, indexFromScrollX(viewXToScrollX(stripRight)) + 1));
+                layerCanvas.restore();
+            } else {
+                layerCanvas = mSeriesLayer.begin(mWidth, mHeight);
+                if (layerCanvas == null) {
+                    return false;
+                }
+                drawSeriesContent(layerCanvas, liveSplit, mStartIndex, mStopIndex);
+            }
+            mSeriesLayer.end(key, intKey);
+        }
+        mSeriesLayer.draw(canvas, null);
+        return true;
+    }
+
+    /**
+     * Whole-pixel offset that moves the current series layer onto the new scroll position, or 0 when
+     * anything besides the scroll position changed and the layer has to be rendered from scratch.
+     */
+    private int seriesLayerShift(float[] key, int[] intKey) {
+        if (mAnimator.isRunning() || !mSeriesLayer.isValid()) {
+            return 0;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (mSeriesLayer.keyAt(i) != key[i]) {
+                return 0;
+            }
+        }
+        for (int i = 0; i < intKey.length; i++) {
+            // Int slots 1, 2 and 3 are scroll position and visible window, allowed to move
+            if (i != 1 && i != 2 && i != 3 && mSeriesLayer.intKeyAt(i) != intKey[i]) {
+                return 0;
+            }
+        }
+        float shift = (mSeriesLayer.intKeyAt(1) - mScrollX) * mScaleX;
+        int dx = Math.round(shift);
+        if (Math.abs(shift - dx) > 0.001f || Math.abs(dx) >= mWidth) {
+            return 0;
+        }
+        return dx;
+    }
+
+    /**
+     * Grid plus the candles in [from, to] that belong to the series layer.
+     */
+    private void drawSeriesContent(Canvas layerCanvas, boolean liveSplit, int from, int to) {
+        drawGird(layerCanvas);
+        if (mItemCount <= 0) {
+            return;
+        }
+        if (liveSplit) {
+            int lastIndex = mItemCount - 1;
+            drawKRange(layerCanvas,
+                    from, Math.min(to, lastIndex - 1),
+                    from, Math.min(to, lastIndex - 2),
+                    false);
+        } else {
+            drawKRange(layerCanvas, from, to, from, to, true);
+        }
+    }
+
+    /**
+     * Draws what the series layer leaves out in live mode: the last candle background and the
+     * last two candles, so the previous candle still sits above the live candle's background fill.
+     */
+    private void drawLiveCandles(Canvas canvas) {
+        int lastIndex = mItemCount - 1;
+        drawKRange(canvas,
+                Math.max(mStartIndex, lastIndex), mStopIndex,
+                Math.max(mStartIndex, lastIndex - 1), mStopIndex,
+                false);
+    }
+
+    /**
+     * Composites user drawings from a cached layer while the crosshair moves.
+     */
+    private boolean drawDrawingsLayer(Canvas canvas) {
+        if (!isLongPress || drawContext.drawItemList.isEmpty()) {
+            mDrawingsLayer.release();
+            return false;
+        }
+        float[] key = mLayerKey;
+        int[] intKey = mLayerIntKey;
+        fillRangeKey(key, intKey);
+        // Tools that read candles (regression channel) follow the live close
+        key[7] = mItemCount > 0 ? configManager.modelArray.get(mItemCount - 1).Close : 0;
+        intKey[7] = drawContext.generation;
+        intKey[8] = configManager.shouldReloadDrawItemIndex;
+        if (!mDrawingsLayer.isCurrent(key, intKey)) {
+            Canvas layerCanvas = mDrawingsLayer.begin(mWidth, mHeight);
+            if (layerCanvas == null) {
+                return false;
+            }
+            drawContext.onDraw(layerCanvas);
+            mDrawingsLayer.end(key, intKey);
+        }
+        mDrawingsLayer.draw(canvas, null);
+        return true;
+    }
+
+    // Everything the chart geometry depends on, shared by the layer keys (float slots 0..6, int
+    // slots 0..6); the last float slot and int slots 7..8 are set per layer
+    private void fillRangeKey(float[] key, int[] intKey) {
+        key[0] = mScaleX;
+        key[1] = mMainMaxValue;
+        key[2] = mMainMinValue;
+        key[3] = mVolMaxValue;
+        key[4] = mVolMinValue;
+        key[5] = mChildMaxValue;
+        key[6] = mChildMinValue;
+        intKey[0] = mLayerGeneration;
+        intKey[1] = mScrollX;
+        intKey[2] = mStartIndex;
+        intKey[3] = mStopIndex;
+        intKey[4] = mItemCount;
+        intKey[5] = mWidth;
+        intKey[6] = mHeight;
+    }
+
     /**
      * 计算文本长度
      *
@@ -897,9 +1290,9 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         //--------------画上方k线图的值-------------
         if (((!childOnly && mMainDraw != null) || (childOnly && mChildDraw != null))) {
             if (!priceGridLevels.isEmpty()) {
-                for (Float v : priceGridLevels) {
-                    if (v == null) continue;
-                    String text = formatValue(v);
+                for (int i = 0; i < priceGridLevels.size(); i++) {
+                    float v = priceGridLevels.get(i);
+                    String text = priceGridLabels.get(i);
                     float textWidth = calculateWidth(text);
                     float y = childOnly ? getChildY(v) : yFromValue(v);
                     if (!childOnly && !Float.isNaN(closePriceY)) {
@@ -1316,13 +1709,10 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
             return Float.NaN;
         }
         KLineEntity point = getItem(index);
-        if (point.rsiList != null) {
-            for (HTKLineTargetItem item : point.rsiList) {
-                if (item == null) {
-                    continue;
-                }
-                if (!Float.isNaN(item.value) && !Float.isInfinite(item.value)) {
-                    return item.value;
+        if (point.rsiValues != null) {
+            for (float value : point.rsiValues) {
+                if (!Float.isNaN(value) && !Float.isInfinite(value)) {
+                    return value;
                 }
             }
         }
@@ -1483,10 +1873,19 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         return getValueFormatter().format(value);
     }
 
+    /**
+     * Bumped by every notifyChanged, i.e. whenever the candles were reloaded. Live last-candle
+     * updates leave it unchanged.
+     */
+    public int getDataGeneration() {
+        return mLayerGeneration;
+    }
+
     /**
      * 重新计算并刷新线条
      */
     public void notifyChanged() {
+        mLayerGeneration++;
         mItemCount = configManager.modelArray.size();
         mDataLen = mItemCount * mPointWidth;
         if (isShowChild && mChildDrawPosition == -1) {
@@ -1522,6 +1921,57 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         invalidate();
     }
 
+    /**
+     * Live update entry point for a replaced last candle.
+     * Repaints are capped at configManager.liveMaxFps: any number of updates between two frames
+     * cost one redraw, whose grid and older candles come from the series layer cache.
+     */
+    public void notifyLastCandleChanged() {
+        if (configManager.liveMaxFps <= 0) {
+            notifyChanged();
+            return;
+        }
+        if (mLiveFramePending) {
+            mCoalescedLiveUpdates++;
+            return;
+        }
+        mLiveFramePending = true;
+        long frameInterval = 1000000000L / configManager.liveMaxFps;
+        long elapsed = System.nanoTime() - mLastLiveFrameNanos;
+        long delayMillis = elapsed >= frameInterval ? 0 : (frameInterval - elapsed) / 1000000L;
+        Choreographer.getInstance().postFrameCallbackDelayed(mLiveFrameCallback, delayMillis);
+    }
+
+    /**
+     * Last-candle updates folded into an already scheduled live frame since the view was created.
+     */
+    public long getCoalescedLiveUpdates() {
+        return mCoalescedLiveUpdates;
+    }
+
+    private void applyLiveUpdate(long frameTimeNanos) {
+        mLiveFramePending = false;
+        mLastLiveFrameNanos = frameTimeNanos;
+        if (mItemCount <= 0 || mItemCount != configManager.modelArray.size() || mMainRect == null || mWidth == 0) {
+            notifyChanged();
+            return;
+        }
+        // Ranges are recomputed once, by onDraw; under hardware acceleration a dirty rect would
+        // repaint the whole view anyway
+        invalidate();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mLiveFramePending) {
+            Choreographer.getInstance().removeFrameCallback(mLiveFrameCallback);
+            mLiveFramePending = false;
+        }
+        mSeriesLayer.release();
+        mDrawingsLayer.release();
+        super.onDetachedFromWindow();
+    }
+
     /**
      * MA/BOLL切换及隐藏
      *
@@ -1685,25 +2135,10 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         }
 
         // Expand Y-axis range to include prediction elements (Entry, SL, TPs)
-        if (!rsiOnly && configManager.predictionEntry != null) {
-            float entry = configManager.predictionEntry.floatValue();
-            mMainMaxValue = Math.max(mMainMaxValue, entry);
-            mMainMinValue = Math.min(mMainMinValue, entry);
-
-            if (configManager.predictionStopLoss != null) {
-                float sl = configManager.predictionStopLoss.floatValue();
-                mMainMaxValue = Math.max(mMainMaxValue, sl);
-                mMainMinValue = Math.min(mMainMinValue, sl);
-            }
-
-            for (java.util.Map<String, Object> prediction : configManager.predictionList) {
-                Object valObj = prediction.get("value");
-                if (valObj instanceof Number) {
-                    float tp = ((Number) valObj).floatValue();
-                    mMainMaxValue = Math.max(mMainMaxValue, tp);
-                    mMainMinValue = Math.min(mMainMinValue, tp);
-                }
-            }
+        HTPredictionModel prediction = configManager.predictionModel;
+        if (!rsiOnly && prediction.hasEntry) {
+            mMainMaxValue = Math.max(mMainMaxValue, prediction.maxValue);
+            mMainMinValue = Math.min(mMainMinValue, prediction.minValue);
 
             // Add padding (5%) for better visibility
             float range = mMainMaxValue - mMainMinValue;
@@ -1714,6 +2149,18 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
             }
         }
 
+        if (!rsiOnly && !isChildOnlyMode() && configManager.yAxisAnimationDuration > 0
+                && mMainMaxValue > mMainMinValue && !Float.isInfinite(mMainMaxValue - mMainMinValue)) {
+            if (mYAxisAnimator.update(mMainMinValue, mMainMaxValue,
+                    SystemClock.uptimeMillis(), configManager.yAxisAnimationDuration)) {
+                postInvalidateOnAnimation();
+            }
+            mMainMinValue = mYAxisAnimator.getMin();
+            mMainMaxValue = mYAxisAnimator.getMax();
+        } else {
+            mYAxisAnimator.reset();
+        }
+
         if (rsiOnly) {
             mMainMaxValue = 100f;
             mMainMinValue = 0f;
@@ -1795,6 +2242,10 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
     	return configManager.modelArray.get(position);
     }
 
+    public void setPerfStatsListener(PerfStatsListener listener) {
+        mPerfStatsListener = listener;
+    }
+
     public int getVisibleStartIndex() {
         return mStartIndex;
     }
@@ -2297,7 +2748,8 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
     @Override
     public boolean onSingleTapUp(MotionEvent e) {
         // Check if prediction is active
-        if (configManager.predictionEntry == null) {
+        HTPredictionModel prediction = configManager.predictionModel;
+        if (!prediction.hasEntry) {
             // Clear selection if any
             if (mSelectedPredictionType != null) {
                 mSelectedPredictionType = null;
@@ -2313,68 +2765,59 @@ public abstract class BaseKLineChartView extends ScrollAndScaleView implements D
         float tapY = e.getY();
         float hitThreshold = dp2px(30); // 30dp hit zone
 
-        // Build candidates
-        java.util.List<Object[]> candidates = new java.util.ArrayList<>();
+        // Closest line within the hit zone; entry wins ties, then SL, then the first TP
+        String bestType = null;
+        float bestPrice = 0;
+        int bestIndex = -1;
+        float bestDist = hitThreshold;
 
         // Entry
-        float entryY = yFromValue(configManager.predictionEntry.floatValue());
-        float entryDist = Math.abs(tapY - entryY);
-        if (entryDist < hitThreshold) {
-            candidates.add(new Object[]{"entry", configManager.predictionEntry.floatValue(), null, entryDist});
+        float entryDist = Math.abs(tapY - yFromValue(prediction.entry));
+        if (entryDist < bestDist) {
+            bestType = "entry";
+            bestPrice = prediction.entry;
+            bestDist = entryDist;
         }
 
         // SL
-        if (configManager.predictionStopLoss != null) {
-            float slY = yFromValue(configManager.predictionStopLoss.floatValue());
-            float slDist = Math.abs(tapY - slY);
-            if (slDist < hitThreshold) {
-                candidates.add(new Object[]{"sl", configManager.predictionStopLoss.floatValue(), null, slDist});
+        if (prediction.hasStopLoss) {
+            float slDist = Math.abs(tapY - yFromValue(prediction.stopLoss));
+            if (slDist < bestDist) {
+                bestType = "sl";
+                bestPrice = prediction.stopLoss;
+                bestDist = slDist;
             }
         }
 
         // TPs
-        for (int i = 0; i < configManager.predictionList.size(); i++) {
-            java.util.Map<String, Object> prediction = configManager.predictionList.get(i);
-            Object valObj = prediction.get("value");
-            if (valObj instanceof Number) {
-                float tpPrice = ((Number) valObj).floatValue();
-                float tpY = yFromValue(tpPrice);
-                float tpDist = Math.abs(tapY - tpY);
-                if (tpDist < hitThreshold) {
-                    candidates.add(new Object[]{"tp", tpPrice, i, tpDist});
-                }
+        for (int i = 0; i < prediction.targetCount; i++) {
+            float tpDist = Math.abs(tapY - yFromValue(prediction.targets[i]));
+            if (tpDist < bestDist) {
+                bestType = "tp";
+                bestPrice = prediction.targets[i];
+                bestIndex = prediction.targetListIndexes[i];
+                bestDist = tpDist;
             }
         }
 
-        // Find closest
-        if (!candidates.isEmpty()) {
-            Object[] best = candidates.get(0);
-            for (Object[] candidate : candidates) {
-                if ((Float) candidate[3] < (Float) best[3]) {
-                    best = candidate;
-                }
-            }
-
-            mSelectedPredictionType = (String) best[0];
-            mSelectedPredictionIndex = (Integer) best[2];
+        if (bestType != null) {
+            mSelectedPredictionType = bestType;
+            mSelectedPredictionIndex = bestIndex >= 0 ? bestIndex : null;
 
             // Build payload
             java.util.Map<String, Object> payload = new java.util.HashMap<>();
-            payload.put("type", best[0]);
-            payload.put("price", best[1]);
-            if (best[2] != null) {
-                payload.put("index", best[2]);
+            payload.put("type", bestType);
+            payload.put("price", bestPrice);
+            if (bestIndex >= 0) {
+                payload.put("index", bestIndex);
             }
 
             // Enrich with metadata for TP
-            if ("tp".equals(best[0]) && best[2] != null) {
-                int idx = (Integer) best[2];
-                if (idx < configManager.predictionList.size()) {
-                    java.util.Map<String, Object> target = configManager.predictionList.get(idx);
-                    for (java.util.Map.Entry<String, Object> entry : target.entrySet()) {
-                        if (!"value".equals(entry.getKey()) && !"price".equals(entry.getKey())) {
-                            payload.put(entry.getKey(), entry.getValue());
-                        }
+            if (bestIndex >= 0 && bestIndex < configManager.predictionList.size()) {
+                java.util.Map<String, Object> target = configManager.predictionList.get(bestIndex);
+                for (java.util.Map.Entry<String, Object> entry : target.entrySet()) {
+                    if (!"value".equals(entry.getKey()) && !"price".equals(entry.getKey())) {
+                        payload.put(entry.getKey(), entry.getValue());
                     }
                 }
             }
@@ -8,6 +8,19 @@ import java.util.List;
  */
 public class DataHelper {
 
+    /**
+     * Running sums and EMA state in float, the original behaviour.
+     */
+    public static final int PRECISION_FLOAT = 0;
+
+    /**
+     * Running state in double with compensated, periodically re-anchored sums. For long histories
+     * and for very large or very small prices; results are still stored as float.
+     * Library only: the view never calls DataHelper, it draws the indicator values sent with each
+     * candle or computed by HTIndicatorEngine, so no view prop selects this mode.
+     */
+    public static final int PRECISION_DOUBLE = 1;
+
     /**
      * 计算RSI
      *
@@ -160,35 +173,63 @@ public class DataHelper {
 
     }
 
+    public static final int DEFAULT_BOLL_N = 20;
+
+    public static final float DEFAULT_BOLL_P = 2f;
+
     /**
-     * 计算 BOLL 需要在计算ma之后进行
+     * 计算 BOLL，默认 BOLL(20,2)
      *
      * @param dataList
      */
     static void calculateBOLL(List<KLineEntity> dataList) {
+        calculateBOLL(dataList, DEFAULT_BOLL_N, DEFAULT_BOLL_P);
+    }
+
+    /**
+     * BOLL with the periods from targetList (bollN, bollP), falling back to 20 and 2.
+     */
+    static void calculateBOLL(List<KLineEntity> dataList, HTKLineConfigManager configManager) {
+        calculateBOLL(
+                dataList,
+                (int) parsePeriod(configManager.bollN, DEFAULT_BOLL_N),
+                parsePeriod(configManager.bollP, DEFAULT_BOLL_P)
+        );
+    }
+
+    /**
+     * Single pass BOLL over a rolling window of closes, sample standard deviation.
+     * Does not need calculateMA.
+     */
+    static void calculateBOLL(List<KLineEntity> dataList, int n, float multiplier) {
+        HTRollingWindow window = new HTRollingWindow(Math.max(2, n));
         for (int i = 0; i < dataList.size(); i++) {
             KLineEntity point = dataList.get(i);
-            if (i < 19) {
+            window.push(point.getClosePrice());
+            if (!window.isFull()) {
                 point.mb = 0;
                 point.up = 0;
                 point.dn = 0;
-            } else {
-                int n = 20;
-                float md = 0;
-                for (int j = i - n + 1; j <= i; j++) {
-                    float c = dataList.get(j).getClosePrice();
-                    float m = point.getMA20Price();
-                    float value = c - m;
-                    md += value * value;
-                }
-                md = md / (n - 1);
-                md = (float) Math.sqrt(md);
-                point.mb = point.getMA20Price();
-                point.up = point.mb + 2f * md;
-                point.dn = point.mb - 2f * md;
+                continue;
             }
+            double mean = window.mean();
+            double md = Math.sqrt(window.variance());
+            point.mb = (float) mean;
+            point.up = (float) (mean + multiplier * md);
+            point.dn = (float) (mean - multiplier * md);
         }
+    }
 
+    private static float parsePeriod(String value, float fallback) {
+        if (value == null || value.length() == 0) {
+            return fallback;
+        }
+        try {
+            float parsed = Float.parseFloat(value);
+            return parsed > 0 && !Float.isInfinite(parsed) ? parsed : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
     }
 
     /**
@@ -271,6 +312,125 @@ public class DataHelper {
         calculateVolumeMA(dataList);
     }
 
+    /**
+     * Same as {@link #calculate(List)}, BOLL uses bollN/bollP from the config.
+     */
+    public static void calculate(List<KLineEntity> dataList, HTKLineConfigManager configManager) {
+        calculate(dataList, configManager, PRECISION_FLOAT);
+    }
+
+    /**
+     * MA BOLL RSI KDJ MACD with the given precision, PRECISION_FLOAT or PRECISION_DOUBLE.
+     * KDJ and WR only take window highs and lows, they are exact in either mode.
+     */
+    public static void calculate(List<KLineEntity> dataList, HTKLineConfigManager configManager, int precision) {
+        if (precision == PRECISION_DOUBLE) {
+            calculateMAPrecise(dataList);
+            calculateMACDPrecise(dataList);
+        } else {
+            calculateMA(dataList);
+            calculateMACD(dataList);
+        }
+        calculateBOLL(dataList, configManager);
+        if (precision == PRECISION_DOUBLE) {
+            calculateRSIPrecise(dataList);
+        } else {
+            calculateRSI(dataList);
+        }
+        calculateKDJ(dataList);
+        calculateWR(dataList);
+        if (precision == PRECISION_DOUBLE) {
+            calculateVolumeMAPrecise(dataList);
+        } else {
+            calculateVolumeMA(dataList);
+        }
+    }
+
+    /**
+     * calculateMA on rolling windows, see {@link #PRECISION_DOUBLE}.
+     */
+    static void calculateMAPrecise(List<KLineEntity> dataList) {
+        HTRollingWindow ma5 = new HTRollingWindow(5);
+        HTRollingWindow ma10 = new HTRollingWindow(10);
+        HTRollingWindow ma20 = new HTRollingWindow(20);
+        HTRollingWindow ma30 = new HTRollingWindow(30);
+        HTRollingWindow ma60 = new HTRollingWindow(60);
+        for (int i = 0; i < dataList.size(); i++) {
+            KLineEntity point = dataList.get(i);
+            final double closePrice = point.getClosePrice();
+            ma5.push(closePrice);
+            ma10.push(closePrice);
+            ma20.push(closePrice);
+            ma30.push(closePrice);
+            ma60.push(closePrice);
+            point.MA5Price = windowMean(ma5);
+            point.MA10Price = windowMean(ma10);
+            point.MA20Price = windowMean(ma20);
+            point.MA30Price = windowMean(ma30);
+            point.MA60Price = windowMean(ma60);
+        }
+    }
+
+    static void calculateVolumeMAPrecise(List<KLineEntity> entries) {
+        HTRollingWindow volumeMa5 = new HTRollingWindow(5);
+        HTRollingWindow volumeMa10 = new HTRollingWindow(10);
+        for (int i = 0; i < entries.size(); i++) {
+            KLineEntity entry = entries.get(i);
+            volumeMa5.push(entry.getVolume());
+            volumeMa10.push(entry.getVolume());
+            entry.MA5Volume = windowMean(volumeMa5);
+            entry.MA10Volume = windowMean(volumeMa10);
+        }
+    }
+
+    private static float windowMean(HTRollingWindow window) {
+        return window.isFull() ? (float) window.mean() : 0f;
+    }
+
+    /**
+     * calculateMACD with double EMA state.
+     */
+    static void calculateMACDPrecise(List<KLineEntity> dataList) {
+        double ema12 = 0;
+        double ema26 = 0;
+        double dea = 0;
+        for (int i = 0; i < dataList.size(); i++) {
+            KLineEntity point = dataList.get(i);
+            final double closePrice = point.getClosePrice();
+            if (i == 0) {
+                ema12 = closePrice;
+                ema26 = closePrice;
+            } else {
+                ema12 = ema12 * 11.0 / 13.0 + closePrice * 2.0 / 13.0;
+                ema26 = ema26 * 25.0 / 27.0 + closePrice * 2.0 / 27.0;
+            }
+            double dif = ema12 - ema26;
+            dea = dea * 8.0 / 10.0 + dif * 2.0 / 10.0;
+            point.dif = (float) dif;
+            point.dea = (float) dea;
+            point.macd = (float) ((dif - dea) * 2.0);
+        }
+    }
+
+    /**
+     * calculateRSI with double EMA state.
+     */
+    static void calculateRSIPrecise(List<KLineEntity> dataList) {
+        double rsiABSEma = 0;
+        double rsiMaxEma = 0;
+        for (int i = 0; i < dataList.size(); i++) {
+            KLineEntity point = dataList.get(i);
+            double rsi = 0;
+            if (i > 0) {
+                double change = (double) point.getClosePrice() - dataList.get(i - 1).getClosePrice();
+                rsiMaxEma = (Math.max(0, change) + 13.0 * rsiMaxEma) / 14.0;
+                rsiABSEma = (Math.abs(change) + 13.0 * rsiABSEma) / 14.0;
+                rsi = rsiMaxEma / rsiABSEma * 100;
+            }
+            point.rsi = i < 13 || Double.isNaN(rsi) ? 0f : (float) rsi;
+        }
+    }
+
     private static void calculateVolumeMA(List<KLineEntity> entries) {
         float volumeMa5 = 0;
         float volumeMa10 = 0;
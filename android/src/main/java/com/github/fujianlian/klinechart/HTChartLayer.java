@@ -0,0 +1,149 @@
+package com.github.fujianlian.klinechart;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Offscreen bitmap caching one chart layer between frames.
+ * The bitmap is reused across renders and only reallocated when the view size changes. Callers
+ * describe what the content depends on with a float key (scale, value ranges) and an int key
+ * (generations, indexes, scroll position, sizes), so counters never round through a float; a
+ * mismatch in either means re-render.
+ */
+public class HTChartLayer {
+    private static final String TAG = "RNKLineView.Layer";
+
+    private Bitmap bitmap;
+
+    private Canvas canvas;
+
+    // Second buffer used by shift(), swapped with bitmap on every shift
+    private Bitmap backBitmap;
+
+    private Canvas backCanvas;
+
+    private boolean valid = false;
+
+    private float[] key = new float[0];
+
+    private int[] intKey = new int[0];
+
+    public boolean isValid() {
+        return valid && bitmap != null;
+    }
+
+    public boolean isCurrent(float[] currentKey, int[] currentIntKey) {
+        return isValid() && Arrays.equals(key, currentKey) && Arrays.equals(intKey, currentIntKey);
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Returns an erased canvas of the given size, or null when the bitmap cannot be allocated.
+     * Call {@link #end(float[], int[])} once the layer content is rendered.
+     */
+    public Canvas begin(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            release();
+            try {
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } catch (OutOfMemoryError e) {
+                Log.w(TAG, "layer allocation failed " + width + "x" + height);
+                return null;
+            }
+            canvas = new Canvas(bitmap);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        valid = false;
+        return canvas;
+    }
+
+    /**
+     * Moves the current content horizontally by dx pixels and returns the canvas so the caller can
+     * render the exposed strip. Returns null when there is no valid content or no second buffer.
+     * Call {@link #end(float[], int[])} once the strip is rendered.
+     */
+    public Canvas shift(int dx) {
+        if (!isValid()) {
+            return null;
+        }
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        if (backBitmap == null || backBitmap.getWidth() != width || backBitmap.getHeight() != height) {
+            releaseBackBuffer();
+            try {
+                backBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } catch (OutOfMemoryError e) {
+                Log.w(TAG, "shift buffer allocation failed " + width + "x" + height);
+                return null;
+            }
+            backCanvas = new Canvas(backBitmap);
+        } else {
+            backBitmap.eraseColor(Color.TRANSPARENT);
+        }
+        backCanvas.drawBitmap(bitmap, dx, 0, null);
+        Bitmap swapBitmap = bitmap;
+        Canvas swapCanvas = canvas;
+        bitmap = backBitmap;
+        canvas = backCanvas;
+        backBitmap = swapBitmap;
+        backCanvas = swapCanvas;
+        valid = false;
+        return canvas;
+    }
+
+    public float keyAt(int index) {
+        return index < key.length ? key[index] : Float.NaN;
+    }
+
+    public int intKeyAt(int index) {
+        return index < intKey.length ? intKey[index] : Integer.MIN_VALUE;
+    }
+
+    public void end(float[] currentKey, int[] currentIntKey) {
+        if (key.length != currentKey.length) {
+            key = new float[currentKey.length];
+        }
+        System.arraycopy(currentKey, 0, key, 0, currentKey.length);
+        if (intKey.length != currentIntKey.length) {
+            intKey = new int[currentIntKey.length];
+        }
+        System.arraycopy(currentIntKey, 0, intKey, 0, currentIntKey.length);
+        valid = bitmap != null;
+    }
+
+    public void draw(Canvas target, Paint paint) {
+        if (bitmap != null) {
+            target.drawBitmap(bitmap, 0, 0, paint);
+        }
+    }
+
+    public void release() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+            canvas = null;
+        }
+        releaseBackBuffer();
+        valid = false;
+    }
+
+    private void releaseBackBuffer() {
+        if (backBitmap != null) {
+            backBitmap.recycle();
+            backBitmap = null;
+            backCanvas = null;
+        }
+    }
+}
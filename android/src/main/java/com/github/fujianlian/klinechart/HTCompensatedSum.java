@@ -0,0 +1,35 @@
+package com.github.fujianlian.klinechart;
+
+/**
+ * Running double sum with Neumaier compensation, so adding and removing values over a long
+ * rolling window does not accumulate rounding error.
+ */
+public class HTCompensatedSum {
+
+    private double sum = 0;
+
+    private double compensation = 0;
+
+    public void add(double value) {
+        double next = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - next) + value;
+        } else {
+            compensation += (value - next) + sum;
+        }
+        sum = next;
+    }
+
+    public void remove(double value) {
+        add(-value);
+    }
+
+    public double value() {
+        return sum + compensation;
+    }
+
+    public void reset() {
+        sum = 0;
+        compensation = 0;
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.fujianlian.klinechart;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-phase frame timings for BaseKLineChartView.onDraw.
+ * Each phase owns a fixed ring of the latest samples in nanoseconds. Recording only writes a slot
+ * and moves a cursor, no locks and no allocation; onDraw and the stats readers all run on the UI
+ * thread. Percentiles are computed on demand from a sorted copy.
+ */
+public class HTFrameProfiler {
+
+    public static final int PHASE_CALCULATE_VALUE = 0;
+    public static final int PHASE_GRID = 1;
+    public static final int PHASE_K = 2;
+    public static final int PHASE_TEXT = 3;
+    public static final int PHASE_MAX_AND_MIN = 4;
+    public static final int PHASE_VALUE = 5;
+    public static final int PHASE_CLOSE_PRICE_LINE = 6;
+    public static final int PHASE_CHILD_OVERLAYS = 7;
+    public static final int PHASE_PREDICTION = 8;
+    public static final int PHASE_SELECTOR = 9;
+    public static final int PHASE_DRAW_CONTEXT = 10;
+    public static final int PHASE_OVERLAYS = 11;
+    public static final int PHASE_FRAME = 12;
+
+    public static final String[] PHASE_NAMES = {
+            "calculateValue",
+            "drawGird",
+            "drawK",
+            "drawText",
+            "drawMaxAndMin",
+            "drawValue",
+            "drawClosePriceLine",
+            "drawChildOverlays",
+            "drawPrediction",
+            "drawSelector",
+            "drawContext",
+            "drawOverlays",
+            "frame",
+    };
+
+    public static final int PHASE_COUNT = PHASE_NAMES.length;
+
+    private static final int CAPACITY = 240;
+
+    private final long[][] samples = new long[PHASE_COUNT][CAPACITY];
+
+    private final int[] cursor = new int[PHASE_COUNT];
+
+    private final int[] size = new int[PHASE_COUNT];
+
+    private final long[] scratch = new long[CAPACITY];
+
+    private long frameCount = 0;
+
+    private long frameStartNanos = 0;
+
+    public boolean enabled = false;
+
+    /**
+     * Start time for a phase, 0 when profiling is off.
+     */
+    public long now() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void record(int phase, long startNanos) {
+        if (!enabled || startNanos == 0L) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        int index = cursor[phase];
+        samples[phase][index] = elapsed;
+        cursor[phase] = index + 1 == CAPACITY ? 0 : index + 1;
+        if (size[phase] < CAPACITY) {
+            size[phase]++;
+        }
+    }
+
+    public void beginFrame() {
+        frameStartNanos = now();
+    }
+
+    public void endFrame() {
+        if (frameStartNanos != 0L) {
+            record(PHASE_FRAME, frameStartNanos);
+            frameCount++;
+            frameStartNanos = 0L;
+        }
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public int getSampleCount(int phase) {
+        return size[phase];
+    }
+
+    /**
+     * Percentile (0..100) of the retained samples of a phase in nanoseconds, 0 without samples.
+     */
+    public long percentile(int phase, float percent) {
+        int count = size[phase];
+        if (count == 0) {
+            return 0L;
+        }
+        System.arraycopy(samples[phase], 0, scratch, 0, count);
+        Arrays.sort(scratch, 0, count);
+        int rank = (int) Math.ceil(percent / 100f * count) - 1;
+        return scratch[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+    /**
+     * p50/p95/p99/max in milliseconds for every phase that has samples, keyed by phase name.
+     */
+    public Map<String, double[]> snapshot() {
+        Map<String, double[]> result = new LinkedHashMap<>();
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            if (size[phase] == 0) {
+                continue;
+            }
+            result.put(PHASE_NAMES[phase], new double[]{
+                    percentile(phase, 50f) / 1e6,
+                    percentile(phase, 95f) / 1e6,
+                    percentile(phase, 99f) / 1e6,
+                    percentile(phase, 100f) / 1e6,
+            });
+        }
+        return result;
+    }
+
+    public void reset() {
+        Arrays.fill(cursor, 0);
+        Arrays.fill(size, 0);
+        frameCount = 0;
+        frameStartNanos = 0L;
+    }
+}
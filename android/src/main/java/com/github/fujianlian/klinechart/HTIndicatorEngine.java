@@ -0,0 +1,706 @@
+package com.github.fujianlian.klinechart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Native streaming indicators for the target lists, enabled with targetList.nativeIndicators.
+ * Every selected item of configManager.maList / rsiList / wrList becomes one series by kind and
+ * its value is written into the matching per-candle value array at the item index, so JS no
+ * longer has to ship those lists per candle.
+ *
+ * Main pane kinds: ma, ema, super, vwap, tenkan, kijun, senkoua, senkoub.
+ * RSI pane kinds: rsi, stochrsi. WR pane kinds: wr, atr, obv.
+ *
+ * Series keep their recursive state in doubles and snapshot it after the second to last candle.
+ * A sync where only the last candle changed or candles were appended rolls back to that snapshot
+ * and recomputes from there; anything else (new data set, prepend, changed target lists, edits
+ * to older candles) recomputes the whole list. All calls run on the UI thread.
+ */
+public class HTIndicatorEngine {
+
+    static final int TARGET_MAIN = 0;
+    static final int TARGET_RSI = 1;
+    static final int TARGET_WR = 2;
+
+    private static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+
+    private final List<Series> series = new ArrayList<>();
+
+    private final int[] listSize = new int[3];
+
+    private List<HTKLineTargetItem> maConfig;
+    private List<HTKLineTargetItem> rsiConfig;
+    private List<HTKLineTargetItem> wrConfig;
+
+    private String signature = "";
+
+    private Object firstRef;
+
+    // Candles [0, committedCount) are folded into the series snapshots
+    private int committedCount = 0;
+
+    private Object committedRef;
+
+    private int dirtyFrom = Integer.MAX_VALUE;
+
+    /**
+     * Brings the indicator values of configManager.modelArray up to date.
+     * Returns false when native indicators are off.
+     */
+    public boolean sync(HTKLineConfigManager configManager) {
+        if (!configManager.nativeIndicators) {
+            if (!series.isEmpty()) {
+                reset();
+            }
+            return false;
+        }
+        List<KLineEntity> list = configManager.modelArray;
+        boolean full = reloadSeries(configManager);
+        int size = list.size();
+        if (size == 0) {
+            invalidate();
+            return true;
+        }
+        if (!full) {
+            full = list.get(0) != firstRef
+                    || size < committedCount
+                    || dirtyFrom < committedCount
+                    || (committedCount > 0 && list.get(committedCount - 1) != committedRef);
+        }
+        int start;
+        if (full) {
+            for (Series item : series) {
+                item.reset();
+            }
+            start = 0;
+        } else {
+            for (Series item : series) {
+                item.rollback();
+            }
+            start = committedCount;
+        }
+        for (int i = start; i < size; i++) {
+            KLineEntity entity = list.get(i);
+            prepare(entity);
+            for (Series item : series) {
+                write(entity, item, (float) item.next(list, i));
+            }
+            if (i < size - 1) {
+                for (Series item : series) {
+                    item.commit();
+                }
+            }
+        }
+        firstRef = list.get(0);
+        committedCount = size - 1;
+        committedRef = committedCount > 0 ? list.get(committedCount - 1) : null;
+        dirtyFrom = Integer.MAX_VALUE;
+        return true;
+    }
+
+    /**
+     * Candles from index on were edited in place (late ticks) and must be recomputed.
+     */
+    public void invalidateFrom(int index) {
+        if (index >= 0) {
+            dirtyFrom = Math.min(dirtyFrom, index);
+        }
+    }
+
+    public void invalidate() {
+        firstRef = null;
+        committedCount = 0;
+        committedRef = null;
+        dirtyFrom = Integer.MAX_VALUE;
+    }
+
+    public void reset() {
+        series.clear();
+        maConfig = null;
+        rsiConfig = null;
+        wrConfig = null;
+        signature = "";
+        invalidate();
+    }
+
+    /**
+     * Header label for a target item kind, fallback for the pane's default kind.
+     */
+    public static String label(String kind, String fallback) {
+        if (kind == null) {
+            return fallback;
+        }
+        switch (kind.toLowerCase(Locale.US)) {
+            case "vwap":
+                return "VWAP";
+            case "tenkan":
+                return "TENKAN";
+            case "kijun":
+                return "KIJUN";
+            case "senkoua":
+                return "SENKOU A";
+            case "senkoub":
+                return "SENKOU B";
+            case "stochrsi":
+                return "STOCHRSI";
+            case "atr":
+                return "ATR";
+            case "obv":
+                return "OBV";
+            default:
+                return fallback;
+        }
+    }
+
+    /**
+     * Rebuilds the series when the target lists changed; true when values must be recomputed.
+     */
+    private boolean reloadSeries(HTKLineConfigManager configManager) {
+        if (configManager.maList == maConfig && configManager.rsiList == rsiConfig
+                && configManager.wrList == wrConfig) {
+            return false;
+        }
+        maConfig = configManager.maList;
+        rsiConfig = configManager.rsiList;
+        wrConfig = configManager.wrList;
+        String next = signature(maConfig) + "|" + signature(rsiConfig) + "|" + signature(wrConfig);
+        if (next.equals(signature) && !series.isEmpty()) {
+            return false;
+        }
+        signature = next;
+        series.clear();
+        listSize[TARGET_MAIN] = addSeries(TARGET_MAIN, maConfig);
+        listSize[TARGET_RSI] = addSeries(TARGET_RSI, rsiConfig);
+        listSize[TARGET_WR] = addSeries(TARGET_WR, wrConfig);
+        invalidate();
+        return true;
+    }
+
+    private static String signature(List<HTKLineTargetItem> items) {
+        StringBuilder builder = new StringBuilder();
+        for (HTKLineTargetItem item : items) {
+            builder.append(item.kind).append(':').append(item.title).append(':').append(item.period)
+                    .append(':').append(item.multiplier).append(':').append(item.index).append(';');
+        }
+        return builder.toString();
+    }
+
+    private int addSeries(int target, List<HTKLineTargetItem> items) {
+        int tenkanPeriod = kindPeriod(items, "tenkan", 9);
+        int kijunPeriod = kindPeriod(items, "kijun", 26);
+        int size = 0;
+        for (HTKLineTargetItem item : items) {
+            if (item == null || item.index < 0) {
+                continue;
+            }
+            Series next = create(target, item, tenkanPeriod, kijunPeriod);
+            if (next != null) {
+                series.add(next);
+                size = Math.max(size, item.index + 1);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Period of the first item of kind in items, fallback when there is none.
+     */
+    private static int kindPeriod(List<HTKLineTargetItem> items, String kind, int fallback) {
+        for (HTKLineTargetItem item : items) {
+            if (item != null && item.kind != null && kind.equals(item.kind.toLowerCase(Locale.US))) {
+                return periodOr(item.period, fallback);
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Series for one target item. senkoua averages tenkan and kijun lines of the given periods,
+     * the ones configured in the same list; both senkou spans are shifted forward by kijunPeriod.
+     */
+    static Series create(int target, HTKLineTargetItem item, int tenkanPeriod, int kijunPeriod) {
+        String kind = item.kind == null ? "" : item.kind.toLowerCase(Locale.US);
+        int period = item.period;
+        switch (target) {
+            case TARGET_MAIN:
+                switch (kind) {
+                    case "ema":
+                        return new EMA(target, item, periodOr(period, 12));
+                    case "super":
+                        return new SuperTrend(target, item, periodOr(period, 10),
+                                item.multiplier > 0 ? item.multiplier : 3);
+                    case "vwap":
+                        return new VWAP(target, item, period > 0 ? period * 60_000L : DAY_MILLIS);
+                    case "tenkan":
+                        return new Midpoint(target, item, periodOr(period, 9), 0);
+                    case "kijun":
+                        return new Midpoint(target, item, periodOr(period, 26), 0);
+                    case "senkoua":
+                        return new SenkouA(target, item, kijunPeriod, tenkanPeriod, kijunPeriod);
+                    case "senkoub":
+                        return new Midpoint(target, item, periodOr(period, 52), kijunPeriod);
+                    default:
+                        return new SMA(target, item, periodOr(period, 5));
+                }
+            case TARGET_RSI:
+                if ("stochrsi".equals(kind)) {
+                    return new StochRSI(target, item, periodOr(period, 14));
+                }
+                return new RSI(target, item, periodOr(period, 14));
+            default:
+                switch (kind) {
+                    case "atr":
+                        return new ATR(target, item, periodOr(period, 14));
+                    case "obv":
+                        return new OBV(target, item);
+                    default:
+                        return new WR(target, item, periodOr(period, 14));
+                }
+        }
+    }
+
+    private static int periodOr(int period, int fallback) {
+        return period > 0 ? period : fallback;
+    }
+
+    /**
+     * Value arrays of the candle sized for the current target lists, reused when they fit.
+     */
+    private void prepare(KLineEntity entity) {
+        if (entity.maValues == null || entity.maValues.length != listSize[TARGET_MAIN]) {
+            entity.maValues = new float[listSize[TARGET_MAIN]];
+        }
+        if (entity.rsiValues == null || entity.rsiValues.length != listSize[TARGET_RSI]) {
+            entity.rsiValues = new float[listSize[TARGET_RSI]];
+        }
+        if (entity.wrValues == null || entity.wrValues.length != listSize[TARGET_WR]) {
+            entity.wrValues = new float[listSize[TARGET_WR]];
+        }
+    }
+
+    private static void write(KLineEntity entity, Series item, float value) {
+        switch (item.target) {
+            case TARGET_MAIN:
+                entity.maValues[item.config.index] = value;
+                break;
+            case TARGET_RSI:
+                entity.rsiValues[item.config.index] = value;
+                break;
+            default:
+                entity.wrValues[item.config.index] = value;
+                break;
+        }
+    }
+
+    /**
+     * One output line. Recursive state lives in state[] and is snapshotted by commit.
+     */
+    abstract static class Series {
+        final int target;
+        final HTKLineTargetItem config;
+        final double[] state;
+        private final double[] saved;
+
+        Series(int target, HTKLineTargetItem config, int stateSize) {
+            this.target = target;
+            this.config = config;
+            this.state = new double[stateSize];
+            this.saved = new double[stateSize];
+        }
+
+        void reset() {
+            Arrays.fill(state, 0);
+            Arrays.fill(saved, 0);
+        }
+
+        void commit() {
+            System.arraycopy(state, 0, saved, 0, state.length);
+        }
+
+        void rollback() {
+            System.arraycopy(saved, 0, state, 0, state.length);
+        }
+
+        /**
+         * Value at index i; called for increasing i, after reset or rollback.
+         */
+        abstract double next(List<KLineEntity> list, int i);
+
+        /**
+         * Neumaier add into state[slot] (sum) and state[slot + 1] (compensation).
+         */
+        final void add(int slot, double value) {
+            double sum = state[slot];
+            double next = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                state[slot + 1] += (sum - next) + value;
+            } else {
+                state[slot + 1] += (value - next) + sum;
+            }
+            state[slot] = next;
+        }
+
+        final double sum(int slot) {
+            return state[slot] + state[slot + 1];
+        }
+    }
+
+    /**
+     * Simple moving average of close; the raw close until the window fills.
+     */
+    static class SMA extends Series {
+        private final int period;
+
+        SMA(int target, HTKLineTargetItem config, int period) {
+            super(target, config, 2);
+            this.period = period;
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            double close = list.get(i).Close;
+            add(0, close);
+            if (i >= period) {
+                add(0, -list.get(i - period).Close);
+            }
+            return i + 1 < period ? close : sum(0) / period;
+        }
+    }
+
+    /**
+     * Exponential moving average of close seeded with the first close.
+     */
+    static class EMA extends Series {
+        private final double alpha;
+
+        EMA(int target, HTKLineTargetItem config, int period) {
+            super(target, config, 1);
+            this.alpha = 2.0 / (period + 1);
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            double close = list.get(i).Close;
+            state[0] = i == 0 ? close : close * alpha + state[0] * (1 - alpha);
+            return state[0];
+        }
+    }
+
+    /**
+     * Wilder average true range, seeded with the first true range.
+     */
+    static class ATR extends Series {
+        final int period;
+
+        ATR(int target, HTKLineTargetItem config, int period) {
+            this(target, config, period, 1);
+        }
+
+        ATR(int target, HTKLineTargetItem config, int period, int stateSize) {
+            super(target, config, stateSize);
+            this.period = period;
+        }
+
+        final double nextAtr(List<KLineEntity> list, int i) {
+            KLineEntity entity = list.get(i);
+            double previousClose = i > 0 ? list.get(i - 1).Close : entity.Close;
+            double tr = Math.max(entity.High - entity.Low,
+                    Math.max(Math.abs(entity.High - previousClose), Math.abs(entity.Low - previousClose)));
+            state[0] = i == 0 ? tr : (state[0] * (period - 1) + tr) / period;
+            return state[0];
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            return nextAtr(list, i);
+        }
+    }
+
+    /**
+     * SuperTrend on hl2 +/- multiplier * ATR with the same band rules as the JS wrapper.
+     */
+    static class SuperTrend extends ATR {
+        private static final int UPPER = 1;
+        private static final int LOWER = 2;
+        private static final int OUTPUT = 3;
+
+        private final double multiplier;
+
+        SuperTrend(int target, HTKLineTargetItem config, int period, double multiplier) {
+            super(target, config, period, 4);
+            this.multiplier = multiplier;
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            KLineEntity entity = list.get(i);
+            double atr = nextAtr(list, i);
+            double hl2 = (entity.High + entity.Low) / 2.0;
+            double upperBasic = hl2 + multiplier * atr;
+            double lowerBasic = hl2 - multiplier * atr;
+            if (i == 0) {
+                state[UPPER] = upperBasic;
+                state[LOWER] = lowerBasic;
+                state[OUTPUT] = lowerBasic;
+                return lowerBasic;
+            }
+            double previousClose = list.get(i - 1).Close;
+            double upperPrevious = state[UPPER];
+            double lowerPrevious = state[LOWER];
+            double upper = upperBasic < upperPrevious || previousClose > upperPrevious ? upperBasic : upperPrevious;
+            double lower = lowerBasic > lowerPrevious || previousClose < lowerPrevious ? lowerBasic : lowerPrevious;
+            double output = state[OUTPUT] == upperPrevious
+                    ? (entity.Close <= upper ? upper : lower)
+                    : (entity.Close >= lower ? lower : upper);
+            state[UPPER] = upper;
+            state[LOWER] = lower;
+            state[OUTPUT] = output;
+            return output;
+        }
+    }
+
+    /**
+     * Volume weighted average of the typical price, restarted at every session boundary.
+     * Sessions are sessionMillis long in UTC; candle ids in seconds are scaled to millis.
+     */
+    static class VWAP extends Series {
+        private static final int SESSION = 0;
+        private static final int PRICE_VOLUME = 1;
+        private static final int VOLUME = 3;
+
+        private final long sessionMillis;
+
+        VWAP(int target, HTKLineTargetItem config, long sessionMillis) {
+            super(target, config, 5);
+            this.sessionMillis = Math.max(60_000L, sessionMillis);
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            KLineEntity entity = list.get(i);
+            long millis = entity.id < 100_000_000_000L ? entity.id * 1000L : entity.id;
+            double session = Math.floorDiv(millis, sessionMillis);
+            if (i == 0 || session != state[SESSION]) {
+                Arrays.fill(state, 0);
+                state[SESSION] = session;
+            }
+            double typical = (entity.High + entity.Low + entity.Close) / 3.0;
+            add(PRICE_VOLUME, typical * entity.Volume);
+            add(VOLUME, entity.Volume);
+            double volume = sum(VOLUME);
+            return volume > 0 ? sum(PRICE_VOLUME) / volume : typical;
+        }
+    }
+
+    /**
+     * Midpoint of the highest high and lowest low over period candles ending displacement
+     * candles back: Ichimoku tenkan, kijun and senkou span B. Clamps to the first candle while
+     * the displacement has not filled.
+     */
+    static class Midpoint extends Series {
+        private final int period;
+        private final int displacement;
+
+        Midpoint(int target, HTKLineTargetItem config, int period, int displacement) {
+            super(target, config, 0);
+            this.period = period;
+            this.displacement = displacement;
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            return midpoint(list, Math.max(0, i - displacement), period);
+        }
+
+        static double midpoint(List<KLineEntity> list, int end, int period) {
+            double highest = -Double.MAX_VALUE;
+            double lowest = Double.MAX_VALUE;
+            for (int j = Math.max(0, end - period + 1); j <= end; j++) {
+                KLineEntity entity = list.get(j);
+                highest = Math.max(highest, entity.High);
+                lowest = Math.min(lowest, entity.Low);
+            }
+            return (highest + lowest) / 2.0;
+        }
+    }
+
+    /**
+     * Ichimoku senkou span A: mean of tenkan and kijun, shifted forward by displacement.
+     */
+    static class SenkouA extends Series {
+        private final int displacement;
+        private final int tenkanPeriod;
+        private final int kijunPeriod;
+
+        SenkouA(int target, HTKLineTargetItem config, int displacement, int tenkanPeriod, int kijunPeriod) {
+            super(target, config, 0);
+            this.displacement = displacement;
+            this.tenkanPeriod = tenkanPeriod;
+            this.kijunPeriod = kijunPeriod;
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            int end = Math.max(0, i - displacement);
+            return (Midpoint.midpoint(list, end, tenkanPeriod) + Midpoint.midpoint(list, end, kijunPeriod)) / 2.0;
+        }
+    }
+
+    /**
+     * On balance volume, starting at 0.
+     */
+    static class OBV extends Series {
+
+        OBV(int target, HTKLineTargetItem config) {
+            super(target, config, 2);
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            if (i == 0) {
+                return 0;
+            }
+            KLineEntity entity = list.get(i);
+            float previousClose = list.get(i - 1).Close;
+            if (entity.Close > previousClose) {
+                add(0, entity.Volume);
+            } else if (entity.Close < previousClose) {
+                add(0, -entity.Volume);
+            }
+            return sum(0);
+        }
+    }
+
+    /**
+     * Wilder RSI matching the JS wrapper: seeded with the plain average of the first period
+     * changes, 0 until then.
+     */
+    static class RSI extends Series {
+        private static final int GAIN = 0;
+        private static final int LOSS = 1;
+
+        final int period;
+
+        RSI(int target, HTKLineTargetItem config, int period) {
+            this(target, config, period, 2);
+        }
+
+        RSI(int target, HTKLineTargetItem config, int period, int stateSize) {
+            super(target, config, stateSize);
+            this.period = period;
+        }
+
+        final double nextRsi(List<KLineEntity> list, int i) {
+            if (i == 0) {
+                state[GAIN] = 0;
+                state[LOSS] = 0;
+                return 0;
+            }
+            double change = list.get(i).Close - list.get(i - 1).Close;
+            double gain = Math.max(change, 0);
+            double loss = Math.max(-change, 0);
+            if (i <= period) {
+                state[GAIN] += gain;
+                state[LOSS] += loss;
+                if (i == period) {
+                    state[GAIN] /= period;
+                    state[LOSS] /= period;
+                }
+            } else {
+                state[GAIN] = (state[GAIN] * (period - 1) + gain) / period;
+                state[LOSS] = (state[LOSS] * (period - 1) + loss) / period;
+            }
+            if (i < period) {
+                return 0;
+            }
+            if (state[LOSS] == 0) {
+                return 100;
+            }
+            return 100 - 100 / (1 + state[GAIN] / state[LOSS]);
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            return nextRsi(list, i);
+        }
+    }
+
+    /**
+     * Stochastic RSI %K: RSI(period) normalised over the last period RSI values, smoothed by a
+     * 3 candle SMA, 0 until enough RSI values exist. RSI and raw values are kept per candle index
+     * so a rollback simply overwrites them.
+     */
+    static class StochRSI extends RSI {
+        private static final int SMOOTH = 3;
+
+        private double[] rsi = new double[0];
+        private double[] raw = new double[0];
+
+        StochRSI(int target, HTKLineTargetItem config, int period) {
+            super(target, config, period, 2);
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            if (i >= rsi.length) {
+                int capacity = Math.max(i + 1, Math.max(64, rsi.length * 2));
+                rsi = Arrays.copyOf(rsi, capacity);
+                raw = Arrays.copyOf(raw, capacity);
+            }
+            rsi[i] = nextRsi(list, i);
+            int firstRaw = 2 * period - 1;
+            if (i < firstRaw) {
+                raw[i] = 0;
+                return 0;
+            }
+            double highest = -Double.MAX_VALUE;
+            double lowest = Double.MAX_VALUE;
+            for (int j = i - period + 1; j <= i; j++) {
+                highest = Math.max(highest, rsi[j]);
+                lowest = Math.min(lowest, rsi[j]);
+            }
+            raw[i] = highest == lowest ? 0 : (rsi[i] - lowest) / (highest - lowest) * 100;
+            if (i < firstRaw + SMOOTH - 1) {
+                return 0;
+            }
+            double sum = 0;
+            for (int j = i - SMOOTH + 1; j <= i; j++) {
+                sum += raw[j];
+            }
+            return sum / SMOOTH;
+        }
+    }
+
+    /**
+     * Williams %R matching the JS wrapper, 0 until the window fills.
+     */
+    static class WR extends Series {
+        private final int period;
+
+        WR(int target, HTKLineTargetItem config, int period) {
+            super(target, config, 0);
+            this.period = period;
+        }
+
+        @Override
+        double next(List<KLineEntity> list, int i) {
+            if (i + 1 < period) {
+                return 0;
+            }
+            double highest = -Double.MAX_VALUE;
+            double lowest = Double.MAX_VALUE;
+            for (int j = i - period + 1; j <= i; j++) {
+                KLineEntity entity = list.get(j);
+                highest = Math.max(highest, entity.High);
+                lowest = Math.min(lowest, entity.Low);
+            }
+            if (highest == lowest) {
+                return 0;
+            }
+            return -100 * (highest - list.get(i).Close) / (highest - lowest);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.github.fujianlian.klinechart;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency and throughput counters for the data commands, aggregated over a reporting window.
+ * A {@link Sample} travels with one command: bridge copy on the UI thread, packModel on the
+ * worker, the root.post queue, then apply (reloadConfigManager or the live path) back on the UI
+ * thread. Window counters are only touched on the UI thread; the queue depth is atomic because
+ * workers enqueue.
+ */
+public class HTIngestionMetrics {
+
+    public static final int SET_DATA = 0;
+    public static final int PREPEND_DATA = 1;
+    public static final int APPEND_CANDLE = 2;
+    public static final int UPDATE_LAST_CANDLE = 3;
+    public static final int APPEND_TICKS = 4;
+
+    public static final String[] COMMAND_NAMES = {
+            "setData",
+            "prependData",
+            "appendCandle",
+            "updateLastCandle",
+            "appendTicks",
+    };
+
+    public static final int COMMAND_COUNT = COMMAND_NAMES.length;
+
+    public boolean enabled = false;
+
+    public int intervalMillis = 1000;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private int maxQueueDepth = 0;
+
+    private final int[] count = new int[COMMAND_COUNT];
+
+    private final int[] failed = new int[COMMAND_COUNT];
+
+    private final long[] candles = new long[COMMAND_COUNT];
+
+    private final long[] ticks = new long[COMMAND_COUNT];
+
+    private final long[] bytes = new long[COMMAND_COUNT];
+
+    private final long[] copyNanos = new long[COMMAND_COUNT];
+
+    private final long[] packNanos = new long[COMMAND_COUNT];
+
+    private final long[] queueNanos = new long[COMMAND_COUNT];
+
+    private final long[] applyNanos = new long[COMMAND_COUNT];
+
+    private final long[] totalNanos = new long[COMMAND_COUNT];
+
+    private final long[] maxTotalNanos = new long[COMMAND_COUNT];
+
+    private long droppedTicks = 0;
+
+    private long windowStartMillis = -1;
+
+    /**
+     * Timestamps of one command. Each step stores System.nanoTime() when it finishes.
+     */
+    public static class Sample {
+        public final int command;
+        final long receivedNanos;
+        long copiedNanos;
+        long packedNanos;
+        long applyStartNanos;
+        int candles;
+        int ticks;
+        long bytes;
+        boolean queued;
+
+        Sample(int command) {
+            this.command = command;
+            this.receivedNanos = System.nanoTime();
+            this.copiedNanos = receivedNanos;
+            this.packedNanos = receivedNanos;
+        }
+    }
+
+    public Sample begin(int command) {
+        return new Sample(command);
+    }
+
+    /**
+     * Bridge copy done; payload is only walked for its size when metrics are on.
+     */
+    public void copied(Sample sample, int candleCount, Object payload) {
+        sample.copiedNanos = System.nanoTime();
+        sample.packedNanos = sample.copiedNanos;
+        sample.candles = candleCount;
+        if (enabled) {
+            sample.bytes = estimateBytes(payload);
+        }
+    }
+
+    /**
+     * Bridge copy of a tick batch done. Candles are only known once the ticks are rolled up, see
+     * {@link #built(Sample, int)}.
+     */
+    public void copiedTicks(Sample sample, int tickCount, Object payload) {
+        copied(sample, 0, payload);
+        sample.ticks = tickCount;
+    }
+
+    /**
+     * Candles opened by a tick batch.
+     */
+    public void built(Sample sample, int candleCount) {
+        sample.candles = candleCount;
+    }
+
+    public void packed(Sample sample) {
+        sample.packedNanos = System.nanoTime();
+    }
+
+    /**
+     * Call right before root.post.
+     */
+    public void enqueued(Sample sample) {
+        sample.queued = true;
+        queueDepth.incrementAndGet();
+    }
+
+    /**
+     * Call first thing in the posted runnable.
+     */
+    public void applying(Sample sample) {
+        sample.applyStartNanos = System.nanoTime();
+        if (sample.queued) {
+            sample.queued = false;
+            int depth = queueDepth.getAndDecrement();
+            maxQueueDepth = Math.max(maxQueueDepth, depth);
+        }
+    }
+
+    public void finish(Sample sample) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        int command = sample.command;
+        long applyStart = sample.applyStartNanos == 0 ? sample.packedNanos : sample.applyStartNanos;
+        count[command]++;
+        candles[command] += sample.candles;
+        ticks[command] += sample.ticks;
+        bytes[command] += sample.bytes;
+        copyNanos[command] += sample.copiedNanos - sample.receivedNanos;
+        packNanos[command] += sample.packedNanos - sample.copiedNanos;
+        queueNanos[command] += applyStart - sample.packedNanos;
+        applyNanos[command] += now - applyStart;
+        long total = now - sample.receivedNanos;
+        totalNanos[command] += total;
+        maxTotalNanos[command] = Math.max(maxTotalNanos[command], total);
+    }
+
+    public void fail(Sample sample) {
+        if (sample.queued) {
+            sample.queued = false;
+            queueDepth.decrementAndGet();
+        }
+        if (enabled) {
+            failed[sample.command]++;
+        }
+    }
+
+    public void droppedTicks(int dropped) {
+        if (enabled) {
+            droppedTicks += dropped;
+        }
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * True once the reporting window has elapsed.
+     */
+    public boolean isDue(long nowMillis) {
+        if (windowStartMillis < 0) {
+            windowStartMillis = nowMillis;
+            return false;
+        }
+        return nowMillis - windowStartMillis >= intervalMillis;
+    }
+
+    public long getWindowMillis(long nowMillis) {
+        return windowStartMillis < 0 ? 0 : nowMillis - windowStartMillis;
+    }
+
+    public boolean hasActivity(int command) {
+        return count[command] > 0 || failed[command] > 0;
+    }
+
+    public int getCount(int command) {
+        return count[command];
+    }
+
+    public int getFailed(int command) {
+        return failed[command];
+    }
+
+    public long getCandles(int command) {
+        return candles[command];
+    }
+
+    public long getTicks(int command) {
+        return ticks[command];
+    }
+
+    public long getBytes(int command) {
+        return bytes[command];
+    }
+
+    /**
+     * Average milliseconds per command for copy, pack, queue, apply and total, then max total.
+     */
+    public double[] getLatencyMillis(int command) {
+        int n = Math.max(1, count[command]);
+        return new double[]{
+                copyNanos[command] / 1e6 / n,
+                packNanos[command] / 1e6 / n,
+                queueNanos[command] / 1e6 / n,
+                applyNanos[command] / 1e6 / n,
+                totalNanos[command] / 1e6 / n,
+                maxTotalNanos[command] / 1e6,
+        };
+    }
+
+    /**
+     * Starts a new reporting window.
+     */
+    public void resetWindow(long nowMillis) {
+        windowStartMillis = nowMillis;
+        maxQueueDepth = queueDepth.get();
+        droppedTicks = 0;
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            count[i] = 0;
+            failed[i] = 0;
+            candles[i] = 0;
+            ticks[i] = 0;
+            bytes[i] = 0;
+            copyNanos[i] = 0;
+            packNanos[i] = 0;
+            queueNanos[i] = 0;
+            applyNanos[i] = 0;
+            totalNanos[i] = 0;
+            maxTotalNanos[i] = 0;
+        }
+    }
+
+    /**
+     * Rough decoded size of a copied bridge payload: 8 bytes per number, 1 per boolean,
+     * 2 per string char, plus map key chars.
+     */
+    public static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Number) {
+            return 8;
+        }
+        if (value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof String) {
+            return 2L * ((String) value).length();
+        }
+        if (value instanceof double[]) {
+            return 8L * ((double[]) value).length;
+        }
+        long total = 0;
+        if (value instanceof Map) {
+            for (Object entryObject : ((Map) value).entrySet()) {
+                Map.Entry entry = (Map.Entry) entryObject;
+                total += estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+            }
+        } else if (value instanceof List) {
+            List list = (List) value;
+            for (int i = 0; i < list.size(); i++) {
+                total += estimateBytes(list.get(i));
+            }
+        }
+        return total;
+    }
+}
@@ -27,6 +27,26 @@ public class HTKLineConfigManager {
 
 	public float loadMoreThreshold = 48f;
 
+    // Repaint cap (frames per second) for live last-candle updates, 0 repaints on every update
+    public int liveMaxFps = 0;
+
+    // Keep the rendered series in a bitmap while panning and only render newly exposed columns
+    public boolean scrollLayerCache = false;
+
+    // Duration (ms) of the main y-range ease when the visible extremes change, 0 snaps every frame
+    public int yAxisAnimationDuration = 0;
+
+    // Record per-phase frame timings and report them through onPerfStats about once a second
+    public boolean perfProfiler = false;
+
+    // Draw the frame timings over the chart (implies perfProfiler)
+    public boolean perfOverlay = false;
+
+    // Report data command latency/throughput through onIngestionMetrics every ingestionMetricsInterval ms
+    public boolean ingestionMetrics = false;
+
+    public int ingestionMetricsInterval = 1000;
+
 
 	public int shotBackgroundColor = Color.RED;
 
@@ -49,6 +69,9 @@ public class HTKLineConfigManager {
 
     public float drawDashSpace = 1;
 
+    // Text of new and selected text notes
+    public String drawText = "";
+
     public Boolean drawIsLock = false;
 
     public int shouldReloadDrawItemIndex = HTDrawState.none;
@@ -61,6 +84,9 @@ public class HTKLineConfigManager {
 
     public Callback onDrawPointComplete;
 
+    // Invoked with a reason after a journaled drawing edit
+    public Callback onDrawingsChange;
+
 
 
 
@@ -218,6 +244,9 @@ public class HTKLineConfigManager {
     public String predictionBias = null;
     public int predictionMinCandles = 12;
 
+    // Prediction keys above, parsed into primitives on each reload
+    public final HTPredictionModel predictionModel = new HTPredictionModel();
+
     public String bollN = "";
     public String bollP = "";
     public String kdjM1 = "";
@@ -230,6 +259,8 @@ public class HTKLineConfigManager {
     public String macdS = "";
     public List<HTKLineTargetItem> rsiList = new ArrayList();
     public List<HTKLineTargetItem> wrList = new ArrayList();
+    // MA/RSI/WR target list values are computed natively by HTIndicatorEngine instead of per candle in JS
+    public boolean nativeIndicators = false;
 
     public static Typeface font = null;
 
@@ -407,19 +438,19 @@ public class HTKLineConfigManager {
         }
 
 
-        entity.maList = HTKLineTargetItem.packModelArray((List) this.getOrDefault(keyValue, "maList", new ArrayList()));
+        entity.maValues = HTKLineTargetItem.packValues((List) keyValue.get("maList"));
         entity.up = ((Number)this.getOrDefault(keyValue, "bollUp", 0.0)).floatValue();
         entity.dn = ((Number)this.getOrDefault(keyValue, "bollDn", 0.0)).floatValue();
         entity.mb = ((Number)this.getOrDefault(keyValue, "bollMb", 0.0)).floatValue();
-        entity.maVolumeList = HTKLineTargetItem.packModelArray((List) this.getOrDefault(keyValue, "maVolumeList", new ArrayList()));
+        entity.maVolumeValues = HTKLineTargetItem.packValues((List) keyValue.get("maVolumeList"));
         entity.macd = ((Number)this.getOrDefault(keyValue, "macdValue", 0.0)).floatValue();
         entity.dea = ((Number)this.getOrDefault(keyValue, "macdDea", 0.0)).floatValue();
         entity.dif = ((Number)this.getOrDefault(keyValue, "macdDif", 0.0)).floatValue();
         entity.k = ((Number)this.getOrDefault(keyValue, "kdjD", 0.0)).floatValue();
         entity.d = ((Number)this.getOrDefault(keyValue, "kdjJ", 0.0)).floatValue();
         entity.j = ((Number)this.getOrDefault(keyValue, "kdjK", 0.0)).floatValue();
-        entity.rsiList = HTKLineTargetItem.packModelArray((List) this.getOrDefault(keyValue, "rsiList", new ArrayList()));
-        entity.wrList = HTKLineTargetItem.packModelArray((List) this.getOrDefault(keyValue, "wrList", new ArrayList()));
+        entity.rsiValues = HTKLineTargetItem.packValues((List) keyValue.get("rsiList"));
+        entity.wrValues = HTKLineTargetItem.packValues((List) keyValue.get("wrList"));
         return entity;
     }
 
@@ -465,6 +496,7 @@ public class HTKLineConfigManager {
             this.kdjN = readString(targetList, "kdjN", this.kdjN);
             this.kdjM1 = readString(targetList, "kdjM1", this.kdjM1);
             this.kdjM2 = readString(targetList, "kdjM2", this.kdjM2);
+            this.nativeIndicators = readBoolean(targetList, "nativeIndicators", false);
     	}
 
         Object drawListObj = optionList.get("drawList");
@@ -482,6 +514,7 @@ public class HTKLineConfigManager {
             this.drawLineHeight = readFloat(drawList, "drawLineHeight", this.drawLineHeight);
             this.drawDashWidth = readFloat(drawList, "drawDashWidth", this.drawDashWidth);
             this.drawDashSpace = readFloat(drawList, "drawDashSpace", this.drawDashSpace);
+            this.drawText = readString(drawList, "drawText", this.drawText);
             this.shouldReloadDrawItemIndex = readInt(drawList, "shouldReloadDrawItemIndex", this.shouldReloadDrawItemIndex);
             this.drawIsLock = readBoolean(drawList, "drawIsLock", this.drawIsLock);
             this.drawShouldTrash = readBoolean(drawList, "drawShouldTrash", this.drawShouldTrash);
@@ -711,6 +744,14 @@ public class HTKLineConfigManager {
             this.minuteGradientLocationList = minuteGradientLocationList;
         }
 
+        this.liveMaxFps = Math.max(0, Math.min(120, readInt(configList, "liveMaxFps", this.liveMaxFps)));
+        this.scrollLayerCache = readBoolean(configList, "scrollLayerCache", this.scrollLayerCache);
+        this.yAxisAnimationDuration = Math.max(0, Math.min(1000, readInt(configList, "yAxisAnimationDuration", this.yAxisAnimationDuration)));
+        this.perfProfiler = readBoolean(configList, "perfProfiler", this.perfProfiler);
+        this.perfOverlay = readBoolean(configList, "perfOverlay", this.perfOverlay);
+        this.ingestionMetrics = readBoolean(configList, "ingestionMetrics", this.ingestionMetrics);
+        this.ingestionMetricsInterval = Math.max(250, readInt(configList, "ingestionMetricsInterval", this.ingestionMetricsInterval));
+
         // Prediction / Live Analyst
         this.rightOffsetCandles = readInt(configList, "rightOffsetCandles", this.rightOffsetCandles);
 
@@ -745,6 +786,7 @@ public class HTKLineConfigManager {
         } else {
             this.predictionMinCandles = 12;
         }
+        this.predictionModel.reload(this);
 
         applyMainHeaderPaddingTopIfNeeded();
     }
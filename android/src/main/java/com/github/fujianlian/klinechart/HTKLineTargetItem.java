@@ -12,25 +12,17 @@ public class HTKLineTargetItem {
     public String title = "";
     public float value = 0.0f;
     public String kind = "ma";
-
+    // Indicator period and multiplier for native computation, 0 when not given
+    public int period = 0;
+    public float multiplier = 0.0f;
 
     public HTKLineTargetItem(Map valueList) {
         String title = valueList.get("title").toString();
         Object object = valueList.get("value");
-        if (object == null) {
-            object = new Double(0);
-        }
-        float value = ((Number) object).floatValue();
-        object = valueList.get("selected");
-        if (object == null) {
-            object = new Boolean(true);
-        }
-        boolean selected = ((Boolean) object).booleanValue();
+        float value = object instanceof Number ? ((Number) object).floatValue() : 0.0f;
+        boolean selected = isSelected(valueList);
         object = valueList.get("index");
-        if (object == null) {
-            object = new Double(0);
-        }
-        int index = ((Number) object).intValue();
+        int index = object instanceof Number ? ((Number) object).intValue() : 0;
         object = valueList.get("kind");
         String kind = object == null ? "ma" : object.toString();
         this.title = title;
@@ -38,6 +30,86 @@ public class HTKLineTargetItem {
         this.selected = selected;
         this.index = index;
         this.kind = kind;
+        this.period = parsePeriod(valueList.get("period"), title);
+        this.multiplier = parseMultiplier(valueList.get("multiplier"), title);
+    }
+
+    public HTKLineTargetItem(String title, String kind, int index, float value) {
+        this.title = title;
+        this.kind = kind;
+        this.index = index;
+        this.value = value;
+        this.selected = true;
+    }
+
+    /**
+     * Explicit period, else the leading integer of the title ("14", "10,3").
+     */
+    private static int parsePeriod(Object period, String title) {
+        if (period instanceof Number) {
+            return ((Number) period).intValue();
+        }
+        int end = 0;
+        while (end < title.length() && Character.isDigit(title.charAt(end))) {
+            end++;
+        }
+        if (end == 0) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(title.substring(0, end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Explicit multiplier, else the part after the comma of a "period,multiplier" title.
+     */
+    private static float parseMultiplier(Object multiplier, String title) {
+        if (multiplier instanceof Number) {
+            return ((Number) multiplier).floatValue();
+        }
+        int comma = title.indexOf(',');
+        if (comma < 0) {
+            return 0.0f;
+        }
+        try {
+            return Float.parseFloat(title.substring(comma + 1).trim());
+        } catch (NumberFormatException e) {
+            return 0.0f;
+        }
+    }
+
+    private static boolean isSelected(Map valueList) {
+        Object object = valueList.get("selected");
+        return !(object instanceof Boolean) || ((Boolean) object).booleanValue();
+    }
+
+    /**
+     * Values of the selected items in list order, without building items; missing values are 0.
+     */
+    public static float[] packValues(List valueList) {
+        if (valueList == null || valueList.isEmpty()) {
+            return KLineEntity.EMPTY_TARGET_VALUES;
+        }
+        int count = 0;
+        for (int i = 0; i < valueList.size(); i++) {
+            if (isSelected((Map) valueList.get(i))) {
+                count++;
+            }
+        }
+        float[] values = new float[count];
+        int position = 0;
+        for (int i = 0; i < valueList.size(); i++) {
+            Map item = (Map) valueList.get(i);
+            if (!isSelected(item)) {
+                continue;
+            }
+            Object value = item.get("value");
+            values[position++] = value instanceof Number ? ((Number) value).floatValue() : 0.0f;
+        }
+        return values;
     }
 
     public static ArrayList<HTKLineTargetItem> packModelArray(List<Map> valueList) {
@@ -0,0 +1,197 @@
+package com.github.fujianlian.klinechart;
+
+import com.github.fujianlian.klinechart.formatter.ValueFormatter;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rolls raw trades into candles natively.
+ * Ticks arrive packed as a flat array [timestamp, price, size, timestamp, price, size, ...],
+ * timestamps use the same unit as candle ids. Must be driven from the UI thread because it
+ * mutates modelArray in place.
+ */
+public class HTKLineTickAggregator {
+
+    public static final int TICK_STRIDE = 3;
+
+    public static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm";
+
+    private String datePattern = DEFAULT_DATE_FORMAT;
+
+    private SimpleDateFormat dateFormat = new SimpleDateFormat(DEFAULT_DATE_FORMAT, Locale.US);
+
+    // Indices of the candles the current batch touched, in touch order
+    private int[] touched = new int[16];
+
+    private int touchedCount;
+
+    public static class Result {
+        public int applied;
+        public int appended;
+        public int dropped;
+        // Lowest modelArray index touched by this batch, -1 if nothing changed
+        public int firstChangedIndex = -1;
+    }
+
+    public void setDatePattern(String pattern) {
+        if (pattern == null || pattern.length() == 0 || pattern.equals(datePattern)) {
+            return;
+        }
+        try {
+            dateFormat = new SimpleDateFormat(pattern, Locale.US);
+            datePattern = pattern;
+        } catch (IllegalArgumentException e) {
+            // Keep the previous pattern
+        }
+    }
+
+    /**
+     * Applies a packed tick batch to modelArray.
+     * Ticks inside the last candle's interval update it, ticks past the interval boundary
+     * append a new candle, late ticks are folded into the matching older candle when it exists.
+     */
+    public Result apply(List<KLineEntity> modelArray, double[] ticks, int tickCount, long interval) {
+        Result result = new Result();
+        if (interval <= 0 || ticks == null) {
+            result.dropped = tickCount;
+            return result;
+        }
+        for (int i = 0; i < tickCount; i++) {
+            int offset = i * TICK_STRIDE;
+            double timestamp = ticks[offset];
+            float price = (float) ticks[offset + 1];
+            float size = (float) ticks[offset + 2];
+            if (Double.isNaN(timestamp) || Double.isInfinite(timestamp)
+                    || Float.isNaN(price) || Float.isInfinite(price) || price <= 0) {
+                result.dropped++;
+                continue;
+            }
+            if (Float.isNaN(size) || Float.isInfinite(size) || size < 0) {
+                size = 0;
+            }
+            long bucket = (long) Math.floor(timestamp / interval) * interval;
+            int count = modelArray.size();
+            int index;
+            if (count == 0 || bucket > modelArray.get(count - 1).id) {
+                modelArray.add(newCandle(bucket, price, size));
+                index = count;
+                result.appended++;
+            } else {
+                index = count - 1;
+                if (modelArray.get(index).id != bucket) {
+                    index = findIndexById(modelArray, bucket, index);
+                }
+                if (index < 0) {
+                    result.dropped++;
+                    continue;
+                }
+                rollInto(modelArray.get(index), price, size);
+            }
+            result.applied++;
+            if (result.firstChangedIndex < 0 || index < result.firstChangedIndex) {
+                result.firstChangedIndex = index;
+            }
+            if (touchedCount == 0 || touched[touchedCount - 1] != index) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = index;
+            }
+        }
+        // Only the candles this batch opened or rolled into, most batches touch just the last one
+        for (int i = 0; i < touchedCount; i++) {
+            refreshSelectedItemList(modelArray.get(touched[i]));
+        }
+        touchedCount = 0;
+        return result;
+    }
+
+    private KLineEntity newCandle(long bucket, float price, float size) {
+        KLineEntity entity = new KLineEntity();
+        entity.id = bucket;
+        // Ids may be seconds or milliseconds, same rule as the VWAP session split
+        long millis = bucket < 100_000_000_000L ? bucket * 1000L : bucket;
+        entity.Date = dateFormat.format(new Date(millis));
+        entity.Open = price;
+        entity.High = price;
+        entity.Low = price;
+        entity.Close = price;
+        entity.Volume = size;
+        return entity;
+    }
+
+    private static void rollInto(KLineEntity entity, float price, float size) {
+        entity.High = Math.max(entity.High, price);
+        entity.Low = Math.min(entity.Low, price);
+        entity.Close = price;
+        entity.Volume += size;
+    }
+
+    // Ids are ascending, search [0, end)
+    private static int findIndexById(List<KLineEntity> modelArray, long id, int end) {
+        int low = 0;
+        int high = end - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = modelArray.get(mid).id;
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Same O/H/L/C/VOL shape the JS wrapper builds for candles without a custom panel. Lists JS
+     * sent with the candle are left alone, native ones are updated in place.
+     */
+    private static void refreshSelectedItemList(KLineEntity entity) {
+        List<Map<String, Object>> current = entity.selectedItemList;
+        NativeItemList itemList;
+        if (current instanceof NativeItemList) {
+            itemList = (NativeItemList) current;
+        } else if (current == null || current.isEmpty()) {
+            itemList = new NativeItemList();
+            entity.selectedItemList = itemList;
+        } else {
+            return;
+        }
+        int priceLength = ValueFormatter.priceRightLength;
+        int volumeLength = ValueFormatter.volumeRightLength;
+        itemList.detail(0, ValueFormatter.format(entity.Open, priceLength, true));
+        itemList.detail(1, ValueFormatter.format(entity.High, priceLength, true));
+        itemList.detail(2, ValueFormatter.format(entity.Low, priceLength, true));
+        itemList.detail(3, ValueFormatter.format(entity.Close, priceLength, true));
+        itemList.detail(4, ValueFormatter.format(entity.Volume, volumeLength, true));
+    }
+
+    // Marks a selector list built here rather than sent from JS
+    private static final class NativeItemList extends ArrayList<Map<String, Object>> {
+
+        private static final String[] TITLES = {"O:", "H:", "L:", "C:", "VOL:"};
+
+        NativeItemList() {
+            super(TITLES.length);
+            for (String title : TITLES) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("title", title);
+                add(item);
+            }
+        }
+
+        void detail(int index, String detail) {
+            get(index).put("detail", detail);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.fujianlian.klinechart;
+
+import java.util.Arrays;
+
+/**
+ * Vertical collision solver for stacks of equal-height labels, e.g. price tags on the right edge.
+ * Labels are added with the y they want to be centered on and a priority; solve() keeps the
+ * highest-priority labels that fit into [minTop, maxTop], then places them in y order so they
+ * do not overlap, as close to their wanted y as the neighbours allow. Reused across frames:
+ * arrays only grow and nothing is allocated per solve.
+ */
+public class HTLabelSolver {
+
+    private float[] wantedY = new float[16];
+
+    private int[] priorities = new int[16];
+
+    private float[] tops = new float[16];
+
+    private boolean[] visible = new boolean[16];
+
+    private int[] order = new int[16];
+
+    private int count = 0;
+
+    // Inputs of the last solve, compared to skip unchanged layouts
+    private float[] solvedY = new float[16];
+
+    private int[] solvedPriorities = new int[16];
+
+    private int solvedCount = -1;
+
+    private float solvedMinTop;
+
+    private float solvedMaxTop;
+
+    private float solvedHeight;
+
+    private float solvedGap;
+
+    public void reset() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Adds a label centered on y and returns its index for top() and isVisible().
+     * Higher priorities survive when not all labels fit.
+     */
+    public int add(float y, int priority) {
+        if (count == wantedY.length) {
+            int capacity = count * 2;
+            wantedY = Arrays.copyOf(wantedY, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            tops = Arrays.copyOf(tops, capacity);
+            visible = Arrays.copyOf(visible, capacity);
+            order = Arrays.copyOf(order, capacity);
+            solvedY = Arrays.copyOf(solvedY, capacity);
+            solvedPriorities = Arrays.copyOf(solvedPriorities, capacity);
+        }
+        wantedY[count] = y;
+        priorities[count] = priority;
+        return count++;
+    }
+
+    public int add(float y) {
+        return add(y, 0);
+    }
+
+    public boolean isVisible(int index) {
+        return visible[index];
+    }
+
+    public float top(int index) {
+        return tops[index];
+    }
+
+    /**
+     * Lays out labels of height with at least gap between them, tops within [minTop, maxTop].
+     */
+    public void solve(float minTop, float maxTop, float height, float gap) {
+        if (count == 0) {
+            return;
+        }
+        if (isSolved(minTop, maxTop, height, gap)) {
+            return;
+        }
+        solvedCount = count;
+        solvedMinTop = minTop;
+        solvedMaxTop = maxTop;
+        solvedHeight = height;
+        solvedGap = gap;
+        System.arraycopy(wantedY, 0, solvedY, 0, count);
+        System.arraycopy(priorities, 0, solvedPriorities, 0, count);
+        if (maxTop < minTop) {
+            Arrays.fill(visible, 0, count, false);
+            return;
+        }
+        int capacity = (int) ((maxTop - minTop + height + gap) / (height + gap));
+        capacity = Math.max(1, capacity);
+        Arrays.fill(visible, 0, count, true);
+        if (count > capacity) {
+            // Drop the lowest priorities, later labels first on ties
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            sortByPriority(count);
+            for (int i = capacity; i < count; i++) {
+                visible[order[i]] = false;
+            }
+        }
+        int placed = 0;
+        for (int i = 0; i < count; i++) {
+            if (visible[i]) {
+                order[placed++] = i;
+            }
+        }
+        sortPlaced(placed);
+        // Push down from the top, then back up from the bottom so the last ones fit as well
+        float previousBottom = minTop - gap;
+        for (int i = 0; i < placed; i++) {
+            int index = order[i];
+            float top = Math.max(minTop, Math.min(maxTop, wantedY[index] - height / 2f));
+            top = Math.max(top, previousBottom + gap);
+            tops[index] = top;
+            previousBottom = top + height;
+        }
+        float nextTop = maxTop + height + gap;
+        for (int i = placed - 1; i >= 0; i--) {
+            int index = order[i];
+            float top = Math.min(tops[index], nextTop - gap - height);
+            tops[index] = top;
+            nextTop = top;
+        }
+    }
+
+    private boolean isSolved(float minTop, float maxTop, float height, float gap) {
+        if (count != solvedCount || minTop != solvedMinTop || maxTop != solvedMaxTop
+                || height != solvedHeight || gap != solvedGap) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (wantedY[i] != solvedY[i] || priorities[i] != solvedPriorities[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Insertion sort of order[0, placed) by wanted y; labels usually arrive nearly sorted
+    private void sortPlaced(int placed) {
+        for (int i = 1; i < placed; i++) {
+            int value = order[i];
+            float y = wantedY[value];
+            int j = i - 1;
+            while (j >= 0 && wantedY[order[j]] > y) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = value;
+        }
+    }
+
+    // Stable insertion sort of order[0, size) by descending priority
+    private void sortByPriority(int size) {
+        for (int i = 1; i < size; i++) {
+            int value = order[i];
+            int priority = priorities[value];
+            int j = i - 1;
+            while (j >= 0 && priorities[order[j]] < priority) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = value;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.fujianlian.klinechart;
+
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import java.util.List;
+
+/**
+ * Marker glyphs and the visible-marker walk shared by HTMarkerStore and HTOverlayLayer, so trade
+ * markers and overlay markers look and line up the same way.
+ */
+public final class HTMarkerGlyph {
+
+    public static final int CIRCLE = 0;
+
+    // Below the price, pointing up at it
+    public static final int ARROW_UP = 1;
+
+    // Above the price, pointing down at it
+    public static final int ARROW_DOWN = 2;
+
+    private HTMarkerGlyph() {
+    }
+
+    /**
+     * Adds the glyph for shape at x, y to path and returns the baseline for a caption next to it,
+     * on the side away from the price.
+     */
+    public static float append(Path path, int shape, float x, float y, float size, Paint.FontMetrics fontMetrics) {
+        switch (shape) {
+            case ARROW_UP: {
+                path.moveTo(x, y);
+                path.lineTo(x + size, y + size * 1.6f);
+                path.lineTo(x - size, y + size * 1.6f);
+                path.close();
+                return y + size * 1.6f - fontMetrics.ascent + 2;
+            }
+            case ARROW_DOWN: {
+                path.moveTo(x, y);
+                path.lineTo(x + size, y - size * 1.6f);
+                path.lineTo(x - size, y - size * 1.6f);
+                path.close();
+                return y - size * 1.6f - fontMetrics.descent - 2;
+            }
+            default: {
+                path.addCircle(x, y, size, Path.Direction.CW);
+                return y - size - fontMetrics.descent - 2;
+            }
+        }
+    }
+
+    /**
+     * Index of the first of the count sorted ids at or after id.
+     */
+    public static int lowerBound(long[] ids, int count, long id) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids[middle] < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Moves candle forward to the first candle at or after id, stopping at stopIndex. Markers are
+     * walked in id order, so each call continues where the previous one stopped.
+     */
+    public static int advanceCandle(List<KLineEntity> modelArray, int candle, int stopIndex, long id) {
+        while (candle < stopIndex && modelArray.get(candle).id < id) {
+            candle++;
+        }
+        return candle;
+    }
+}
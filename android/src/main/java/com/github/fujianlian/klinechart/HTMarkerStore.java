@@ -0,0 +1,334 @@
+package com.github.fujianlian.klinechart;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import com.github.fujianlian.klinechart.utils.ViewUtil;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trade executions and events pinned to candles, e.g. thousands of fills from a backtest.
+ * Kept as parallel primitive arrays (id, price, type, size) sorted by candle id and ingested in
+ * packed batches [id, price, type, size, ...]. Drawing binary searches the first visible marker
+ * and walks markers and candles together; markers that land in the same glyph-wide column are
+ * collapsed into one glyph per type with a count, so zooming out never draws more glyphs than fit.
+ */
+public class HTMarkerStore {
+
+    public static final int STRIDE = 4;
+
+    public static final int TYPE_BUY = 0;
+
+    public static final int TYPE_SELL = 1;
+
+    public static final int TYPE_EVENT = 2;
+
+    private static final int TYPE_COUNT = 3;
+
+    private static final int EVENT_COLOR = Color.parseColor("#F59E0B");
+
+    private long[] ids = new long[0];
+
+    private float[] prices = new float[0];
+
+    private byte[] types = new byte[0];
+
+    private float[] sizes = new float[0];
+
+    private int count = 0;
+
+    // Per-type accumulators of the column being collapsed
+    private final int[] clusterCount = new int[TYPE_COUNT];
+
+    private final float[] clusterX = new float[TYPE_COUNT];
+
+    private final double[] clusterPrice = new double[TYPE_COUNT];
+
+    private final double[] clusterWeight = new double[TYPE_COUNT];
+
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+
+    // One path per type, so a frame issues three glyph draws however many clusters are visible
+    private final Path[] glyphPaths = { new Path(), new Path(), new Path() };
+
+    private final char[] countChars = new char[12];
+
+    public int size() {
+        return count;
+    }
+
+    public long idAt(int index) {
+        return ids[index];
+    }
+
+    public float priceAt(int index) {
+        return prices[index];
+    }
+
+    public int typeAt(int index) {
+        return types[index];
+    }
+
+    public float sizeAt(int index) {
+        return sizes[index];
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Adds markerCount packed markers. Batches in id order after the last stored marker are
+     * appended in place; anything else is sorted and merged. Returns how many were dropped for a
+     * missing id or price. Markers with the same id keep their arrival order.
+     */
+    public int append(double[] packed, int markerCount) {
+        long[] batchIds = new long[markerCount];
+        float[] batchPrices = new float[markerCount];
+        byte[] batchTypes = new byte[markerCount];
+        float[] batchSizes = new float[markerCount];
+        int batchCount = 0;
+        boolean sorted = true;
+        for (int i = 0; i < markerCount; i++) {
+            int offset = i * STRIDE;
+            double id = packed[offset];
+            double price = packed[offset + 1];
+            if (Double.isNaN(id) || Double.isInfinite(id) || Double.isNaN(price) || Double.isInfinite(price)) {
+                continue;
+            }
+            double type = packed[offset + 2];
+            double size = packed[offset + 3];
+            batchIds[batchCount] = (long) id;
+            batchPrices[batchCount] = (float) price;
+            batchTypes[batchCount] = type >= TYPE_BUY && type < TYPE_COUNT ? (byte) type : TYPE_EVENT;
+            batchSizes[batchCount] = Double.isNaN(size) || size < 0 ? 0 : (float) size;
+            if (batchCount > 0 && batchIds[batchCount] < batchIds[batchCount - 1]) {
+                sorted = false;
+            }
+            batchCount++;
+        }
+        if (batchCount == 0) {
+            return markerCount;
+        }
+        if (!sorted) {
+            int[] order = sortedOrder(batchIds, batchCount);
+            long[] orderedIds = new long[batchCount];
+            float[] orderedPrices = new float[batchCount];
+            byte[] orderedTypes = new byte[batchCount];
+            float[] orderedSizes = new float[batchCount];
+            for (int i = 0; i < batchCount; i++) {
+                int index = order[i];
+                orderedIds[i] = batchIds[index];
+                orderedPrices[i] = batchPrices[index];
+                orderedTypes[i] = batchTypes[index];
+                orderedSizes[i] = batchSizes[index];
+            }
+            batchIds = orderedIds;
+            batchPrices = orderedPrices;
+            batchTypes = orderedTypes;
+            batchSizes = orderedSizes;
+        }
+        if (count == 0 || batchIds[0] >= ids[count - 1]) {
+            ensureCapacity(count + batchCount);
+            System.arraycopy(batchIds, 0, ids, count, batchCount);
+            System.arraycopy(batchPrices, 0, prices, count, batchCount);
+            System.arraycopy(batchTypes, 0, types, count, batchCount);
+            System.arraycopy(batchSizes, 0, sizes, count, batchCount);
+            count += batchCount;
+        } else {
+            merge(batchIds, batchPrices, batchTypes, batchSizes, batchCount);
+        }
+        return markerCount - batchCount;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int next = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, next);
+        prices = Arrays.copyOf(prices, next);
+        types = Arrays.copyOf(types, next);
+        sizes = Arrays.copyOf(sizes, next);
+    }
+
+    // Two-way merge of the stored markers and a sorted batch into fresh arrays, stored first on ties
+    private void merge(long[] batchIds, float[] batchPrices, byte[] batchTypes, float[] batchSizes, int batchCount) {
+        int total = count + batchCount;
+        int capacity = Math.max(total, ids.length);
+        long[] mergedIds = new long[capacity];
+        float[] mergedPrices = new float[capacity];
+        byte[] mergedTypes = new byte[capacity];
+        float[] mergedSizes = new float[capacity];
+        int stored = 0;
+        int batch = 0;
+        for (int i = 0; i < total; i++) {
+            if (batch >= batchCount || (stored < count && ids[stored] <= batchIds[batch])) {
+                mergedIds[i] = ids[stored];
+                mergedPrices[i] = prices[stored];
+                mergedTypes[i] = types[stored];
+                mergedSizes[i] = sizes[stored];
+                stored++;
+            } else {
+                mergedIds[i] = batchIds[batch];
+                mergedPrices[i] = batchPrices[batch];
+                mergedTypes[i] = batchTypes[batch];
+                mergedSizes[i] = batchSizes[batch];
+                batch++;
+            }
+        }
+        ids = mergedIds;
+        prices = mergedPrices;
+        types = mergedTypes;
+        sizes = mergedSizes;
+        count = total;
+    }
+
+    // Stable bottom-up merge sort of the indexes [0, size) by key
+    private static int[] sortedOrder(long[] keys, int size) {
+        int[] order = new int[size];
+        int[] buffer = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        for (int width = 1; width < size; width *= 2) {
+            for (int left = 0; left < size; left += 2 * width) {
+                int middle = Math.min(left + width, size);
+                int right = Math.min(left + 2 * width, size);
+                int a = left;
+                int b = middle;
+                for (int i = left; i < right; i++) {
+                    if (b >= right || (a < middle && keys[order[a]] <= keys[order[b]])) {
+                        buffer[i] = order[a++];
+                    } else {
+                        buffer[i] = order[b++];
+                    }
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Index of the first marker with an id at or after id.
+     */
+    public int lowerBound(long id) {
+        return HTMarkerGlyph.lowerBound(ids, count, id);
+    }
+
+    /**
+     * Draws the markers of the visible candles in view coordinates, inside the main pane.
+     */
+    public void draw(Canvas canvas, BaseKLineChartView view) {
+        if (count == 0) {
+            return;
+        }
+        List<KLineEntity> modelArray = view.configManager.modelArray;
+        int startIndex = view.getVisibleStartIndex();
+        int stopIndex = view.getVisibleStopIndex();
+        if (modelArray.isEmpty() || startIndex < 0 || stopIndex >= modelArray.size() || startIndex > stopIndex) {
+            return;
+        }
+        long firstVisibleId = modelArray.get(startIndex).id;
+        long lastVisibleId = modelArray.get(stopIndex).id;
+        int from = lowerBound(firstVisibleId);
+        if (from >= count || ids[from] > lastVisibleId) {
+            return;
+        }
+        float radius = ViewUtil.Dp2Px(view.getContext(), 4f);
+        // Markers closer than one glyph width share a column and collapse into one glyph
+        float columnWidth = Math.max(1f, radius * 2);
+        float mainTop = view.getMainTop();
+        float mainBottom = view.getMainBottom();
+        textPaint.setTextSize(Math.max(ViewUtil.Dp2Px(view.getContext(), 9f), view.configManager.rightTextFontSize * 0.8f));
+        textPaint.getFontMetrics(fontMetrics);
+        fillPaint.setStyle(Paint.Style.FILL);
+
+        canvas.save();
+        canvas.clipRect(0, mainTop, view.getWidth(), mainBottom);
+        Arrays.fill(clusterCount, 0);
+        for (Path path : glyphPaths) {
+            path.rewind();
+        }
+        long column = Long.MIN_VALUE;
+        int candle = startIndex;
+        for (int i = from; i < count && ids[i] <= lastVisibleId; i++) {
+            candle = HTMarkerGlyph.advanceCandle(modelArray, candle, stopIndex, ids[i]);
+            float x = view.scrollXtoViewX(view.getItemMiddleScrollX(candle));
+            long markerColumn = (long) Math.floor(x / columnWidth);
+            if (markerColumn != column) {
+                flush(canvas, view, radius, mainTop, mainBottom);
+                column = markerColumn;
+            }
+            int type = types[i];
+            // Size weighted price, so a cluster sits where most of its volume traded
+            double weight = sizes[i] > 0 ? sizes[i] : 1;
+            clusterCount[type]++;
+            clusterX[type] = x;
+            clusterPrice[type] += prices[i] * weight;
+            clusterWeight[type] += weight;
+        }
+        flush(canvas, view, radius, mainTop, mainBottom);
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            if (!glyphPaths[type].isEmpty()) {
+                fillPaint.setColor(colorOf(view, type));
+                canvas.drawPath(glyphPaths[type], fillPaint);
+            }
+        }
+        canvas.restore();
+    }
+
+    private void flush(Canvas canvas, BaseKLineChartView view, float radius, float mainTop, float mainBottom) {
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            int markers = clusterCount[type];
+            if (markers == 0) {
+                continue;
+            }
+            float x = clusterX[type];
+            float y = view.yFromValue((float) (clusterPrice[type] / clusterWeight[type]));
+            clusterCount[type] = 0;
+            clusterPrice[type] = 0;
+            clusterWeight[type] = 0;
+            float size = markers > 1 ? radius * 1.3f : radius;
+            if (y < mainTop - size * 2 || y > mainBottom + size * 2) {
+                continue;
+            }
+            int shape = type == TYPE_BUY ? HTMarkerGlyph.ARROW_UP
+                    : type == TYPE_SELL ? HTMarkerGlyph.ARROW_DOWN : HTMarkerGlyph.CIRCLE;
+            float textY = HTMarkerGlyph.append(glyphPaths[type], shape, x, y, size, fontMetrics);
+            if (markers > 1) {
+                int start = formatCount(markers);
+                int length = countChars.length - start;
+                textPaint.setColor(colorOf(view, type));
+                float textWidth = textPaint.measureText(countChars, start, length);
+                canvas.drawText(countChars, start, length, x - textWidth / 2, textY, textPaint);
+            }
+        }
+    }
+
+    private static int colorOf(BaseKLineChartView view, int type) {
+        return type == TYPE_BUY ? view.configManager.increaseColor
+                : type == TYPE_SELL ? view.configManager.decreaseColor : EVENT_COLOR;
+    }
+
+    // Writes value right-aligned into countChars and returns the first used index
+    private int formatCount(int value) {
+        int index = countChars.length;
+        do {
+            countChars[--index] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        return index;
+    }
+}
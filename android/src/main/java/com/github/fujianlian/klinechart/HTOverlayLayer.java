@@ -0,0 +1,464 @@
+package com.github.fujianlian.klinechart;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.DashPathEffect;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import com.github.fujianlian.klinechart.utils.ViewUtil;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * App-defined overlays on the main pane: horizontal price lines, price zones, markers at a candle
+ * and right-edge labels, e.g. order fills, alerts or liquidation levels. Items are keyed by id and
+ * changed in batches (parse() off the UI thread, apply() on it). Each frame only the items inside
+ * the visible price and candle range are drawn, and all labels go through one HTLabelSolver.
+ */
+public class HTOverlayLayer {
+
+    public static final int TYPE_LINE = 0;
+
+    public static final int TYPE_ZONE = 1;
+
+    public static final int TYPE_MARKER = 2;
+
+    public static final int TYPE_LABEL = 3;
+
+    public static final int SHAPE_CIRCLE = HTMarkerGlyph.CIRCLE;
+
+    public static final int SHAPE_ARROW_UP = HTMarkerGlyph.ARROW_UP;
+
+    public static final int SHAPE_ARROW_DOWN = HTMarkerGlyph.ARROW_DOWN;
+
+    private static final int DEFAULT_COLOR = Color.parseColor("#2563EB");
+
+    /**
+     * One overlay primitive. Candle ranges are open when startId / endId are unset.
+     */
+    public static class Item {
+
+        public String id;
+
+        public int type;
+
+        // Line and label price, zone bound, marker price
+        public float price;
+
+        // Other zone bound
+        public float price2;
+
+        public long startId = Long.MIN_VALUE;
+
+        public long endId = Long.MAX_VALUE;
+
+        // Marker candle
+        public long candleId;
+
+        public int shape = SHAPE_CIRCLE;
+
+        public int color = DEFAULT_COLOR;
+
+        public int textColor = Color.WHITE;
+
+        // dp
+        public float lineWidth = 1;
+
+        public boolean dashed = false;
+
+        // Right-edge label (lines, zones, labels) or marker caption
+        public String text;
+
+        // Higher labels stay when not all fit
+        public int priority = 0;
+    }
+
+    /**
+     * Parsed update: optional clear, then upserts by id, then removals.
+     */
+    public static class Batch {
+
+        public boolean clear = false;
+
+        public final List<Item> items = new ArrayList<>();
+
+        public final List<String> removals = new ArrayList<>();
+    }
+
+    private static final Comparator<Item> MARKER_ORDER = new Comparator<Item>() {
+        @Override
+        public int compare(Item a, Item b) {
+            return Long.compare(a.candleId, b.candleId);
+        }
+    };
+
+    private final Map<String, Item> itemMap = new HashMap<>();
+
+    // Split by type on each apply; markers sorted by candle id
+    private Item[] lines = new Item[0];
+
+    private Item[] zones = new Item[0];
+
+    private Item[] labels = new Item[0];
+
+    private Item[] markers = new Item[0];
+
+    private long[] markerIds = new long[0];
+
+    private final HTLabelSolver labelSolver = new HTLabelSolver();
+
+    // Item of each solver entry
+    private Item[] labelItems = new Item[16];
+
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+
+    private final Path shapePath = new Path();
+
+    private final RectF rect = new RectF();
+
+    private DashPathEffect dashEffect;
+
+    public boolean isEmpty() {
+        return itemMap.isEmpty();
+    }
+
+    public int size() {
+        return itemMap.size();
+    }
+
+    /**
+     * Parses {"clear":bool,"set":[item...],"remove":[id...]}. Items without an id or a usable
+     * price are skipped. Safe to call off the UI thread.
+     */
+    public static Batch parse(String json) throws JSONException {
+        JSONObject document = new JSONObject(json == null ? "{}" : json);
+        Batch batch = new Batch();
+        batch.clear = document.optBoolean("clear", false);
+        JSONArray set = document.optJSONArray("set");
+        if (set != null) {
+            for (int i = 0; i < set.length(); i++) {
+                JSONObject object = set.optJSONObject(i);
+                Item item = object == null ? null : parseItem(object);
+                if (item != null) {
+                    batch.items.add(item);
+                }
+            }
+        }
+        JSONArray remove = document.optJSONArray("remove");
+        if (remove != null) {
+            for (int i = 0; i < remove.length(); i++) {
+                String id = remove.optString(i, null);
+                if (id != null) {
+                    batch.removals.add(id);
+                }
+            }
+        }
+        return batch;
+    }
+
+    private static Item parseItem(JSONObject object) {
+        String id = object.optString("id", "");
+        if (id.isEmpty()) {
+            return null;
+        }
+        Item item = new Item();
+        item.id = id;
+        String type = object.optString("type", "line");
+        if ("zone".equals(type)) {
+            item.type = TYPE_ZONE;
+            item.price = (float) object.optDouble("from", Double.NaN);
+            item.price2 = (float) object.optDouble("to", Double.NaN);
+            if (!isFinite(item.price2)) {
+                return null;
+            }
+        } else if ("marker".equals(type)) {
+            item.type = TYPE_MARKER;
+            item.price = (float) object.optDouble("price", Double.NaN);
+            if (!object.has("candleId")) {
+                return null;
+            }
+            item.candleId = object.optLong("candleId");
+            String shape = object.optString("shape", "circle");
+            item.shape = "arrowUp".equals(shape) ? SHAPE_ARROW_UP : "arrowDown".equals(shape) ? SHAPE_ARROW_DOWN : SHAPE_CIRCLE;
+        } else if ("label".equals(type)) {
+            item.type = TYPE_LABEL;
+            item.price = (float) object.optDouble("price", Double.NaN);
+        } else {
+            item.type = TYPE_LINE;
+            item.price = (float) object.optDouble("price", Double.NaN);
+        }
+        if (!isFinite(item.price)) {
+            return null;
+        }
+        if (object.has("startId")) {
+            item.startId = object.optLong("startId", Long.MIN_VALUE);
+        }
+        if (object.has("endId")) {
+            item.endId = object.optLong("endId", Long.MAX_VALUE);
+        }
+        if (object.has("color")) {
+            item.color = (int) object.optLong("color", DEFAULT_COLOR);
+        }
+        if (object.has("textColor")) {
+            item.textColor = (int) object.optLong("textColor", Color.WHITE);
+        }
+        item.lineWidth = (float) Math.max(0, object.optDouble("lineWidth", 1));
+        item.dashed = object.optBoolean("dashed", false);
+        String text = object.optString("text", "");
+        item.text = text.isEmpty() ? null : text;
+        item.priority = object.optInt("priority", 0);
+        return item;
+    }
+
+    private static boolean isFinite(float value) {
+        return !Float.isNaN(value) && !Float.isInfinite(value);
+    }
+
+    /**
+     * Applies a parsed batch on the UI thread. Returns true when anything changed.
+     */
+    public boolean apply(Batch batch) {
+        boolean changed = batch.clear && !itemMap.isEmpty();
+        if (batch.clear) {
+            itemMap.clear();
+        }
+        for (Item item : batch.items) {
+            itemMap.put(item.id, item);
+            changed = true;
+        }
+        for (String id : batch.removals) {
+            changed |= itemMap.remove(id) != null;
+        }
+        if (changed) {
+            rebuild();
+        }
+        return changed;
+    }
+
+    private void rebuild() {
+        List<Item> lineList = new ArrayList<>();
+        List<Item> zoneList = new ArrayList<>();
+        List<Item> labelList = new ArrayList<>();
+        List<Item> markerList = new ArrayList<>();
+        for (Item item : itemMap.values()) {
+            switch (item.type) {
+                case TYPE_ZONE:
+                    zoneList.add(item);
+                    break;
+                case TYPE_MARKER:
+                    markerList.add(item);
+                    break;
+                case TYPE_LABEL:
+                    labelList.add(item);
+                    break;
+                default:
+                    lineList.add(item);
+                    break;
+            }
+        }
+        lines = lineList.toArray(new Item[0]);
+        zones = zoneList.toArray(new Item[0]);
+        labels = labelList.toArray(new Item[0]);
+        markers = markerList.toArray(new Item[0]);
+        Arrays.sort(markers, MARKER_ORDER);
+        markerIds = new long[markers.length];
+        for (int i = 0; i < markers.length; i++) {
+            markerIds[i] = markers[i].candleId;
+        }
+    }
+
+    /**
+     * Draws the visible items in view coordinates, inside the main pane.
+     */
+    public void draw(Canvas canvas, BaseKLineChartView view) {
+        if (itemMap.isEmpty()) {
+            return;
+        }
+        List<KLineEntity> modelArray = view.configManager.modelArray;
+        int startIndex = view.getVisibleStartIndex();
+        int stopIndex = view.getVisibleStopIndex();
+        if (modelArray.isEmpty() || startIndex < 0 || stopIndex >= modelArray.size() || startIndex > stopIndex) {
+            return;
+        }
+        long firstVisibleId = modelArray.get(startIndex).id;
+        long lastVisibleId = modelArray.get(stopIndex).id;
+        float mainTop = view.getMainTop();
+        float mainBottom = view.getMainBottom();
+        float topPrice = view.valueFromY(mainTop);
+        float bottomPrice = view.valueFromY(mainBottom);
+        float width = view.getWidth();
+        labelSolver.reset();
+
+        canvas.save();
+        canvas.clipRect(0, mainTop, width, mainBottom);
+        fillPaint.setStyle(Paint.Style.FILL);
+        for (Item zone : zones) {
+            float high = Math.max(zone.price, zone.price2);
+            float low = Math.min(zone.price, zone.price2);
+            if (low > topPrice || high < bottomPrice || zone.endId < firstVisibleId || zone.startId > lastVisibleId) {
+                continue;
+            }
+            fillPaint.setColor(zone.color);
+            canvas.drawRect(rangeLeft(view, zone), view.yFromValue(high), rangeRight(view, zone, width), view.yFromValue(low), fillPaint);
+            if (zone.text != null) {
+                addLabel(zone, view.yFromValue((high + low) / 2));
+            }
+        }
+        linePaint.setStyle(Paint.Style.STROKE);
+        for (Item line : lines) {
+            if (line.price > topPrice || line.price < bottomPrice || line.endId < firstVisibleId || line.startId > lastVisibleId) {
+                continue;
+            }
+            float y = view.yFromValue(line.price);
+            linePaint.setColor(line.color);
+            linePaint.setStrokeWidth(ViewUtil.Dp2Px(view.getContext(), line.lineWidth));
+            linePaint.setPathEffect(line.dashed ? dashEffect(view) : null);
+            canvas.drawLine(rangeLeft(view, line), y, rangeRight(view, line, width), y, linePaint);
+            if (line.text != null) {
+                addLabel(line, y);
+            }
+        }
+        linePaint.setPathEffect(null);
+        for (Item label : labels) {
+            if (label.price <= topPrice && label.price >= bottomPrice && label.text != null) {
+                addLabel(label, view.yFromValue(label.price));
+            }
+        }
+        drawMarkers(canvas, view, modelArray, startIndex, stopIndex, mainTop, mainBottom);
+        canvas.restore();
+        drawLabels(canvas, view, mainTop, mainBottom);
+    }
+
+    private void addLabel(Item item, float y) {
+        int index = labelSolver.add(y, item.priority);
+        if (index >= labelItems.length) {
+            labelItems = Arrays.copyOf(labelItems, labelItems.length * 2);
+        }
+        labelItems[index] = item;
+    }
+
+    private static float xOfId(BaseKLineChartView view, List<KLineEntity> modelArray, long id) {
+        int low = 0;
+        int high = modelArray.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (modelArray.get(middle).id < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return view.scrollXtoViewX(view.getItemMiddleScrollX(low));
+    }
+
+    private static float rangeLeft(BaseKLineChartView view, Item item) {
+        return item.startId == Long.MIN_VALUE ? 0 : Math.max(0, xOfId(view, view.configManager.modelArray, item.startId));
+    }
+
+    private static float rangeRight(BaseKLineChartView view, Item item, float width) {
+        return item.endId == Long.MAX_VALUE ? width : Math.min(width, xOfId(view, view.configManager.modelArray, item.endId));
+    }
+
+    private DashPathEffect dashEffect(BaseKLineChartView view) {
+        if (dashEffect == null) {
+            float dash = ViewUtil.Dp2Px(view.getContext(), 4f);
+            float space = ViewUtil.Dp2Px(view.getContext(), 3f);
+            dashEffect = new DashPathEffect(new float[]{ dash, space }, 0);
+        }
+        return dashEffect;
+    }
+
+    /**
+     * Markers between the visible candles: binary search for the first one, then walk the markers
+     * and candles together, both being sorted by id.
+     */
+    private void drawMarkers(Canvas canvas, BaseKLineChartView view, List<KLineEntity> modelArray,
+                             int startIndex, int stopIndex, float mainTop, float mainBottom) {
+        if (markers.length == 0) {
+            return;
+        }
+        long firstVisibleId = modelArray.get(startIndex).id;
+        long lastVisibleId = modelArray.get(stopIndex).id;
+        int from = HTMarkerGlyph.lowerBound(markerIds, markerIds.length, firstVisibleId);
+        float size = ViewUtil.Dp2Px(view.getContext(), 5f);
+        float textSize = Math.max(ViewUtil.Dp2Px(view.getContext(), 9f), view.configManager.rightTextFontSize * 0.9f);
+        textPaint.setTextSize(textSize);
+        textPaint.getFontMetrics(fontMetrics);
+        fillPaint.setStyle(Paint.Style.FILL);
+        int candle = startIndex;
+        for (int i = from; i < markers.length && markerIds[i] <= lastVisibleId; i++) {
+            Item marker = markers[i];
+            candle = HTMarkerGlyph.advanceCandle(modelArray, candle, stopIndex, marker.candleId);
+            float x = view.scrollXtoViewX(view.getItemMiddleScrollX(candle));
+            float y = view.yFromValue(marker.price);
+            if (y < mainTop - size || y > mainBottom + size) {
+                continue;
+            }
+            fillPaint.setColor(marker.color);
+            shapePath.rewind();
+            float textY = HTMarkerGlyph.append(shapePath, marker.shape, x, y, size, fontMetrics);
+            canvas.drawPath(shapePath, fillPaint);
+            if (marker.text != null) {
+                textPaint.setColor(marker.color);
+                canvas.drawText(marker.text, x - textPaint.measureText(marker.text) / 2, textY, textPaint);
+            }
+        }
+    }
+
+    /**
+     * Right-edge price tags for lines, zones and labels, stacked by the shared solver.
+     */
+    private void drawLabels(Canvas canvas, BaseKLineChartView view, float mainTop, float mainBottom) {
+        int count = labelSolver.size();
+        if (count == 0) {
+            return;
+        }
+        float fontSize = Math.max(ViewUtil.Dp2Px(view.getContext(), 10f), view.configManager.rightTextFontSize);
+        textPaint.setTextSize(fontSize);
+        textPaint.getFontMetrics(fontMetrics);
+        float textHeight = fontMetrics.descent - fontMetrics.ascent;
+        float paddingX = ViewUtil.Dp2Px(view.getContext(), 6f);
+        float paddingY = ViewUtil.Dp2Px(view.getContext(), 3f);
+        float labelHeight = textHeight + paddingY * 2f;
+        float gap = ViewUtil.Dp2Px(view.getContext(), 4f);
+        float margin = ViewUtil.Dp2Px(view.getContext(), 2f);
+        labelSolver.solve(mainTop + margin, mainBottom - labelHeight - margin, labelHeight, gap);
+
+        float rightInset = ViewUtil.Dp2Px(view.getContext(), 6f);
+        float radius = ViewUtil.Dp2Px(view.getContext(), 3f);
+        fillPaint.setStyle(Paint.Style.FILL);
+        for (int i = 0; i < count; i++) {
+            Item item = labelItems[i];
+            labelItems[i] = null;
+            if (!labelSolver.isVisible(i)) {
+                continue;
+            }
+            float textWidth = textPaint.measureText(item.text);
+            float labelWidth = textWidth + paddingX * 2f;
+            float left = view.getWidth() - rightInset - labelWidth;
+            float top = labelSolver.top(i);
+            rect.set(left, top, left + labelWidth, top + labelHeight);
+            fillPaint.setColor(item.type == TYPE_ZONE ? (item.color | 0xFF000000) : item.color);
+            canvas.drawRoundRect(rect, radius, radius, fillPaint);
+            textPaint.setColor(item.textColor);
+            canvas.drawText(item.text, left + paddingX, top + paddingY - fontMetrics.ascent, textPaint);
+        }
+    }
+}
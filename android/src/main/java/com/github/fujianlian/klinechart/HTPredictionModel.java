@@ -0,0 +1,149 @@
+package com.github.fujianlian.klinechart;
+
+import android.graphics.Color;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prediction overlay (entry, stop loss, targets) parsed once from the config into primitives.
+ * The candle where the overlay starts is found by binary search over the candle ids and kept
+ * until the candle list changes, so drawing, hit testing and the y-range need no map reads or
+ * scans per frame.
+ */
+public class HTPredictionModel {
+
+    public static final int DEFAULT_TARGET_COLOR = Color.rgb(76, 175, 80);
+
+    public boolean hasEntry = false;
+
+    public float entry;
+
+    // Start time is set too; without it nothing is drawn
+    public boolean isActive = false;
+
+    public boolean hasStopLoss = false;
+
+    public float stopLoss;
+
+    public int targetCount = 0;
+
+    public float[] targets = new float[0];
+
+    public int[] targetColors = new int[0];
+
+    // Index of each target in configManager.predictionList, which may hold entries without a value
+    public int[] targetListIndexes = new int[0];
+
+    // Target the profit zone reaches to, by bias
+    public float extremeTarget;
+
+    // null, or "LONG" / "SHORT" from the bias
+    public String biasLabel;
+
+    public boolean isBullish = false;
+
+    public float minValue;
+
+    public float maxValue;
+
+    private long startTime;
+
+    private List<KLineEntity> resolvedList;
+
+    private int resolvedSize = -1;
+
+    private long resolvedFirstId;
+
+    private long resolvedLastId;
+
+    private int startIndex = -1;
+
+    /**
+     * Re-parses the prediction keys of the config manager.
+     */
+    public void reload(HTKLineConfigManager configManager) {
+        hasEntry = configManager.predictionEntry != null;
+        entry = hasEntry ? configManager.predictionEntry.floatValue() : 0;
+        isActive = hasEntry && configManager.predictionStartTime != null;
+        startTime = configManager.predictionStartTime != null ? configManager.predictionStartTime.longValue() : 0;
+        hasStopLoss = configManager.predictionStopLoss != null;
+        stopLoss = hasStopLoss ? configManager.predictionStopLoss.floatValue() : 0;
+        String bias = configManager.predictionBias;
+        isBullish = bias != null && bias.equalsIgnoreCase("bullish");
+        boolean isBearish = bias != null && bias.equalsIgnoreCase("bearish");
+        biasLabel = bias == null ? null : isBullish ? "LONG" : "SHORT";
+
+        List<Map<String, Object>> predictionList = configManager.predictionList;
+        int size = predictionList.size();
+        if (targets.length < size) {
+            targets = new float[size];
+            targetColors = new int[size];
+            targetListIndexes = new int[size];
+        }
+        targetCount = 0;
+        extremeTarget = entry;
+        minValue = entry;
+        maxValue = entry;
+        if (hasStopLoss) {
+            minValue = Math.min(minValue, stopLoss);
+            maxValue = Math.max(maxValue, stopLoss);
+        }
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> prediction = predictionList.get(i);
+            Object valObj = prediction.get("value");
+            if (!(valObj instanceof Number)) {
+                continue;
+            }
+            float value = ((Number) valObj).floatValue();
+            Object colorObj = prediction.get("color");
+            targets[targetCount] = value;
+            targetColors[targetCount] = colorObj instanceof Number ? ((Number) colorObj).intValue() : DEFAULT_TARGET_COLOR;
+            targetListIndexes[targetCount] = i;
+            targetCount++;
+            if (isBullish) {
+                extremeTarget = Math.max(extremeTarget, value);
+            } else if (isBearish) {
+                extremeTarget = Math.min(extremeTarget, value);
+            } else if (Math.abs(value - entry) > Math.abs(extremeTarget - entry)) {
+                // Default: furthest from entry
+                extremeTarget = value;
+            }
+            minValue = Math.min(minValue, value);
+            maxValue = Math.max(maxValue, value);
+        }
+        resolvedList = null;
+    }
+
+    /**
+     * Index of the first candle at or after the start time, or the last candle when all are
+     * earlier. Only searches again after the candle list changed.
+     */
+    public int startIndex(List<KLineEntity> modelArray) {
+        int size = modelArray.size();
+        if (size == 0) {
+            return -1;
+        }
+        long firstId = modelArray.get(0).id;
+        long lastId = modelArray.get(size - 1).id;
+        if (modelArray == resolvedList && size == resolvedSize && firstId == resolvedFirstId && lastId == resolvedLastId) {
+            return startIndex;
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (modelArray.get(middle).id < startTime) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        startIndex = Math.min(low, size - 1);
+        resolvedList = modelArray;
+        resolvedSize = size;
+        resolvedFirstId = firstId;
+        resolvedLastId = lastId;
+        return startIndex;
+    }
+}
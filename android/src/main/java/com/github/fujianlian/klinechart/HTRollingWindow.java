@@ -0,0 +1,109 @@
+package com.github.fujianlian.klinechart;
+
+/**
+ * Fixed-length window over doubles with compensated running sum and sum of squares.
+ * Values are summed relative to an anchor so the variance does not cancel out for large prices.
+ * Every REANCHOR_WINDOWS full turns the anchor moves to the current mean and both sums are rebuilt
+ * from the window contents, which bounds drift at the cost of one window rescan instead of a
+ * rescan of the series.
+ */
+public class HTRollingWindow {
+
+    private static final int REANCHOR_WINDOWS = 64;
+
+    private final double[] values;
+
+    private final HTCompensatedSum sum = new HTCompensatedSum();
+
+    private final HTCompensatedSum squares = new HTCompensatedSum();
+
+    private double anchor = 0;
+
+    private int count = 0;
+
+    // Next slot to write
+    private int head = 0;
+
+    private int sinceAnchor = 0;
+
+    public HTRollingWindow(int length) {
+        values = new double[Math.max(1, length)];
+    }
+
+    public int length() {
+        return values.length;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isFull() {
+        return count == values.length;
+    }
+
+    public void push(double value) {
+        if (count == 0) {
+            anchor = value;
+        }
+        if (count == values.length) {
+            double old = values[head] - anchor;
+            sum.remove(old);
+            squares.remove(old * old);
+        } else {
+            count++;
+        }
+        values[head] = value;
+        double shifted = value - anchor;
+        sum.add(shifted);
+        squares.add(shifted * shifted);
+        head = head + 1 == values.length ? 0 : head + 1;
+        if (++sinceAnchor >= values.length * REANCHOR_WINDOWS) {
+            reanchor();
+        }
+    }
+
+    public double sum() {
+        return sum.value() + anchor * count;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : anchor + sum.value() / count;
+    }
+
+    /**
+     * Sample variance (divides by size - 1), 0 with fewer than two values.
+     */
+    public double variance() {
+        if (count < 2) {
+            return 0;
+        }
+        double shiftedSum = sum.value();
+        return Math.max(0, (squares.value() - shiftedSum * shiftedSum / count) / (count - 1));
+    }
+
+    /**
+     * Moves the anchor to the current mean and rebuilds both sums from the window.
+     */
+    public void reanchor() {
+        double mean = mean();
+        anchor = mean;
+        sum.reset();
+        squares.reset();
+        for (int i = 0; i < count; i++) {
+            double shifted = values[i] - anchor;
+            sum.add(shifted);
+            squares.add(shifted * shifted);
+        }
+        sinceAnchor = 0;
+    }
+
+    public void clear() {
+        count = 0;
+        head = 0;
+        anchor = 0;
+        sinceAnchor = 0;
+        sum.reset();
+        squares.reset();
+    }
+}
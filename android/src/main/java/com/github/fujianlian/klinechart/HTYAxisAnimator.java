@@ -0,0 +1,89 @@
+package com.github.fujianlian.klinechart;
+
+/**
+ * Eases the rendered main y-range towards the visible extremes instead of snapping every frame.
+ * The rendered range always covers the target, so growing ranges apply at once and only
+ * shrinking ranges are animated; candles never draw outside the main pane.
+ */
+public class HTYAxisAnimator {
+
+    private boolean hasValue = false;
+
+    private float renderedMin;
+
+    private float renderedMax;
+
+    private float fromMin;
+
+    private float fromMax;
+
+    private float targetMin;
+
+    private float targetMax;
+
+    private long startMillis;
+
+    private boolean running = false;
+
+    public float getMin() {
+        return renderedMin;
+    }
+
+    public float getMax() {
+        return renderedMax;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void reset() {
+        hasValue = false;
+        running = false;
+    }
+
+    /**
+     * Moves the rendered range one step towards [min, max] and returns true while more frames
+     * are needed.
+     */
+    public boolean update(float min, float max, long nowMillis, int durationMillis) {
+        if (!hasValue || durationMillis <= 0 || max < renderedMin || min > renderedMax) {
+            // First frame, disabled, or no overlap with what is on screen (e.g. a new symbol)
+            snap(min, max);
+            return false;
+        }
+        if (min != targetMin || max != targetMax) {
+            fromMin = renderedMin;
+            fromMax = renderedMax;
+            targetMin = min;
+            targetMax = max;
+            startMillis = nowMillis;
+            running = true;
+        }
+        if (!running) {
+            return false;
+        }
+        float t = Math.min(1f, (nowMillis - startMillis) / (float) durationMillis);
+        // Ease out
+        float eased = 1f - (1f - t) * (1f - t);
+        renderedMin = Math.min(targetMin, fromMin + (targetMin - fromMin) * eased);
+        renderedMax = Math.max(targetMax, fromMax + (targetMax - fromMax) * eased);
+        if (t >= 1f) {
+            renderedMin = targetMin;
+            renderedMax = targetMax;
+            running = false;
+        }
+        return running;
+    }
+
+    private void snap(float min, float max) {
+        hasValue = true;
+        running = false;
+        renderedMin = min;
+        renderedMax = max;
+        fromMin = min;
+        fromMax = max;
+        targetMin = min;
+        targetMax = max;
+    }
+}
@@ -185,18 +185,18 @@ public class KLineChartView extends BaseKLineChartView {
             return;
         }
         int threshold = Math.max(0, Math.round(configManager.loadMoreThreshold));
-        if (BuildConfig.DEBUG) {
-            Log.d(
-                    TAG,
-                    "onScrollChanged x=" + mScrollX
-                            + " threshold=" + threshold
-                            + " refreshing=" + isRefreshing
-                            + " scaleEnabled=" + isScaleEnable()
-            );
-        }
         if (mScrollX <= threshold) {
             if (!didTriggerNearLeftLoadMore) {
                 didTriggerNearLeftLoadMore = true;
+                if (BuildConfig.DEBUG) {
+                    Log.d(
+                            TAG,
+                            "onScrollChanged load more x=" + mScrollX
+                                    + " threshold=" + threshold
+                                    + " refreshing=" + isRefreshing
+                                    + " scaleEnabled=" + isScaleEnable()
+                    );
+                }
                 justShowLoading();
             }
         } else {
@@ -204,6 +204,38 @@ public class KLineChartView extends BaseKLineChartView {
         }
     }
 
+    @Override
+    protected void onFlingPredicted(int finalScrollX) {
+        if (configManager.modelArray == null || configManager.modelArray.isEmpty()) {
+            return;
+        }
+        int threshold = Math.max(0, Math.round(configManager.loadMoreThreshold));
+        if (finalScrollX > threshold || didTriggerNearLeftLoadMore) {
+            return;
+        }
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "onFlingPredicted load more x=" + mScrollX + " final=" + finalScrollX);
+        }
+        didTriggerNearLeftLoadMore = true;
+        prefetchHistory();
+    }
+
+    /**
+     * Asks for older candles while a fling is still on its way to the oldest one. Unlike
+     * justShowLoading this leaves scrolling enabled, so the fling keeps going while they load.
+     */
+    private void prefetchHistory() {
+        if (isRefreshing) {
+            return;
+        }
+        isRefreshing = true;
+        mLastScaleEnable = isScaleEnable();
+        mLastScrollEnable = isScrollEnable();
+        if (mRefreshListener != null) {
+            mRefreshListener.onLoadMoreBegin(this);
+        }
+    }
+
     public void showLoading() {
         if (!isLoadMoreEnd && !isRefreshing) {
             isRefreshing = true;
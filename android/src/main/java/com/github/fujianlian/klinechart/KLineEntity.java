@@ -179,20 +179,24 @@ public class KLineEntity implements IKLine {
     public float MA10Volume;
 
 
-    public List<HTKLineTargetItem> maList = new ArrayList();
-    public List<HTKLineTargetItem> maVolumeList = new ArrayList();
-    public List<HTKLineTargetItem> rsiList = new ArrayList();
-    public List<HTKLineTargetItem> wrList = new ArrayList();
+    public static final float[] EMPTY_TARGET_VALUES = new float[0];
 
+    // Target list values by position of the selected item; title and kind live once in the
+    // configManager lists, whose item index points into these arrays.
+    public float[] maValues = EMPTY_TARGET_VALUES;
+    public float[] maVolumeValues = EMPTY_TARGET_VALUES;
+    public float[] rsiValues = EMPTY_TARGET_VALUES;
+    public float[] wrValues = EMPTY_TARGET_VALUES;
 
-    public float targetListISMax(List<HTKLineTargetItem> itemList, boolean isMax) {
+
+    public float targetListISMax(float[] values, boolean isMax) {
         float max = Float.MIN_VALUE;
         float min = Float.MAX_VALUE;
-        for (HTKLineTargetItem item: itemList) {
+        for (float value : values) {
             if (isMax) {
-                max = Math.max(max, item.value);
+                max = Math.max(max, value);
             } else {
-                min = Math.min(min, item.value);
+                min = Math.min(min, value);
             }
         }
         if (isMax) {
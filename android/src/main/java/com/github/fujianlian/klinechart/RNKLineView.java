@@ -10,6 +10,8 @@ import com.facebook.react.common.MapBuilder;
 import com.facebook.react.uimanager.SimpleViewManager;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.annotations.ReactProp;
+import com.github.fujianlian.klinechart.container.HTDrawItem;
+import com.github.fujianlian.klinechart.container.HTDrawStore;
 import com.github.fujianlian.klinechart.container.HTKLineContainerView;
 import com.github.fujianlian.klinechart.draw.PrimaryStatus;
 import com.github.fujianlian.klinechart.draw.SecondStatus;
@@ -19,12 +21,17 @@ import com.github.fujianlian.klinechart.formatter.ValueFormatter;
 import javax.annotation.Nonnull;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import com.facebook.react.bridge.ReadableMapKeySetIterator;
 import com.facebook.react.bridge.ReadableType;
 
 public class RNKLineView extends SimpleViewManager<HTKLineContainerView> {
     private static final String TAG = "RNKLineView";
 
+    // Data commands are packed one at a time, so their posts reach the UI thread in command order
+    private static final ExecutorService parseExecutor = Executors.newSingleThreadExecutor();
+
 	public static String onDrawItemDidTouchKey = "onDrawItemDidTouch";
 
 	public static String onDrawItemCompleteKey = "onDrawItemComplete";
@@ -34,6 +41,9 @@ public class RNKLineView extends SimpleViewManager<HTKLineContainerView> {
 	public static String onPredictionSelectKey = "onPredictionSelect";
     public static String onLoadMoreKey = "onLoadMore";
     public static String onChartErrorKey = "onChartError";
+    public static String onPerfStatsKey = "onPerfStats";
+    public static String onIngestionMetricsKey = "onIngestionMetrics";
+    public static String onDrawingsChangeKey = "onDrawingsChange";
 
     @Nonnull
     @Override
@@ -57,6 +67,9 @@ public class RNKLineView extends SimpleViewManager<HTKLineContainerView> {
 				.put(onPredictionSelectKey, MapBuilder.of("registrationName", onPredictionSelectKey))
                 .put(onLoadMoreKey, MapBuilder.of("registrationName", onLoadMoreKey))
                 .put(onChartErrorKey, MapBuilder.of("registrationName", onChartErrorKey))
+                .put(onPerfStatsKey, MapBuilder.of("registrationName", onPerfStatsKey))
+                .put(onIngestionMetricsKey, MapBuilder.of("registrationName", onIngestionMetricsKey))
+                .put(onDrawingsChangeKey, MapBuilder.of("registrationName", onDrawingsChangeKey))
 				.build();
 	}
 
@@ -73,6 +86,15 @@ public class RNKLineView extends SimpleViewManager<HTKLineContainerView> {
     private static final int COMMAND_UPDATE_LAST_CANDLE = 3;
     private static final int COMMAND_UN_PREDICTION_SELECT = 4;
     private static final int COMMAND_PREPEND_DATA = 5;
+    private static final int COMMAND_APPEND_TICKS = 6;
+    private static final int COMMAND_GET_PERF_STATS = 7;
+    private static final int COMMAND_LOAD_DRAWINGS = 8;
+    private static final int COMMAND_UNDO_DRAWING = 9;
+    private static final int COMMAND_REDO_DRAWING = 10;
+    private static final int COMMAND_EXPORT_DRAWINGS = 11;
+    private static final int COMMAND_SET_DRAWING_SYMBOL = 12;
+    private static final int COMMAND_UPDATE_OVERLAYS = 13;
+    private static final int COMMAND_APPEND_MARKERS = 14;
 
   private static final String COMMAND_SET_DATA_NAME = "setData";
   private static final String COMMAND_APPEND_CANDLE_NAME = "appendCandle";
@@ -84,6 +106,15 @@ public class RNKLineView extends SimpleViewManager<HTKLineContainerView> {
         map.put("updateLastCandle", COMMAND_UPDATE_LAST_CANDLE);
         map.put("unPredictionSelect", COMMAND_UN_PREDICTION_SELECT);
         map.put("prependData", COMMAND_PREPEND_DATA);
+        map.put("appendTicks", COMMAND_APPEND_TICKS);
+        map.put("getPerfStats", COMMAND_GET_PERF_STATS);
+        map.put("loadDrawings", COMMAND_LOAD_DRAWINGS);
+        map.put("undoDrawing", COMMAND_UNDO_DRAWING);
+        map.put("redoDrawing", COMMAND_REDO_DRAWING);
+        map.put("exportDrawings", COMMAND_EXPORT_DRAWINGS);
+        map.put("setDrawingSymbol", COMMAND_SET_DRAWING_SYMBOL);
+        map.put("updateOverlays", COMMAND_UPDATE_OVERLAYS);
+        map.put("appendMarkers", COMMAND_APPEND_MARKERS);
         return map;
     }
 public void receiveCommand(@Nonnull final HTKLineContainerView root, int commandId, @androidx.annotation.Nullable final ReadableArray args) {
@@ -104,6 +135,8 @@ public void receiveCommand(@Nonnull final HTKLineContainerView root, int command
                     return;
                 }
                 Log.i(TAG, "setData: count=" + candleArray.size());
+                final HTIngestionMetrics metrics = root.ingestionMetrics;
+                final HTIngestionMetrics.Sample sample = metrics.begin(HTIngestionMetrics.SET_DATA);
 
                 // Copy ReadableArray into plain Java structures on the UI thread (ReadableArray is not thread-safe)
                 final List<Map<String, Object>> candleMaps = new ArrayList<>();
@@ -115,30 +148,36 @@ public void receiveCommand(@Nonnull final HTKLineContainerView root, int command
                         }
                     }
                 }
+                metrics.copied(sample, candleMaps.size(), candleMaps);
 
-                new Thread(new Runnable() {
+                parseExecutor.execute(new Runnable() {
                     @Override
                     public void run() {
                         try {
                             final List<KLineEntity> entities = root.configManager.packModelList((List) candleMaps);
+                            metrics.packed(sample);
+                            metrics.enqueued(sample);
                             root.post(new Runnable() {
                                 @Override
                                 public void run() {
+                                    metrics.applying(sample);
                                     root.configManager.modelArray.clear();
                                     root.configManager.modelArray.addAll(entities);
                                     root.reloadConfigManager();
+                                    root.recordIngestion(sample);
                                 }
                             });
                         } catch (Exception e) {
                             root.post(new Runnable() {
                                 @Override
                                 public void run() {
+                                    metrics.fail(sample);
                                     root.emitError("E_SET_DATA", "Failed to set chart data", false);
                                 }
                             });
                         }
                     }
-                }).start();
+                });
                 return;
             }
 
@@ -152,31 +191,39 @@ public void receiveCommand(@Nonnull final HTKLineContainerView root, int command
                     Log.w(TAG, "appendCandle: candle is null");
                     return;
                 }
+                final HTIngestionMetrics metrics = root.ingestionMetrics;
+                final HTIngestionMetrics.Sample sample = metrics.begin(HTIngestionMetrics.APPEND_CANDLE);
                 final Map<String, Object> candleMap = readableMapToMap(candle);
+                metrics.copied(sample, 1, candleMap);
                 Log.i(TAG, "appendCandle keys=" + candleMap.keySet());
 
-                new Thread(new Runnable() {
+                parseExecutor.execute(new Runnable() {
                     @Override
                     public void run() {
                         try {
                             final KLineEntity entity = root.configManager.packModel(candleMap);
+                            metrics.packed(sample);
+                            metrics.enqueued(sample);
                             root.post(new Runnable() {
                                 @Override
                                 public void run() {
+                                    metrics.applying(sample);
                                     root.configManager.modelArray.add(entity);
                                     root.reloadConfigManager();
+                                    root.recordIngestion(sample);
                                 }
                             });
                         } catch (Exception e) {
                             root.post(new Runnable() {
                                 @Override
                                 public void run() {
+                                    metrics.fail(sample);
                                     root.emitError("E_APPEND_CANDLE", "Failed to append candle", false);
                                 }
                             });
                         }
                     }
-                }).start();
+                });
                 return;
             }
 
@@ -190,36 +237,38 @@ public void receiveCommand(@Nonnull final HTKLineContainerView root, int command
                     Log.w(TAG, "updateLastCandle: candle is null");
                     return;
                 }
+                final HTIngestionMetrics metrics = root.ingestionMetrics;
+                final HTIngestionMetrics.Sample sample = metrics.begin(HTIngestionMetrics.UPDATE_LAST_CANDLE);
                 final Map<String, Object> candleMap = readableMapToMap(candle);
+                metrics.copied(sample, 1, candleMap);
                 Log.i(TAG, "updateLastCandle keys=" + candleMap.keySet());
 
-                new Thread(new Runnable() {
+                parseExecutor.execute(new Runnable() {
                     @Override
                     public void run() {
                         try {
                             final KLineEntity entity = root.configManager.packModel(candleMap);
+                            metrics.packed(sample);
+                            metrics.enqueued(sample);
                             root.post(new Runnable() {
                                 @Override
                                 public void run() {
-                                    int size = root.configManager.modelArray.size();
-                                    if (size == 0) {
-                                        root.configManager.modelArray.add(entity);
-                                    } else {
-                                        root.configManager.modelArray.set(size - 1, entity);
-                                    }
-                                    root.reloadConfigManager();
+                                    metrics.applying(sample);
+                                    root.updateLastCandle(entity);
+                                    root.recordIngestion(sample);
                                 }
                             });
                         } catch (Exception e) {
                             root.post(new Runnable() {
                                 @Override
                                 public void run() {
+                                    metrics.fail(sample);
                                     root.emitError("E_UPDATE_LAST", "Failed to update last candle", false);
                                 }
                             });
                         }
                     }
-                }).start();
+                });
                 return;
             }
 
@@ -241,6 +290,8 @@ public void receiveCommand(@Nonnull final HTKLineContainerView root, int command
                 if (candleArray == null) {
                     return;
                 }
+                final HTIngestionMetrics metrics = root.ingestionMetrics;
+                final HTIngestionMetrics.Sample sample = metrics.begin(HTIngestionMetrics.PREPEND_DATA);
                 final List<Map<String, Object>> candleMaps = new ArrayList<>();
                 for (int i = 0; i < candleArray.size(); i++) {
                     if (!candleArray.isNull(i)) {
@@ -250,27 +301,246 @@ public void receiveCommand(@Nonnull final HTKLineContainerView root, int command
                         }
                     }
                 }
-                new Thread(new Runnable() {
+                metrics.copied(sample, candleMaps.size(), candleMaps);
+                parseExecutor.execute(new Runnable() {
                     @Override
                     public void run() {
                         try {
                             final List<KLineEntity> entities = root.configManager.packModelList((List) candleMaps);
+                            metrics.packed(sample);
+                            metrics.enqueued(sample);
                             root.post(new Runnable() {
                                 @Override
                                 public void run() {
+                                    metrics.applying(sample);
                                     root.prependData(entities);
+                                    root.recordIngestion(sample);
                                 }
                             });
                         } catch (Exception e) {
                             root.post(new Runnable() {
                                 @Override
                                 public void run() {
+                                    metrics.fail(sample);
                                     root.emitError("E_PREPEND_DATA", "Failed to prepend candles", false);
                                 }
                             });
                         }
                     }
-                }).start();
+                });
+                return;
+            }
+            case COMMAND_APPEND_TICKS: {
+                if (args == null || args.size() == 0 || args.isNull(0)) {
+                    Log.w(TAG, "appendTicks: args empty or null");
+                    return;
+                }
+                final ReadableMap payload = args.getMap(0);
+                if (payload == null || !payload.hasKey("ticks") || payload.isNull("ticks")) {
+                    Log.w(TAG, "appendTicks: ticks missing");
+                    return;
+                }
+                final HTIngestionMetrics metrics = root.ingestionMetrics;
+                final HTIngestionMetrics.Sample sample = metrics.begin(HTIngestionMetrics.APPEND_TICKS);
+                final ReadableArray tickArray = payload.getArray("ticks");
+                final long interval = payload.hasKey("interval") && !payload.isNull("interval")
+                        ? (long) payload.getDouble("interval")
+                        : 0L;
+                final String datePattern = payload.hasKey("dateFormat") && !payload.isNull("dateFormat")
+                        ? payload.getString("dateFormat")
+                        : null;
+                // Packed [timestamp, price, size, ...]; copy straight into primitives, no per-trade maps
+                final int tickCount = tickArray == null ? 0 : tickArray.size() / HTKLineTickAggregator.TICK_STRIDE;
+                if (tickCount == 0) {
+                    return;
+                }
+                final double[] ticks = new double[tickCount * HTKLineTickAggregator.TICK_STRIDE];
+                try {
+                    for (int i = 0; i < ticks.length; i++) {
+                        ticks[i] = tickArray.isNull(i) ? Double.NaN : tickArray.getDouble(i);
+                    }
+                } catch (Exception e) {
+                    metrics.fail(sample);
+                    root.emitError("E_APPEND_TICKS", "appendTicks expects a flat numeric array", false);
+                    return;
+                }
+                // Candles are built from the ticks natively and counted once applied
+                metrics.copiedTicks(sample, tickCount, ticks);
+                // Queued behind earlier data commands, so ticks land on the candles they were sent after
+                parseExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        metrics.enqueued(sample);
+                        root.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                metrics.applying(sample);
+                                metrics.built(sample, root.appendTicks(ticks, tickCount, interval, datePattern));
+                                root.recordIngestion(sample);
+                            }
+                        });
+                    }
+                });
+                return;
+            }
+            case COMMAND_GET_PERF_STATS: {
+                root.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        root.emitPerfStats("request");
+                    }
+                });
+                return;
+            }
+            case COMMAND_LOAD_DRAWINGS: {
+                if (args == null || args.size() == 0 || args.isNull(0)) {
+                    Log.w(TAG, "loadDrawings: args empty or null");
+                    return;
+                }
+                final ReadableMap payload = args.getMap(0);
+                if (payload == null || !payload.hasKey("data") || payload.isNull("data")) {
+                    Log.w(TAG, "loadDrawings: data missing");
+                    return;
+                }
+                // One JSON string over the bridge instead of a map per item; parsed off the UI thread in
+                // command order, so a load never lands after an edit sent later
+                final String json = payload.getString("data");
+                parseExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            final List<HTDrawItem> drawItemList = HTDrawStore.fromJson(json);
+                            root.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    root.loadDrawings(drawItemList);
+                                }
+                            });
+                        } catch (Exception e) {
+                            root.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    root.emitError("E_LOAD_DRAWINGS", "Failed to load drawings", false);
+                                }
+                            });
+                        }
+                    }
+                });
+                return;
+            }
+            case COMMAND_UNDO_DRAWING: {
+                root.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        root.undoDrawing();
+                    }
+                });
+                return;
+            }
+            case COMMAND_REDO_DRAWING: {
+                root.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        root.redoDrawing();
+                    }
+                });
+                return;
+            }
+            case COMMAND_EXPORT_DRAWINGS: {
+                root.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        root.exportDrawings();
+                    }
+                });
+                return;
+            }
+            case COMMAND_SET_DRAWING_SYMBOL: {
+                final ReadableMap payload = args == null || args.size() == 0 || args.isNull(0) ? null : args.getMap(0);
+                final String symbol = payload != null && payload.hasKey("symbol") && !payload.isNull("symbol")
+                        ? payload.getString("symbol")
+                        : null;
+                root.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        root.setDrawingSymbol(symbol);
+                    }
+                });
+                return;
+            }
+            case COMMAND_UPDATE_OVERLAYS: {
+                if (args == null || args.size() == 0 || args.isNull(0)) {
+                    Log.w(TAG, "updateOverlays: args empty or null");
+                    return;
+                }
+                final ReadableMap payload = args.getMap(0);
+                if (payload == null || !payload.hasKey("data") || payload.isNull("data")) {
+                    Log.w(TAG, "updateOverlays: data missing");
+                    return;
+                }
+                // Whole batch as one JSON string, parsed off the UI thread in command order
+                final String json = payload.getString("data");
+                parseExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            final HTOverlayLayer.Batch batch = HTOverlayLayer.parse(json);
+                            root.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    root.updateOverlays(batch);
+                                }
+                            });
+                        } catch (Exception e) {
+                            root.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    root.emitError("E_UPDATE_OVERLAYS", "Failed to update overlays", false);
+                                }
+                            });
+                        }
+                    }
+                });
+                return;
+            }
+            case COMMAND_APPEND_MARKERS: {
+                if (args == null || args.size() == 0 || args.isNull(0)) {
+                    Log.w(TAG, "appendMarkers: args empty or null");
+                    return;
+                }
+                final ReadableMap payload = args.getMap(0);
+                if (payload == null || !payload.hasKey("markers") || payload.isNull("markers")) {
+                    Log.w(TAG, "appendMarkers: markers missing");
+                    return;
+                }
+                final ReadableArray markerArray = payload.getArray("markers");
+                final boolean replace = payload.hasKey("replace") && !payload.isNull("replace")
+                        && payload.getBoolean("replace");
+                // Packed [id, price, type, size, ...] like appendTicks, copied straight into primitives
+                final int markerCount = markerArray == null ? 0 : markerArray.size() / HTMarkerStore.STRIDE;
+                if (markerCount == 0 && !replace) {
+                    return;
+                }
+                final double[] markers = new double[markerCount * HTMarkerStore.STRIDE];
+                try {
+                    for (int i = 0; i < markers.length; i++) {
+                        markers[i] = markerArray.isNull(i) ? Double.NaN : markerArray.getDouble(i);
+                    }
+                } catch (Exception e) {
+                    root.emitError("E_APPEND_MARKERS", "appendMarkers expects a flat numeric array", false);
+                    return;
+                }
+                parseExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        root.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                root.appendMarkers(markers, markerCount, replace);
+                            }
+                        });
+                    }
+                });
                 return;
             }
         }
@@ -295,6 +565,33 @@ public void receiveCommand(@Nonnull final HTKLineContainerView root, int command
             case "prependData":
                 receiveCommand(root, COMMAND_PREPEND_DATA, args);
                 return;
+            case "appendTicks":
+                receiveCommand(root, COMMAND_APPEND_TICKS, args);
+                return;
+            case "getPerfStats":
+                receiveCommand(root, COMMAND_GET_PERF_STATS, args);
+                return;
+            case "loadDrawings":
+                receiveCommand(root, COMMAND_LOAD_DRAWINGS, args);
+                return;
+            case "undoDrawing":
+                receiveCommand(root, COMMAND_UNDO_DRAWING, args);
+                return;
+            case "redoDrawing":
+                receiveCommand(root, COMMAND_REDO_DRAWING, args);
+                return;
+            case "exportDrawings":
+                receiveCommand(root, COMMAND_EXPORT_DRAWINGS, args);
+                return;
+            case "setDrawingSymbol":
+                receiveCommand(root, COMMAND_SET_DRAWING_SYMBOL, args);
+                return;
+            case "updateOverlays":
+                receiveCommand(root, COMMAND_UPDATE_OVERLAYS, args);
+                return;
+            case "appendMarkers":
+                receiveCommand(root, COMMAND_APPEND_MARKERS, args);
+                return;
             default:
                 return;
         }
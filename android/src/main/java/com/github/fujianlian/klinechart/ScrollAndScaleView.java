@@ -1,6 +1,7 @@
 package com.github.fujianlian.klinechart;
 
 import android.content.Context;
+import android.os.SystemClock;
 import androidx.core.view.GestureDetectorCompat;
 import android.util.Log;
 import android.util.AttributeSet;
@@ -19,6 +20,9 @@ public abstract class ScrollAndScaleView extends RelativeLayout implements
         ScaleGestureDetector.OnScaleGestureListener {
     private static final String TAG = "RNKLineView.Gesture";
 
+    // A fling stopped by the oldest candle this recently resumes when older candles are prepended
+    private static final long EDGE_RESUME_MS = 1000;
+
     protected int mScrollX = 0;
     protected GestureDetectorCompat mDetector;
     protected ScaleGestureDetector mScaleDetector;
@@ -41,6 +45,11 @@ public abstract class ScrollAndScaleView extends RelativeLayout implements
 
     private boolean mScaleEnable = true;
 
+    // Scroller velocity of the last fling cut off at getMinScrollX(), 0 when none
+    private float mEdgeVelocity = 0;
+
+    private long mEdgeTime = 0;
+
     public ScrollAndScaleView(Context context) {
         super(context);
         init();
@@ -76,6 +85,7 @@ public abstract class ScrollAndScaleView extends RelativeLayout implements
         if (BuildConfig.DEBUG) {
             Log.d(TAG, "onDown x=" + e.getX() + " y=" + e.getY());
         }
+        mEdgeVelocity = 0;
         return true;
     }
 
@@ -112,14 +122,57 @@ public abstract class ScrollAndScaleView extends RelativeLayout implements
     @Override
     public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
         if (!isTouch() && isScrollEnable()) {
-            mScroller.fling(-mScrollX, 0
-                    , Math.round(velocityX / mScaleX), 0,
-                    Integer.MIN_VALUE, Integer.MAX_VALUE,
-                    0, 0);
+            startFling(velocityX / mScaleX);
         }
         return true;
     }
 
+    /**
+     * Starts a fling from the current offset with a velocity in scroller units (positive moves
+     * toward older candles) and reports where the deceleration curve will come to rest.
+     */
+    private void startFling(float velocity) {
+        mEdgeVelocity = 0;
+        mScroller.fling(-mScrollX, 0,
+                Math.round(velocity), 0,
+                Integer.MIN_VALUE, Integer.MAX_VALUE,
+                0, 0);
+        onFlingPredicted(-mScroller.getFinalX());
+        postInvalidateOnAnimation();
+    }
+
+    /**
+     * Called when a fling starts with the scroll offset it will settle at, before any frame of it
+     * is drawn, e.g. to request data for where it lands.
+     */
+    protected void onFlingPredicted(int finalScrollX) {
+    }
+
+    /**
+     * Moves the content by delta scroll units, e.g. after candles were prepended on the left, and
+     * keeps a running fling going from the shifted offset. A fling the oldest candle cut off
+     * moments ago resumes with the velocity it had.
+     */
+    public void offsetScrollX(int delta) {
+        if (!mScroller.isFinished()) {
+            float direction = Math.signum(mScroller.getFinalX() - mScroller.getCurrX());
+            float velocity = mScroller.getCurrVelocity() * direction;
+            mScroller.forceFinished(true);
+            scrollTo(mScrollX + delta, 0);
+            if (velocity != 0 && !isTouch() && isScrollEnable()) {
+                startFling(velocity);
+            }
+            return;
+        }
+        float edgeVelocity = mEdgeVelocity;
+        boolean resume = edgeVelocity > 0 && SystemClock.uptimeMillis() - mEdgeTime < EDGE_RESUME_MS;
+        scrollTo(mScrollX + delta, 0);
+        if (resume && !isTouch() && isScrollEnable()) {
+            startFling(edgeVelocity);
+        }
+        mEdgeVelocity = 0;
+    }
+
     @Override
     public void computeScroll() {
         if (mScroller.computeScrollOffset()) {
@@ -146,7 +199,8 @@ public abstract class ScrollAndScaleView extends RelativeLayout implements
         mScrollX = x;
         checkAndFixScrollX();
         onScrollChanged(mScrollX, 0, oldX, 0);
-        invalidate();
+        // Coalesces the scroll moves of one frame into a single redraw on the next vsync
+        postInvalidateOnAnimation();
     }
 
     @Override
@@ -371,10 +425,21 @@ public abstract class ScrollAndScaleView extends RelativeLayout implements
         return mMultipleTouch;
     }
 
+    /**
+     * True while the content is panned by a finger or a fling, so only mScrollX changes between frames.
+     */
+    public boolean isScrollInProgress() {
+        return (touch && !isLongPress && !mMultipleTouch) || !mScroller.isFinished();
+    }
+
     protected void checkAndFixScrollX() {
         int contentSizeWidth = (getMaxScrollX());
         if (mScrollX < getMinScrollX()) {
             mScrollX = getMinScrollX();
+            if (!mScroller.isFinished()) {
+                mEdgeVelocity = mScroller.getCurrVelocity();
+                mEdgeTime = SystemClock.uptimeMillis();
+            }
             mScroller.forceFinished(true);
         } else if (mScrollX > contentSizeWidth) {
             mScrollX = contentSizeWidth;
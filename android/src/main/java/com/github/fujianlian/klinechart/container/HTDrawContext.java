@@ -9,6 +9,7 @@ import com.github.fujianlian.klinechart.BaseKLineChartView;
 import com.github.fujianlian.klinechart.BuildConfig;
 import com.github.fujianlian.klinechart.HTKLineConfigManager;
 import com.github.fujianlian.klinechart.KLineChartView;
+import com.github.fujianlian.klinechart.KLineEntity;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,8 +19,51 @@ public class HTDrawContext {
 
     public List<HTDrawItem> drawItemList = new ArrayList<HTDrawItem>();
 
+    // Hit-test grid over drawItemList; call drawIndex.invalidate() after adding or removing items
+    public HTDrawIndex drawIndex = new HTDrawIndex();
+
+    // Undo journal and serialisation for drawItemList
+    public HTDrawStore drawStore = new HTDrawStore();
+
+    // Item being dragged and its state when the drag started
+    private HTDrawItem dragItem;
+
+    private HTDrawStore.State dragBefore;
+
+    private static final float SELECTED_OUTER_RADIUS = 20;
+
+    private static final float SELECTED_INNER_RADIUS = 8;
+
     private Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
+    private final DashPathEffect centerDashPathEffect = new DashPathEffect(new float[] { 4, 4 }, 0);
+
+    // Dash effects per [dashWidth, dashSpace] style, shared by all items
+    private final List<float[]> dashStyleList = new ArrayList<>();
+
+    private final List<DashPathEffect> dashEffectList = new ArrayList<>();
+
+    // Value to view projection the cached item paths were built with
+    private final float[] viewportKey = new float[6];
+
+    private long viewportFirstId = 0;
+
+    private long viewportLastId = 0;
+
+    private int viewportGeneration = 0;
+
+    // Candle data the cached paths of candle-reading tools were built with
+    private int candleDataGeneration = -1;
+
+    private float candleLastClose = 0;
+
+    private int candleGeneration = 0;
+
+    // Chart config the cached paths were built with: candle colors and price precision
+    private int configGeneration = 0;
+
+    private final float[] box = new float[4];
+
     private BaseKLineChartView klineView;
 
     private HTKLineConfigManager configManager;
@@ -66,7 +110,7 @@ public class HTDrawContext {
                     }
                     HTDrawItem selectedDrawItem = drawItemList.get(selectedIndex);
                     if (selectedDrawItem.pointList.size() >= selectedDrawItem.drawType.count()) {
-                        if (HTDrawItem.canResponseLocation(drawItemList, location, klineView) != selectedDrawItem) {
+                        if (HTDrawItem.canResponseLocation(drawIndex, location, klineView) != selectedDrawItem) {
                             configManager.onDrawItemDidTouch.invoke(null, HTDrawState.showPencil);
                             breakTouch = true;
                             invalidate();
@@ -77,13 +121,21 @@ public class HTDrawContext {
                 break;
             }
         }
-        if (HTDrawItem.canResponseTouch(drawItemList, location, translation, state, klineView)) {
+        if (HTDrawItem.canResponseTouch(drawIndex, location, translation, state, klineView)) {
             if (state == MotionEvent.ACTION_DOWN) {
-                HTDrawItem moveItem = HTDrawItem.findTouchMoveItem(drawItemList);
+                HTDrawItem moveItem = drawIndex.getTouchMoveItem();
                 if (moveItem != null) {
+                    dragItem = moveItem;
+                    dragBefore = HTDrawStore.State.of(moveItem);
                     int moveItemIndex = drawItemList.indexOf(moveItem);
                     configManager.onDrawItemDidTouch.invoke(moveItem, moveItemIndex);
                 }
+            } else if (state == MotionEvent.ACTION_UP && dragItem != null) {
+                if (drawStore.recordUpdate(dragItem, dragBefore)) {
+                    didChangeDrawings();
+                }
+                dragItem = null;
+                dragBefore = null;
             }
             invalidate();
             return;
@@ -103,7 +155,9 @@ public class HTDrawContext {
                 drawItem.drawLineHeight = configManager.drawLineHeight;
                 drawItem.drawDashWidth = configManager.drawDashWidth;
                 drawItem.drawDashSpace = configManager.drawDashSpace;
+                drawItem.text = configManager.drawText;
                 drawItemList.add(drawItem);
+                drawIndex.invalidate();
                 configManager.onDrawItemDidTouch.invoke(drawItem, drawItemList.size() - 1);
             } else {
                 drawItem.pointList.add(location);
@@ -116,9 +170,12 @@ public class HTDrawContext {
                 if (length >= 1) {
                 int index = length - 1;
                 drawItem.pointList.set(index, location);
+                drawIndex.itemChanged(drawItem);
                 if (state == MotionEvent.ACTION_UP) {
                     configManager.onDrawPointComplete.invoke(drawItem, drawItemList.size() - 1);
                     if (index == drawItem.drawType.count() - 1) {
+                        drawStore.recordAdd(drawItem, drawItemList.size() - 1);
+                        didChangeDrawings();
                         configManager.onDrawItemComplete.invoke(drawItem, drawItemList.size() - 1);
                         if (configManager.drawShouldContinue) {
                             configManager.shouldReloadDrawItemIndex = HTDrawState.showContext;
@@ -134,10 +191,23 @@ public class HTDrawContext {
         invalidate();
     }
 
+    // Bumped whenever drawings change so the chart can keep them in a cached layer
+    public int generation = 0;
+
     public void invalidate() {
+        generation++;
         klineView.invalidate();
     }
 
+    /**
+     * Called after the chart config was reloaded, tools bake candle colors and formatted prices
+     * into their geometry.
+     */
+    public void reloadConfig() {
+        configGeneration++;
+        invalidate();
+    }
+
     public void fixDrawItemList() {
         int size = drawItemList.size();
         if (size <= 0) {
@@ -148,6 +218,7 @@ public class HTDrawContext {
         if (drawItem.pointList.size() < drawItem.drawType.count()) {
             int removedIndex = size - 1;
             drawItemList.remove(drawItem);
+            drawIndex.invalidate();
             int selectedIndex = configManager.shouldReloadDrawItemIndex;
             if (selectedIndex == removedIndex) {
                 configManager.shouldReloadDrawItemIndex = HTDrawState.showPencil;
@@ -160,105 +231,230 @@ public class HTDrawContext {
     }
 
     public void clearDrawItemList() {
+        List<HTDrawItem> beforeList = drawItemList;
         drawItemList = new ArrayList<>();
+        drawIndex.invalidate();
+        if (!beforeList.isEmpty()) {
+            drawStore.recordReplace(beforeList, drawItemList);
+            didChangeDrawings();
+        }
         configManager.shouldReloadDrawItemIndex = HTDrawState.showPencil;
         invalidate();
     }
 
+    /**
+     * Swaps in a new item list, e.g. from a bulk load. With journal the swap can be undone,
+     * otherwise (restoring a symbol's saved drawings) the journal starts over.
+     */
+    public void replaceDrawItemList(List<HTDrawItem> itemList, boolean journal) {
+        fixDrawItemList();
+        List<HTDrawItem> beforeList = drawItemList;
+        drawItemList = itemList;
+        drawIndex.invalidate();
+        dragItem = null;
+        dragBefore = null;
+        if (journal) {
+            drawStore.recordReplace(beforeList, itemList);
+        } else {
+            drawStore.clearJournal();
+        }
+        deselectDrawItem();
+        invalidate();
+    }
+
+    public boolean undo() {
+        return applyJournal(true);
+    }
+
+    public boolean redo() {
+        return applyJournal(false);
+    }
+
+    private boolean applyJournal(boolean undo) {
+        // An unfinished item is not in the journal, drop it first so indexes line up
+        fixDrawItemList();
+        boolean applied = undo ? drawStore.undo(this) : drawStore.redo(this);
+        if (applied) {
+            deselectDrawItem();
+            invalidate();
+        }
+        return applied;
+    }
+
+    // Selection indexes may point at a different item after a journal step
+    private void deselectDrawItem() {
+        if (configManager.shouldReloadDrawItemIndex > HTDrawState.showContext) {
+            configManager.shouldReloadDrawItemIndex = HTDrawState.showPencil;
+            if (configManager.onDrawItemDidTouch != null) {
+                configManager.onDrawItemDidTouch.invoke(null, HTDrawState.showPencil);
+            }
+        }
+    }
+
+    private void didChangeDrawings() {
+        if (configManager.onDrawingsChange != null) {
+            configManager.onDrawingsChange.invoke("change");
+        }
+    }
+
     private int colorWithAlphaComponent(int color, double alpha) {
         int reloadColor = (color & 0x00FFFFFF) | ((int)(alpha * 255) << 24);
         return reloadColor;
     }
 
-    private void drawLine(Canvas canvas, HTDrawItem drawItem, HTPoint startPoint, HTPoint endPoint) {
-        paint.setColor(drawItem.drawColor);
-        paint.setPathEffect(new DashPathEffect(new float[] { drawItem.drawDashWidth, drawItem.drawDashSpace }, 0));
-        paint.setStrokeWidth(drawItem.drawLineHeight);
-        Path path = new Path();
-        path.moveTo(startPoint.x, startPoint.y);
-        path.lineTo(endPoint.x, endPoint.y);
-        paint.setStyle(Paint.Style.STROKE);
-        canvas.drawPath(path, paint);
+    private DashPathEffect dashPathEffect(float dashWidth, float dashSpace) {
+        for (int i = 0; i < dashEffectList.size(); i ++) {
+            float[] style = dashStyleList.get(i);
+            if (style[0] == dashWidth && style[1] == dashSpace) {
+                return dashEffectList.get(i);
+            }
+        }
+        DashPathEffect effect = new DashPathEffect(new float[] { dashWidth, dashSpace }, 0);
+        dashStyleList.add(new float[] { dashWidth, dashSpace });
+        dashEffectList.add(effect);
+        return effect;
     }
 
-    public void drawMapper(Canvas canvas, HTDrawItem drawItem, int index, int itemIndex) {
-        if (index < 0 || index >= drawItem.pointList.size()) {
+    // Bumps viewportGeneration when the value to view projection changed since the last frame
+    private void updateViewport() {
+        List<KLineEntity> modelArray = configManager.modelArray;
+        int count = modelArray.size();
+        long firstId = count > 0 ? modelArray.get(0).id : 0;
+        long lastId = count > 0 ? modelArray.get(count - 1).id : 0;
+        float[] key = viewportKey;
+        float x0 = klineView.xFromValue(firstId);
+        float x1 = klineView.xFromValue(lastId);
+        float y0 = klineView.yFromValue(0);
+        float y1 = klineView.yFromValue(1);
+        float width = klineView.getWidth();
+        float height = klineView.getHeight();
+        if (firstId == viewportFirstId && lastId == viewportLastId && key[0] == x0 && key[1] == x1
+                && key[2] == y0 && key[3] == y1 && key[4] == width && key[5] == height) {
             return;
         }
-        HTPoint point = drawItem.pointList.get(index);
-        List<List<HTPoint>> lineList = HTDrawItem.lineListWithIndex(drawItem, index, klineView);
-        if (index == 2 && drawItem.drawType == HTDrawType.parallelLine) {
-            List<HTPoint> firstLine = lineList.get(0);
-            HTPoint startPoint = firstLine.get(0);
-            HTPoint endPoint = firstLine.get(1);
-            HTPoint firstPoint = drawItem.pointList.get(0);
-            HTPoint secondPoint = drawItem.pointList.get(1);
-            Path path = new Path();
-
-            HTPoint firstViewPoint = klineView.viewPointFromValuePoint(firstPoint);
-            HTPoint secondViewPoint = klineView.viewPointFromValuePoint(secondPoint);
-            HTPoint startViewPoint = klineView.viewPointFromValuePoint(startPoint);
-            HTPoint endViewPoint = klineView.viewPointFromValuePoint(endPoint);
-
-            path.moveTo(firstViewPoint.x, firstViewPoint.y);
-            path.lineTo(secondViewPoint.x, secondViewPoint.y);
-            path.lineTo(startViewPoint.x, startViewPoint.y);
-            path.lineTo(endViewPoint.x, endViewPoint.y);
-            path.close();
-            paint.setColor(colorWithAlphaComponent(drawItem.drawColor, 0.5));
-            paint.setStyle(Paint.Style.FILL);
-            canvas.drawPath(path, paint);
+        viewportFirstId = firstId;
+        viewportLastId = lastId;
+        key[0] = x0;
+        key[1] = x1;
+        key[2] = y0;
+        key[3] = y1;
+        key[4] = width;
+        key[5] = height;
+        viewportGeneration ++;
+    }
+
+    // Bumps candleGeneration when the candles were reloaded or the live close moved
+    private void updateCandles() {
+        List<KLineEntity> modelArray = configManager.modelArray;
+        int count = modelArray.size();
+        int dataGeneration = klineView.getDataGeneration();
+        float lastClose = count > 0 ? modelArray.get(count - 1).Close : 0;
+        if (dataGeneration == candleDataGeneration && lastClose == candleLastClose) {
+            return;
+        }
+        candleDataGeneration = dataGeneration;
+        candleLastClose = lastClose;
+        candleGeneration ++;
+    }
 
-            HTPoint dashStartPoint = HTDrawItem.centerPoint(firstPoint, endPoint);
-            HTPoint dashEndPoint = HTDrawItem.centerPoint(secondPoint, startPoint);
-            path = new Path();
+    private boolean isVisible(HTDrawItem drawItem, HTDrawTool tool) {
+        if (!tool.valueBounds(drawItem, box)) {
+            return true;
+        }
+        float margin = SELECTED_OUTER_RADIUS + drawItem.drawLineHeight + tool.viewPadding(drawItem);
+        float left = klineView.xFromValue(box[0]);
+        float right = klineView.xFromValue(box[1]);
+        float top = klineView.yFromValue(box[3]);
+        float bottom = klineView.yFromValue(box[2]);
+        return Math.max(left, right) >= -margin && Math.min(left, right) <= klineView.getWidth() + margin
+                && Math.max(top, bottom) >= -margin && Math.min(top, bottom) <= klineView.getHeight() + margin;
+    }
+
+    // Cached geometry of the item, rebuilt by its tool when the projection, config or the item changed
+    private HTDrawPathCache currentGeometry(HTDrawItem drawItem, HTDrawTool tool) {
+        HTDrawPathCache cache = drawItem.pathCache;
+        if (cache == null) {
+            cache = new HTDrawPathCache();
+            drawItem.pathCache = cache;
+        }
+        int itemCandleGeneration = tool.readsCandles() ? candleGeneration : 0;
+        if (!cache.isCurrent(drawItem, viewportGeneration, itemCandleGeneration, configGeneration)) {
+            cache.reset();
+            tool.buildGeometry(drawItem, klineView, cache);
+            // Snapshot after the build, which may snap item points
+            cache.snapshot(drawItem, viewportGeneration, itemCandleGeneration, configGeneration);
+        }
+        return cache;
+    }
 
-            HTPoint dashStartViewPoint = klineView.viewPointFromValuePoint(dashStartPoint);
-            HTPoint dashEndViewPoint = klineView.viewPointFromValuePoint(dashEndPoint);
+    /**
+     * View geometry of the item for hit tests, shared with drawing.
+     */
+    HTDrawPathCache geometry(HTDrawItem drawItem) {
+        updateViewport();
+        updateCandles();
+        return currentGeometry(drawItem, HTDrawTool.of(drawItem.drawType));
+    }
 
-            path.moveTo(dashStartViewPoint.x, dashStartViewPoint.y);
-            path.lineTo(dashEndViewPoint.x, dashEndViewPoint.y);
+    private void drawItem(Canvas canvas, HTDrawItem drawItem, HTDrawTool tool, int itemIndex) {
+        HTDrawPathCache cache = currentGeometry(drawItem, tool);
+        if (cache.fillCount > 0) {
+            paint.setPathEffect(null);
+            paint.setStyle(Paint.Style.FILL);
+            for (int i = 0; i < cache.fillCount; i ++) {
+                paint.setColor(cache.fillColors[i]);
+                canvas.drawPath(cache.fillPaths[i], paint);
+            }
+        }
+        if (!cache.dashPath.isEmpty()) {
             paint.setColor(colorWithAlphaComponent(drawItem.drawColor, 0.5));
-            paint.setPathEffect(new DashPathEffect(new float[] { 4, 4 }, 0));
+            paint.setPathEffect(centerDashPathEffect);
             paint.setStyle(Paint.Style.STROKE);
             paint.setStrokeWidth(2);
-            canvas.drawPath(path, paint);
+            canvas.drawPath(cache.dashPath, paint);
         }
-        for (List<HTPoint> pointList: lineList) {
-            HTPoint startPoint = pointList.get(0);
-            HTPoint endPoint = pointList.get(1);
-            drawLine(canvas, drawItem, klineView.viewPointFromValuePoint(startPoint), klineView.viewPointFromValuePoint(endPoint));
+        paint.setColor(drawItem.drawColor);
+        paint.setPathEffect(dashPathEffect(drawItem.drawDashWidth, drawItem.drawDashSpace));
+        paint.setStrokeWidth(drawItem.drawLineHeight);
+        paint.setStyle(Paint.Style.STROKE);
+        canvas.drawPath(cache.strokePath, paint);
+
+        for (int i = 0; i < cache.labelCount; i ++) {
+            HTDrawTool.labelPaint.setColor(cache.labelColors[i]);
+            canvas.drawText(cache.labels[i], cache.labelPoints[i * 2], cache.labelPoints[i * 2 + 1], HTDrawTool.labelPaint);
         }
 
         if (itemIndex != configManager.shouldReloadDrawItemIndex) {
             return;
         }
-
-
-
-        HTPoint viewPoint = klineView.viewPointFromValuePoint(point);
-
-        Path path = new Path();
-        paint.setStyle(Paint.Style.FILL);
-        path.addCircle(viewPoint.x, viewPoint.y, 20, Path.Direction.CW);
-        paint.setColor(colorWithAlphaComponent(drawItem.drawColor, 0.5));
-        canvas.drawPath(path, paint);
-
-        path = new Path();
+        paint.setPathEffect(null);
         paint.setStyle(Paint.Style.FILL);
-        path.addCircle(viewPoint.x, viewPoint.y, 8, Path.Direction.CW);
-        paint.setColor(drawItem.drawColor);
-        canvas.drawPath(path, paint);
+        for (int index = 0; index < drawItem.pointList.size(); index ++) {
+            HTPoint point = drawItem.pointList.get(index);
+            float x = klineView.xFromValue(point.x);
+            float y = klineView.yFromValue(point.y);
+            paint.setColor(colorWithAlphaComponent(drawItem.drawColor, 0.5));
+            canvas.drawCircle(x, y, SELECTED_OUTER_RADIUS, paint);
+            paint.setColor(drawItem.drawColor);
+            canvas.drawCircle(x, y, SELECTED_INNER_RADIUS, paint);
+        }
     }
 
-
+    /**
+     * Draws the items whose bounds meet the view, from cached tool geometry when neither the
+     * projection nor the item changed since it was built.
+     */
     public void onDraw(Canvas canvas) {
         normalizeReloadDrawItemIndex();
+        updateViewport();
+        updateCandles();
         for (int itemIndex = 0; itemIndex < drawItemList.size(); itemIndex ++) {
             HTDrawItem drawItem = drawItemList.get(itemIndex);
-            for (int index = 0; index < drawItem.pointList.size(); index ++) {
-                drawMapper(canvas, drawItem, index, itemIndex);
+            HTDrawTool tool = HTDrawTool.of(drawItem.drawType);
+            if (!isVisible(drawItem, tool)) {
+                continue;
             }
+            drawItem(canvas, drawItem, tool, itemIndex);
         }
     }
 }
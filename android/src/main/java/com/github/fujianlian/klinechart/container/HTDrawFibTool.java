@@ -0,0 +1,110 @@
+package com.github.fujianlian.klinechart.container;
+
+import com.github.fujianlian.klinechart.BaseKLineChartView;
+
+import java.util.List;
+
+/**
+ * Fibonacci retracement (two points, levels between the end and the start of the move) and
+ * extension (three points, levels projected from the third point by the first move).
+ */
+class HTDrawFibTool extends HTDrawTool {
+
+    private static final float[] RETRACEMENT_LEVELS = { 0f, 0.236f, 0.382f, 0.5f, 0.618f, 0.786f, 1f };
+
+    private static final float[] EXTENSION_LEVELS = { 0f, 0.618f, 1f, 1.272f, 1.618f, 2f, 2.618f };
+
+    private static final String[] RETRACEMENT_TITLES = { "0", "0.236", "0.382", "0.5", "0.618", "0.786", "1" };
+
+    private static final String[] EXTENSION_TITLES = { "0", "0.618", "1", "1.272", "1.618", "2", "2.618" };
+
+    private final boolean extension;
+
+    HTDrawFibTool(boolean extension) {
+        this.extension = extension;
+    }
+
+    @Override
+    public int pointCount() {
+        return extension ? 3 : 2;
+    }
+
+    @Override
+    public boolean valueBounds(HTDrawItem drawItem, float[] out) {
+        if (!pointBounds(drawItem.pointList, out)) {
+            return false;
+        }
+        if (drawItem.pointList.size() >= pointCount()) {
+            float[] levels = extension ? EXTENSION_LEVELS : RETRACEMENT_LEVELS;
+            for (int i = 0; i < levels.length; i++) {
+                float price = levelPrice(drawItem.pointList, levels[i]);
+                out[2] = Math.min(out[2], price);
+                out[3] = Math.max(out[3], price);
+            }
+            if (extension) {
+                out[1] = Math.max(out[1], levelEndX(drawItem.pointList));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public float viewPadding(HTDrawItem drawItem) {
+        // Labels sit above the level lines
+        return LABEL_TEXT_SIZE;
+    }
+
+    @Override
+    public void buildGeometry(HTDrawItem drawItem, BaseKLineChartView klineView, HTDrawPathCache geometry) {
+        List<HTPoint> points = drawItem.pointList;
+        for (int i = 1; i < points.size(); i++) {
+            HTPoint lastPoint = points.get(i - 1);
+            HTPoint point = points.get(i);
+            geometry.guide(klineView.xFromValue(lastPoint.x), klineView.yFromValue(lastPoint.y),
+                    klineView.xFromValue(point.x), klineView.yFromValue(point.y));
+        }
+        if (points.size() < pointCount()) {
+            return;
+        }
+        float startX;
+        float endX;
+        if (extension) {
+            startX = klineView.xFromValue(points.get(2).x);
+            endX = klineView.xFromValue(levelEndX(points));
+        } else {
+            startX = klineView.xFromValue(Math.min(points.get(0).x, points.get(1).x));
+            endX = klineView.xFromValue(Math.max(points.get(0).x, points.get(1).x));
+        }
+        float[] levels = extension ? EXTENSION_LEVELS : RETRACEMENT_LEVELS;
+        String[] titles = extension ? EXTENSION_TITLES : RETRACEMENT_TITLES;
+        float previousY = 0;
+        for (int i = 0; i < levels.length; i++) {
+            float price = levelPrice(points, levels[i]);
+            float y = klineView.yFromValue(price);
+            geometry.line(startX, y, endX, y);
+            if (i > 0) {
+                // Alternating light bands between neighbouring levels
+                geometry.fill(colorWithAlphaComponent(drawItem.drawColor, i % 2 == 0 ? 0.08 : 0.16),
+                        startX, previousY, endX, previousY, endX, y, startX, y, false);
+            }
+            labelAbove(geometry, klineView, titles[i] + " (" + klineView.formatValue(price) + ")", startX, y, drawItem.drawColor);
+            previousY = y;
+        }
+    }
+
+    private float levelPrice(List<HTPoint> points, float level) {
+        HTPoint start = points.get(0);
+        HTPoint end = points.get(1);
+        if (extension) {
+            return points.get(2).y + (end.y - start.y) * level;
+        }
+        // 0 at the end of the move, 1 back at its start
+        return end.y + (start.y - end.y) * level;
+    }
+
+    // Extension levels run right of the third point for the width of the longer leg
+    private static float levelEndX(List<HTPoint> points) {
+        float width = Math.max(Math.abs(points.get(1).x - points.get(0).x), Math.abs(points.get(2).x - points.get(1).x));
+        return points.get(2).x + width;
+    }
+}
@@ -0,0 +1,327 @@
+package com.github.fujianlian.klinechart.container;
+
+import com.github.fujianlian.klinechart.BaseKLineChartView;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the value-space x axis (candle id) for drawing hit tests.
+ * Every item keeps the value-space bounding box its HTDrawTool reports; the touch radius plus the
+ * largest tool view padding (labels, text) is converted to value units per query, so only items
+ * whose box is near the location run the exact point check and the tool hit test against the
+ * cached view geometry. Items spanning many cells and unbounded shapes (half lines, pitchforks)
+ * sit in a separate list that is always checked. Boxes only depend on the item points, so scrolling and zooming never rebuild the
+ * grid; a dragged item is re-bucketed through itemChanged and list edits trigger a rebuild on the
+ * next query. Queries reuse scratch arrays and do not allocate.
+ */
+public class HTDrawIndex {
+
+    private static final int MAX_CELLS = 1024;
+
+    // Items covering more cells than this go to the wide list
+    private static final int MAX_ITEM_CELLS = 16;
+
+    private List<HTDrawItem> indexedList;
+
+    private int indexedSize = -1;
+
+    private boolean dirty = true;
+
+    private HTDrawItem[] items = new HTDrawItem[0];
+
+    // minX, maxX, minY, maxY per item
+    private float[] bounds = new float[0];
+
+    // First and last cell per item, -1 when the item is in the wide list
+    private int[] firstCell = new int[0];
+
+    private int[] lastCell = new int[0];
+
+    private int[][] cells = new int[0][];
+
+    private int[] cellSize = new int[0];
+
+    private int[] wide = new int[8];
+
+    private int wideCount = 0;
+
+    private float originX = 0;
+
+    private float cellWidth = 1;
+
+    private int cellCount = 0;
+
+    private int[] stamp = new int[0];
+
+    private int queryStamp = 0;
+
+    private int[] candidates = new int[16];
+
+    private final float[] box = new float[4];
+
+    // Largest tool view padding in px over the indexed items
+    private float maxPadding = 0;
+
+    private HTDrawItem touchMoveItem;
+
+    /**
+     * Marks the list as structurally changed (items added, removed or replaced).
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Re-buckets one item after its points moved.
+     */
+    public void itemChanged(HTDrawItem drawItem) {
+        if (dirty) {
+            return;
+        }
+        int slot = slotOf(drawItem);
+        if (slot < 0) {
+            dirty = true;
+            return;
+        }
+        unlink(slot);
+        link(slot);
+    }
+
+    public HTDrawItem getTouchMoveItem() {
+        return touchMoveItem;
+    }
+
+    public void clearTouchMoveItem() {
+        if (touchMoveItem != null) {
+            touchMoveItem.getTouchMoveIndexList().clear();
+            touchMoveItem = null;
+        }
+    }
+
+    /**
+     * Topmost item under the value-space location: control points first, then segments, both from
+     * the newest item down. With fill the hit item becomes the touch move item and its dragged
+     * point indexes are filled in.
+     */
+    public HTDrawItem hitTest(HTPoint location, BaseKLineChartView klineView, boolean fill) {
+        if (fill) {
+            clearTouchMoveItem();
+        }
+        List<HTDrawItem> drawItemList = klineView.drawContext.drawItemList;
+        sync(drawItemList);
+        if (items.length == 0 || indexedSize == 0) {
+            return null;
+        }
+        float viewX = klineView.xFromValue(location.x);
+        float viewY = klineView.yFromValue(location.y);
+        float tolerance = HTDrawItem.TOUCH_DISTANCE + maxPadding;
+        float toleranceX = Math.abs(klineView.valueFromX(viewX + tolerance) - location.x);
+        float toleranceY = Math.abs(klineView.valueFromY(viewY + tolerance) - location.y);
+        int count = collect(location.x - toleranceX, location.x + toleranceX,
+                location.y - toleranceY, location.y + toleranceY);
+        for (int i = 0; i < count; i++) {
+            HTDrawItem drawItem = items[candidates[i]];
+            int pointIndex = HTDrawItem.hitPointIndex(drawItem, viewX, viewY, klineView);
+            if (pointIndex >= 0) {
+                if (fill) {
+                    drawItem.getTouchMoveIndexList().clear();
+                    drawItem.getTouchMoveIndexList().add(pointIndex);
+                    touchMoveItem = drawItem;
+                }
+                return drawItem;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            HTDrawItem drawItem = items[candidates[i]];
+            HTDrawPathCache geometry = klineView.drawContext.geometry(drawItem);
+            if (HTDrawTool.of(drawItem.drawType).hitTest(drawItem, geometry, viewX, viewY)) {
+                if (fill) {
+                    HTDrawItem.fillAllTouchMoveItem(drawItem);
+                    touchMoveItem = drawItem;
+                }
+                return drawItem;
+            }
+        }
+        return null;
+    }
+
+    private void sync(List<HTDrawItem> drawItemList) {
+        if (!dirty && drawItemList == indexedList && drawItemList.size() == indexedSize) {
+            return;
+        }
+        rebuild(drawItemList);
+    }
+
+    private void rebuild(List<HTDrawItem> drawItemList) {
+        int size = drawItemList.size();
+        indexedList = drawItemList;
+        indexedSize = size;
+        dirty = false;
+        if (touchMoveItem != null && !drawItemList.contains(touchMoveItem)) {
+            touchMoveItem = null;
+        }
+        if (items.length < size) {
+            int capacity = Math.max(size, items.length * 2);
+            items = Arrays.copyOf(items, capacity);
+            bounds = Arrays.copyOf(bounds, capacity * 4);
+            firstCell = Arrays.copyOf(firstCell, capacity);
+            lastCell = Arrays.copyOf(lastCell, capacity);
+            stamp = Arrays.copyOf(stamp, capacity);
+        }
+        float minX = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        maxPadding = 0;
+        for (int i = 0; i < size; i++) {
+            HTDrawItem drawItem = drawItemList.get(i);
+            items[i] = drawItem;
+            // Open sides (+/-MAX_VALUE) would stretch the grid over nothing
+            if (HTDrawTool.of(drawItem.drawType).valueBounds(drawItem, box)
+                    && box[0] > -Float.MAX_VALUE && box[1] < Float.MAX_VALUE) {
+                minX = Math.min(minX, box[0]);
+                maxX = Math.max(maxX, box[1]);
+            }
+        }
+        Arrays.fill(items, size, items.length, null);
+        cellCount = minX <= maxX ? Math.max(1, Math.min(MAX_CELLS, size)) : 1;
+        originX = minX <= maxX ? minX : 0;
+        cellWidth = minX < maxX ? (maxX - minX) / cellCount : 1;
+        if (cells.length < cellCount) {
+            int[][] next = Arrays.copyOf(cells, cellCount);
+            for (int i = cells.length; i < cellCount; i++) {
+                next[i] = new int[4];
+            }
+            cells = next;
+            cellSize = Arrays.copyOf(cellSize, cellCount);
+        }
+        Arrays.fill(cellSize, 0);
+        wideCount = 0;
+        for (int i = 0; i < size; i++) {
+            link(i);
+        }
+    }
+
+    private int slotOf(HTDrawItem drawItem) {
+        for (int i = indexedSize - 1; i >= 0; i--) {
+            if (items[i] == drawItem) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int cellOf(float x) {
+        int cell = (int) Math.floor((x - originX) / cellWidth);
+        return Math.max(0, Math.min(cellCount - 1, cell));
+    }
+
+    private void link(int slot) {
+        HTDrawTool tool = HTDrawTool.of(items[slot].drawType);
+        maxPadding = Math.max(maxPadding, tool.viewPadding(items[slot]));
+        if (!tool.valueBounds(items[slot], box)) {
+            box[0] = -Float.MAX_VALUE;
+            box[1] = Float.MAX_VALUE;
+            box[2] = -Float.MAX_VALUE;
+            box[3] = Float.MAX_VALUE;
+            addWide(slot);
+        } else {
+            int first = cellOf(box[0]);
+            int last = cellOf(box[1]);
+            if (last - first + 1 > MAX_ITEM_CELLS) {
+                addWide(slot);
+            } else {
+                firstCell[slot] = first;
+                lastCell[slot] = last;
+                for (int cell = first; cell <= last; cell++) {
+                    if (cellSize[cell] == cells[cell].length) {
+                        cells[cell] = Arrays.copyOf(cells[cell], cells[cell].length * 2);
+                    }
+                    cells[cell][cellSize[cell]++] = slot;
+                }
+            }
+        }
+        System.arraycopy(box, 0, bounds, slot * 4, 4);
+    }
+
+    private void addWide(int slot) {
+        firstCell[slot] = -1;
+        lastCell[slot] = -1;
+        if (wideCount == wide.length) {
+            wide = Arrays.copyOf(wide, wide.length * 2);
+        }
+        wide[wideCount++] = slot;
+    }
+
+    private void unlink(int slot) {
+        if (firstCell[slot] < 0) {
+            wideCount = remove(wide, wideCount, slot);
+            return;
+        }
+        for (int cell = firstCell[slot]; cell <= lastCell[slot]; cell++) {
+            cellSize[cell] = remove(cells[cell], cellSize[cell], slot);
+        }
+    }
+
+    private static int remove(int[] list, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (list[i] == value) {
+                list[i] = list[size - 1];
+                return size - 1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Fills candidates with the slots whose box meets the query box, newest item first.
+     */
+    private int collect(float minX, float maxX, float minY, float maxY) {
+        queryStamp++;
+        if (queryStamp == 0) {
+            Arrays.fill(stamp, 0);
+            queryStamp = 1;
+        }
+        int count = 0;
+        for (int i = 0; i < wideCount; i++) {
+            count = consider(wide[i], count, minX, maxX, minY, maxY);
+        }
+        if (cellCount > 0) {
+            int first = cellOf(minX);
+            int last = cellOf(maxX);
+            for (int cell = first; cell <= last; cell++) {
+                int[] list = cells[cell];
+                for (int i = 0; i < cellSize[cell]; i++) {
+                    count = consider(list[i], count, minX, maxX, minY, maxY);
+                }
+            }
+        }
+        // Newest first, like the full scans this replaces
+        for (int i = 1; i < count; i++) {
+            int value = candidates[i];
+            int j = i - 1;
+            while (j >= 0 && candidates[j] < value) {
+                candidates[j + 1] = candidates[j];
+                j--;
+            }
+            candidates[j + 1] = value;
+        }
+        return count;
+    }
+
+    private int consider(int slot, int count, float minX, float maxX, float minY, float maxY) {
+        if (stamp[slot] == queryStamp) {
+            return count;
+        }
+        stamp[slot] = queryStamp;
+        int offset = slot * 4;
+        if (bounds[offset] > maxX || bounds[offset + 1] < minX
+                || bounds[offset + 2] > maxY || bounds[offset + 3] < minY) {
+            return count;
+        }
+        if (count == candidates.length) {
+            candidates = Arrays.copyOf(candidates, count * 2);
+        }
+        candidates[count] = slot;
+        return count + 1;
+    }
+}
@@ -0,0 +1,213 @@
+package com.github.fujianlian.klinechart.container;
+
+import com.github.fujianlian.klinechart.BaseKLineChartView;
+
+import java.util.List;
+
+/**
+ * The original straight-line tools: segments, horizontal and vertical lines, half lines,
+ * parallel channels, rectangles and parallelograms. Each point after the first adds the
+ * segments between it and the previous point.
+ */
+class HTDrawLineTool extends HTDrawTool {
+
+    private final HTDrawType drawType;
+
+    private final int pointCount;
+
+    // View-space segments of one point, reused across builds on the UI thread
+    private final float[] segments = new float[16];
+
+    private HTDrawLineTool(HTDrawType drawType, int pointCount) {
+        this.drawType = drawType;
+        this.pointCount = pointCount;
+    }
+
+    static void registerAll() {
+        register(HTDrawType.none, new HTDrawLineTool(HTDrawType.none, 1));
+        register(HTDrawType.line, new HTDrawLineTool(HTDrawType.line, 2));
+        register(HTDrawType.horizontalLine, new HTDrawLineTool(HTDrawType.horizontalLine, 2));
+        register(HTDrawType.verticalLine, new HTDrawLineTool(HTDrawType.verticalLine, 2));
+        register(HTDrawType.halfLine, new HTDrawLineTool(HTDrawType.halfLine, 2));
+        register(HTDrawType.parallelLine, new HTDrawLineTool(HTDrawType.parallelLine, 3));
+        register(HTDrawType.rectangle, new HTDrawLineTool(HTDrawType.rectangle, 2));
+        register(HTDrawType.parallelogram, new HTDrawLineTool(HTDrawType.parallelogram, 3));
+    }
+
+    @Override
+    public int pointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Points and derived corners; half lines run to the view edge and have no finite extent.
+     */
+    @Override
+    public boolean valueBounds(HTDrawItem drawItem, float[] out) {
+        List<HTPoint> points = drawItem.pointList;
+        if (drawType == HTDrawType.halfLine || !pointBounds(points, out)) {
+            return false;
+        }
+        if (points.size() >= 3 && (drawType == HTDrawType.parallelLine || drawType == HTDrawType.parallelogram)) {
+            HTPoint firstPoint = points.get(0);
+            HTPoint lastPoint = points.get(1);
+            HTPoint point = points.get(2);
+            float base = (lastPoint.x - firstPoint.x);
+            float k = 1.0f;
+            if (base != 0) {
+                k = (lastPoint.y - firstPoint.y) / base;
+            }
+            float b = point.y - point.x * k;
+            if (drawType == HTDrawType.parallelLine) {
+                out[2] = Math.min(out[2], Math.min(k * lastPoint.x + b, k * firstPoint.x + b));
+                out[3] = Math.max(out[3], Math.max(k * lastPoint.x + b, k * firstPoint.x + b));
+            } else {
+                float nextPointX = firstPoint.x + (point.x - lastPoint.x);
+                float nextPointY = k * nextPointX + b;
+                out[0] = Math.min(out[0], nextPointX);
+                out[1] = Math.max(out[1], nextPointX);
+                out[2] = Math.min(out[2], nextPointY);
+                out[3] = Math.max(out[3], nextPointY);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void buildGeometry(HTDrawItem drawItem, BaseKLineChartView klineView, HTDrawPathCache geometry) {
+        for (int index = 0; index < drawItem.pointList.size(); index ++) {
+            int count = viewSegmentsWithIndex(drawItem, index, klineView, segments);
+            if (index == 2 && drawType == HTDrawType.parallelLine && count > 0) {
+                // Band between the base line and its parallel, with a dashed center line
+                HTPoint firstPoint = drawItem.pointList.get(0);
+                HTPoint secondPoint = drawItem.pointList.get(1);
+                float firstX = klineView.xFromValue(firstPoint.x);
+                float firstY = klineView.yFromValue(firstPoint.y);
+                float secondX = klineView.xFromValue(secondPoint.x);
+                float secondY = klineView.yFromValue(secondPoint.y);
+                float startX = segments[0];
+                float startY = segments[1];
+                float endX = segments[2];
+                float endY = segments[3];
+                geometry.fill(colorWithAlphaComponent(drawItem.drawColor, 0.5),
+                        firstX, firstY, secondX, secondY, startX, startY, endX, endY, true);
+                geometry.guide((firstX + endX) / 2, (firstY + endY) / 2, (secondX + startX) / 2, (secondY + startY) / 2);
+            }
+            for (int i = 0; i < count; i ++) {
+                geometry.line(segments[i * 4], segments[i * 4 + 1], segments[i * 4 + 2], segments[i * 4 + 3]);
+            }
+        }
+    }
+
+    /**
+     * Segments between the point at index and the previous one, written as view-space x1, y1, x2, y2
+     * into out (16 floats). Snaps horizontal, vertical and parallel line points. Returns the segment count.
+     */
+    private int viewSegmentsWithIndex(HTDrawItem drawItem, int index, BaseKLineChartView klineView, float[] out) {
+        if (index <= 0 || index >= drawItem.pointList.size()) {
+            return 0;
+        }
+        HTPoint point = drawItem.pointList.get(index);
+        HTPoint lastPoint = drawItem.pointList.get(index - 1);
+        int count = 0;
+        switch (drawType) {
+            case horizontalLine: {
+                point.y = lastPoint.y;
+                break;
+            }
+            case verticalLine: {
+                point.x = lastPoint.x;
+                break;
+            }
+            case halfLine: {
+                float lastViewX = klineView.xFromValue(lastPoint.x);
+                float lastViewY = klineView.yFromValue(lastPoint.y);
+                float outX = klineView.xFromValue(point.x);
+                float outY = klineView.yFromValue(point.y);
+                float xDistance = outX - lastViewX;
+                float yDistance = outY - lastViewY;
+                float append = klineView.getWidth() + klineView.getHeight();
+                float k = 0;
+                if (xDistance != 0) {
+                    k = yDistance / xDistance;
+                }
+                if (Math.abs(k) > 1) {
+                    append *= yDistance < 0 ? -1 : 1;
+                    if (yDistance != 0) {
+                        outX += append / k;
+                        outY += append;
+                    } else {
+                        outX += append;
+                    }
+                } else {
+                    if (xDistance == 0 && yDistance < 0) {
+                        append *= -1;
+                    } else {
+                        append *= xDistance < 0 ? -1 : 1;
+                    }
+                    if (xDistance != 0) {
+                        outX += append;
+                        outY += append * k;
+                    } else {
+                        outY += append;
+                    }
+                }
+                return putSegment(out, 0, lastViewX, lastViewY, outX, outY);
+            }
+            case parallelLine: {
+                if (index == 2) {
+                    HTPoint firstPoint = drawItem.pointList.get(0);
+                    point.x = Math.min(Math.max(point.x, firstPoint.x), lastPoint.x);
+                    float base = (lastPoint.x - firstPoint.x);
+                    float k = 1.0f;
+                    if (base != 0) {
+                        k = (lastPoint.y - firstPoint.y) / base;
+                    }
+                    float b = point.y - point.x * k;
+                    return putValueSegment(out, 0, klineView, lastPoint.x, k * lastPoint.x + b, firstPoint.x, k * firstPoint.x + b);
+                }
+                break;
+            }
+            case rectangle: {
+                count = putValueSegment(out, count, klineView, lastPoint.x, lastPoint.y, point.x, lastPoint.y);
+                count = putValueSegment(out, count, klineView, point.x, lastPoint.y, point.x, point.y);
+                count = putValueSegment(out, count, klineView, point.x, point.y, lastPoint.x, point.y);
+                return putValueSegment(out, count, klineView, lastPoint.x, point.y, lastPoint.x, lastPoint.y);
+            }
+            case parallelogram: {
+                if (index == 2) {
+                    HTPoint firstPoint = drawItem.pointList.get(0);
+                    float base = (lastPoint.x - firstPoint.x);
+                    float k = 1.0f;
+                    if (base != 0) {
+                        k = (lastPoint.y - firstPoint.y) / base;
+                    }
+                    float b = point.y - point.x * k;
+                    float nextPointX = firstPoint.x + (point.x - lastPoint.x);
+                    float nextPointY = k * nextPointX + b;
+                    count = putValueSegment(out, count, klineView, lastPoint.x, lastPoint.y, point.x, point.y);
+                    count = putValueSegment(out, count, klineView, point.x, point.y, nextPointX, nextPointY);
+                    count = putValueSegment(out, count, klineView, nextPointX, nextPointY, firstPoint.x, firstPoint.y);
+                }
+                break;
+            }
+            default: {
+                break;
+            }
+        }
+        return putValueSegment(out, count, klineView, point.x, point.y, lastPoint.x, lastPoint.y);
+    }
+
+    private static int putValueSegment(float[] out, int count, BaseKLineChartView klineView, float x1, float y1, float x2, float y2) {
+        return putSegment(out, count, klineView.xFromValue(x1), klineView.yFromValue(y1), klineView.xFromValue(x2), klineView.yFromValue(y2));
+    }
+
+    private static int putSegment(float[] out, int count, float x1, float y1, float x2, float y2) {
+        int offset = count * 4;
+        out[offset] = x1;
+        out[offset + 1] = y1;
+        out[offset + 2] = x2;
+        out[offset + 3] = y2;
+        return count + 1;
+    }
+}
@@ -0,0 +1,260 @@
+package com.github.fujianlian.klinechart.container;
+
+import android.graphics.Path;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * View-space geometry of one drawing as built by its HTDrawTool: stroked lines, dashed guides,
+ * filled regions, labels, and the segments and quads used for hit tests. It stays valid until the
+ * viewport or config generation of the draw context changes, the candle generation changes for
+ * tools that read candles, or the item points, color or text differ from the snapshot taken when
+ * it was built.
+ */
+public class HTDrawPathCache {
+
+    private static final int MAX_FILLS = 3;
+
+    // Item color and style
+    final Path strokePath = new Path();
+
+    // Half-transparent item color, 2 px, 4/4 dash
+    final Path dashPath = new Path();
+
+    final Path[] fillPaths = new Path[MAX_FILLS];
+
+    final int[] fillColors = new int[MAX_FILLS];
+
+    int fillCount = 0;
+
+    // x1, y1, x2, y2 per stroked segment
+    float[] segments = new float[32];
+
+    int segmentCount = 0;
+
+    // Four corners per hittable area
+    float[] areas = new float[16];
+
+    int areaCount = 0;
+
+    String[] labels = new String[8];
+
+    // x, y (baseline) per label
+    float[] labelPoints = new float[16];
+
+    int[] labelColors = new int[8];
+
+    int labelCount = 0;
+
+    private int viewportGeneration = -1;
+
+    private int candleGeneration = -1;
+
+    private int configGeneration = -1;
+
+    private int pointCount = -1;
+
+    private float[] points = new float[6];
+
+    private int drawColor;
+
+    private String text;
+
+    HTDrawPathCache() {
+        for (int i = 0; i < MAX_FILLS; i++) {
+            fillPaths[i] = new Path();
+        }
+    }
+
+    void reset() {
+        strokePath.rewind();
+        dashPath.rewind();
+        for (int i = 0; i < fillCount; i++) {
+            fillPaths[i].rewind();
+        }
+        fillCount = 0;
+        segmentCount = 0;
+        areaCount = 0;
+        Arrays.fill(labels, 0, labelCount, null);
+        labelCount = 0;
+    }
+
+    /**
+     * Stroked segment in the item style, also used for hit tests.
+     */
+    public void line(float x1, float y1, float x2, float y2) {
+        strokePath.moveTo(x1, y1);
+        strokePath.lineTo(x2, y2);
+        if ((segmentCount + 1) * 4 > segments.length) {
+            segments = Arrays.copyOf(segments, segments.length * 2);
+        }
+        int offset = segmentCount * 4;
+        segments[offset] = x1;
+        segments[offset + 1] = y1;
+        segments[offset + 2] = x2;
+        segments[offset + 3] = y2;
+        segmentCount++;
+    }
+
+    /**
+     * Dashed guide line, drawn but not hit tested.
+     */
+    public void guide(float x1, float y1, float x2, float y2) {
+        dashPath.moveTo(x1, y1);
+        dashPath.lineTo(x2, y2);
+    }
+
+    /**
+     * Filled quad in color. With hit true the inside also counts as a hit.
+     */
+    public void fill(int color, float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3, boolean hit) {
+        Path path = null;
+        for (int i = 0; i < fillCount; i++) {
+            if (fillColors[i] == color) {
+                path = fillPaths[i];
+                break;
+            }
+        }
+        if (path == null && fillCount < MAX_FILLS) {
+            fillColors[fillCount] = color;
+            path = fillPaths[fillCount++];
+        }
+        if (path != null) {
+            path.moveTo(x0, y0);
+            path.lineTo(x1, y1);
+            path.lineTo(x2, y2);
+            path.lineTo(x3, y3);
+            path.close();
+        }
+        if (hit) {
+            area(x0, y0, x1, y1, x2, y2, x3, y3);
+        }
+    }
+
+    /**
+     * Hittable quad without a fill.
+     */
+    public void area(float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3) {
+        if ((areaCount + 1) * 8 > areas.length) {
+            areas = Arrays.copyOf(areas, areas.length * 2);
+        }
+        int offset = areaCount * 8;
+        areas[offset] = x0;
+        areas[offset + 1] = y0;
+        areas[offset + 2] = x1;
+        areas[offset + 3] = y1;
+        areas[offset + 4] = x2;
+        areas[offset + 5] = y2;
+        areas[offset + 6] = x3;
+        areas[offset + 7] = y3;
+        areaCount++;
+    }
+
+    public void label(String text, float x, float y, int color) {
+        if (labelCount == labels.length) {
+            labels = Arrays.copyOf(labels, labelCount * 2);
+            labelPoints = Arrays.copyOf(labelPoints, labelCount * 4);
+            labelColors = Arrays.copyOf(labelColors, labelCount * 2);
+        }
+        labels[labelCount] = text;
+        labelPoints[labelCount * 2] = x;
+        labelPoints[labelCount * 2 + 1] = y;
+        labelColors[labelCount] = color;
+        labelCount++;
+    }
+
+    /**
+     * Segment within distance of the view location, using the same bounds slack as the drag handles.
+     */
+    boolean hitSegments(float viewX, float viewY, float distance) {
+        for (int i = 0; i < segmentCount; i++) {
+            int offset = i * 4;
+            float x1 = segments[offset];
+            float y1 = segments[offset + 1];
+            float x2 = segments[offset + 2];
+            float y2 = segments[offset + 3];
+            float a = y2 - y1;
+            float b = x1 - x2;
+            float c = x2 * y1 - x1 * y2;
+            float lineDistance = Math.abs(a * viewX + b * viewY + c) / (float) Math.sqrt(a * a + b * b);
+            float minX = Math.min(x1, x2) - 15;
+            float maxX = Math.max(x1, x2) + 15;
+            float minY = Math.min(y1, y2) - 15;
+            float maxY = Math.max(y1, y2) + 15;
+            if (lineDistance <= distance && viewX > minX && viewX < maxX && viewY > minY && viewY < maxY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Location strictly inside one of the convex areas.
+     */
+    boolean hitAreas(float viewX, float viewY) {
+        for (int i = 0; i < areaCount; i++) {
+            int offset = i * 8;
+            int sign = 0;
+            boolean inside = true;
+            for (int corner = 0; corner < 4 && inside; corner++) {
+                float x1 = areas[offset + corner * 2];
+                float y1 = areas[offset + corner * 2 + 1];
+                float x2 = areas[offset + ((corner + 1) % 4) * 2];
+                float y2 = areas[offset + ((corner + 1) % 4) * 2 + 1];
+                float cross = (x2 - x1) * (viewY - y1) - (y2 - y1) * (viewX - x1);
+                int side = cross > 0 ? 1 : cross < 0 ? -1 : 0;
+                if (side == 0 || (sign != 0 && side != sign)) {
+                    inside = false;
+                }
+                sign = side;
+            }
+            if (inside) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isCurrent(HTDrawItem drawItem, int viewportGeneration, int candleGeneration, int configGeneration) {
+        List<HTPoint> pointList = drawItem.pointList;
+        if (this.viewportGeneration != viewportGeneration || this.candleGeneration != candleGeneration
+                || this.configGeneration != configGeneration
+                || pointCount != pointList.size()
+                || drawColor != drawItem.drawColor || !equals(text, drawItem.text)) {
+            return false;
+        }
+        for (int i = 0; i < pointCount; i++) {
+            HTPoint point = pointList.get(i);
+            if (points[i * 2] != point.x || points[i * 2 + 1] != point.y) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records what the geometry was built from, after the build applied any point snapping.
+     */
+    void snapshot(HTDrawItem drawItem, int viewportGeneration, int candleGeneration, int configGeneration) {
+        List<HTPoint> pointList = drawItem.pointList;
+        pointCount = pointList.size();
+        if (points.length < pointCount * 2) {
+            points = new float[pointCount * 2];
+        }
+        for (int i = 0; i < pointCount; i++) {
+            HTPoint point = pointList.get(i);
+            points[i * 2] = point.x;
+            points[i * 2 + 1] = point.y;
+        }
+        drawColor = drawItem.drawColor;
+        text = drawItem.text;
+        this.viewportGeneration = viewportGeneration;
+        this.candleGeneration = candleGeneration;
+        this.configGeneration = configGeneration;
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
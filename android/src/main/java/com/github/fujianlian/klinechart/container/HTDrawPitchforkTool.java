@@ -0,0 +1,57 @@
+package com.github.fujianlian.klinechart.container;
+
+import com.github.fujianlian.klinechart.BaseKLineChartView;
+
+import java.util.List;
+
+/**
+ * Andrews pitchfork: a median line from the pivot through the middle of the two other points,
+ * and parallel tines through those points, all running on to the view edge.
+ */
+class HTDrawPitchforkTool extends HTDrawTool {
+
+    @Override
+    public int pointCount() {
+        return 3;
+    }
+
+    /**
+     * The lines run to the view edge like half lines.
+     */
+    @Override
+    public boolean valueBounds(HTDrawItem drawItem, float[] out) {
+        return false;
+    }
+
+    @Override
+    public void buildGeometry(HTDrawItem drawItem, BaseKLineChartView klineView, HTDrawPathCache geometry) {
+        List<HTPoint> points = drawItem.pointList;
+        float pivotX = klineView.xFromValue(points.get(0).x);
+        float pivotY = klineView.yFromValue(points.get(0).y);
+        if (points.size() < 2) {
+            return;
+        }
+        float leftX = klineView.xFromValue(points.get(1).x);
+        float leftY = klineView.yFromValue(points.get(1).y);
+        if (points.size() < 3) {
+            geometry.line(pivotX, pivotY, leftX, leftY);
+            return;
+        }
+        float rightX = klineView.xFromValue(points.get(2).x);
+        float rightY = klineView.yFromValue(points.get(2).y);
+        float middleX = (leftX + rightX) / 2;
+        float middleY = (leftY + rightY) / 2;
+        float dx = middleX - pivotX;
+        float dy = middleY - pivotY;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        float scale = length > 0 ? (klineView.getWidth() + klineView.getHeight()) / length : 0;
+        dx *= scale;
+        dy *= scale;
+        geometry.fill(colorWithAlphaComponent(drawItem.drawColor, 0.15),
+                leftX, leftY, leftX + dx, leftY + dy, rightX + dx, rightY + dy, rightX, rightY, false);
+        geometry.line(pivotX, pivotY, middleX + dx, middleY + dy);
+        geometry.line(leftX, leftY, leftX + dx, leftY + dy);
+        geometry.line(rightX, rightY, rightX + dx, rightY + dy);
+        geometry.line(leftX, leftY, rightX, rightY);
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.fujianlian.klinechart.container;
+
+import com.github.fujianlian.klinechart.BaseKLineChartView;
+import com.github.fujianlian.klinechart.HTKLineConfigManager;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Long or short position box: entry point, then target, then stop. The target and stop share
+ * the right edge; the profit and loss zones use the chart increase and decrease colors.
+ */
+class HTDrawPositionTool extends HTDrawTool {
+
+    private final boolean isLong;
+
+    HTDrawPositionTool(boolean isLong) {
+        this.isLong = isLong;
+    }
+
+    @Override
+    public int pointCount() {
+        return 3;
+    }
+
+    @Override
+    public float viewPadding(HTDrawItem drawItem) {
+        // Labels sit above and below the box edges
+        return LABEL_TEXT_SIZE;
+    }
+
+    @Override
+    public void buildGeometry(HTDrawItem drawItem, BaseKLineChartView klineView, HTDrawPathCache geometry) {
+        List<HTPoint> points = drawItem.pointList;
+        if (points.size() < 2) {
+            return;
+        }
+        HTKLineConfigManager configManager = klineView.configManager;
+        HTPoint entry = points.get(0);
+        HTPoint target = points.get(1);
+        float left = klineView.xFromValue(entry.x);
+        float right = klineView.xFromValue(target.x);
+        float entryY = klineView.yFromValue(entry.y);
+        float targetY = klineView.yFromValue(target.y);
+        geometry.fill(colorWithAlphaComponent(configManager.increaseColor, 0.2),
+                left, entryY, right, entryY, right, targetY, left, targetY, true);
+        geometry.line(left, entryY, right, entryY);
+        labelInside(geometry, klineView, "T " + klineView.formatValue(target.y) + " (" + percent(entry.y, target.y) + ")",
+                left, targetY, targetY < entryY, configManager.increaseColor);
+        if (points.size() < 3) {
+            return;
+        }
+        HTPoint stop = points.get(2);
+        stop.x = target.x;
+        float stopY = klineView.yFromValue(stop.y);
+        geometry.fill(colorWithAlphaComponent(configManager.decreaseColor, 0.2),
+                left, entryY, right, entryY, right, stopY, left, stopY, true);
+        labelInside(geometry, klineView, "S " + klineView.formatValue(stop.y) + " (" + percent(entry.y, stop.y) + ")",
+                left, stopY, stopY < entryY, configManager.decreaseColor);
+        float risk = Math.abs(entry.y - stop.y);
+        String ratio = risk > 0 ? String.format(Locale.US, "%.2f", Math.abs(target.y - entry.y) / risk) : "-";
+        labelAbove(geometry, klineView, "R/R " + ratio, left, entryY, drawItem.drawColor);
+    }
+
+    // Move relative to the entry, positive when it is in the trade direction
+    private String percent(float entry, float price) {
+        if (entry == 0) {
+            return "-";
+        }
+        float change = (price - entry) / entry * 100;
+        return String.format(Locale.US, "%+.2f%%", isLong ? change : -change);
+    }
+
+    // Label on the outer edge of a zone, inside it
+    private static void labelInside(HTDrawPathCache geometry, BaseKLineChartView klineView, String text, float x, float y, boolean isTopEdge, int color) {
+        if (isTopEdge) {
+            float width = labelPaint.measureText(text);
+            float labelX = Math.max(0, Math.min(x, klineView.getWidth() - width));
+            geometry.label(text, labelX, y - labelPaint.ascent() + 2, color);
+        } else {
+            labelAbove(geometry, klineView, text, x, y, color);
+        }
+    }
+}
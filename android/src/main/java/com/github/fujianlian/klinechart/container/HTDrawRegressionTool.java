@@ -0,0 +1,118 @@
+package com.github.fujianlian.klinechart.container;
+
+import com.github.fujianlian.klinechart.BaseKLineChartView;
+import com.github.fujianlian.klinechart.KLineEntity;
+
+import java.util.List;
+
+/**
+ * Linear regression channel: least squares fit of the closes between the two anchor candles,
+ * with lines two standard deviations above and below. The anchors snap onto the fitted line.
+ */
+class HTDrawRegressionTool extends HTDrawTool {
+
+    private static final float DEVIATIONS = 2;
+
+    @Override
+    public int pointCount() {
+        return 2;
+    }
+
+    @Override
+    public boolean readsCandles() {
+        return true;
+    }
+
+    /**
+     * The channel height depends on the candles, so only the x range is known up front.
+     */
+    @Override
+    public boolean valueBounds(HTDrawItem drawItem, float[] out) {
+        if (!pointBounds(drawItem.pointList, out)) {
+            return false;
+        }
+        out[2] = -Float.MAX_VALUE;
+        out[3] = Float.MAX_VALUE;
+        return true;
+    }
+
+    @Override
+    public void buildGeometry(HTDrawItem drawItem, BaseKLineChartView klineView, HTDrawPathCache geometry) {
+        List<HTPoint> points = drawItem.pointList;
+        if (points.size() < 2) {
+            return;
+        }
+        HTPoint first = points.get(0);
+        HTPoint second = points.get(1);
+        float minX = Math.min(first.x, second.x);
+        float maxX = Math.max(first.x, second.x);
+        List<KLineEntity> modelArray = klineView.configManager.modelArray;
+        int from = lowerBound(modelArray, minX);
+        int to = lowerBound(modelArray, maxX);
+        if (to < modelArray.size() && modelArray.get(to).id <= maxX) {
+            to++;
+        }
+        int n = to - from;
+        if (n < 2) {
+            geometry.line(klineView.xFromValue(first.x), klineView.yFromValue(first.y),
+                    klineView.xFromValue(second.x), klineView.yFromValue(second.y));
+            return;
+        }
+        // Fit close = slope * t + intercept with t relative to the first candle for precision
+        double origin = modelArray.get(from).id;
+        double sumT = 0;
+        double sumY = 0;
+        double sumTT = 0;
+        double sumTY = 0;
+        for (int i = from; i < to; i++) {
+            KLineEntity entity = modelArray.get(i);
+            double t = entity.id - origin;
+            double y = entity.getClosePrice();
+            sumT += t;
+            sumY += y;
+            sumTT += t * t;
+            sumTY += t * y;
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        double slope = denominator != 0 ? (n * sumTY - sumT * sumY) / denominator : 0;
+        double intercept = (sumY - slope * sumT) / n;
+        double squares = 0;
+        for (int i = from; i < to; i++) {
+            KLineEntity entity = modelArray.get(i);
+            double residual = entity.getClosePrice() - (slope * (entity.id - origin) + intercept);
+            squares += residual * residual;
+        }
+        float offset = (float) (DEVIATIONS * Math.sqrt(squares / n));
+        first.y = (float) (slope * (first.x - origin) + intercept);
+        second.y = (float) (slope * (second.x - origin) + intercept);
+
+        float x1 = klineView.xFromValue(first.x);
+        float x2 = klineView.xFromValue(second.x);
+        float y1 = klineView.yFromValue(first.y);
+        float y2 = klineView.yFromValue(second.y);
+        float upper1 = klineView.yFromValue(first.y + offset);
+        float upper2 = klineView.yFromValue(second.y + offset);
+        float lower1 = klineView.yFromValue(first.y - offset);
+        float lower2 = klineView.yFromValue(second.y - offset);
+        geometry.fill(colorWithAlphaComponent(drawItem.drawColor, 0.15),
+                x1, upper1, x2, upper2, x2, lower2, x1, lower1, offset > 0);
+        geometry.line(x1, y1, x2, y2);
+        geometry.line(x1, upper1, x2, upper2);
+        geometry.line(x1, lower1, x2, lower2);
+    }
+
+    // First candle whose id is not below x
+    private static int lowerBound(List<KLineEntity> modelArray, float x) {
+        int low = 0;
+        int high = modelArray.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (modelArray.get(middle).id < x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,461 @@
+package com.github.fujianlian.klinechart.container;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Undo journal and persistence for the drawings of one chart.
+ * The journal keeps one entry per finished edit (add, remove, point or style change, whole list
+ * replace), so undo and redo apply a single entry instead of rebuilding the list. Items serialise
+ * to a compact JSON document with value-space points, which is also the bulk load format.
+ */
+public class HTDrawStore {
+    private static final String TAG = "RNKLineView.DrawStore";
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String DIRECTORY = "rnkline-drawings";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // File reads and writes run in submission order, so a read after a save sees the saved file
+    private static final ExecutorService fileExecutor = Executors.newSingleThreadExecutor();
+
+    private static final int OP_ADD = 0;
+
+    private static final int OP_REMOVE = 1;
+
+    private static final int OP_UPDATE = 2;
+
+    private static final int OP_REPLACE = 3;
+
+    public int maxJournalSize = 200;
+
+    private final ArrayDeque<Entry> undoList = new ArrayDeque<>();
+
+    private final ArrayDeque<Entry> redoList = new ArrayDeque<>();
+
+    private static class Entry {
+
+        int op;
+
+        int index;
+
+        HTDrawItem item;
+
+        State before;
+
+        State after;
+
+        List<HTDrawItem> beforeList;
+
+        List<HTDrawItem> afterList;
+
+        Entry(int op, int index, HTDrawItem item) {
+            this.op = op;
+            this.index = index;
+            this.item = item;
+        }
+    }
+
+    /**
+     * Points and style of an item at one moment.
+     */
+    public static class State {
+
+        private final float[] points;
+
+        private final int drawColor;
+
+        private final float drawLineHeight;
+
+        private final float drawDashWidth;
+
+        private final float drawDashSpace;
+
+        private final boolean drawIsLock;
+
+        private final String text;
+
+        private State(HTDrawItem drawItem) {
+            points = new float[drawItem.pointList.size() * 2];
+            for (int i = 0; i < drawItem.pointList.size(); i++) {
+                HTPoint point = drawItem.pointList.get(i);
+                points[i * 2] = point.x;
+                points[i * 2 + 1] = point.y;
+            }
+            drawColor = drawItem.drawColor;
+            drawLineHeight = drawItem.drawLineHeight;
+            drawDashWidth = drawItem.drawDashWidth;
+            drawDashSpace = drawItem.drawDashSpace;
+            drawIsLock = Boolean.TRUE.equals(drawItem.drawIsLock);
+            text = drawItem.text;
+        }
+
+        public static State of(HTDrawItem drawItem) {
+            return new State(drawItem);
+        }
+
+        boolean sameAs(State state) {
+            return Arrays.equals(points, state.points)
+                    && drawColor == state.drawColor
+                    && drawLineHeight == state.drawLineHeight
+                    && drawDashWidth == state.drawDashWidth
+                    && drawDashSpace == state.drawDashSpace
+                    && drawIsLock == state.drawIsLock
+                    && (text == null ? state.text == null : text.equals(state.text));
+        }
+
+        void applyTo(HTDrawItem drawItem) {
+            int count = points.length / 2;
+            if (drawItem.pointList.size() != count) {
+                drawItem.pointList.clear();
+                for (int i = 0; i < count; i++) {
+                    drawItem.pointList.add(new HTPoint(points[i * 2], points[i * 2 + 1]));
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    HTPoint point = drawItem.pointList.get(i);
+                    point.x = points[i * 2];
+                    point.y = points[i * 2 + 1];
+                }
+            }
+            drawItem.drawColor = drawColor;
+            drawItem.drawLineHeight = drawLineHeight;
+            drawItem.drawDashWidth = drawDashWidth;
+            drawItem.drawDashSpace = drawDashSpace;
+            drawItem.drawIsLock = drawIsLock;
+            drawItem.text = text;
+        }
+    }
+
+    public boolean canUndo() {
+        return !undoList.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoList.isEmpty();
+    }
+
+    public void clearJournal() {
+        undoList.clear();
+        redoList.clear();
+    }
+
+    public void recordAdd(HTDrawItem drawItem, int index) {
+        push(new Entry(OP_ADD, index, drawItem));
+    }
+
+    public void recordRemove(HTDrawItem drawItem, int index) {
+        push(new Entry(OP_REMOVE, index, drawItem));
+    }
+
+    /**
+     * Records a point or style change against the state captured before it. Returns false when
+     * nothing changed.
+     */
+    public boolean recordUpdate(HTDrawItem drawItem, State before) {
+        State after = State.of(drawItem);
+        if (before == null || before.sameAs(after)) {
+            return false;
+        }
+        Entry entry = new Entry(OP_UPDATE, -1, drawItem);
+        entry.before = before;
+        entry.after = after;
+        push(entry);
+        return true;
+    }
+
+    /**
+     * Records a whole list swap (clear, bulk load). Neither list may be mutated afterwards except
+     * through journaled edits.
+     */
+    public void recordReplace(List<HTDrawItem> beforeList, List<HTDrawItem> afterList) {
+        Entry entry = new Entry(OP_REPLACE, -1, null);
+        entry.beforeList = beforeList;
+        entry.afterList = afterList;
+        push(entry);
+    }
+
+    private void push(Entry entry) {
+        undoList.push(entry);
+        while (undoList.size() > maxJournalSize) {
+            undoList.removeLast();
+        }
+        redoList.clear();
+    }
+
+    public boolean undo(HTDrawContext drawContext) {
+        Entry entry = undoList.poll();
+        if (entry == null) {
+            return false;
+        }
+        apply(entry, drawContext, true);
+        redoList.push(entry);
+        return true;
+    }
+
+    public boolean redo(HTDrawContext drawContext) {
+        Entry entry = redoList.poll();
+        if (entry == null) {
+            return false;
+        }
+        apply(entry, drawContext, false);
+        undoList.push(entry);
+        return true;
+    }
+
+    private static void apply(Entry entry, HTDrawContext drawContext, boolean undo) {
+        List<HTDrawItem> drawItemList = drawContext.drawItemList;
+        switch (entry.op) {
+            case OP_ADD:
+            case OP_REMOVE: {
+                boolean insert = (entry.op == OP_ADD) != undo;
+                if (insert) {
+                    drawItemList.add(Math.max(0, Math.min(entry.index, drawItemList.size())), entry.item);
+                } else {
+                    int index = entry.index;
+                    if (index < 0 || index >= drawItemList.size() || drawItemList.get(index) != entry.item) {
+                        index = drawItemList.indexOf(entry.item);
+                    }
+                    if (index >= 0) {
+                        drawItemList.remove(index);
+                    }
+                }
+                drawContext.drawIndex.invalidate();
+                break;
+            }
+            case OP_UPDATE: {
+                (undo ? entry.before : entry.after).applyTo(entry.item);
+                drawContext.drawIndex.itemChanged(entry.item);
+                break;
+            }
+            case OP_REPLACE: {
+                drawContext.drawItemList = undo ? entry.beforeList : entry.afterList;
+                drawContext.drawIndex.invalidate();
+                break;
+            }
+        }
+    }
+
+    /**
+     * {"version":1,"items":[{"drawType":1,"points":[x0,y0,x1,y1],"drawColor":-65536,...}]}.
+     * Points are candle id and price, the same value space the chart draws in.
+     */
+    public static String toJson(List<HTDrawItem> drawItemList) {
+        StringBuilder builder = new StringBuilder(64 + drawItemList.size() * 160);
+        builder.append("{\"version\":").append(FORMAT_VERSION).append(",\"items\":[");
+        boolean first = true;
+        for (int i = 0; i < drawItemList.size(); i++) {
+            HTDrawItem drawItem = drawItemList.get(i);
+            if (!isComplete(drawItem) || !isFinite(drawItem)) {
+                continue;
+            }
+            if (!first) {
+                builder.append(',');
+            }
+            first = false;
+            builder.append("{\"drawType\":").append(drawItem.drawType.rawValue());
+            builder.append(",\"points\":[");
+            for (int index = 0; index < drawItem.pointList.size(); index++) {
+                HTPoint point = drawItem.pointList.get(index);
+                if (index > 0) {
+                    builder.append(',');
+                }
+                builder.append(point.x).append(',').append(point.y);
+            }
+            builder.append("],\"drawColor\":").append(drawItem.drawColor);
+            builder.append(",\"drawLineHeight\":").append(drawItem.drawLineHeight);
+            builder.append(",\"drawDashWidth\":").append(drawItem.drawDashWidth);
+            builder.append(",\"drawDashSpace\":").append(drawItem.drawDashSpace);
+            builder.append(",\"drawIsLock\":").append(Boolean.TRUE.equals(drawItem.drawIsLock));
+            if (drawItem.text != null && !drawItem.text.isEmpty()) {
+                builder.append(",\"text\":").append(JSONObject.quote(drawItem.text));
+            }
+            builder.append('}');
+        }
+        builder.append("]}");
+        return builder.toString();
+    }
+
+    /**
+     * Parses toJson output, or a bare items array. Items with an unknown type or too few points
+     * are skipped.
+     */
+    public static List<HTDrawItem> fromJson(String json) throws JSONException {
+        String trimmed = json == null ? "" : json.trim();
+        JSONArray items;
+        if (trimmed.startsWith("[")) {
+            items = new JSONArray(trimmed);
+        } else {
+            JSONObject document = new JSONObject(trimmed);
+            int version = document.optInt("version", FORMAT_VERSION);
+            if (version > FORMAT_VERSION) {
+                throw new JSONException("Unsupported drawing format version " + version);
+            }
+            items = document.optJSONArray("items");
+        }
+        List<HTDrawItem> drawItemList = new ArrayList<>(items == null ? 0 : items.length());
+        if (items == null) {
+            return drawItemList;
+        }
+        for (int i = 0; i < items.length(); i++) {
+            JSONObject object = items.optJSONObject(i);
+            HTDrawItem drawItem = object == null ? null : itemFromJson(object);
+            if (drawItem != null) {
+                drawItemList.add(drawItem);
+            }
+        }
+        return drawItemList;
+    }
+
+    private static HTDrawItem itemFromJson(JSONObject object) {
+        HTDrawType drawType = HTDrawType.drawTypeFromRawValue(object.optInt("drawType", 0));
+        JSONArray points = object.optJSONArray("points");
+        if (drawType == HTDrawType.none || points == null || points.length() < drawType.count() * 2) {
+            return null;
+        }
+        HTDrawItem drawItem = null;
+        for (int index = 0; index < drawType.count(); index++) {
+            double x = points.optDouble(index * 2);
+            double y = points.optDouble(index * 2 + 1);
+            if (Double.isNaN(x) || Double.isNaN(y) || Double.isInfinite(x) || Double.isInfinite(y)) {
+                return null;
+            }
+            HTPoint point = new HTPoint((float) x, (float) y);
+            if (drawItem == null) {
+                drawItem = new HTDrawItem(drawType, point);
+            } else {
+                drawItem.pointList.add(point);
+            }
+        }
+        drawItem.drawColor = object.optInt("drawColor", drawItem.drawColor);
+        drawItem.drawLineHeight = (float) object.optDouble("drawLineHeight", drawItem.drawLineHeight);
+        drawItem.drawDashWidth = (float) object.optDouble("drawDashWidth", drawItem.drawDashWidth);
+        drawItem.drawDashSpace = (float) object.optDouble("drawDashSpace", drawItem.drawDashSpace);
+        drawItem.drawIsLock = object.optBoolean("drawIsLock", false);
+        drawItem.text = object.optString("text", "");
+        return drawItem;
+    }
+
+    private static boolean isComplete(HTDrawItem drawItem) {
+        return drawItem.drawType != HTDrawType.none && drawItem.pointList.size() >= drawItem.drawType.count();
+    }
+
+    private static boolean isFinite(HTDrawItem drawItem) {
+        for (int i = 0; i < drawItem.pointList.size(); i++) {
+            HTPoint point = drawItem.pointList.get(i);
+            if (Float.isNaN(point.x) || Float.isNaN(point.y) || Float.isInfinite(point.x) || Float.isInfinite(point.y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * App-private file for a symbol's drawings. The symbol is reduced to a safe file name.
+     */
+    public static File fileForSymbol(Context context, String symbol) {
+        StringBuilder name = new StringBuilder(symbol.length());
+        for (int i = 0; i < symbol.length(); i++) {
+            char c = symbol.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.';
+            name.append(safe ? c : '_');
+        }
+        // Keep distinct symbols that sanitise to the same name apart
+        name.append('-').append(Integer.toHexString(symbol.hashCode())).append(".json");
+        return new File(new File(context.getFilesDir(), DIRECTORY), name.toString());
+    }
+
+    public interface ReadCallback {
+        /**
+         * Called on the file thread with the stored document, or null when there is none.
+         */
+        void onRead(String json, IOException error);
+    }
+
+    public static void saveAsync(final File file, final String json) {
+        fileExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(file, json);
+                } catch (IOException e) {
+                    Log.w(TAG, "save failed: " + file.getName(), e);
+                }
+            }
+        });
+    }
+
+    public static void readAsync(final File file, final ReadCallback callback) {
+        fileExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    callback.onRead(read(file), null);
+                } catch (IOException e) {
+                    callback.onRead(null, e);
+                }
+            }
+        });
+    }
+
+    // Writes a sibling temp file and renames it, so a crash never leaves a truncated document
+    static void write(File file, String json) throws IOException {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        OutputStream stream = new FileOutputStream(temp);
+        try {
+            stream.write(json.getBytes(UTF_8));
+        } finally {
+            stream.close();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    static String read(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        InputStream stream = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int count = stream.read(bytes, offset, bytes.length - offset);
+                if (count < 0) {
+                    break;
+                }
+                offset += count;
+            }
+            return new String(bytes, 0, offset, UTF_8);
+        } finally {
+            stream.close();
+        }
+    }
+}
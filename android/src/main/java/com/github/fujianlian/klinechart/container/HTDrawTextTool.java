@@ -0,0 +1,41 @@
+package com.github.fujianlian.klinechart.container;
+
+import com.github.fujianlian.klinechart.BaseKLineChartView;
+
+/**
+ * Text note anchored at one point, drawn right of it on the price. The text box is the hit area.
+ */
+class HTDrawTextTool extends HTDrawTool {
+
+    private static final String PLACEHOLDER = "Text";
+
+    private static final float PADDING = 8;
+
+    @Override
+    public int pointCount() {
+        return 1;
+    }
+
+    @Override
+    public float viewPadding(HTDrawItem drawItem) {
+        return labelPaint.measureText(textOf(drawItem)) + PADDING * 2;
+    }
+
+    @Override
+    public void buildGeometry(HTDrawItem drawItem, BaseKLineChartView klineView, HTDrawPathCache geometry) {
+        HTPoint point = drawItem.pointList.get(0);
+        String text = textOf(drawItem);
+        float x = klineView.xFromValue(point.x);
+        float y = klineView.yFromValue(point.y);
+        float left = x + PADDING;
+        float right = left + labelPaint.measureText(text) + PADDING;
+        float top = y + labelPaint.ascent() / 2 - PADDING;
+        float bottom = y - labelPaint.ascent() / 2 + labelPaint.descent() + PADDING;
+        geometry.area(x, top, right, top, right, bottom, x, bottom);
+        geometry.label(text, left, y - labelPaint.ascent() / 2, drawItem.drawColor);
+    }
+
+    private static String textOf(HTDrawItem drawItem) {
+        return drawItem.text == null || drawItem.text.isEmpty() ? PLACEHOLDER : drawItem.text;
+    }
+}
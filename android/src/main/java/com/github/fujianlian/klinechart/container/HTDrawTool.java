@@ -0,0 +1,121 @@
+package com.github.fujianlian.klinechart.container;
+
+import android.graphics.Paint;
+import com.github.fujianlian.klinechart.BaseKLineChartView;
+
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Geometry, hit-test and render strategy of one drawing type. A tool turns the value-space points
+ * of an item into view-space geometry once per viewport change (HTDrawPathCache); HTDrawContext
+ * draws that geometry and HTDrawIndex hit tests against it, so neither depends on which tools exist.
+ */
+public abstract class HTDrawTool {
+
+    // Label text size in px, like the other drawing sizes
+    public static final float LABEL_TEXT_SIZE = 28;
+
+    // Shared by the tools for measuring and by HTDrawContext for drawing labels
+    static final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private static final EnumMap<HTDrawType, HTDrawTool> toolMap = new EnumMap<>(HTDrawType.class);
+
+    static {
+        labelPaint.setTextSize(LABEL_TEXT_SIZE);
+        HTDrawLineTool.registerAll();
+        register(HTDrawType.fibRetracement, new HTDrawFibTool(false));
+        register(HTDrawType.fibExtension, new HTDrawFibTool(true));
+        register(HTDrawType.regressionChannel, new HTDrawRegressionTool());
+        register(HTDrawType.pitchfork, new HTDrawPitchforkTool());
+        register(HTDrawType.longPosition, new HTDrawPositionTool(true));
+        register(HTDrawType.shortPosition, new HTDrawPositionTool(false));
+        register(HTDrawType.text, new HTDrawTextTool());
+    }
+
+    public static HTDrawTool of(HTDrawType drawType) {
+        HTDrawTool tool = toolMap.get(drawType);
+        return tool != null ? tool : toolMap.get(HTDrawType.none);
+    }
+
+    public static void register(HTDrawType drawType, HTDrawTool tool) {
+        toolMap.put(drawType, tool);
+    }
+
+    /**
+     * Points placed by the user to complete an item.
+     */
+    public abstract int pointCount();
+
+    /**
+     * Value-space bounding box (minX, maxX, minY, maxY) of everything the tool draws, written to out.
+     * Unknown sides may be +/-Float.MAX_VALUE. Returns false for shapes without any finite extent.
+     * The default covers the points.
+     */
+    public boolean valueBounds(HTDrawItem drawItem, float[] out) {
+        return pointBounds(drawItem.pointList, out);
+    }
+
+    /**
+     * Whether the geometry reads candle data besides the item points, e.g. closes. Such geometry is
+     * also rebuilt when the candles change, not only when the viewport or the item does.
+     */
+    public boolean readsCandles() {
+        return false;
+    }
+
+    /**
+     * Extra px around the value bounds that the geometry may cover, e.g. text drawn right of a point.
+     */
+    public float viewPadding(HTDrawItem drawItem) {
+        return 0;
+    }
+
+    /**
+     * Writes the view-space geometry of a complete or partial item to geometry (already reset).
+     * May snap item points, e.g. onto a horizontal line.
+     */
+    public abstract void buildGeometry(HTDrawItem drawItem, BaseKLineChartView klineView, HTDrawPathCache geometry);
+
+    /**
+     * Whether the view location touches the item outside of its control points.
+     */
+    public boolean hitTest(HTDrawItem drawItem, HTDrawPathCache geometry, float viewX, float viewY) {
+        return geometry.hitSegments(viewX, viewY, HTDrawItem.TOUCH_DISTANCE) || geometry.hitAreas(viewX, viewY);
+    }
+
+    static boolean pointBounds(List<HTPoint> points, float[] out) {
+        if (points.isEmpty()) {
+            return false;
+        }
+        float minX = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < points.size(); i++) {
+            HTPoint point = points.get(i);
+            minX = Math.min(minX, point.x);
+            maxX = Math.max(maxX, point.x);
+            minY = Math.min(minY, point.y);
+            maxY = Math.max(maxY, point.y);
+        }
+        out[0] = minX;
+        out[1] = maxX;
+        out[2] = minY;
+        out[3] = maxY;
+        return true;
+    }
+
+    static int colorWithAlphaComponent(int color, double alpha) {
+        return (color & 0x00FFFFFF) | ((int)(alpha * 255) << 24);
+    }
+
+    /**
+     * Label text above the value line from x, clamped so it stays inside the view horizontally.
+     */
+    static void labelAbove(HTDrawPathCache geometry, BaseKLineChartView klineView, String text, float x, float y, int color) {
+        float width = labelPaint.measureText(text);
+        float labelX = Math.max(0, Math.min(x, klineView.getWidth() - width));
+        geometry.label(text, labelX, y - labelPaint.descent() - 2, color);
+    }
+}
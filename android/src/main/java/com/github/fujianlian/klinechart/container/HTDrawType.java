@@ -16,7 +16,21 @@ public enum HTDrawType {
 
     rectangle,
 
-    parallelogram;
+    parallelogram,
+
+    fibRetracement,
+
+    fibExtension,
+
+    regressionChannel,
+
+    pitchfork,
+
+    longPosition,
+
+    shortPosition,
+
+    text;
 
     public static HTDrawType drawTypeFromRawValue(int value) {
         switch (value) {
@@ -41,20 +55,85 @@ public enum HTDrawType {
             case 102: {
                 return parallelogram;
             }
+            case 201: {
+                return fibRetracement;
+            }
+            case 202: {
+                return fibExtension;
+            }
+            case 203: {
+                return regressionChannel;
+            }
+            case 204: {
+                return pitchfork;
+            }
+            case 301: {
+                return longPosition;
+            }
+            case 302: {
+                return shortPosition;
+            }
+            case 401: {
+                return text;
+            }
             default: {
                 return none;
             }
         }
     }
 
-    public int count() {
-        if (this == line || this == horizontalLine || this == verticalLine || this == halfLine || this == rectangle) {
-            return 2;
-        }
-        if (this == parallelLine || this == parallelogram) {
-            return 3;
+    public int rawValue() {
+        switch (this) {
+            case line: {
+                return 1;
+            }
+            case horizontalLine: {
+                return 2;
+            }
+            case verticalLine: {
+                return 3;
+            }
+            case halfLine: {
+                return 4;
+            }
+            case parallelLine: {
+                return 5;
+            }
+            case rectangle: {
+                return 101;
+            }
+            case parallelogram: {
+                return 102;
+            }
+            case fibRetracement: {
+                return 201;
+            }
+            case fibExtension: {
+                return 202;
+            }
+            case regressionChannel: {
+                return 203;
+            }
+            case pitchfork: {
+                return 204;
+            }
+            case longPosition: {
+                return 301;
+            }
+            case shortPosition: {
+                return 302;
+            }
+            case text: {
+                return 401;
+            }
+            default: {
+                return 0;
+            }
         }
-        return 1;
+    }
+
+    public int count() {
+        return HTDrawTool.of(this).pointCount();
     }
 
 }
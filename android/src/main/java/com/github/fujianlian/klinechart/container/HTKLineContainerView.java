@@ -1,6 +1,7 @@
 package com.github.fujianlian.klinechart.container;
 
 
+import android.content.Context;
 import android.view.MotionEvent;
 import android.view.ViewGroup;
 import android.widget.RelativeLayout;
@@ -9,7 +10,13 @@ import com.facebook.react.bridge.*;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.events.RCTEventEmitter;
 import com.github.fujianlian.klinechart.BuildConfig;
+import com.github.fujianlian.klinechart.HTFrameProfiler;
+import com.github.fujianlian.klinechart.HTIndicatorEngine;
+import com.github.fujianlian.klinechart.HTIngestionMetrics;
 import com.github.fujianlian.klinechart.HTKLineConfigManager;
+import com.github.fujianlian.klinechart.HTKLineTickAggregator;
+import com.github.fujianlian.klinechart.HTMarkerStore;
+import com.github.fujianlian.klinechart.HTOverlayLayer;
 import com.github.fujianlian.klinechart.KLineChartView;
 import com.github.fujianlian.klinechart.BaseKLineChartView;
 import com.github.fujianlian.klinechart.KLineEntity;
@@ -28,11 +35,65 @@ public class HTKLineContainerView extends RelativeLayout {
 
     public HTShotView shotView;
 
+    public HTKLineTickAggregator tickAggregator = new HTKLineTickAggregator();
+
+    public HTIngestionMetrics ingestionMetrics = new HTIngestionMetrics();
+
+    public HTIndicatorEngine indicatorEngine = new HTIndicatorEngine();
+
+    private long reportedCoalescedUpdates = 0;
+
+    private boolean ingestionFlushScheduled = false;
+
+    private final Runnable ingestionFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            ingestionFlushScheduled = false;
+            emitIngestionMetrics();
+        }
+    };
+
     private Float appliedInitialScale = null;
 
+    private static final long DRAWING_SAVE_DELAY_MS = 300;
+
+    // Symbol the drawings are saved under, null while saving is off
+    private String drawingSymbol;
+
+    private boolean drawingSaveScheduled = false;
+
+    // True from a symbol switch until its saved drawings are restored; the list on screen still
+    // belongs to the previous symbol, so nothing may be saved under the new one
+    private boolean drawingRestorePending = false;
+
+    private final Runnable drawingSaveRunnable = new Runnable() {
+        @Override
+        public void run() {
+            drawingSaveScheduled = false;
+            if (drawingSymbol == null || drawingRestorePending) {
+                return;
+            }
+            // Serialise on the UI thread, where the list is mutated; only the write is off-thread
+            String json = HTDrawStore.toJson(klineView.drawContext.drawItemList);
+            HTDrawStore.saveAsync(HTDrawStore.fileForSymbol(getContext(), drawingSymbol), json);
+        }
+    };
+
     public HTKLineContainerView(ThemedReactContext context) {
+        this(context, context);
+    }
+
+    /**
+     * Container without a React context for JVM tests and replay tools. Every event, including
+     * touch and drawing callbacks, is dropped; errors only go to the log.
+     */
+    public HTKLineContainerView(Context context) {
+        this(context, null);
+    }
+
+    private HTKLineContainerView(Context context, ThemedReactContext reactContext) {
         super(context);
-        this.reactContext = context;
+        this.reactContext = reactContext;
         klineView = new KLineChartView(getContext(), configManager);
         // More, smaller grid cells
         klineView.setGridColumns(0);
@@ -47,6 +108,12 @@ public class HTKLineContainerView extends RelativeLayout {
                 chart.refreshComplete();
             }
         });
+        klineView.setPerfStatsListener(new BaseKLineChartView.PerfStatsListener() {
+            @Override
+            public void onPerfStats(HTFrameProfiler profiler) {
+                emitPerfStats("interval");
+            }
+        });
         addView(klineView, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
     }
 
@@ -54,8 +121,7 @@ public class HTKLineContainerView extends RelativeLayout {
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
         if (shotView == null) {
-            ViewGroup shotTarget = resolveShotTarget();
-            shotView = new HTShotView(getContext(), shotTarget);
+            shotView = new HTShotView(getContext(), klineView);
             shotView.setEnabled(false);
             shotView.dimension = 300;
         }
@@ -75,16 +141,11 @@ public class HTKLineContainerView extends RelativeLayout {
         if (shotView != null && shotView.getParent() == this) {
             removeView(shotView);
         }
+        removeCallbacks(ingestionFlushRunnable);
+        ingestionFlushScheduled = false;
         super.onDetachedFromWindow();
     }
 
-    private ViewGroup resolveShotTarget() {
-        if (getParent() instanceof ViewGroup) {
-            return (ViewGroup) getParent();
-        }
-        return this;
-    }
-
     private float clampInitialScale(float scale) {
         if (Float.isNaN(scale) || Float.isInfinite(scale) || scale <= 0f) {
             return 1f;
@@ -137,6 +198,9 @@ public class HTKLineContainerView extends RelativeLayout {
                             + " candleWidth=" + configManager.candleWidth
             );
         }
+        ingestionMetrics.enabled = configManager.ingestionMetrics;
+        ingestionMetrics.intervalMillis = configManager.ingestionMetricsInterval;
+        indicatorEngine.sync(configManager);
         klineView.changeMainDrawType(klineView.configManager.primaryStatus);
         klineView.changeSecondDrawType(klineView.configManager.secondStatus);
         klineView.setMainDrawLine(klineView.configManager.isMinute);
@@ -154,12 +218,16 @@ public class HTKLineContainerView extends RelativeLayout {
         klineView.setMTextColor(klineView.configManager.candleTextColor);
         klineView.reloadColor();
         klineView.setGridLineColor(klineView.configManager.gridColor);
+        klineView.drawContext.reloadConfig();
 
         // Register prediction select callback
         final int viewId = this.getId();
         klineView.mOnPredictionSelectListener = new BaseKLineChartView.OnPredictionSelectListener() {
             @Override
             public void onPredictionSelect(java.util.Map<String, Object> payload) {
+                if (reactContext == null) {
+                    return;
+                }
                 WritableMap map = Arguments.createMap();
                 for (java.util.Map.Entry<String, Object> entry : payload.entrySet()) {
                     String key = entry.getKey();
@@ -209,6 +277,9 @@ public class HTKLineContainerView extends RelativeLayout {
                 HTDrawItem drawItem = (HTDrawItem) args[0];
                 int drawItemIndex = (int) args[1];
                 configManager.shouldReloadDrawItemIndex = drawItemIndex;
+                if (reactContext == null) {
+                    return;
+                }
 
                 WritableMap map = Arguments.createMap();
                 if (drawItem != null) {
@@ -229,6 +300,8 @@ public class HTKLineContainerView extends RelativeLayout {
                     map.putDouble("drawDashWidth", drawItem.drawDashWidth);
                     map.putDouble("drawDashSpace", drawItem.drawDashSpace);
                     map.putBoolean("drawIsLock", drawItem.drawIsLock);
+                    map.putInt("drawType", drawItem.drawType.rawValue());
+                    map.putString("drawText", drawItem.text);
                 }
                 map.putInt("shouldReloadDrawItemIndex", drawItemIndex);
                 reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
@@ -241,6 +314,9 @@ public class HTKLineContainerView extends RelativeLayout {
         configManager.onDrawItemComplete = new Callback() {
             @Override
             public void invoke(Object... args) {
+                if (reactContext == null) {
+                    return;
+                }
                 reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
                         id,
                         RNKLineView.onDrawItemCompleteKey,
@@ -251,6 +327,9 @@ public class HTKLineContainerView extends RelativeLayout {
         configManager.onDrawPointComplete = new Callback() {
             @Override
             public void invoke(Object... args) {
+                if (reactContext == null) {
+                    return;
+                }
                 HTDrawItem drawItem = (HTDrawItem) args[0];
                 WritableMap map = Arguments.createMap();
                 map.putInt("pointCount", drawItem.pointList.size());
@@ -262,18 +341,43 @@ public class HTKLineContainerView extends RelativeLayout {
             }
         };
 
+        configManager.onDrawingsChange = new Callback() {
+            @Override
+            public void invoke(Object... args) {
+                emitDrawingsChange((String) args[0], null);
+                scheduleDrawingSave();
+            }
+        };
+
         int reloadIndex = configManager.shouldReloadDrawItemIndex;
         if (reloadIndex >= 0 && reloadIndex < klineView.drawContext.drawItemList.size()) {
             HTDrawItem drawItem = klineView.drawContext.drawItemList.get(reloadIndex);
+            HTDrawStore.State styleBefore = HTDrawStore.State.of(drawItem);
             drawItem.drawColor = configManager.drawColor;
             drawItem.drawLineHeight = configManager.drawLineHeight;
             drawItem.drawDashWidth = configManager.drawDashWidth;
             drawItem.drawDashSpace = configManager.drawDashSpace;
             drawItem.drawIsLock = configManager.drawIsLock;
+            if (drawItem.drawType == HTDrawType.text) {
+                drawItem.text = configManager.drawText;
+            }
+            boolean drawingsChanged = false;
+            // Only finished items are in the journal
+            if (drawItem.pointList.size() >= drawItem.drawType.count()) {
+                drawingsChanged = klineView.drawContext.drawStore.recordUpdate(drawItem, styleBefore);
+            }
             if (configManager.drawShouldTrash) {
                 configManager.shouldReloadDrawItemIndex = HTDrawState.showPencil;
                 klineView.drawContext.drawItemList.remove(reloadIndex);
+                klineView.drawContext.drawIndex.invalidate();
                 configManager.drawShouldTrash = false;
+                if (drawItem.pointList.size() >= drawItem.drawType.count()) {
+                    klineView.drawContext.drawStore.recordRemove(drawItem, reloadIndex);
+                    drawingsChanged = true;
+                }
+            }
+            if (drawingsChanged) {
+                configManager.onDrawingsChange.invoke("change");
             }
             klineView.drawContext.invalidate();
         } else if (reloadIndex > HTDrawState.showContext) {
@@ -308,6 +412,195 @@ public class HTKLineContainerView extends RelativeLayout {
         }
     }
 
+    /**
+     * Replaces all drawings with a bulk-loaded list, as one undoable step.
+     */
+    public void loadDrawings(java.util.List<HTDrawItem> drawItemList) {
+        klineView.drawContext.replaceDrawItemList(drawItemList, true);
+        emitDrawingsChange("load", null);
+        scheduleDrawingSave();
+    }
+
+    public void undoDrawing() {
+        if (klineView.drawContext.undo()) {
+            emitDrawingsChange("undo", null);
+            scheduleDrawingSave();
+        }
+    }
+
+    public void redoDrawing() {
+        if (klineView.drawContext.redo()) {
+            emitDrawingsChange("redo", null);
+            scheduleDrawingSave();
+        }
+    }
+
+    public void exportDrawings() {
+        emitDrawingsChange("export", HTDrawStore.toJson(klineView.drawContext.drawItemList));
+    }
+
+    /**
+     * Applies a batch of overlay changes parsed by the updateOverlays command.
+     */
+    public void updateOverlays(HTOverlayLayer.Batch batch) {
+        if (klineView.overlayLayer.apply(batch)) {
+            klineView.invalidate();
+        }
+    }
+
+    /**
+     * Adds packed [id, price, type, size, ...] markers from the appendMarkers command,
+     * replacing the stored ones first when replace is set.
+     */
+    public void appendMarkers(double[] markers, int markerCount, boolean replace) {
+        HTMarkerStore markerStore = klineView.markerStore;
+        if (replace) {
+            markerStore.clear();
+        }
+        int dropped = markerCount > 0 ? markerStore.append(markers, markerCount) : 0;
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "appendMarkers markers=" + markerCount + " dropped=" + dropped + " stored=" + markerStore.size());
+        }
+        klineView.invalidate();
+    }
+
+    /**
+     * Switches the symbol drawings are saved under and restores that symbol's saved drawings.
+     * Pending edits of the previous symbol are written first. Until the restore lands nothing is
+     * saved, so edits made in that window never end up in the new symbol's file. Null or empty
+     * turns saving off and keeps the current drawings.
+     */
+    public void setDrawingSymbol(String symbol) {
+        String nextSymbol = symbol == null || symbol.isEmpty() ? null : symbol;
+        if (nextSymbol == null ? drawingSymbol == null : nextSymbol.equals(drawingSymbol)) {
+            return;
+        }
+        if (drawingSaveScheduled) {
+            removeCallbacks(drawingSaveRunnable);
+            drawingSaveRunnable.run();
+        }
+        drawingSymbol = nextSymbol;
+        drawingRestorePending = nextSymbol != null;
+        if (nextSymbol == null) {
+            return;
+        }
+        final String requestedSymbol = nextSymbol;
+        HTDrawStore.readAsync(HTDrawStore.fileForSymbol(getContext(), requestedSymbol), new HTDrawStore.ReadCallback() {
+            @Override
+            public void onRead(String json, java.io.IOException error) {
+                java.util.List<HTDrawItem> restored = null;
+                String failure = error != null ? error.getMessage() : null;
+                if (json != null) {
+                    try {
+                        restored = HTDrawStore.fromJson(json);
+                    } catch (Exception e) {
+                        failure = e.getMessage();
+                    }
+                }
+                final java.util.List<HTDrawItem> items = restored != null ? restored : new java.util.ArrayList<HTDrawItem>();
+                final String message = failure;
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // A later setDrawingSymbol wins
+                        if (!requestedSymbol.equals(drawingSymbol)) {
+                            return;
+                        }
+                        drawingRestorePending = false;
+                        if (message != null) {
+                            emitError("E_DRAWINGS_RESTORE", "Failed to restore drawings: " + message, false);
+                        }
+                        klineView.drawContext.replaceDrawItemList(items, false);
+                        emitDrawingsChange("restore", null);
+                    }
+                });
+            }
+        });
+    }
+
+    // Coalesces edits into one write per DRAWING_SAVE_DELAY_MS
+    private void scheduleDrawingSave() {
+        if (drawingSymbol == null || drawingRestorePending || drawingSaveScheduled) {
+            return;
+        }
+        drawingSaveScheduled = true;
+        postDelayed(drawingSaveRunnable, DRAWING_SAVE_DELAY_MS);
+    }
+
+    private void emitDrawingsChange(String reason, String data) {
+        if (reactContext == null) {
+            return;
+        }
+        HTDrawContext drawContext = klineView.drawContext;
+        WritableMap map = Arguments.createMap();
+        map.putString("reason", reason);
+        map.putInt("count", drawContext.drawItemList.size());
+        map.putBoolean("canUndo", drawContext.drawStore.canUndo());
+        map.putBoolean("canRedo", drawContext.drawStore.canRedo());
+        if (drawingSymbol != null) {
+            map.putString("symbol", drawingSymbol);
+        }
+        if (data != null) {
+            map.putString("data", data);
+        }
+        reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
+                this.getId(),
+                RNKLineView.onDrawingsChangeKey,
+                map
+        );
+    }
+
+    public void updateLastCandle(KLineEntity entity) {
+        int size = configManager.modelArray.size();
+        if (size == 0) {
+            configManager.modelArray.add(entity);
+            reloadConfigManager();
+            return;
+        }
+        configManager.modelArray.set(size - 1, entity);
+        if (configManager.liveMaxFps > 0) {
+            indicatorEngine.sync(configManager);
+            klineView.notifyLastCandleChanged();
+            return;
+        }
+        reloadConfigManager();
+    }
+
+    /**
+     * Rolls tickCount packed ticks into the candles. Returns how many candles the batch opened.
+     */
+    public int appendTicks(double[] ticks, int tickCount, long interval, String datePattern) {
+        if (interval <= 0) {
+            emitError("E_APPEND_TICKS", "appendTicks requires a positive interval.", false);
+            return 0;
+        }
+        tickAggregator.setDatePattern(datePattern);
+        HTKLineTickAggregator.Result result = tickAggregator.apply(configManager.modelArray, ticks, tickCount, interval);
+        ingestionMetrics.droppedTicks(result.dropped);
+        indicatorEngine.invalidateFrom(result.firstChangedIndex);
+        if (BuildConfig.DEBUG) {
+            Log.d(
+                    TAG,
+                    "appendTicks ticks=" + tickCount
+                            + " applied=" + result.applied
+                            + " appended=" + result.appended
+                            + " dropped=" + result.dropped
+            );
+        }
+        if (result.applied == 0) {
+            return 0;
+        }
+        boolean onlyLastChanged = result.appended == 0
+                && result.firstChangedIndex == configManager.modelArray.size() - 1;
+        if (onlyLastChanged && configManager.liveMaxFps > 0) {
+            indicatorEngine.sync(configManager);
+            klineView.notifyLastCandleChanged();
+            return 0;
+        }
+        reloadConfigManager();
+        return result.appended;
+    }
+
     public void prependData(java.util.List<KLineEntity> entities) {
         if (entities == null || entities.isEmpty()) return;
         int previousCount = configManager.modelArray.size();
@@ -336,7 +629,8 @@ public class HTKLineContainerView extends RelativeLayout {
             if (newAnchorIndex >= 0) {
                 float newScale = klineView.getScaleX() == 0 ? 1f : klineView.getScaleX();
                 float desiredScroll = klineView.getItemMiddleScrollX(newAnchorIndex) - (oldAnchorScreenX / newScale);
-                klineView.setScrollX(Math.round(desiredScroll));
+                // Offsetting keeps a fling into history going over the new candles
+                klineView.offsetScrollX(Math.round(desiredScroll) - klineView.getScrollOffset());
                 anchorRestored = true;
             } else {
                 emitError("E_PREPEND_ANCHOR_MISS", "Anchor candle missing after prependData on Android.", false);
@@ -344,7 +638,7 @@ public class HTKLineContainerView extends RelativeLayout {
         }
         if (!anchorRestored) {
             int delta = Math.round(configManager.itemWidth * entities.size());
-            klineView.setScrollX(oldScroll + delta);
+            klineView.offsetScrollX(oldScroll + delta - klineView.getScrollOffset());
         }
 
         if (selectedId != null) {
@@ -392,7 +686,7 @@ public class HTKLineContainerView extends RelativeLayout {
                 if (configManager.drawType == HTDrawType.none) {
                     HTPoint location = new HTPoint(event.getX(), event.getY());
                     location = convertLocation(location);
-                    if ((HTDrawItem.canResponseLocation(klineView.drawContext.drawItemList, location, klineView)) == null) {
+                    if ((HTDrawItem.canResponseLocation(klineView.drawContext.drawIndex, location, klineView)) == null) {
                         return false;
                     }
                 }
@@ -402,7 +696,7 @@ public class HTKLineContainerView extends RelativeLayout {
                 if (configManager.drawType == HTDrawType.none) {
                     HTPoint location = new HTPoint(event.getX(), event.getY());
                     location = convertLocation(location);
-                    if ((HTDrawItem.canResponseLocation(klineView.drawContext.drawItemList, location, klineView)) == null) {
+                    if ((HTDrawItem.canResponseLocation(klineView.drawContext.drawIndex, location, klineView)) == null) {
                         return false;
                     }
                 }
@@ -453,14 +747,17 @@ public class HTKLineContainerView extends RelativeLayout {
             return;
         }
         if (event.getAction() == MotionEvent.ACTION_UP || event.getAction() == MotionEvent.ACTION_CANCEL) {
-            shotView.setPoint(null);
+            shotView.clearPoint();
             lastLocation = null;
         } else {
-            shotView.setPoint(new HTPoint(event.getX(), event.getY()));
+            shotView.setPoint(event.getX(), event.getY());
         }
     }
 
     private void emitLoadMore() {
+        if (reactContext == null) {
+            return;
+        }
         WritableMap map = Arguments.createMap();
         double earliestId = configManager.modelArray.isEmpty() ? 0 : configManager.modelArray.get(0).id;
         map.putDouble("earliestId", earliestId);
@@ -495,7 +792,106 @@ public class HTKLineContainerView extends RelativeLayout {
         return index >= 0 && index < klineView.drawContext.drawItemList.size();
     }
 
+    /**
+     * Sends p50/p95/p99/max (ms) per onDraw phase. reason is "interval" for the periodic report
+     * and "request" for getPerfStats.
+     */
+    public void emitPerfStats(String reason) {
+        if (reactContext == null) {
+            return;
+        }
+        HTFrameProfiler profiler = klineView.frameProfiler;
+        WritableMap map = Arguments.createMap();
+        map.putString("reason", reason);
+        map.putBoolean("enabled", profiler.enabled);
+        map.putDouble("frames", profiler.getFrameCount());
+        WritableMap phases = Arguments.createMap();
+        for (java.util.Map.Entry<String, double[]> entry : profiler.snapshot().entrySet()) {
+            double[] values = entry.getValue();
+            WritableMap phase = Arguments.createMap();
+            phase.putDouble("p50", values[0]);
+            phase.putDouble("p95", values[1]);
+            phase.putDouble("p99", values[2]);
+            phase.putDouble("max", values[3]);
+            phases.putMap(entry.getKey(), phase);
+        }
+        map.putMap("phases", phases);
+        reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
+                this.getId(),
+                RNKLineView.onPerfStatsKey,
+                map
+        );
+    }
+
+    /**
+     * Closes a command sample and reports the window once intervalMillis has passed. A window that
+     * is still open gets flushed by a delayed post, so the last burst before a pause is reported too.
+     */
+    public void recordIngestion(HTIngestionMetrics.Sample sample) {
+        ingestionMetrics.finish(sample);
+        if (!ingestionMetrics.enabled) {
+            return;
+        }
+        if (ingestionMetrics.isDue(android.os.SystemClock.uptimeMillis())) {
+            removeCallbacks(ingestionFlushRunnable);
+            ingestionFlushScheduled = false;
+            emitIngestionMetrics();
+        } else if (!ingestionFlushScheduled) {
+            ingestionFlushScheduled = true;
+            postDelayed(ingestionFlushRunnable, ingestionMetrics.intervalMillis);
+        }
+    }
+
+    private void emitIngestionMetrics() {
+        if (reactContext == null) {
+            return;
+        }
+        long now = android.os.SystemClock.uptimeMillis();
+        long windowMillis = Math.max(1, ingestionMetrics.getWindowMillis(now));
+        long coalesced = klineView.getCoalescedLiveUpdates();
+        WritableMap map = Arguments.createMap();
+        map.putDouble("windowMs", windowMillis);
+        map.putInt("queueDepth", ingestionMetrics.getQueueDepth());
+        map.putInt("maxQueueDepth", ingestionMetrics.getMaxQueueDepth());
+        map.putDouble("coalesced", coalesced - reportedCoalescedUpdates);
+        map.putDouble("droppedTicks", ingestionMetrics.getDroppedTicks());
+        WritableMap commands = Arguments.createMap();
+        for (int command = 0; command < HTIngestionMetrics.COMMAND_COUNT; command++) {
+            if (!ingestionMetrics.hasActivity(command)) {
+                continue;
+            }
+            double[] latency = ingestionMetrics.getLatencyMillis(command);
+            WritableMap item = Arguments.createMap();
+            item.putInt("count", ingestionMetrics.getCount(command));
+            item.putInt("failed", ingestionMetrics.getFailed(command));
+            item.putDouble("candles", ingestionMetrics.getCandles(command));
+            item.putDouble("candlesPerSec", ingestionMetrics.getCandles(command) * 1000.0 / windowMillis);
+            item.putDouble("ticks", ingestionMetrics.getTicks(command));
+            item.putDouble("ticksPerSec", ingestionMetrics.getTicks(command) * 1000.0 / windowMillis);
+            item.putDouble("bytes", ingestionMetrics.getBytes(command));
+            item.putDouble("copyMs", latency[0]);
+            item.putDouble("packMs", latency[1]);
+            item.putDouble("queueMs", latency[2]);
+            item.putDouble("applyMs", latency[3]);
+            item.putDouble("totalMs", latency[4]);
+            item.putDouble("maxTotalMs", latency[5]);
+            commands.putMap(HTIngestionMetrics.COMMAND_NAMES[command], item);
+        }
+        map.putMap("commands", commands);
+        reportedCoalescedUpdates = coalesced;
+        ingestionMetrics.resetWindow(now);
+        reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
+                this.getId(),
+                RNKLineView.onIngestionMetricsKey,
+                map
+        );
+    }
+
     public void emitError(String code, String message, boolean fatal) {
+        if (reactContext == null) {
+            Log.w(TAG, code + ": " + message);
+            return;
+        }
         WritableMap map = Arguments.createMap();
         map.putString("code", code);
         map.putString("message", message);
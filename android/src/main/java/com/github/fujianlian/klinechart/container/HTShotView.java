@@ -2,24 +2,37 @@ package com.github.fujianlian.klinechart.container;
 
 import android.content.Context;
 import android.graphics.*;
-import android.util.Log;
-import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.RelativeLayout;
+import com.github.fujianlian.klinechart.BaseKLineChartView;
 
+/**
+ * Round magnifier over the touch point. On each move only the region under the lens of the chart
+ * view is drawn, scaled, into one reused bitmap; onDraw clips that bitmap to the circle. The chart
+ * is a sibling of this view, so rendering it into a software canvas never touches the render nodes
+ * of this view or its ancestors.
+ */
 public class HTShotView extends View {
 
-    private View shotView;
+    // Chart view drawn under the lens, a sibling inside the same container
+    private BaseKLineChartView shotView;
 
     public int dimension;
 
     private Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
-    private Bitmap bitmap;
-
     private float scale = 1.5f;
 
+    private boolean hasPoint = false;
+
+    private Bitmap lensBitmap;
+
+    private final Canvas lensCanvas = new Canvas();
+
+    private final Path clipPath = new Path();
+
+    private int clipDimension = -1;
+
     @Override
     public void requestLayout() {
         super.requestLayout();
@@ -32,7 +45,7 @@ public class HTShotView extends View {
         layout(left, top, left + width, top + height);
     }
 
-    public HTShotView(Context context, View shotView) {
+    public HTShotView(Context context, BaseKLineChartView shotView) {
         super(context);
         this.shotView = shotView;
     }
@@ -40,58 +53,59 @@ public class HTShotView extends View {
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        if (shotView != null && bitmap != null) {
-            Path path = new Path();
-            RectF round = new RectF(0, 0, dimension, dimension);
-            path.addRoundRect(round, dimension / 2, dimension / 2, Path.Direction.CW);
-            canvas.clipPath(path);
-            canvas.drawBitmap(bitmap, 0, 0, paint);
+        if (!hasPoint || lensBitmap == null) {
+            return;
+        }
+        if (clipDimension != dimension) {
+            clipPath.rewind();
+            clipPath.addRoundRect(0, 0, dimension, dimension, dimension / 2, dimension / 2, Path.Direction.CW);
+            clipDimension = dimension;
         }
+        int save = canvas.save();
+        canvas.clipPath(clipPath);
+        canvas.drawBitmap(lensBitmap, 0, 0, paint);
+        canvas.restoreToCount(save);
     }
 
-    public void setPoint(HTPoint point) {
-        if (point != null) {
-            bitmap = loadBitmapFromView(shotView);
-            Matrix matrix = new Matrix();
-            matrix.postScale(scale, scale);
-            float left = point.x - dimension / 2 + dimension / 4 * (scale - 1);
-            left = Math.max(0, Math.min(left, bitmap.getWidth()));
-            float top = (point.y - dimension / 2 + dimension / 4 * (scale - 1));
-            top = Math.max(0, Math.min(top, bitmap.getHeight()));
-            float width = Math.max(0, Math.min(dimension, bitmap.getWidth() - left));
-            float height = Math.max(0, Math.min(dimension, bitmap.getHeight() - top));
-            if (width <= 0 || height <= 0) {
-                bitmap = null;
-            } else {
-                bitmap = Bitmap.createBitmap(bitmap,
-                        (int)left,
-                        (int)top,
-                        (int)width,
-                        (int)height,
-                        matrix,
-                        false
-                );
-            }
-        } else {
-            bitmap = null;
+    /**
+     * Magnifies around x, y in the coordinates of the parent container.
+     */
+    public void setPoint(float x, float y) {
+        if (shotView == null || dimension <= 0) {
+            return;
+        }
+        int targetWidth = shotView.getWidth();
+        int targetHeight = shotView.getHeight();
+        float left = x - shotView.getLeft() - dimension / 2 + dimension / 4 * (scale - 1);
+        left = Math.max(0, Math.min(left, targetWidth));
+        float top = y - shotView.getTop() - dimension / 2 + dimension / 4 * (scale - 1);
+        top = Math.max(0, Math.min(top, targetHeight));
+        if (left >= targetWidth || top >= targetHeight) {
+            clearPoint();
+            return;
         }
+        if (lensBitmap == null || lensBitmap.getWidth() != dimension) {
+            // Only allocated again when the lens size changes
+            lensBitmap = Bitmap.createBitmap(dimension, dimension, Bitmap.Config.ARGB_8888);
+            lensCanvas.setBitmap(lensBitmap);
+        }
+        lensBitmap.eraseColor(Color.TRANSPARENT);
+        int save = lensCanvas.save();
+        lensCanvas.scale(scale, scale);
+        lensCanvas.translate(-left, -top);
+        lensCanvas.clipRect(left, top, left + dimension / scale, top + dimension / scale);
+        shotView.drawOffscreen(lensCanvas);
+        lensCanvas.restoreToCount(save);
+        hasPoint = true;
         invalidate();
     }
 
-    private Bitmap loadBitmapFromView(View view) {
-        if (view == null) {
-            return null;
+    public void clearPoint() {
+        if (!hasPoint) {
+            return;
         }
-        Bitmap screenshot = Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(screenshot);
-//        int count = viewGroup.getChildCount();
-//        for (int index = 2; index < 4; index ++) {
-//            View childView = viewGroup.getChildAt(index);
-//            canvas.translate(-childView.getX(), -childView.getY());
-//            childView.draw(canvas);
-//        }
-        view.draw(canvas);
-        return screenshot;
+        hasPoint = false;
+        invalidate();
     }
 
 }
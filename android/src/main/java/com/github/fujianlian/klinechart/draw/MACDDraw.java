@@ -12,6 +12,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.github.fujianlian.klinechart.HTKLineConfigManager;
+import com.github.fujianlian.klinechart.HTLabelSolver;
 import com.github.fujianlian.klinechart.BaseKLineChartView;
 import com.github.fujianlian.klinechart.KLineEntity;
 import com.github.fujianlian.klinechart.base.IChartDraw;
@@ -43,6 +44,14 @@ public class MACDDraw implements IChartDraw<IMACD> {
     private final Paint labelTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     private final Paint labelBgPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
+    // Right-edge tag layout, reused every frame
+    private final HTLabelSolver labelSolver = new HTLabelSolver();
+    private final List<LabelSpec> labels = new ArrayList<>();
+    private final List<LabelSpec> labelPool = new ArrayList<>();
+    private final RectF labelRect = new RectF();
+    private final Paint.FontMetrics labelFontMetrics = new Paint.FontMetrics();
+    private final DashPathEffect levelDash = new DashPathEffect(new float[]{10f, 6f}, 0);
+
     private static class LabelSpec {
         float y;
         String text;
@@ -136,7 +145,7 @@ public class MACDDraw implements IChartDraw<IMACD> {
             return;
         }
         KLineEntity point = view.getItem(stopIndex);
-        List<LabelSpec> labels = new ArrayList<>();
+        labels.clear();
         String macdLabel = resolveLineLabel(view.configManager.macdLineLabels, "macd", "MACD");
         String signalLabel = resolveLineLabel(view.configManager.macdLineLabels, "signal", "Signal");
         String histogramLabel = resolveLineLabel(view.configManager.macdLineLabels, "histogram", "Histogram");
@@ -246,14 +255,14 @@ public class MACDDraw implements IChartDraw<IMACD> {
         levelGuidePaint.setColor(withAlpha(color, 150));
         levelGuidePaint.setStrokeWidth(ViewUtil.Dp2Px(mContext, 0.9f));
         if (dashed) {
-            levelGuidePaint.setPathEffect(new DashPathEffect(new float[]{10f, 6f}, 0));
+            levelGuidePaint.setPathEffect(levelDash);
         } else {
             levelGuidePaint.setPathEffect(null);
         }
         canvas.drawLine(0f, y, view.getWidth(), y, levelGuidePaint);
         levelGuidePaint.setPathEffect(null);
 
-        LabelSpec label = new LabelSpec();
+        LabelSpec label = obtainLabel(labels.size());
         label.y = y;
         label.color = color;
         label.text = formatOverlayText(name, view.formatValue(value));
@@ -288,60 +297,57 @@ public class MACDDraw implements IChartDraw<IMACD> {
             @NonNull BaseKLineChartView view,
             @NonNull List<LabelSpec> labels
     ) {
-        int count = labels.size();
-        Integer[] order = new Integer[count];
-        for (int i = 0; i < count; i++) {
-            order[i] = i;
+        Rect childRect = view.getChildRect();
+        if (childRect == null) {
+            return;
         }
-        java.util.Arrays.sort(order, (a, b) -> Float.compare(labels.get(a).y, labels.get(b).y));
-
         float fontSize = Math.max(ViewUtil.Dp2Px(mContext, 10f), view.configManager.rightTextFontSize);
         labelTextPaint.setTextSize(fontSize);
-        Paint.FontMetrics fm = labelTextPaint.getFontMetrics();
-        float textHeight = fm.descent - fm.ascent;
+        labelTextPaint.getFontMetrics(labelFontMetrics);
+        float textHeight = labelFontMetrics.descent - labelFontMetrics.ascent;
         float paddingX = ViewUtil.Dp2Px(mContext, 6f);
         float paddingY = ViewUtil.Dp2Px(mContext, 3f);
         float labelHeight = textHeight + paddingY * 2f;
         float gap = ViewUtil.Dp2Px(mContext, 4f);
-
-        Rect childRect = view.getChildRect();
-        if (childRect == null) {
-            return;
-        }
         float minTop = childRect.top + ViewUtil.Dp2Px(mContext, 2f);
         float maxTop = childRect.bottom - labelHeight - ViewUtil.Dp2Px(mContext, 2f);
         if (maxTop < minTop) {
             return;
         }
 
-        float[] topByIndex = new float[count];
-        float previousBottom = minTop - gap;
-        for (int orderedIndex : order) {
-            float rawTop = labels.get(orderedIndex).y - labelHeight / 2f;
-            float top = Math.max(minTop, Math.min(maxTop, rawTop));
-            if (top < previousBottom + gap) {
-                top = previousBottom + gap;
-            }
-            top = Math.min(maxTop, top);
-            topByIndex[orderedIndex] = top;
-            previousBottom = top + labelHeight;
+        int count = labels.size();
+        labelSolver.reset();
+        for (int i = 0; i < count; i++) {
+            labelSolver.add(labels.get(i).y);
         }
+        labelSolver.solve(minTop, maxTop, labelHeight, gap);
 
         float rightInset = ViewUtil.Dp2Px(mContext, 4f);
         for (int i = 0; i < count; i++) {
+            if (!labelSolver.isVisible(i)) {
+                continue;
+            }
             LabelSpec label = labels.get(i);
             float textWidth = labelTextPaint.measureText(label.text);
             float width = textWidth + paddingX * 2f;
             float left = view.getWidth() - rightInset - width;
-            float top = topByIndex[i];
-            RectF rect = new RectF(left, top, left + width, top + labelHeight);
+            float top = labelSolver.top(i);
+            labelRect.set(left, top, left + width, top + labelHeight);
             labelBgPaint.setColor(label.color);
-            canvas.drawRoundRect(rect, ViewUtil.Dp2Px(mContext, 3f), ViewUtil.Dp2Px(mContext, 3f), labelBgPaint);
-            float textBaseline = top + paddingY - fm.ascent;
+            canvas.drawRoundRect(labelRect, ViewUtil.Dp2Px(mContext, 3f), ViewUtil.Dp2Px(mContext, 3f), labelBgPaint);
+            float textBaseline = top + paddingY - labelFontMetrics.ascent;
             canvas.drawText(label.text, left + paddingX, textBaseline, labelTextPaint);
         }
     }
 
+    // Reuses the LabelSpec at index of the per-frame label list, growing the pool when needed
+    private LabelSpec obtainLabel(int index) {
+        while (labelPool.size() <= index) {
+            labelPool.add(new LabelSpec());
+        }
+        return labelPool.get(index);
+    }
+
     private float clampToChild(@NonNull BaseKLineChartView view, float value) {
         Rect child = view.getChildRect();
         if (child == null) {
@@ -60,6 +60,16 @@ public class MainDraw implements IChartDraw<ICandle> {
     private final int srResistanceColor = Color.parseColor("#EF4444");
     private final int srSupportColor = Color.parseColor("#14B8A6");
 
+    // Right-edge tag layout shared by the EMA, BOLL and support/resistance labels
+    private final HTLabelSolver labelSolver = new HTLabelSolver();
+    private final RectF labelRect = new RectF();
+    private final Paint.FontMetrics labelFontMetrics = new Paint.FontMetrics();
+    private final DashPathEffect maGuideDash = new DashPathEffect(new float[]{8f, 6f}, 0);
+    private final DashPathEffect srGuideDash = new DashPathEffect(new float[]{10f, 6f}, 0);
+    // Value and maList index of each EMA label, indexed like labelSolver
+    private float[] maLabelValues = new float[8];
+    private int[] maLabelItems = new int[8];
+
     public MainDraw(BaseKLineChartView view) {
         Context context = view.getContext();
         kChartView = (KLineChartView) view;
@@ -250,13 +260,13 @@ public class MainDraw implements IChartDraw<ICandle> {
                 KLineEntity currentItem = (KLineEntity) curPoint;
                 for (int i = 0; i < view.configManager.maList.size(); i ++) {
                     HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.maList.get(i);
-                    HTKLineTargetItem currentTargetItem = safeTargetItem(currentItem.maList, configItem.index, "drawTranslated.current");
-                    HTKLineTargetItem lastTargetItem = safeTargetItem(lastItem.maList, configItem.index, "drawTranslated.last");
-                    if (currentTargetItem == null || lastTargetItem == null) {
+                    float currentTargetValue = safeTargetValue(currentItem.maValues, configItem.index, "drawTranslated.current");
+                    float lastTargetValue = safeTargetValue(lastItem.maValues, configItem.index, "drawTranslated.last");
+                    if (Float.isNaN(currentTargetValue) || Float.isNaN(lastTargetValue)) {
                         continue;
                     }
                     primaryPaint.setColor(safeTargetColor(view, configItem.index, 0));
-                    view.drawMainLine(canvas, this.primaryPaint, lastX, lastTargetItem.value, curX, currentTargetItem.value);
+                    view.drawMainLine(canvas, this.primaryPaint, lastX, lastTargetValue, curX, currentTargetValue);
                 }
             }
         }
@@ -341,22 +351,22 @@ public class MainDraw implements IChartDraw<ICandle> {
         bollBandFillPaint.setShader(null);
     }
 
-    private HTKLineTargetItem resolveSuperItem(KLineEntity item, BaseKLineChartView view) {
+    private float resolveSuperValue(KLineEntity item, BaseKLineChartView view) {
         for (int i = 0; i < view.configManager.maList.size(); i++) {
             HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.maList.get(i);
             if (!"super".equalsIgnoreCase(configItem.kind)) {
                 continue;
             }
-            HTKLineTargetItem target = safeTargetItem(item.maList, configItem.index, "resolveSuper");
-            if (target != null) {
-                return target;
+            float value = safeTargetValue(item.maValues, configItem.index, "resolveSuper");
+            if (!Float.isNaN(value)) {
+                return value;
             }
-            target = safeTargetItem(item.maList, i, "resolveSuper.fallback");
-            if (target != null) {
-                return target;
+            value = safeTargetValue(item.maValues, i, "resolveSuper.fallback");
+            if (!Float.isNaN(value)) {
+                return value;
             }
         }
-        return null;
+        return Float.NaN;
     }
 
     private int withAlpha(int color, int alpha) {
@@ -419,16 +429,14 @@ public class MainDraw implements IChartDraw<ICandle> {
         }
         KLineEntity lastItem = (KLineEntity) lastPoint;
         KLineEntity currentItem = (KLineEntity) curPoint;
-        HTKLineTargetItem lastSuperItem = resolveSuperItem(lastItem, view);
-        HTKLineTargetItem currentSuperItem = resolveSuperItem(currentItem, view);
-        if (lastSuperItem == null || currentSuperItem == null) {
+        float lastSuper = resolveSuperValue(lastItem, view);
+        float currentSuper = resolveSuperValue(currentItem, view);
+        if (Float.isNaN(lastSuper) || Float.isNaN(currentSuper)) {
             return;
         }
 
         float lastClose = lastItem.getClosePrice();
         float currentClose = currentItem.getClosePrice();
-        float lastSuper = lastSuperItem.value;
-        float currentSuper = currentSuperItem.value;
 
         float d1 = lastClose - lastSuper;
         float d2 = currentClose - currentSuper;
@@ -505,23 +513,28 @@ public class MainDraw implements IChartDraw<ICandle> {
                 List<Integer> superColors = new ArrayList<>();
                 for (int i = 0; i < view.configManager.maList.size(); i ++) {
                     HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.maList.get(i);
-                    HTKLineTargetItem targetItem = safeTargetItem(point.maList, configItem.index, "drawText");
-                    if (targetItem == null) {
+                    float targetValue = safeTargetValue(point.maValues, configItem.index, "drawText");
+                    if (Float.isNaN(targetValue)) {
                         continue;
                     }
                     StringBuilder stringBuilder = new StringBuilder();
-                    String lowerKind = targetItem.kind == null ? "ma" : targetItem.kind.toLowerCase();
+                    String lowerKind = configItem.kind == null ? "ma" : configItem.kind.toLowerCase();
                     String prefix = "ema".equals(lowerKind) ? "EMA" : ("super".equals(lowerKind) ? "SUPER" : "MA");
                     if ("super".equals(lowerKind)) {
                         stringBuilder.append("SUPERTREND(");
-                        stringBuilder.append(targetItem.title);
+                        stringBuilder.append(configItem.title);
+                        stringBuilder.append(")");
+                    } else if (!"ema".equals(lowerKind) && !"ma".equals(lowerKind)) {
+                        stringBuilder.append(HTIndicatorEngine.label(lowerKind, prefix));
+                        stringBuilder.append("(");
+                        stringBuilder.append(configItem.title);
                         stringBuilder.append(")");
                     } else {
                         stringBuilder.append(prefix);
-                        stringBuilder.append(targetItem.title);
+                        stringBuilder.append(configItem.title);
                     }
                     stringBuilder.append(":");
-                    stringBuilder.append(view.formatValue(targetItem.value));
+                    stringBuilder.append(view.formatValue(targetValue));
                     stringBuilder.append(space);
                     int color = safeTargetColor(view, configItem.index, 0);
                     if ("ema".equals(lowerKind)) {
@@ -581,68 +594,30 @@ public class MainDraw implements IChartDraw<ICandle> {
         if (supportRaw == null || resistanceRaw == null) {
             return;
         }
-        float support = supportRaw;
         float resistance = resistanceRaw;
-
-        String[] titles = {"Resistance", "Support"};
-        float[] values = {resistance, support};
-        int[] bgColors = {srResistanceColor, srSupportColor};
-        float[] yTargets = {view.yFromValue(resistance), view.yFromValue(support)};
-        int[] order = {0, 1};
-        if (yTargets[order[1]] < yTargets[order[0]]) {
-            int tmp = order[0];
-            order[0] = order[1];
-            order[1] = tmp;
-        }
-
-        float fontSize = Math.max(ViewUtil.Dp2Px(mContext, 10f), view.configManager.rightTextFontSize);
-        srLabelTextPaint.setTextSize(fontSize);
-        srLabelTextPaint.setColor(Color.WHITE);
-        Paint.FontMetrics fm = srLabelTextPaint.getFontMetrics();
-        float textHeight = fm.descent - fm.ascent;
-        float paddingX = ViewUtil.Dp2Px(mContext, 6f);
-        float paddingY = ViewUtil.Dp2Px(mContext, 3f);
-        float labelHeight = textHeight + paddingY * 2f;
-        float gap = ViewUtil.Dp2Px(mContext, 4f);
-        float minTop = ViewUtil.Dp2Px(mContext, 2f);
-        float maxTop = view.getMainBottom() - labelHeight - ViewUtil.Dp2Px(mContext, 2f);
-        if (maxTop < minTop) {
+        float support = supportRaw;
+        float resistanceY = view.yFromValue(resistance);
+        float supportY = view.yFromValue(support);
+
+        labelSolver.reset();
+        labelSolver.add(resistanceY);
+        labelSolver.add(supportY);
+        float labelHeight = solveRightLabels(srLabelTextPaint, view);
+        if (labelHeight == 0) {
             return;
         }
 
-        float[] topByIndex = new float[2];
-        float previousBottom = minTop - gap;
-        for (int orderedIndex : order) {
-            float rawTop = yTargets[orderedIndex] - labelHeight / 2f;
-            float top = Math.max(minTop, Math.min(maxTop, rawTop));
-            if (top < previousBottom + gap) {
-                top = previousBottom + gap;
-            }
-            top = Math.min(maxTop, top);
-            topByIndex[orderedIndex] = top;
-            previousBottom = top + labelHeight;
-        }
-
         float rightInset = ViewUtil.Dp2Px(mContext, 6f);
         srGuidePaint.setStrokeWidth(ViewUtil.Dp2Px(mContext, 0.9f));
-        srGuidePaint.setPathEffect(new DashPathEffect(new float[]{10f, 6f}, 0));
-        for (int i = 0; i < values.length; i++) {
-            String text = titles[i] + " " + view.formatValue(values[i]);
-            float textWidth = srLabelTextPaint.measureText(text);
-            float width = textWidth + paddingX * 2f;
-            float left = view.getWidth() - rightInset - width;
-            float top = topByIndex[i];
-            float yValue = yTargets[i];
-            int color = bgColors[i];
-
+        srGuidePaint.setPathEffect(srGuideDash);
+        for (int i = 0; i < 2; i++) {
+            float value = i == 0 ? resistance : support;
+            float yValue = i == 0 ? resistanceY : supportY;
+            int color = i == 0 ? srResistanceColor : srSupportColor;
             srGuidePaint.setColor(withAlpha(color, 160));
             canvas.drawLine(0f, yValue, view.getWidth(), yValue, srGuidePaint);
-
-            RectF rect = new RectF(left, top, left + width, top + labelHeight);
-            srLabelBgPaint.setColor(color);
-            canvas.drawRoundRect(rect, ViewUtil.Dp2Px(mContext, 3f), ViewUtil.Dp2Px(mContext, 3f), srLabelBgPaint);
-            float textBaseline = top + paddingY - fm.ascent;
-            canvas.drawText(text, left + paddingX, textBaseline, srLabelTextPaint);
+            String text = (i == 0 ? "Resistance " : "Support ") + view.formatValue(value);
+            drawRightLabel(canvas, view, i, text, color, rightInset, labelHeight, srLabelTextPaint, srLabelBgPaint);
         }
         srGuidePaint.setPathEffect(null);
     }
@@ -656,96 +631,54 @@ public class MainDraw implements IChartDraw<ICandle> {
             return;
         }
         KLineEntity point = view.getItem(stopIndex);
-        if (point.maList == null || point.maList.isEmpty()) {
+        if (point.maValues == null || point.maValues.length == 0) {
             return;
         }
 
-        List<String> titles = new ArrayList<>();
-        List<Float> values = new ArrayList<>();
-        List<Integer> colors = new ArrayList<>();
-        List<Float> yTargets = new ArrayList<>();
-        for (int i = 0; i < view.configManager.maList.size(); i++) {
-            HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.maList.get(i);
+        labelSolver.reset();
+        List<HTKLineTargetItem> maList = view.configManager.maList;
+        for (int i = 0; i < maList.size(); i++) {
+            HTKLineTargetItem configItem = maList.get(i);
             if (configItem == null || configItem.kind == null || !"ema".equalsIgnoreCase(configItem.kind)) {
                 continue;
             }
-            HTKLineTargetItem targetItem = safeTargetItem(point.maList, configItem.index, "drawMaRightLabels");
-            if (targetItem == null) {
-                continue;
-            }
-            float value = targetItem.value;
+            float value = safeTargetValue(point.maValues, configItem.index, "drawMaRightLabels");
             if (Float.isNaN(value) || Float.isInfinite(value) || value == 0f) {
                 continue;
             }
-            int period = parsePeriod(configItem.title, parsePeriod(targetItem.title, configItem.index));
-            String title = "EMA " + (period > 0 ? period : configItem.title);
-            titles.add(title);
-            values.add(value);
-            colors.add(safeTargetColor(view, configItem.index, 0));
-            yTargets.add(view.yFromValue(value));
+            int label = labelSolver.add(view.yFromValue(value));
+            if (label >= maLabelValues.length) {
+                maLabelValues = java.util.Arrays.copyOf(maLabelValues, label * 2);
+                maLabelItems = java.util.Arrays.copyOf(maLabelItems, label * 2);
+            }
+            maLabelValues[label] = value;
+            maLabelItems[label] = i;
         }
-        if (titles.isEmpty()) {
+        int count = labelSolver.size();
+        if (count == 0) {
             return;
         }
-
-        int count = titles.size();
-        Integer[] order = new Integer[count];
-        for (int i = 0; i < count; i++) {
-            order[i] = i;
-        }
-        java.util.Arrays.sort(order, (a, b) -> Float.compare(yTargets.get(a), yTargets.get(b)));
-
-        float fontSize = Math.max(ViewUtil.Dp2Px(mContext, 10f), view.configManager.rightTextFontSize);
-        maLabelTextPaint.setTextSize(fontSize);
-        maLabelTextPaint.setColor(Color.WHITE);
-        Paint.FontMetrics fm = maLabelTextPaint.getFontMetrics();
-        float textHeight = fm.descent - fm.ascent;
-        float paddingX = ViewUtil.Dp2Px(mContext, 6f);
-        float paddingY = ViewUtil.Dp2Px(mContext, 3f);
-        float labelHeight = textHeight + paddingY * 2f;
-        float gap = ViewUtil.Dp2Px(mContext, 4f);
-        float minTop = ViewUtil.Dp2Px(mContext, 2f);
-        float maxTop = view.getMainBottom() - labelHeight - ViewUtil.Dp2Px(mContext, 2f);
-        if (maxTop < minTop) {
+        float labelHeight = solveRightLabels(maLabelTextPaint, view);
+        if (labelHeight == 0) {
             return;
         }
 
-        float[] topByIndex = new float[count];
-        float previousBottom = minTop - gap;
-        for (int orderedIndex : order) {
-            float rawTop = yTargets.get(orderedIndex) - labelHeight / 2f;
-            float top = Math.max(minTop, Math.min(maxTop, rawTop));
-            if (top < previousBottom + gap) {
-                top = previousBottom + gap;
-            }
-            top = Math.min(maxTop, top);
-            topByIndex[orderedIndex] = top;
-            previousBottom = top + labelHeight;
-        }
-
         float rightInset = Math.max(view.configManager.paddingRight, ViewUtil.Dp2Px(mContext, 4f));
         maGuidePaint.setStrokeWidth(ViewUtil.Dp2Px(mContext, 0.8f));
-        maGuidePaint.setPathEffect(new DashPathEffect(new float[]{8f, 6f}, 0));
+        maGuidePaint.setPathEffect(maGuideDash);
         for (int i = 0; i < count; i++) {
-            String valueText = view.formatValue(values.get(i));
-            String text = titles.get(i) + " " + valueText;
-            float textWidth = maLabelTextPaint.measureText(text);
-            float width = textWidth + paddingX * 2f;
-            float left = view.getWidth() - rightInset - width;
-            float top = topByIndex[i];
-            float yValue = yTargets.get(i);
-            int color = colors.get(i);
+            HTKLineTargetItem configItem = maList.get(maLabelItems[i]);
+            float value = maLabelValues[i];
+            int period = parsePeriod(configItem.title, configItem.index);
+            String text = "EMA " + (period > 0 ? period : configItem.title) + " " + view.formatValue(value);
+            int color = safeTargetColor(view, configItem.index, 0);
+            float left = drawRightLabel(canvas, view, i, text, color, rightInset, labelHeight, maLabelTextPaint, maLabelBgPaint);
             maGuidePaint.setColor(withAlpha(color, 120));
             float guideEnd = Math.max(0f, left - ViewUtil.Dp2Px(mContext, 4f));
             if (guideEnd > 0f) {
+                float yValue = view.yFromValue(value);
                 canvas.drawLine(0f, yValue, guideEnd, yValue, maGuidePaint);
             }
-
-            RectF rect = new RectF(left, top, left + width, top + labelHeight);
-            maLabelBgPaint.setColor(color);
-            canvas.drawRoundRect(rect, ViewUtil.Dp2Px(mContext, 3f), ViewUtil.Dp2Px(mContext, 3f), maLabelBgPaint);
-            float textBaseline = top + paddingY - fm.ascent;
-            canvas.drawText(text, left + paddingX, textBaseline, maLabelTextPaint);
         }
         maGuidePaint.setPathEffect(null);
     }
@@ -766,70 +699,66 @@ public class MainDraw implements IChartDraw<ICandle> {
             return;
         }
 
-        String[] titles = {"Upper", "Base", "Lower"};
-        float[] values = {upper, base, lower};
-        int[] bgColors = {
+        labelSolver.reset();
+        labelSolver.add(view.yFromValue(upper));
+        labelSolver.add(view.yFromValue(base));
+        labelSolver.add(view.yFromValue(lower));
+        float labelHeight = solveRightLabels(bollLabelTextPaint, view);
+        if (labelHeight == 0) {
+            return;
+        }
+
+        float rightInset = Math.max(view.configManager.paddingRight, ViewUtil.Dp2Px(mContext, 4f));
+        drawRightLabel(canvas, view, 0, "Upper " + view.formatValue(upper),
                 safeTargetColor(view, 1, view.configManager.increaseColor),
+                rightInset, labelHeight, bollLabelTextPaint, bollLabelBgPaint);
+        drawRightLabel(canvas, view, 1, "Base " + view.formatValue(base),
                 safeTargetColor(view, 0, view.configManager.increaseColor),
+                rightInset, labelHeight, bollLabelTextPaint, bollLabelBgPaint);
+        drawRightLabel(canvas, view, 2, "Lower " + view.formatValue(lower),
                 safeTargetColor(view, 2, view.configManager.decreaseColor),
-        };
-        float[] yTargets = {
-                view.yFromValue(upper),
-                view.yFromValue(base),
-                view.yFromValue(lower),
-        };
-        int[] order = {0, 1, 2};
-        for (int i = 0; i < order.length; i++) {
-            for (int j = i + 1; j < order.length; j++) {
-                if (yTargets[order[j]] < yTargets[order[i]]) {
-                    int tmp = order[i];
-                    order[i] = order[j];
-                    order[j] = tmp;
-                }
-            }
-        }
+                rightInset, labelHeight, bollLabelTextPaint, bollLabelBgPaint);
+    }
 
+    /**
+     * Sizes textPaint for right-edge tags and lays out the labels added to labelSolver inside the
+     * main pane. Returns the tag height, or 0 when the pane is too small for a tag.
+     */
+    private float solveRightLabels(@NonNull Paint textPaint, @NonNull BaseKLineChartView view) {
         float fontSize = Math.max(ViewUtil.Dp2Px(mContext, 10f), view.configManager.rightTextFontSize);
-        bollLabelTextPaint.setTextSize(fontSize);
-        bollLabelTextPaint.setColor(Color.WHITE);
-        Paint.FontMetrics fm = bollLabelTextPaint.getFontMetrics();
-        float textHeight = fm.descent - fm.ascent;
-        float paddingX = ViewUtil.Dp2Px(mContext, 6f);
-        float paddingY = ViewUtil.Dp2Px(mContext, 3f);
-        float labelHeight = textHeight + paddingY * 2f;
-        float gap = ViewUtil.Dp2Px(mContext, 4f);
+        textPaint.setTextSize(fontSize);
+        textPaint.setColor(Color.WHITE);
+        textPaint.getFontMetrics(labelFontMetrics);
+        float labelHeight = labelFontMetrics.descent - labelFontMetrics.ascent + ViewUtil.Dp2Px(mContext, 3f) * 2f;
         float minTop = ViewUtil.Dp2Px(mContext, 2f);
         float maxTop = view.getMainBottom() - labelHeight - ViewUtil.Dp2Px(mContext, 2f);
         if (maxTop < minTop) {
-            return;
-        }
-
-        float[] topByIndex = new float[3];
-        float previousBottom = minTop - gap;
-        for (int orderedIndex : order) {
-            float rawTop = yTargets[orderedIndex] - labelHeight / 2f;
-            float top = Math.max(minTop, Math.min(maxTop, rawTop));
-            if (top < previousBottom + gap) {
-                top = previousBottom + gap;
-            }
-            top = Math.min(maxTop, top);
-            topByIndex[orderedIndex] = top;
-            previousBottom = top + labelHeight;
+            return 0;
         }
+        labelSolver.solve(minTop, maxTop, labelHeight, ViewUtil.Dp2Px(mContext, 4f));
+        return labelHeight;
+    }
 
-        float rightInset = Math.max(view.configManager.paddingRight, ViewUtil.Dp2Px(mContext, 4f));
-        for (int i = 0; i < values.length; i++) {
-            String text = titles[i] + " " + view.formatValue(values[i]);
-            float textWidth = bollLabelTextPaint.measureText(text);
-            float width = textWidth + paddingX * 2f;
-            float left = view.getWidth() - rightInset - width;
-            float top = topByIndex[i];
-            RectF rect = new RectF(left, top, left + width, top + labelHeight);
-            bollLabelBgPaint.setColor(bgColors[i]);
-            canvas.drawRoundRect(rect, ViewUtil.Dp2Px(mContext, 3f), ViewUtil.Dp2Px(mContext, 3f), bollLabelBgPaint);
-            float textBaseline = top + paddingY - fm.ascent;
-            canvas.drawText(text, left + paddingX, textBaseline, bollLabelTextPaint);
+    /**
+     * Draws solved label index as a rounded tag against the right edge and returns its left,
+     * or the right edge when the solver dropped it.
+     */
+    private float drawRightLabel(@NonNull Canvas canvas, @NonNull BaseKLineChartView view, int index,
+                                 @NonNull String text, int color, float rightInset, float labelHeight,
+                                 @NonNull Paint textPaint, @NonNull Paint bgPaint) {
+        float right = view.getWidth() - rightInset;
+        if (!labelSolver.isVisible(index)) {
+            return right;
         }
+        float paddingX = ViewUtil.Dp2Px(mContext, 6f);
+        float paddingY = ViewUtil.Dp2Px(mContext, 3f);
+        float left = right - textPaint.measureText(text) - paddingX * 2f;
+        float top = labelSolver.top(index);
+        labelRect.set(left, top, right, top + labelHeight);
+        bgPaint.setColor(color);
+        canvas.drawRoundRect(labelRect, ViewUtil.Dp2Px(mContext, 3f), ViewUtil.Dp2Px(mContext, 3f), bgPaint);
+        canvas.drawText(text, left + paddingX, top + paddingY - labelFontMetrics.ascent, textPaint);
+        return left;
     }
 
     public float findIsMaxValue(ICandle point, final boolean isMax) {
@@ -839,7 +768,7 @@ public class MainDraw implements IChartDraw<ICandle> {
             add(item.getLowPrice());
         }};
         if (shouldDrawMA(kChartView)) {
-            valueList.add(item.targetListISMax(item.maList, isMax));
+            valueList.add(item.targetListISMax(item.maValues, isMax));
         }
         if (shouldDrawBOLL(kChartView)) {
             valueList.add(item.getMb());
@@ -1020,20 +949,20 @@ public class MainDraw implements IChartDraw<ICandle> {
         return Color.BLACK;
     }
 
-    private HTKLineTargetItem safeTargetItem(List<HTKLineTargetItem> list, int index, String owner) {
-        if (list == null) {
+    private float safeTargetValue(float[] values, int index, String owner) {
+        if (values == null) {
             if (BuildConfig.DEBUG) {
-                Log.d(TAG, owner + ": list null");
+                Log.d(TAG, owner + ": values null");
             }
-            return null;
+            return Float.NaN;
         }
-        if (index >= 0 && index < list.size()) {
-            return list.get(index);
+        if (index >= 0 && index < values.length) {
+            return values[index];
         }
         if (BuildConfig.DEBUG) {
-            Log.d(TAG, owner + ": skip invalid index=" + index + ", count=" + list.size());
+            Log.d(TAG, owner + ": skip invalid index=" + index + ", count=" + values.length);
         }
-        return null;
+        return Float.NaN;
     }
 
     /**
@@ -15,7 +15,9 @@ import androidx.annotation.Nullable;
 
 import com.github.fujianlian.klinechart.BaseKLineChartView;
 import com.github.fujianlian.klinechart.BuildConfig;
+import com.github.fujianlian.klinechart.HTIndicatorEngine;
 import com.github.fujianlian.klinechart.HTKLineConfigManager;
+import com.github.fujianlian.klinechart.HTLabelSolver;
 import com.github.fujianlian.klinechart.HTKLineTargetItem;
 import com.github.fujianlian.klinechart.KLineEntity;
 import com.github.fujianlian.klinechart.base.IChartDraw;
@@ -48,6 +50,15 @@ public class RSIDraw implements IChartDraw<IRSI> {
     private final Paint labelTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     private final Paint labelBgPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
+    // Right-edge tag layout, reused every frame
+    private final HTLabelSolver labelSolver = new HTLabelSolver();
+    private final List<LabelSpec> labels = new ArrayList<>();
+    private final List<LabelSpec> labelPool = new ArrayList<>();
+    private final RectF labelRect = new RectF();
+    private final Paint.FontMetrics labelFontMetrics = new Paint.FontMetrics();
+    private final DashPathEffect levelDash = new DashPathEffect(new float[]{10f, 6f}, 0);
+    private final DashPathEffect currentDash = new DashPathEffect(new float[]{8f, 6f}, 0);
+
     private static class RsiLevelSpec {
         float value;
         String label;
@@ -88,13 +99,13 @@ public class RSIDraw implements IChartDraw<IRSI> {
         KLineEntity currentItem = (KLineEntity) curPoint;
         for (int i = 0; i < view.configManager.rsiList.size(); i++) {
             HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.rsiList.get(i);
-            HTKLineTargetItem currentTargetItem = safeTargetItem(currentItem.rsiList, configItem.index, "drawTranslated.current");
-            HTKLineTargetItem lastTargetItem = safeTargetItem(lastItem.rsiList, configItem.index, "drawTranslated.last");
-            if (currentTargetItem == null || lastTargetItem == null) {
+            float currentTargetValue = safeTargetValue(currentItem.rsiValues, configItem.index, "drawTranslated.current");
+            float lastTargetValue = safeTargetValue(lastItem.rsiValues, configItem.index, "drawTranslated.last");
+            if (Float.isNaN(currentTargetValue) || Float.isNaN(lastTargetValue)) {
                 continue;
             }
             primaryPaint.setColor(safeTargetColor(view, configItem.index));
-            view.drawChildLine(canvas, primaryPaint, lastX, lastTargetItem.value, curX, currentTargetItem.value);
+            view.drawChildLine(canvas, primaryPaint, lastX, lastTargetValue, curX, currentTargetValue);
         }
     }
 
@@ -103,12 +114,12 @@ public class RSIDraw implements IChartDraw<IRSI> {
         KLineEntity point = (KLineEntity) view.getItem(position);
         for (int i = 0; i < view.configManager.rsiList.size(); i++) {
             HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.rsiList.get(i);
-            HTKLineTargetItem targetItem = safeTargetItem(point.rsiList, configItem.index, "drawText");
-            if (targetItem == null) {
+            float targetValue = safeTargetValue(point.rsiValues, configItem.index, "drawText");
+            if (Float.isNaN(targetValue)) {
                 continue;
             }
             this.primaryPaint.setColor(safeTargetColor(view, configItem.index));
-            String text = "RSI(" + targetItem.title + "):" + view.formatValue(targetItem.value) + "  ";
+            String text = HTIndicatorEngine.label(configItem.kind, "RSI") + "(" + configItem.title + "):" + view.formatValue(targetValue) + "  ";
             canvas.drawText(text, x, y, this.primaryPaint);
             x += this.primaryPaint.measureText(text);
         }
@@ -130,24 +141,24 @@ public class RSIDraw implements IChartDraw<IRSI> {
         List<RsiLevelSpec> levels = resolveLevelSpecs(view);
         drawLevelGuideLines(canvas, view, levels);
 
-        List<LabelSpec> labels = new ArrayList<>();
+        labels.clear();
         for (RsiLevelSpec level : levels) {
             if (!level.showRightTag) {
                 continue;
             }
-            LabelSpec label = new LabelSpec();
+            LabelSpec label = obtainLabel(labels.size());
             label.y = clampToChild(view, view.getChildY(level.value));
             label.color = level.color;
             label.text = level.label + " " + view.formatValue(level.value);
             labels.add(label);
         }
 
-        LabelSpec current = resolveCurrentTagLabel(view, point);
+        LabelSpec current = resolveCurrentTagLabel(view, point, obtainLabel(labels.size()));
         if (current != null) {
             labels.add(current);
             levelGuidePaint.setColor(withAlpha(current.color, 150));
             levelGuidePaint.setStrokeWidth(ViewUtil.Dp2Px(mContext, 0.9f));
-            levelGuidePaint.setPathEffect(new DashPathEffect(new float[]{8f, 6f}, 0));
+            levelGuidePaint.setPathEffect(currentDash);
             canvas.drawLine(0f, current.y, view.getWidth(), current.y, levelGuidePaint);
             levelGuidePaint.setPathEffect(null);
         }
@@ -164,7 +175,7 @@ public class RSIDraw implements IChartDraw<IRSI> {
             return 100f;
         }
         KLineEntity item = (KLineEntity) point;
-        float max = item.targetListISMax(item.rsiList, true);
+        float max = item.targetListISMax(item.rsiValues, true);
         if (RSI_AXIS_INCLUDE_LEVELS.equals(axisMode)) {
             max = Math.max(max, configuredLevelExtreme(true));
         }
@@ -178,7 +189,7 @@ public class RSIDraw implements IChartDraw<IRSI> {
             return 0f;
         }
         KLineEntity item = (KLineEntity) point;
-        float min = item.targetListISMax(item.rsiList, false);
+        float min = item.targetListISMax(item.rsiValues, false);
         if (RSI_AXIS_INCLUDE_LEVELS.equals(axisMode)) {
             min = Math.min(min, configuredLevelExtreme(false));
         }
@@ -293,7 +304,7 @@ public class RSIDraw implements IChartDraw<IRSI> {
             levelGuidePaint.setColor(withAlpha(level.color, 150));
             levelGuidePaint.setStrokeWidth(ViewUtil.Dp2Px(mContext, 0.9f));
             if (level.dashed) {
-                levelGuidePaint.setPathEffect(new DashPathEffect(new float[]{10f, 6f}, 0));
+                levelGuidePaint.setPathEffect(levelDash);
             } else {
                 levelGuidePaint.setPathEffect(null);
             }
@@ -302,35 +313,36 @@ public class RSIDraw implements IChartDraw<IRSI> {
         }
     }
 
-    private LabelSpec resolveCurrentTagLabel(@NonNull BaseKLineChartView view, @NonNull KLineEntity point) {
+    private LabelSpec resolveCurrentTagLabel(@NonNull BaseKLineChartView view, @NonNull KLineEntity point,
+                                             @NonNull LabelSpec label) {
         Map<String, Object> raw = view.configManager.rsiCurrentTag;
         if (raw == null || !readBoolean(raw, "enabled", false)) {
             return null;
         }
         int configuredPeriod = toInt(raw.get("period"), -1);
-        HTKLineTargetItem found = null;
-        if (point.rsiList != null) {
-            if (configuredPeriod > 0) {
-                for (HTKLineTargetItem item : point.rsiList) {
-                    int period = parsePeriod(item == null ? null : item.title, -1);
-                    if (period == configuredPeriod) {
-                        found = item;
-                        break;
-                    }
+        float value = Float.NaN;
+        String title = null;
+        if (point.rsiValues != null && point.rsiValues.length > 0) {
+            for (HTKLineTargetItem item : view.configManager.rsiList) {
+                if (item == null) {
+                    continue;
+                }
+                if (configuredPeriod > 0 && parsePeriod(item.title, -1) == configuredPeriod) {
+                    value = safeTargetValue(point.rsiValues, item.index, "resolveCurrentTag");
+                    title = item.title;
+                    break;
+                }
+                if (item.index == 0 && title == null) {
+                    title = item.title;
                 }
             }
-            if (found == null && !point.rsiList.isEmpty()) {
-                found = point.rsiList.get(0);
+            if (Float.isNaN(value)) {
+                value = point.rsiValues[0];
             }
         }
-        if (found == null) {
-            return null;
-        }
-        float value = found.value;
         if (Float.isNaN(value) || Float.isInfinite(value)) {
             return null;
         }
-        LabelSpec label = new LabelSpec();
         label.y = clampToChild(view, view.getChildY(value));
         Object colorObj = raw.get("color");
         label.color = colorObj instanceof Number
@@ -339,7 +351,7 @@ public class RSIDraw implements IChartDraw<IRSI> {
         Object labelObj = raw.get("label");
         String labelTitle = labelObj instanceof String && ((String) labelObj).trim().length() > 0
                 ? ((String) labelObj).trim()
-                : "RSI (" + (configuredPeriod > 0 ? configuredPeriod : parsePeriod(found.title, 14)) + ")";
+                : "RSI (" + (configuredPeriod > 0 ? configuredPeriod : parsePeriod(title, 14)) + ")";
         label.text = labelTitle + " " + view.formatValue(value);
         return label;
     }
@@ -349,60 +361,57 @@ public class RSIDraw implements IChartDraw<IRSI> {
             @NonNull BaseKLineChartView view,
             @NonNull List<LabelSpec> labels
     ) {
-        int count = labels.size();
-        Integer[] order = new Integer[count];
-        for (int i = 0; i < count; i++) {
-            order[i] = i;
+        Rect childRect = view.getChildRect();
+        if (childRect == null) {
+            return;
         }
-        java.util.Arrays.sort(order, (a, b) -> Float.compare(labels.get(a).y, labels.get(b).y));
-
         float fontSize = Math.max(ViewUtil.Dp2Px(mContext, 10f), view.configManager.rightTextFontSize);
         labelTextPaint.setTextSize(fontSize);
-        Paint.FontMetrics fm = labelTextPaint.getFontMetrics();
-        float textHeight = fm.descent - fm.ascent;
+        labelTextPaint.getFontMetrics(labelFontMetrics);
+        float textHeight = labelFontMetrics.descent - labelFontMetrics.ascent;
         float paddingX = ViewUtil.Dp2Px(mContext, 6f);
         float paddingY = ViewUtil.Dp2Px(mContext, 3f);
         float labelHeight = textHeight + paddingY * 2f;
         float gap = ViewUtil.Dp2Px(mContext, 4f);
-
-        Rect childRect = view.getChildRect();
-        if (childRect == null) {
-            return;
-        }
         float minTop = childRect.top + ViewUtil.Dp2Px(mContext, 2f);
         float maxTop = childRect.bottom - labelHeight - ViewUtil.Dp2Px(mContext, 2f);
         if (maxTop < minTop) {
             return;
         }
 
-        float[] topByIndex = new float[count];
-        float previousBottom = minTop - gap;
-        for (int orderedIndex : order) {
-            float rawTop = labels.get(orderedIndex).y - labelHeight / 2f;
-            float top = Math.max(minTop, Math.min(maxTop, rawTop));
-            if (top < previousBottom + gap) {
-                top = previousBottom + gap;
-            }
-            top = Math.min(maxTop, top);
-            topByIndex[orderedIndex] = top;
-            previousBottom = top + labelHeight;
+        int count = labels.size();
+        labelSolver.reset();
+        for (int i = 0; i < count; i++) {
+            labelSolver.add(labels.get(i).y);
         }
+        labelSolver.solve(minTop, maxTop, labelHeight, gap);
 
         float rightInset = ViewUtil.Dp2Px(mContext, 4f);
         for (int i = 0; i < count; i++) {
+            if (!labelSolver.isVisible(i)) {
+                continue;
+            }
             LabelSpec label = labels.get(i);
             float textWidth = labelTextPaint.measureText(label.text);
             float width = textWidth + paddingX * 2f;
             float left = view.getWidth() - rightInset - width;
-            float top = topByIndex[i];
-            RectF rect = new RectF(left, top, left + width, top + labelHeight);
+            float top = labelSolver.top(i);
+            labelRect.set(left, top, left + width, top + labelHeight);
             labelBgPaint.setColor(label.color);
-            canvas.drawRoundRect(rect, ViewUtil.Dp2Px(mContext, 3f), ViewUtil.Dp2Px(mContext, 3f), labelBgPaint);
-            float textBaseline = top + paddingY - fm.ascent;
+            canvas.drawRoundRect(labelRect, ViewUtil.Dp2Px(mContext, 3f), ViewUtil.Dp2Px(mContext, 3f), labelBgPaint);
+            float textBaseline = top + paddingY - labelFontMetrics.ascent;
             canvas.drawText(label.text, left + paddingX, textBaseline, labelTextPaint);
         }
     }
 
+    // Reuses the LabelSpec at index of the per-frame label list, growing the pool when needed
+    private LabelSpec obtainLabel(int index) {
+        while (labelPool.size() <= index) {
+            labelPool.add(new LabelSpec());
+        }
+        return labelPool.get(index);
+    }
+
     private float clampToChild(@NonNull BaseKLineChartView view, float value) {
         Rect child = view.getChildRect();
         if (child == null) {
@@ -422,20 +431,20 @@ public class RSIDraw implements IChartDraw<IRSI> {
         return view.configManager.textColor;
     }
 
-    private HTKLineTargetItem safeTargetItem(List<HTKLineTargetItem> list, int index, String owner) {
-        if (list == null) {
+    private float safeTargetValue(float[] values, int index, String owner) {
+        if (values == null) {
             if (BuildConfig.DEBUG) {
-                Log.d(TAG, owner + ": list null");
+                Log.d(TAG, owner + ": values null");
             }
-            return null;
+            return Float.NaN;
         }
-        if (index >= 0 && index < list.size()) {
-            return list.get(index);
+        if (index >= 0 && index < values.length) {
+            return values[index];
         }
         if (BuildConfig.DEBUG) {
-            Log.d(TAG, owner + ": skip invalid index=" + index + ", count=" + list.size());
+            Log.d(TAG, owner + ": skip invalid index=" + index + ", count=" + values.length);
         }
-        return null;
+        return Float.NaN;
     }
 
     private boolean readBoolean(Map<String, Object> map, String key, boolean fallback) {
@@ -59,13 +59,13 @@ public class VolumeDraw implements IChartDraw<IVolume> {
         KLineEntity currentItem = (KLineEntity) curPoint;
         for (int i = 0; i < view.configManager.maVolumeList.size(); i++) {
             HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.maVolumeList.get(i);
-            HTKLineTargetItem currentTargetItem = safeTargetItem(currentItem.maVolumeList, configItem.index, "drawTranslated.current");
-            HTKLineTargetItem lastTargetItem = safeTargetItem(lastItem.maVolumeList, configItem.index, "drawTranslated.last");
-            if (currentTargetItem == null || lastTargetItem == null) {
+            float currentTargetValue = safeTargetValue(currentItem.maVolumeValues, configItem.index, "drawTranslated.current");
+            float lastTargetValue = safeTargetValue(lastItem.maVolumeValues, configItem.index, "drawTranslated.last");
+            if (Float.isNaN(currentTargetValue) || Float.isNaN(lastTargetValue)) {
                 continue;
             }
             primaryPaint.setColor(safeTargetColor(view, configItem.index, 5));
-            view.drawVolLine(canvas, primaryPaint, lastX, lastTargetItem.value, curX, currentTargetItem.value);
+            view.drawVolLine(canvas, primaryPaint, lastX, lastTargetValue, curX, currentTargetValue);
         }
     }
 
@@ -102,16 +102,16 @@ public class VolumeDraw implements IChartDraw<IVolume> {
             x += view.getTextPaint().measureText(text);
             for (int i = 0; i < view.configManager.maVolumeList.size(); i++) {
                 HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.maVolumeList.get(i);
-                HTKLineTargetItem targetItem = safeTargetItem(point.maVolumeList, configItem.index, "drawText");
-                if (targetItem == null) {
+                float targetValue = safeTargetValue(point.maVolumeValues, configItem.index, "drawText");
+                if (Float.isNaN(targetValue)) {
                     continue;
                 }
                 primaryPaint.setColor(safeTargetColor(view, configItem.index, 5));
                 StringBuilder stringBuilder = new StringBuilder();
                 stringBuilder.append("MA");
-                stringBuilder.append(targetItem.title);
+                stringBuilder.append(configItem.title);
                 stringBuilder.append(":");
-                stringBuilder.append(valueFormatter.formatVolume(targetItem.value));
+                stringBuilder.append(valueFormatter.formatVolume(targetValue));
                 stringBuilder.append(space);
                 text = stringBuilder.toString();
                 canvas.drawText(text, x, y, this.primaryPaint);
@@ -123,13 +123,13 @@ public class VolumeDraw implements IChartDraw<IVolume> {
     @Override
     public float getMaxValue(IVolume point) {
         KLineEntity item = (KLineEntity) point;
-        return Math.max(point.getVolume(), item.targetListISMax(item.maVolumeList, true));
+        return Math.max(point.getVolume(), item.targetListISMax(item.maVolumeValues, true));
     }
 
     @Override
     public float getMinValue(IVolume point) {
         KLineEntity item = (KLineEntity) point;
-        return Math.min(point.getVolume(), item.targetListISMax(item.maVolumeList, false));
+        return Math.min(point.getVolume(), item.targetListISMax(item.maVolumeValues, false));
     }
 
     @Override
@@ -196,19 +196,19 @@ public class VolumeDraw implements IChartDraw<IVolume> {
         return Color.BLACK;
     }
 
-    private HTKLineTargetItem safeTargetItem(java.util.List<HTKLineTargetItem> list, int index, String owner) {
-        if (list == null) {
+    private float safeTargetValue(float[] values, int index, String owner) {
+        if (values == null) {
             if (BuildConfig.DEBUG) {
-                Log.d(TAG, owner + ": list null");
+                Log.d(TAG, owner + ": values null");
             }
-            return null;
+            return Float.NaN;
         }
-        if (index >= 0 && index < list.size()) {
-            return list.get(index);
+        if (index >= 0 && index < values.length) {
+            return values[index];
         }
         if (BuildConfig.DEBUG) {
-            Log.d(TAG, owner + ": skip invalid index=" + index + ", count=" + list.size());
+            Log.d(TAG, owner + ": skip invalid index=" + index + ", count=" + values.length);
         }
-        return null;
+        return Float.NaN;
     }
 }
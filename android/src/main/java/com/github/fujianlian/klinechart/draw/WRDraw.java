@@ -10,6 +10,7 @@ import androidx.annotation.Nullable;
 
 import com.github.fujianlian.klinechart.BaseKLineChartView;
 import com.github.fujianlian.klinechart.BuildConfig;
+import com.github.fujianlian.klinechart.HTIndicatorEngine;
 import com.github.fujianlian.klinechart.HTKLineConfigManager;
 import com.github.fujianlian.klinechart.HTKLineTargetItem;
 import com.github.fujianlian.klinechart.KLineEntity;
@@ -45,13 +46,13 @@ public class WRDraw implements IChartDraw<IWR> {
         KLineEntity currentItem = (KLineEntity) curPoint;
         for (int i = 0; i < view.configManager.wrList.size(); i++) {
             HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.wrList.get(i);
-            HTKLineTargetItem currentTargetItem = safeTargetItem(currentItem.wrList, configItem.index, "drawTranslated.current");
-            HTKLineTargetItem lastTargetItem = safeTargetItem(lastItem.wrList, configItem.index, "drawTranslated.last");
-            if (currentTargetItem == null || lastTargetItem == null) {
+            float currentTargetValue = safeTargetValue(currentItem.wrValues, configItem.index, "drawTranslated.current");
+            float lastTargetValue = safeTargetValue(lastItem.wrValues, configItem.index, "drawTranslated.last");
+            if (Float.isNaN(currentTargetValue) || Float.isNaN(lastTargetValue)) {
                 continue;
             }
             primaryPaint.setColor(safeTargetColor(view, configItem.index));
-            view.drawChildLine(canvas, primaryPaint, lastX, lastTargetItem.value, curX, currentTargetItem.value);
+            view.drawChildLine(canvas, primaryPaint, lastX, lastTargetValue, curX, currentTargetValue);
         }
     }
 
@@ -61,16 +62,17 @@ public class WRDraw implements IChartDraw<IWR> {
         String text = "";
         for (int i = 0; i < view.configManager.wrList.size(); i++) {
             HTKLineTargetItem configItem = (HTKLineTargetItem) view.configManager.wrList.get(i);
-            HTKLineTargetItem targetItem = safeTargetItem(point.wrList, configItem.index, "drawText");
-            if (targetItem == null) {
+            float targetValue = safeTargetValue(point.wrValues, configItem.index, "drawText");
+            if (Float.isNaN(targetValue)) {
                 continue;
             }
             this.primaryPaint.setColor(safeTargetColor(view, configItem.index));
             StringBuilder stringBuilder = new StringBuilder();
-            stringBuilder.append("WR(");
-            stringBuilder.append(targetItem.title);
+            stringBuilder.append(HTIndicatorEngine.label(configItem.kind, "WR"));
+            stringBuilder.append("(");
+            stringBuilder.append(configItem.title);
             stringBuilder.append("):");
-            stringBuilder.append(view.formatValue(targetItem.value));
+            stringBuilder.append(view.formatValue(targetValue));
             stringBuilder.append("  ");
             text = stringBuilder.toString();
             canvas.drawText(text, x, y, this.primaryPaint);
@@ -81,13 +83,13 @@ public class WRDraw implements IChartDraw<IWR> {
     @Override
     public float getMaxValue(IWR point) {
         KLineEntity item = (KLineEntity) point;
-        return item.targetListISMax(item.wrList, true);
+        return item.targetListISMax(item.wrValues, true);
     }
 
     @Override
     public float getMinValue(IWR point) {
         KLineEntity item = (KLineEntity) point;
-        return item.targetListISMax(item.wrList, false);
+        return item.targetListISMax(item.wrValues, false);
     }
 
     @Override
@@ -135,19 +137,19 @@ public class WRDraw implements IChartDraw<IWR> {
         return view.configManager.textColor;
     }
 
-    private HTKLineTargetItem safeTargetItem(java.util.List<HTKLineTargetItem> list, int index, String owner) {
-        if (list == null) {
+    private float safeTargetValue(float[] values, int index, String owner) {
+        if (values == null) {
             if (BuildConfig.DEBUG) {
-                Log.d(TAG, owner + ": list null");
+                Log.d(TAG, owner + ": values null");
             }
-            return null;
+            return Float.NaN;
         }
-        if (index >= 0 && index < list.size()) {
-            return list.get(index);
+        if (index >= 0 && index < values.length) {
+            return values[index];
         }
         if (BuildConfig.DEBUG) {
-            Log.d(TAG, owner + ": skip invalid index=" + index + ", count=" + list.size());
+            Log.d(TAG, owner + ": skip invalid index=" + index + ", count=" + values.length);
         }
-        return null;
+        return Float.NaN;
     }
 }
@@ -0,0 +1,161 @@
+package com.github.fujianlian.klinechart;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Minimal JUnit-driven microbenchmark loop for the JVM unit-test task.
+ * Benchmarks only run with -Dkline.bench=true and print one line per case:
+ * ns/op and bytes allocated/op, measured on the calling thread after a warmup pass.
+ */
+final class BenchmarkSupport {
+
+    static final String ENABLED_PROPERTY = "kline.bench";
+
+    static final String SIZES_PROPERTY = "kline.bench.sizes";
+
+    private static final long TARGET_NANOS = 200_000_000L;
+
+    private BenchmarkSupport() {
+    }
+
+    static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Dataset sizes from -Dkline.bench.sizes (comma separated), 1k/10k/100k/1M by default.
+     */
+    static int[] sizes() {
+        return sizes(new int[]{1_000, 10_000, 100_000, 1_000_000});
+    }
+
+    static int[] sizes(int[] defaults) {
+        return intList(SIZES_PROPERTY, defaults);
+    }
+
+    /**
+     * Comma separated ints from a system property, defaults when it is unset or blank.
+     */
+    static int[] intList(String property, int[] defaults) {
+        String value = System.getProperty(property, "");
+        if (value.trim().isEmpty()) {
+            return defaults;
+        }
+        String[] parts = value.split(",");
+        List<Integer> sizes = new ArrayList<>();
+        for (String part : parts) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                sizes.add(Integer.parseInt(trimmed));
+            }
+        }
+        int[] result = new int[sizes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sizes.get(i);
+        }
+        return result;
+    }
+
+    interface Op {
+        /**
+         * Runs one operation; the return value is consumed so the JIT cannot drop the work.
+         */
+        Object run();
+    }
+
+    interface FrameStep {
+        /**
+         * Mutates the view before frame number frame is drawn.
+         */
+        void apply(KLineChartView view, int frame);
+    }
+
+    /**
+     * Pans back and forth between scroll positions start and end, 7 px per frame, the way a slow
+     * finger drag does.
+     */
+    static FrameStep panFrames(final int start, final int end) {
+        return new FrameStep() {
+            @Override
+            public void apply(KLineChartView view, int frame) {
+                int span = Math.max(1, end - start);
+                int offset = (frame * 7) % (2 * span);
+                view.setScrollX(offset < span ? end - offset : start + offset - span);
+            }
+        };
+    }
+
+    static final class Result {
+        final String name;
+        final int size;
+        final long operations;
+        final double nanosPerOp;
+        final double bytesPerOp;
+
+        Result(String name, int size, long operations, double nanosPerOp, double bytesPerOp) {
+            this.name = name;
+            this.size = size;
+            this.operations = operations;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-40s n=%-8d ops=%-7d %14.1f ns/op %14.1f B/op",
+                    name, size, operations, nanosPerOp, bytesPerOp);
+        }
+    }
+
+    private static Object sink;
+
+    /**
+     * Warms up, then repeats op until roughly 200 ms have passed (at least 3 runs).
+     */
+    static Result measure(String name, int size, Op op) {
+        long warmupEnd = System.nanoTime() + TARGET_NANOS / 2;
+        int warmups = 0;
+        do {
+            sink = op.run();
+            warmups++;
+        } while (System.nanoTime() < warmupEnd && warmups < 10_000);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long operations = 0;
+        long elapsed;
+        do {
+            sink = op.run();
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS || operations < 3);
+        long allocatedAfter = allocatedBytes();
+        double bytesPerOp = allocatedBefore < 0 || allocatedAfter < 0
+                ? Double.NaN
+                : (allocatedAfter - allocatedBefore) / (double) operations;
+        Result result = new Result(name, size, operations, elapsed / (double) operations, bytesPerOp);
+        System.out.println("[kline.bench] " + result);
+        return result;
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, -1 when the JVM does not expose it.
+     */
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+                if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+                    sunBean.setThreadAllocatedMemoryEnabled(true);
+                }
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
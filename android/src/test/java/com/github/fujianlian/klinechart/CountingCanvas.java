@@ -0,0 +1,182 @@
+package com.github.fujianlian.klinechart;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.Arrays;
+
+/**
+ * Bitmap-backed canvas that counts draw calls by kind before delegating to the real canvas.
+ * Counts are reset by the harness before each frame.
+ */
+class CountingCanvas extends Canvas {
+
+    static final int LINE = 0;
+    static final int LINES = 1;
+    static final int RECT = 2;
+    static final int ROUND_RECT = 3;
+    static final int PATH = 4;
+    static final int TEXT = 5;
+    static final int BITMAP = 6;
+    static final int CIRCLE = 7;
+    static final int POINT = 8;
+
+    static final String[] KIND_NAMES = {
+            "line",
+            "lines",
+            "rect",
+            "roundRect",
+            "path",
+            "text",
+            "bitmap",
+            "circle",
+            "point",
+    };
+
+    private final int[] counts = new int[KIND_NAMES.length];
+
+    CountingCanvas(Bitmap bitmap) {
+        super(bitmap);
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0);
+    }
+
+    int count(int kind) {
+        return counts[kind];
+    }
+
+    int total() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        counts[LINE]++;
+        super.drawLine(startX, startY, stopX, stopY, paint);
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+        counts[LINES]++;
+        super.drawLines(pts, offset, count, paint);
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+        counts[LINES]++;
+        super.drawLines(pts, paint);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        counts[RECT]++;
+        super.drawRect(left, top, right, bottom, paint);
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+        counts[RECT]++;
+        super.drawRect(rect, paint);
+    }
+
+    @Override
+    public void drawRect(Rect r, Paint paint) {
+        counts[RECT]++;
+        super.drawRect(r, paint);
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+        counts[ROUND_RECT]++;
+        super.drawRoundRect(rect, rx, ry, paint);
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float rx, float ry, Paint paint) {
+        counts[ROUND_RECT]++;
+        super.drawRoundRect(left, top, right, bottom, rx, ry, paint);
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        counts[PATH]++;
+        super.drawPath(path, paint);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        counts[TEXT]++;
+        super.drawText(text, x, y, paint);
+    }
+
+    @Override
+    public void drawText(String text, int start, int end, float x, float y, Paint paint) {
+        counts[TEXT]++;
+        super.drawText(text, start, end, x, y, paint);
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        counts[TEXT]++;
+        super.drawText(text, index, count, x, y, paint);
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+        counts[TEXT]++;
+        super.drawText(text, start, end, x, y, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        counts[BITMAP]++;
+        super.drawBitmap(bitmap, left, top, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+        counts[BITMAP]++;
+        super.drawBitmap(bitmap, src, dst, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        counts[BITMAP]++;
+        super.drawBitmap(bitmap, src, dst, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+        counts[BITMAP]++;
+        super.drawBitmap(bitmap, matrix, paint);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        counts[CIRCLE]++;
+        super.drawCircle(cx, cy, radius, paint);
+    }
+
+    @Override
+    public void drawPoint(float x, float y, Paint paint) {
+        counts[POINT]++;
+        super.drawPoint(x, y, paint);
+    }
+
+    @Override
+    public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+        counts[POINT]++;
+        super.drawPoints(pts, offset, count, paint);
+    }
+}
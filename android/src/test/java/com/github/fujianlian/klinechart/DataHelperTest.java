@@ -0,0 +1,85 @@
+package com.github.fujianlian.klinechart;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * DataHelper indicator math against straightforward reference computations.
+ */
+public class DataHelperTest {
+
+    private static final int N = 20;
+
+    private static final float P = 2f;
+
+    @Test
+    public void bollMatchesTwoPassAtTinyPrices() {
+        assertBollMatchesTwoPass(1e-5f, 5_000);
+    }
+
+    @Test
+    public void bollMatchesTwoPassAtNormalPrices() {
+        assertBollMatchesTwoPass(100f, 5_000);
+    }
+
+    @Test
+    public void bollMatchesTwoPassAtLargePrices() {
+        // Long enough for the rolling window to re-anchor many times
+        assertBollMatchesTwoPass(60_000f, 100_000);
+    }
+
+    private static void assertBollMatchesTwoPass(float level, int count) {
+        List<KLineEntity> list = closes(level, count, 3L);
+        DataHelper.calculateBOLL(list, N, P);
+        for (int i = 0; i < list.size(); i++) {
+            KLineEntity point = list.get(i);
+            if (i < N - 1) {
+                assertEquals(0f, point.mb, 0f);
+                assertEquals(0f, point.up, 0f);
+                assertEquals(0f, point.dn, 0f);
+                continue;
+            }
+            double mean = 0;
+            for (int j = i - N + 1; j <= i; j++) {
+                mean += list.get(j).Close;
+            }
+            mean /= N;
+            double deviation = 0;
+            for (int j = i - N + 1; j <= i; j++) {
+                double delta = list.get(j).Close - mean;
+                deviation += delta * delta;
+            }
+            double md = Math.sqrt(deviation / (N - 1));
+            String message = "level " + level + " candle " + i;
+            // Outputs are floats, so allow a few ulps of the price plus a tiny share of the band
+            double tolerance = Math.abs(mean) * 1e-6 + md * 1e-4;
+            assertEquals(message, mean, point.mb, tolerance);
+            assertEquals(message, mean + P * md, point.up, tolerance);
+            assertEquals(message, mean - P * md, point.dn, tolerance);
+        }
+    }
+
+    /**
+     * Random walk of closes around level with 0.1% steps, mean reverting so it stays at level.
+     */
+    private static List<KLineEntity> closes(float level, int count, long seed) {
+        Random random = new Random(seed);
+        List<KLineEntity> list = new ArrayList<>(count);
+        double close = level;
+        for (int i = 0; i < count; i++) {
+            close += level * (0.001 * random.nextGaussian() + 0.01 * (1 - close / level));
+            KLineEntity entity = new KLineEntity();
+            entity.Close = (float) close;
+            entity.Open = entity.Close;
+            entity.High = entity.Close;
+            entity.Low = entity.Close;
+            list.add(entity);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.fujianlian.klinechart;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Incremental HTIndicatorEngine syncs against a full recompute of the same candles.
+ */
+public class HTIndicatorEngineTest {
+
+    private static final long SEED = 11L;
+
+    private static final int SIZE = 500;
+
+    @Test
+    public void lastCandleUpdateMatchesFullRecompute() {
+        HTKLineConfigManager configManager = configManager();
+        HTIndicatorEngine engine = new HTIndicatorEngine();
+        assertTrue(engine.sync(configManager));
+
+        KLineEntity last = configManager.modelArray.get(SIZE - 1);
+        for (int tick = 0; tick < 20; tick++) {
+            // Swings past the previous high and low so max/min windows and band rules change
+            last.Close *= tick % 2 == 0 ? 1.01f : 0.985f;
+            last.High = Math.max(last.High, last.Close);
+            last.Low = Math.min(last.Low, last.Close);
+            last.Volume += 37f;
+            engine.sync(configManager);
+            assertMatchesFullRecompute(configManager);
+        }
+    }
+
+    @Test
+    public void appendedCandlesMatchFullRecompute() {
+        HTKLineConfigManager configManager = configManager();
+        HTIndicatorEngine engine = new HTIndicatorEngine();
+        engine.sync(configManager);
+
+        List<KLineEntity> more = SyntheticCandles.entities(SIZE + 30, SEED + 1);
+        List<KLineEntity> list = new ArrayList<>(configManager.modelArray);
+        for (int i = SIZE; i < more.size(); i++) {
+            list.add(more.get(i));
+            configManager.modelArray = list;
+            engine.sync(configManager);
+            KLineEntity last = list.get(list.size() - 1);
+            last.Close = last.Open * 1.004f;
+            last.High = Math.max(last.High, last.Close);
+            engine.sync(configManager);
+        }
+        assertMatchesFullRecompute(configManager);
+    }
+
+    @Test
+    public void senkouSpansUseConfiguredPeriods() {
+        HTKLineConfigManager configManager = new HTKLineConfigManager();
+        configManager.nativeIndicators = true;
+        // senkoua's own period does not shift it, both spans move forward by the kijun period
+        configManager.maList = SyntheticCandles.targetItems(new String[][]{
+                {"7", "tenkan"}, {"22", "kijun"}, {"30", "senkoua"}, {"44", "senkoub"}});
+        configManager.modelArray = SyntheticCandles.entities(SIZE, SEED);
+        new HTIndicatorEngine().sync(configManager);
+
+        List<KLineEntity> list = configManager.modelArray;
+        for (int i = 0; i < list.size(); i++) {
+            int end = Math.max(0, i - 22);
+            float expected = (float) ((midpoint(list, end, 7) + midpoint(list, end, 22)) / 2.0);
+            assertEquals(expected, list.get(i).maValues[2], 0);
+            assertEquals((float) midpoint(list, end, 44), list.get(i).maValues[3], 0);
+            assertEquals(list.get(end).maValues[0], (float) midpoint(list, end, 7), 0);
+        }
+    }
+
+    private static HTKLineConfigManager configManager() {
+        HTKLineConfigManager configManager = new HTKLineConfigManager();
+        configManager.nativeIndicators = true;
+        configManager.maList = SyntheticCandles.targetItems(new String[][]{
+                {"5", "ma"}, {"12", "ema"}, {"10,3", "super"}, {"1440", "vwap"},
+                {"9", "tenkan"}, {"26", "kijun"}, {"26", "senkoua"}, {"52", "senkoub"}});
+        configManager.rsiList = SyntheticCandles.targetItems(new String[][]{{"14", "rsi"}, {"14", "stochrsi"}});
+        configManager.wrList = SyntheticCandles.targetItems(new String[][]{{"14", "wr"}, {"14", "atr"}, {"0", "obv"}});
+        configManager.modelArray = SyntheticCandles.entities(SIZE, SEED);
+        return configManager;
+    }
+
+    private static void assertMatchesFullRecompute(HTKLineConfigManager configManager) {
+        List<KLineEntity> list = configManager.modelArray;
+        List<float[][]> incremental = new ArrayList<>(list.size());
+        for (KLineEntity entity : list) {
+            incremental.add(new float[][]{entity.maValues.clone(), entity.rsiValues.clone(), entity.wrValues.clone()});
+        }
+        new HTIndicatorEngine().sync(configManager);
+        for (int i = 0; i < list.size(); i++) {
+            KLineEntity entity = list.get(i);
+            float[][] values = incremental.get(i);
+            String message = "candle " + i;
+            assertArrayEquals(message, entity.maValues, values[0], tolerance(entity));
+            assertArrayEquals(message, entity.rsiValues, values[1], 1e-4f);
+            assertArrayEquals(message, entity.wrValues, values[2], tolerance(entity));
+        }
+    }
+
+    // Running sums are kept in doubles, so float outputs may differ in the last bit
+    private static float tolerance(KLineEntity entity) {
+        return Math.max(1e-4f, Math.abs(entity.Close) * 1e-6f);
+    }
+
+    private static double midpoint(List<KLineEntity> list, int end, int period) {
+        double highest = -Double.MAX_VALUE;
+        double lowest = Double.MAX_VALUE;
+        for (int j = Math.max(0, end - period + 1); j <= end; j++) {
+            highest = Math.max(highest, list.get(j).High);
+            lowest = Math.min(lowest, list.get(j).Low);
+        }
+        return (highest + lowest) / 2.0;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.fujianlian.klinechart;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * HTRollingWindow running mean and variance against a rescan of the window.
+ */
+public class HTRollingWindowTest {
+
+    @Test
+    public void partialWindow() {
+        HTRollingWindow window = new HTRollingWindow(4);
+        assertEquals(0, window.mean(), 0);
+        assertEquals(0, window.variance(), 0);
+        window.push(1);
+        window.push(3);
+        assertFalse(window.isFull());
+        assertEquals(2, window.size());
+        assertEquals(4, window.sum(), 1e-12);
+        assertEquals(2, window.mean(), 1e-12);
+        assertEquals(2, window.variance(), 1e-12);
+        window.push(5);
+        window.push(7);
+        window.push(9);
+        assertTrue(window.isFull());
+        assertEquals(6, window.mean(), 1e-12);
+        window.clear();
+        assertEquals(0, window.size());
+        window.push(60_000);
+        assertEquals(60_000, window.mean(), 0);
+    }
+
+    @Test
+    public void noDriftOverLongSeries() {
+        // Trends from 100 to 60000 with small steps, the worst case for one fixed anchor
+        assertNoDrift(20, 2_000_000, 100, 60_000, 1e-4, 5L);
+    }
+
+    @Test
+    public void noDriftAtTinyPrices() {
+        assertNoDrift(20, 500_000, 1e-5, 2e-5, 1e-4, 6L);
+    }
+
+    @Test
+    public void noDriftWithLongWindow() {
+        assertNoDrift(200, 1_000_000, 60_000, 60_000, 1e-3, 7L);
+    }
+
+    private static void assertNoDrift(int length, int count, double from, double to, double noise, long seed) {
+        Random random = new Random(seed);
+        HTRollingWindow window = new HTRollingWindow(length);
+        double[] recent = new double[length];
+        for (int i = 0; i < count; i++) {
+            double level = from + (to - from) * i / count;
+            double value = level * (1 + noise * random.nextGaussian());
+            window.push(value);
+            recent[i % length] = value;
+            if (i >= length && i % 9_973 == 0) {
+                assertMatchesRescan("value " + i, window, recent);
+            }
+        }
+        assertMatchesRescan("last value", window, recent);
+    }
+
+    private static void assertMatchesRescan(String message, HTRollingWindow window, double[] recent) {
+        double mean = 0;
+        for (double value : recent) {
+            mean += value;
+        }
+        mean /= recent.length;
+        double squares = 0;
+        for (double value : recent) {
+            squares += (value - mean) * (value - mean);
+        }
+        double variance = squares / (recent.length - 1);
+        assertEquals(message, mean, window.mean(), Math.abs(mean) * 1e-12);
+        assertEquals(message, variance, window.variance(), variance * 1e-6);
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.fujianlian.klinechart;
+
+import com.github.fujianlian.klinechart.formatter.ValueFormatter;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Baseline ns/op and bytes/op for indicator math, value formatting and bridge model packing.
+ * Each op processes a whole synthetic dataset of the given size.
+ * Run with: ./gradlew test -Dkline.bench=true [-Dkline.bench.sizes=1000,10000]
+ */
+public class IndicatorBenchmarkTest {
+
+    private static final long SEED = 42L;
+
+    @BeforeClass
+    public static void requireBenchmarkFlag() {
+        Assume.assumeTrue("benchmarks run with -Dkline.bench=true", BenchmarkSupport.isEnabled());
+    }
+
+    @Test
+    public void dataHelper() {
+        for (int size : BenchmarkSupport.sizes()) {
+            final List<KLineEntity> entities = SyntheticCandles.entities(size, SEED);
+            BenchmarkSupport.measure("DataHelper.calculate", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    DataHelper.calculate(entities);
+                    return entities;
+                }
+            });
+            final HTKLineConfigManager configManager = new HTKLineConfigManager();
+            BenchmarkSupport.measure("DataHelper.calculate(double)", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    DataHelper.calculate(entities, configManager, DataHelper.PRECISION_DOUBLE);
+                    return entities;
+                }
+            });
+            BenchmarkSupport.measure("DataHelper.calculateMA", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    DataHelper.calculateMA(entities);
+                    return entities;
+                }
+            });
+            BenchmarkSupport.measure("DataHelper.calculateMAPrecise", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    DataHelper.calculateMAPrecise(entities);
+                    return entities;
+                }
+            });
+            BenchmarkSupport.measure("DataHelper.calculateMACD", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    DataHelper.calculateMACD(entities);
+                    return entities;
+                }
+            });
+            BenchmarkSupport.measure("DataHelper.calculateBOLL", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    DataHelper.calculateBOLL(entities);
+                    return entities;
+                }
+            });
+            BenchmarkSupport.measure("DataHelper.calculateRSI", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    DataHelper.calculateRSI(entities);
+                    return entities;
+                }
+            });
+            BenchmarkSupport.measure("DataHelper.calculateKDJ", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    DataHelper.calculateKDJ(entities);
+                    return entities;
+                }
+            });
+            BenchmarkSupport.measure("DataHelper.calculateWR", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    DataHelper.calculateWR(entities);
+                    return entities;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void indicatorEngine() {
+        final HTKLineConfigManager configManager = new HTKLineConfigManager();
+        configManager.nativeIndicators = true;
+        configManager.maList = SyntheticCandles.targetItems(new String[][]{
+                {"5", "ma"}, {"12", "ema"}, {"10,3", "super"}, {"1440", "vwap"},
+                {"9", "tenkan"}, {"26", "kijun"}, {"26", "senkoua"}, {"52", "senkoub"}});
+        configManager.rsiList = SyntheticCandles.targetItems(new String[][]{{"14", "rsi"}, {"14", "stochrsi"}});
+        configManager.wrList = SyntheticCandles.targetItems(new String[][]{{"14", "wr"}, {"14", "atr"}, {"0", "obv"}});
+        for (int size : BenchmarkSupport.sizes()) {
+            configManager.modelArray = SyntheticCandles.entities(size, SEED);
+            BenchmarkSupport.measure("HTIndicatorEngine.sync(full)", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    HTIndicatorEngine engine = new HTIndicatorEngine();
+                    engine.sync(configManager);
+                    return engine;
+                }
+            });
+            final HTIndicatorEngine engine = new HTIndicatorEngine();
+            engine.sync(configManager);
+            final KLineEntity last = configManager.modelArray.get(size - 1);
+            BenchmarkSupport.measure("HTIndicatorEngine.sync(last candle)", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    last.Close += 0.01f;
+                    engine.sync(configManager);
+                    return last;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void valueFormatter() {
+        final ValueFormatter formatter = new ValueFormatter();
+        for (int size : BenchmarkSupport.sizes()) {
+            final List<KLineEntity> entities = SyntheticCandles.entities(size, SEED);
+            BenchmarkSupport.measure("ValueFormatter.format(static)", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    int length = 0;
+                    for (int i = 0; i < entities.size(); i++) {
+                        length += ValueFormatter.format(entities.get(i).Close, 4, true).length();
+                    }
+                    return length;
+                }
+            });
+            // Instance format goes through formatPrice
+            BenchmarkSupport.measure("ValueFormatter.formatPrice", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    int length = 0;
+                    for (int i = 0; i < entities.size(); i++) {
+                        length += formatter.format(entities.get(i).Close).length();
+                    }
+                    return length;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void packModel() {
+        final HTKLineConfigManager configManager = new HTKLineConfigManager();
+        for (int size : BenchmarkSupport.sizes()) {
+            final List<Map<String, Object>> maps = SyntheticCandles.maps(size, SEED);
+            BenchmarkSupport.measure("HTKLineConfigManager.packModelList", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    return configManager.packModelList(maps);
+                }
+            });
+            BenchmarkSupport.measure("HTKLineConfigManager.packModel", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    Object last = null;
+                    for (int i = 0; i < maps.size(); i++) {
+                        last = configManager.packModel(maps.get(i));
+                    }
+                    return last;
+                }
+            });
+            BenchmarkSupport.measure("HTKLineTargetItem.packModelArray", size, new BenchmarkSupport.Op() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object run() {
+                    Object last = null;
+                    for (int i = 0; i < maps.size(); i++) {
+                        last = HTKLineTargetItem.packModelArray((List) maps.get(i).get("maList"));
+                    }
+                    return last;
+                }
+            });
+            BenchmarkSupport.measure("HTKLineTargetItem.packValues", size, new BenchmarkSupport.Op() {
+                @Override
+                public Object run() {
+                    Object last = null;
+                    for (int i = 0; i < maps.size(); i++) {
+                        last = HTKLineTargetItem.packValues((List) maps.get(i).get("maList"));
+                    }
+                    return last;
+                }
+            });
+        }
+    }
+}
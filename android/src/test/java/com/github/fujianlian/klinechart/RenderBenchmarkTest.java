@@ -0,0 +1,300 @@
+package com.github.fujianlian.klinechart;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.github.fujianlian.klinechart.container.HTDrawItem;
+import com.github.fujianlian.klinechart.container.HTDrawType;
+import com.github.fujianlian.klinechart.container.HTPoint;
+import com.github.fujianlian.klinechart.formatter.DateFormatter;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Headless render benchmark: a KLineChartView set up like HTKLineContainerView.reloadConfigManager,
+ * drawn into a counting bitmap canvas. Reports draw ops, wall time and bytes allocated per frame
+ * for static frames at several zoom levels, a pan back and forth, a pan over a large drawing set,
+ * a pan with support/resistance right-edge tags, a pan over many overlays, zoomed-out
+ * frames over clustered trade markers and a long-press crosshair drag.
+ * Run with: ./gradlew test -Dkline.bench=true [-Dkline.bench.sizes=1000,10000]
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class RenderBenchmarkTest {
+
+    private static final long SEED = 42L;
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    private static final int WARMUP_FRAMES = 30;
+
+    private static final int FRAMES = 120;
+
+    private static final int DRAWINGS = 200;
+
+    private static final int OVERLAYS = 500;
+
+    private static final int MARKERS = 50_000;
+
+    private static final float[] ZOOMS = {0.5f, 1f, 2f};
+
+    @BeforeClass
+    public static void requireBenchmarkFlag() {
+        Assume.assumeTrue("benchmarks run with -Dkline.bench=true", BenchmarkSupport.isEnabled());
+    }
+
+    @Test
+    public void staticFrames() {
+        for (int size : renderSizes()) {
+            for (float zoom : ZOOMS) {
+                KLineChartView view = createView(size, false);
+                view.applyScaleX(zoom);
+                view.setScrollX(view.getMaxScrollX());
+                run("static x" + zoom, size, view, new BenchmarkSupport.FrameStep() {
+                    @Override
+                    public void apply(KLineChartView view, int frame) {
+                        view.invalidate();
+                    }
+                });
+            }
+        }
+    }
+
+    @Test
+    public void scroll() {
+        for (int size : renderSizes()) {
+            for (boolean layerCache : new boolean[]{false, true}) {
+                KLineChartView view = createView(size, layerCache);
+                int end = view.getMaxScrollX();
+                int start = Math.max(view.getMinScrollX(), end - WIDTH * 2);
+                // Same state as a finger pan, so the scroll layer cache path is taken when enabled
+                view.touch = true;
+                run("scroll" + (layerCache ? " layerCache" : ""), size, view, BenchmarkSupport.panFrames(start, end));
+            }
+        }
+    }
+
+    @Test
+    public void drawings() {
+        for (int size : renderSizes()) {
+            KLineChartView view = createView(size, false);
+            addDrawings(view, size, DRAWINGS);
+            int end = view.getMaxScrollX();
+            int start = Math.max(view.getMinScrollX(), end - WIDTH * 2);
+            run("drawings " + DRAWINGS + " scroll", size, view, BenchmarkSupport.panFrames(start, end));
+        }
+    }
+
+    @Test
+    public void overlays() {
+        for (int size : renderSizes()) {
+            KLineChartView view = createView(size, false);
+            addOverlays(view, size, OVERLAYS);
+            int end = view.getMaxScrollX();
+            int start = Math.max(view.getMinScrollX(), end - WIDTH * 2);
+            run("overlays " + OVERLAYS + " scroll", size, view, BenchmarkSupport.panFrames(start, end));
+        }
+    }
+
+    @Test
+    public void rightLabels() {
+        for (int size : renderSizes()) {
+            KLineChartView view = createView(size, false);
+            KLineEntity last = view.getItem(size - 1);
+            view.configManager.srStyle = "line_labels";
+            view.configManager.resistanceLevel = last.Close * 1.01f;
+            view.configManager.supportLevel = last.Close * 0.99f;
+            int end = view.getMaxScrollX();
+            int start = Math.max(view.getMinScrollX(), end - WIDTH * 2);
+            run("rightLabels scroll", size, view, BenchmarkSupport.panFrames(start, end));
+        }
+    }
+
+    @Test
+    public void markers() {
+        for (int size : renderSizes()) {
+            KLineChartView view = createView(size, false);
+            addMarkers(view, size, MARKERS);
+            view.applyScaleX(0.5f);
+            int end = view.getMaxScrollX();
+            int start = Math.max(view.getMinScrollX(), end - WIDTH * 2);
+            run("markers " + MARKERS + " x0.5 scroll", size, view, BenchmarkSupport.panFrames(start, end));
+        }
+    }
+
+    /**
+     * Buys, sells and events at random candles, ingested in one unsorted packed batch.
+     */
+    private static void addMarkers(KLineChartView view, int size, int count) {
+        Random random = new Random(SEED);
+        double[] packed = new double[count * HTMarkerStore.STRIDE];
+        for (int i = 0; i < count; i++) {
+            KLineEntity entity = view.getItem(random.nextInt(size));
+            int offset = i * HTMarkerStore.STRIDE;
+            packed[offset] = entity.id;
+            packed[offset + 1] = entity.Low + random.nextFloat() * (entity.High - entity.Low);
+            packed[offset + 2] = random.nextInt(3);
+            packed[offset + 3] = random.nextFloat();
+        }
+        view.markerStore.append(packed, count);
+    }
+
+    /**
+     * Labelled price lines, zones and markers around the candle prices, markers over the whole dataset.
+     */
+    private static void addOverlays(KLineChartView view, int size, int count) {
+        Random random = new Random(SEED);
+        HTOverlayLayer.Batch batch = new HTOverlayLayer.Batch();
+        for (int i = 0; i < count; i++) {
+            KLineEntity entity = view.getItem(random.nextInt(size));
+            HTOverlayLayer.Item item = new HTOverlayLayer.Item();
+            item.id = "overlay-" + i;
+            item.type = i % 3 == 0 ? HTOverlayLayer.TYPE_MARKER : i % 3 == 1 ? HTOverlayLayer.TYPE_LINE : HTOverlayLayer.TYPE_ZONE;
+            item.price = entity.Close * (0.98f + random.nextFloat() * 0.04f);
+            item.price2 = item.price * 1.002f;
+            item.candleId = entity.id;
+            item.shape = i % 2 == 0 ? HTOverlayLayer.SHAPE_ARROW_UP : HTOverlayLayer.SHAPE_ARROW_DOWN;
+            item.dashed = i % 2 == 0;
+            item.color = i % 3 == 2 ? 0x2016A34A : 0xFFF59E0B;
+            item.text = i % 3 == 0 ? "B" : "L" + i;
+            item.priority = i % 5;
+            batch.items.add(item);
+        }
+        view.overlayLayer.apply(batch);
+    }
+
+    /**
+     * Line, channel, Fibonacci, position and text drawings spread over the whole dataset, most of them off screen.
+     */
+    private static void addDrawings(KLineChartView view, int size, int count) {
+        HTDrawType[] types = {HTDrawType.line, HTDrawType.rectangle, HTDrawType.parallelLine, HTDrawType.horizontalLine,
+                HTDrawType.fibRetracement, HTDrawType.longPosition, HTDrawType.text};
+        Random random = new Random(SEED);
+        for (int i = 0; i < count; i++) {
+            HTDrawType type = types[i % types.length];
+            int candle = random.nextInt(Math.max(1, size - 20));
+            KLineEntity entity = view.getItem(candle);
+            HTDrawItem drawItem = new HTDrawItem(type, new HTPoint(entity.id, entity.Close));
+            for (int point = 1; point < type.count(); point++) {
+                KLineEntity next = view.getItem(candle + 5 * point + random.nextInt(10));
+                drawItem.pointList.add(new HTPoint(next.id, next.Close * (0.99f + random.nextFloat() * 0.02f)));
+            }
+            drawItem.drawDashWidth = i % 2 == 0 ? 1 : 6;
+            drawItem.drawDashSpace = i % 2 == 0 ? 1 : 4;
+            view.drawContext.drawItemList.add(drawItem);
+        }
+        view.drawContext.drawIndex.invalidate();
+    }
+
+    @Test
+    public void longPress() {
+        for (int size : renderSizes()) {
+            KLineChartView view = createView(size, false);
+            view.setScrollX(view.getMaxScrollX());
+            final long downTime = SystemClock.uptimeMillis();
+            run("longPress", size, view, new BenchmarkSupport.FrameStep() {
+                @Override
+                public void apply(KLineChartView view, int frame) {
+                    float x = 40f + (frame * 13) % (WIDTH - 80);
+                    MotionEvent event = MotionEvent.obtain(downTime, downTime + frame * 16L,
+                            MotionEvent.ACTION_MOVE, x, HEIGHT / 3f, 0);
+                    view.onLongPress(event);
+                    event.recycle();
+                }
+            });
+        }
+    }
+
+    private static int[] renderSizes() {
+        // Rendering only touches the visible window, 1M adds setup time without new information
+        return BenchmarkSupport.sizes(new int[]{1_000, 10_000, 100_000});
+    }
+
+    private static KLineChartView createView(int size, boolean scrollLayerCache) {
+        Context context = RuntimeEnvironment.getApplication();
+        HTKLineConfigManager configManager = new HTKLineConfigManager();
+        List<Map<String, Object>> maps = SyntheticCandles.maps(size, SEED);
+        configManager.modelArray = configManager.packModelList(maps);
+        configManager.scrollLayerCache = scrollLayerCache;
+
+        KLineChartView view = new KLineChartView(context, configManager);
+        view.setGridColumns(0);
+        view.setGridRows(4);
+        view.setChildDraw(0);
+        view.setDateTimeFormatter(new DateFormatter());
+        view.changeMainDrawType(configManager.primaryStatus);
+        view.changeSecondDrawType(configManager.secondStatus);
+        view.setMainDrawLine(configManager.isMinute);
+        view.setPointWidth(configManager.itemWidth);
+        view.setCandleWidth(configManager.candleWidth);
+        view.setTextColor(configManager.textColor);
+        view.setTextSize(configManager.rightTextFontSize);
+        view.setMTextSize(configManager.candleTextFontSize);
+        view.setMTextColor(configManager.candleTextColor);
+        view.reloadColor();
+        view.setGridLineColor(configManager.gridColor);
+
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+        view.notifyChanged();
+        view.setScrollX(view.getMaxScrollX());
+        return view;
+    }
+
+    private static void run(String name, int size, KLineChartView view, BenchmarkSupport.FrameStep step) {
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        CountingCanvas canvas = new CountingCanvas(bitmap);
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            step.apply(view, frame);
+            view.draw(canvas);
+        }
+
+        long[] kinds = new long[CountingCanvas.KIND_NAMES.length];
+        long ops = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            step.apply(view, WARMUP_FRAMES + frame);
+            canvas.reset();
+            long allocatedBefore = BenchmarkSupport.allocatedBytes();
+            long start = System.nanoTime();
+            view.draw(canvas);
+            nanos += System.nanoTime() - start;
+            bytes += BenchmarkSupport.allocatedBytes() - allocatedBefore;
+            ops += canvas.total();
+            for (int kind = 0; kind < kinds.length; kind++) {
+                kinds[kind] += canvas.count(kind);
+            }
+        }
+
+        StringBuilder breakdown = new StringBuilder();
+        for (int kind = 0; kind < kinds.length; kind++) {
+            if (kinds[kind] > 0) {
+                breakdown.append(' ').append(CountingCanvas.KIND_NAMES[kind]).append('=')
+                        .append(String.format(Locale.US, "%.1f", kinds[kind] / (double) FRAMES));
+            }
+        }
+        System.out.println(String.format(Locale.US,
+                "[kline.bench] %-40s n=%-8d frames=%-4d %12.1f ns/frame %12.1f B/frame %8.1f ops/frame%s",
+                "render " + name, size, FRAMES, nanos / (double) FRAMES, bytes / (double) FRAMES,
+                ops / (double) FRAMES, breakdown));
+        bitmap.recycle();
+    }
+}
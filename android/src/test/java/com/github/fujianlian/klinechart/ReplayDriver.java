@@ -0,0 +1,281 @@
+package com.github.fujianlian.klinechart;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Looper;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.github.fujianlian.klinechart.container.HTKLineContainerView;
+
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Replays a {@link SyntheticMarket} into an HTKLineContainerView through RNKLineView.receiveCommand,
+ * so every command takes the real path: bridge copy, packModel on a worker, root.post, apply.
+ * Runs on Robolectric's paused main looper: simulated time advances by 1000 / rate ms per command,
+ * a frame is drawn every 16 ms of simulated time, and frame time, command latency and heap are
+ * recorded as curves over simulated time. Latency is wall time from receiveCommand until the
+ * command has been applied on the main thread.
+ */
+final class ReplayDriver {
+
+    static final int MODE_CANDLES = 0;
+
+    static final int MODE_TICKS = 1;
+
+    private static final long FRAME_MILLIS = 16L;
+
+    private static final long HEAP_SAMPLE_MILLIS = 250L;
+
+    private static final long APPLY_TIMEOUT_NANOS = 10_000_000_000L;
+
+    private static final int TICKS_PER_COMMAND = 20;
+
+    private final HTKLineContainerView container;
+
+    private final SyntheticMarket market;
+
+    private final RNKLineView manager = new RNKLineView();
+
+    private final ShadowLooper looper = shadowOf(Looper.getMainLooper());
+
+    /**
+     * One curve: (simulated ms, value) pairs in arrival order.
+     */
+    static final class Series {
+        final String name;
+        long[] time = new long[256];
+        long[] value = new long[256];
+        int size;
+
+        Series(String name) {
+            this.name = name;
+        }
+
+        void add(long timeMillis, long sample) {
+            if (size == time.length) {
+                time = Arrays.copyOf(time, size * 2);
+                value = Arrays.copyOf(value, size * 2);
+            }
+            time[size] = timeMillis;
+            value[size] = sample;
+            size++;
+        }
+
+        long percentile(float percent) {
+            if (size == 0) {
+                return 0L;
+            }
+            long[] sorted = Arrays.copyOf(value, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percent / 100f * size) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, rank))];
+        }
+
+        long last() {
+            return size == 0 ? 0L : value[size - 1];
+        }
+    }
+
+    static final class Result {
+        final String name;
+        final Series frames = new Series("frameNanos");
+        final Series latency = new Series("latencyNanos");
+        final Series heap = new Series("heapBytes");
+        int commands;
+        long coalesced;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%-40s cmds=%-6d frames=%-5d frame p50/p95/max %.2f/%.2f/%.2f ms"
+                            + "  latency p50/p95/max %.2f/%.2f/%.2f ms  heap %.1f->%.1f (peak %.1f) MB  coalesced=%d",
+                    name, commands, frames.size,
+                    frames.percentile(50f) / 1e6, frames.percentile(95f) / 1e6, frames.percentile(100f) / 1e6,
+                    latency.percentile(50f) / 1e6, latency.percentile(95f) / 1e6, latency.percentile(100f) / 1e6,
+                    heap.size == 0 ? 0.0 : heap.value[0] / 1048576.0, heap.last() / 1048576.0,
+                    heap.percentile(100f) / 1048576.0, coalesced);
+        }
+
+        /**
+         * Writes simulatedMillis,series,value rows.
+         */
+        void writeCsv(File file) throws IOException {
+            try (Writer writer = new FileWriter(file)) {
+                writer.write("simulatedMillis,series,value\n");
+                for (Series series : new Series[]{frames, latency, heap}) {
+                    for (int i = 0; i < series.size; i++) {
+                        writer.write(series.time[i] + "," + series.name + "," + series.value[i] + "\n");
+                    }
+                }
+            }
+        }
+    }
+
+    ReplayDriver(HTKLineContainerView container, SyntheticMarket market) {
+        this.container = container;
+        this.market = market;
+    }
+
+    /**
+     * Loads historySize candles through setData and waits until they are applied.
+     */
+    void load(int historySize) {
+        send("setData", candleArray(market.history(historySize)), 0L, null);
+    }
+
+    /**
+     * Replays for the given simulated seconds at rateHz commands per second. Every prependEverySeconds
+     * (0 disables it) an extra prependData of prependSize older candles is sent, like a load-more.
+     */
+    Result run(String name, int mode, int rateHz, int seconds, int prependEverySeconds, int prependSize) {
+        Result result = new Result(name);
+        Bitmap bitmap = Bitmap.createBitmap(
+                Math.max(1, container.klineView.getWidth()),
+                Math.max(1, container.klineView.getHeight()),
+                Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        long coalescedBefore = container.klineView.getCoalescedLiveUpdates();
+
+        long duration = seconds * 1000L;
+        double step = 1000.0 / rateHz;
+        double nextCommand = 0.0;
+        long nextFrame = 0L;
+        long nextHeap = 0L;
+        long nextPrepend = prependEverySeconds > 0 ? prependEverySeconds * 1000L : Long.MAX_VALUE;
+        long now = 0L;
+        while (now < duration) {
+            long next = Math.min(Math.min((long) Math.ceil(nextCommand), nextFrame), Math.min(nextHeap, nextPrepend));
+            if (next > now) {
+                looper.idleFor(Duration.ofMillis(next - now));
+                now = next;
+            }
+            if (now >= nextCommand) {
+                long dt = Math.max(1L, Math.round(step));
+                if (mode == MODE_TICKS) {
+                    double[] ticks = market.ticks(TICKS_PER_COMMAND, TICKS_PER_COMMAND * rateHz);
+                    send("appendTicks", tickArray(ticks), now, result);
+                } else {
+                    boolean opened = market.nextTrade(dt);
+                    JavaOnlyArray args = new JavaOnlyArray();
+                    args.pushMap(toReadableMap(SyntheticCandles.map(market.liveCandle())));
+                    send(opened ? "appendCandle" : "updateLastCandle", args, now, result);
+                }
+                nextCommand += step;
+            }
+            if (now >= nextPrepend) {
+                send("prependData", candleArray(market.history(prependSize)), now, result);
+                nextPrepend += prependEverySeconds * 1000L;
+            }
+            if (now >= nextFrame) {
+                long start = System.nanoTime();
+                container.klineView.draw(canvas);
+                result.frames.add(now, System.nanoTime() - start);
+                nextFrame += FRAME_MILLIS;
+            }
+            if (now >= nextHeap) {
+                Runtime runtime = Runtime.getRuntime();
+                result.heap.add(now, runtime.totalMemory() - runtime.freeMemory());
+                nextHeap += HEAP_SAMPLE_MILLIS;
+            }
+        }
+        result.coalesced = container.klineView.getCoalescedLiveUpdates() - coalescedBefore;
+        bitmap.recycle();
+        return result;
+    }
+
+    private void send(String command, ReadableArray args, long now, Result result) {
+        HTIngestionMetrics metrics = container.ingestionMetrics;
+        int before = handled(metrics);
+        long start = System.nanoTime();
+        manager.receiveCommand(container, command, args);
+        // Workers post back to the main looper; run it until this command has been applied
+        while (handled(metrics) == before) {
+            if (System.nanoTime() - start > APPLY_TIMEOUT_NANOS) {
+                throw new AssertionError(command + " was not applied within 10 s");
+            }
+            looper.idle();
+            Thread.yield();
+        }
+        if (result != null) {
+            result.latency.add(now, System.nanoTime() - start);
+            result.commands++;
+        }
+    }
+
+    private static int handled(HTIngestionMetrics metrics) {
+        int total = 0;
+        for (int command = 0; command < HTIngestionMetrics.COMMAND_COUNT; command++) {
+            total += metrics.getCount(command) + metrics.getFailed(command);
+        }
+        return total;
+    }
+
+    private static JavaOnlyArray candleArray(List<KLineEntity> entities) {
+        JavaOnlyArray candles = new JavaOnlyArray();
+        for (KLineEntity entity : entities) {
+            candles.pushMap(toReadableMap(SyntheticCandles.map(entity)));
+        }
+        JavaOnlyArray args = new JavaOnlyArray();
+        args.pushArray(candles);
+        return args;
+    }
+
+    private JavaOnlyArray tickArray(double[] ticks) {
+        JavaOnlyArray packed = new JavaOnlyArray();
+        for (double value : ticks) {
+            packed.pushDouble(value);
+        }
+        JavaOnlyMap payload = new JavaOnlyMap();
+        payload.putArray("ticks", packed);
+        payload.putDouble("interval", market.interval);
+        JavaOnlyArray args = new JavaOnlyArray();
+        args.pushMap(payload);
+        return args;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ReadableMap toReadableMap(Map<String, Object> map) {
+        JavaOnlyMap result = new JavaOnlyMap();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                result.putNull(entry.getKey());
+            } else if (value instanceof Number) {
+                result.putDouble(entry.getKey(), ((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                result.putBoolean(entry.getKey(), (Boolean) value);
+            } else if (value instanceof String) {
+                result.putString(entry.getKey(), (String) value);
+            } else if (value instanceof Map) {
+                result.putMap(entry.getKey(), toReadableMap((Map<String, Object>) value));
+            } else if (value instanceof List) {
+                JavaOnlyArray array = new JavaOnlyArray();
+                for (Object item : (List<Object>) value) {
+                    array.pushMap(toReadableMap((Map<String, Object>) item));
+                }
+                result.putArray(entry.getKey(), array);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.fujianlian.klinechart;
+
+import android.app.Activity;
+import android.view.ViewGroup;
+
+import com.github.fujianlian.klinechart.container.HTKLineContainerView;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Live-mode load test: replays a synthetic GBM feed into HTKLineContainerView at 1 to 1000 Hz,
+ * with and without liveMaxFps, and prints frame time, command latency and heap per run.
+ * Run with: ./gradlew test -Dkline.bench=true [-Dkline.bench.rates=1,10,100,1000]
+ * [-Dkline.bench.seconds=5] [-Dkline.bench.out=/tmp/replay] (CSV curves per run)
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, qualifiers = "w360dp-h640dp-xxhdpi")
+public class ReplayLoadTest {
+
+    private static final long SEED = 7L;
+
+    private static final int HISTORY_SIZE = 2_000;
+
+    private static final int PREPEND_EVERY_SECONDS = 2;
+
+    private static final int PREPEND_SIZE = 500;
+
+    private static final long INTERVAL = 1_000L;
+
+    @BeforeClass
+    public static void requireBenchmarkFlag() {
+        Assume.assumeTrue("benchmarks run with -Dkline.bench=true", BenchmarkSupport.isEnabled());
+    }
+
+    @Test
+    public void candles() throws IOException {
+        for (int rate : rates()) {
+            for (int liveMaxFps : new int[]{0, 60}) {
+                replay("candles", ReplayDriver.MODE_CANDLES, rate, liveMaxFps);
+            }
+        }
+    }
+
+    @Test
+    public void ticks() throws IOException {
+        for (int rate : rates()) {
+            replay("ticks", ReplayDriver.MODE_TICKS, rate, 60);
+        }
+    }
+
+    private static int[] rates() {
+        return BenchmarkSupport.intList("kline.bench.rates", new int[]{1, 10, 100, 1000});
+    }
+
+    private static int seconds() {
+        return BenchmarkSupport.intList("kline.bench.seconds", new int[]{5})[0];
+    }
+
+    private static void replay(String feed, int mode, int rate, int liveMaxFps) throws IOException {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        HTKLineContainerView container = new HTKLineContainerView(activity);
+        container.configManager.liveMaxFps = liveMaxFps;
+        container.configManager.ingestionMetrics = true;
+        container.ingestionMetrics.enabled = true;
+        activity.setContentView(container, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        SyntheticMarket market = new SyntheticMarket(SEED, 100.0, 0.0, 0.002, INTERVAL,
+                SyntheticCandles.START_ID);
+        ReplayDriver driver = new ReplayDriver(container, market);
+        driver.load(HISTORY_SIZE);
+        String name = String.format("replay %s %dHz fps=%d", feed, rate, liveMaxFps);
+        ReplayDriver.Result result = driver.run(name, mode, rate, seconds(), PREPEND_EVERY_SECONDS, PREPEND_SIZE);
+        System.out.println("[kline.bench] " + result);
+
+        for (int command = 0; command < HTIngestionMetrics.COMMAND_COUNT; command++) {
+            HTIngestionMetrics metrics = container.ingestionMetrics;
+            if (metrics.hasActivity(command)) {
+                double[] latency = metrics.getLatencyMillis(command);
+                System.out.println(String.format(java.util.Locale.US,
+                        "[kline.bench]   %-18s count=%-6d copy=%.3f pack=%.3f queue=%.3f apply=%.3f total=%.3f max=%.3f ms",
+                        HTIngestionMetrics.COMMAND_NAMES[command], metrics.getCount(command),
+                        latency[0], latency[1], latency[2], latency[3], latency[4], latency[5]));
+                assertEquals(HTIngestionMetrics.COMMAND_NAMES[command] + " failed", 0, metrics.getFailed(command));
+            }
+        }
+
+        String out = System.getProperty("kline.bench.out", "");
+        if (!out.trim().isEmpty()) {
+            File dir = new File(out);
+            dir.mkdirs();
+            result.writeCsv(new File(dir, String.format("replay-%s-%dhz-fps%d.csv", feed, rate, liveMaxFps)));
+        }
+    }
+}
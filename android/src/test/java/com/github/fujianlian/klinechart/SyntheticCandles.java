@@ -0,0 +1,103 @@
+package com.github.fujianlian.klinechart;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic candles for tests and benchmarks, both as entities and in the map
+ * shape the JS wrapper sends over the bridge.
+ */
+final class SyntheticCandles {
+
+    static final long START_ID = 1_600_000_000_000L;
+
+    static final long INTERVAL = 60_000L;
+
+    private SyntheticCandles() {
+    }
+
+    static List<KLineEntity> entities(int count, long seed) {
+        Random random = new Random(seed);
+        List<KLineEntity> list = new ArrayList<>(count);
+        float close = 100f;
+        for (int i = 0; i < count; i++) {
+            KLineEntity entity = new KLineEntity();
+            float open = close;
+            close = Math.max(0.01f, open * (1f + (float) random.nextGaussian() * 0.002f));
+            entity.id = START_ID + i * INTERVAL;
+            entity.Date = "2020-09-13 12:" + (i % 60);
+            entity.Open = open;
+            entity.Close = close;
+            entity.High = Math.max(open, close) * (1f + random.nextFloat() * 0.001f);
+            entity.Low = Math.min(open, close) * (1f - random.nextFloat() * 0.001f);
+            entity.Volume = 1000f + random.nextFloat() * 500f;
+            list.add(entity);
+        }
+        return list;
+    }
+
+    /**
+     * Candle maps with MA, volume MA, RSI and WR target lists, like computeCandlesForRuntime output.
+     */
+    static List<Map<String, Object>> maps(int count, long seed) {
+        List<KLineEntity> entities = entities(count, seed);
+        List<Map<String, Object>> list = new ArrayList<>(count);
+        for (KLineEntity entity : entities) {
+            list.add(map(entity));
+        }
+        return list;
+    }
+
+    static Map<String, Object> map(KLineEntity entity) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", (double) entity.id);
+        map.put("dateString", entity.Date);
+        map.put("open", (double) entity.Open);
+        map.put("high", (double) entity.High);
+        map.put("low", (double) entity.Low);
+        map.put("close", (double) entity.Close);
+        map.put("vol", (double) entity.Volume);
+        map.put("maList", targetList("MA", entity.Close, 5, 10, 20));
+        map.put("maVolumeList", targetList("MA", entity.Volume, 5, 10));
+        map.put("rsiList", targetList("RSI", 50.0, 6, 12, 24));
+        map.put("wrList", targetList("WR", -50.0, 14));
+        map.put("bollUp", entity.Close * 1.02);
+        map.put("bollMb", (double) entity.Close);
+        map.put("bollDn", entity.Close * 0.98);
+        map.put("macdValue", 0.1);
+        map.put("macdDea", 0.2);
+        map.put("macdDif", 0.3);
+        return map;
+    }
+
+    static List<Map<String, Object>> targetList(String prefix, double value, int... periods) {
+        List<Map<String, Object>> list = new ArrayList<>(periods.length);
+        for (int i = 0; i < periods.length; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("title", prefix + periods[i]);
+            item.put("value", value);
+            item.put("selected", Boolean.TRUE);
+            item.put("index", (double) i);
+            list.add(item);
+        }
+        return list;
+    }
+
+    /**
+     * Native indicator target items from {title, kind} pairs, indexed in order.
+     */
+    static List<HTKLineTargetItem> targetItems(String[][] items) {
+        List<HTKLineTargetItem> list = new ArrayList<>();
+        for (int i = 0; i < items.length; i++) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("title", items[i][0]);
+            map.put("kind", items[i][1]);
+            map.put("index", (double) i);
+            list.add(new HTKLineTargetItem(map));
+        }
+        return list;
+    }
+}
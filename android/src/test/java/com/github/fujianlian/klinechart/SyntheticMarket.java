@@ -0,0 +1,159 @@
+package com.github.fujianlian.klinechart;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Geometric Brownian motion price feed for load tests. Produces trade ticks at a given rate,
+ * rolls them into the live candle, and walks backwards for older history to prepend.
+ * Drift and volatility are per candle interval. Deterministic for a seed.
+ */
+final class SyntheticMarket {
+
+    private static final int HISTORY_SUBSTEPS = 8;
+
+    final long interval;
+
+    private final double drift;
+
+    private final double volatility;
+
+    private final Random random;
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+
+    private double price;
+
+    private long clock;
+
+    private double firstOpen;
+
+    private long firstId;
+
+    private KLineEntity live;
+
+    SyntheticMarket(long seed, double startPrice, double drift, double volatility, long interval, long startId) {
+        this.random = new Random(seed);
+        this.drift = drift;
+        this.volatility = volatility;
+        this.interval = interval;
+        this.price = startPrice;
+        this.firstOpen = startPrice;
+        this.clock = startId;
+        this.firstId = startId;
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    /**
+     * Moves the price forward by dtMillis of GBM and returns it.
+     */
+    double step(long dtMillis) {
+        price = walk(price, dtMillis / (double) interval);
+        return price;
+    }
+
+    private double walk(double from, double dt) {
+        double exponent = (drift - 0.5 * volatility * volatility) * dt
+                + volatility * Math.sqrt(dt) * random.nextGaussian();
+        return Math.max(0.0001, from * Math.exp(exponent));
+    }
+
+    private double tradeSize() {
+        return Math.exp(random.nextGaussian()) * 10.0;
+    }
+
+    long clock() {
+        return clock;
+    }
+
+    /**
+     * Packed [timestamp, price, size, ...] batch of count trades spaced 1000 / ratePerSecond ms apart.
+     */
+    double[] ticks(int count, double ratePerSecond) {
+        long spacing = Math.max(1L, Math.round(1000.0 / ratePerSecond));
+        double[] ticks = new double[count * HTKLineTickAggregator.TICK_STRIDE];
+        for (int i = 0; i < count; i++) {
+            clock += spacing;
+            int offset = i * HTKLineTickAggregator.TICK_STRIDE;
+            ticks[offset] = clock;
+            ticks[offset + 1] = step(spacing);
+            ticks[offset + 2] = tradeSize();
+        }
+        return ticks;
+    }
+
+    /**
+     * Advances by one trade and folds it into the live candle.
+     * Returns true when the trade opened a new candle (appendCandle), false when it updated the
+     * current one (updateLastCandle); either way {@link #liveCandle()} holds the result.
+     */
+    boolean nextTrade(long dtMillis) {
+        clock += dtMillis;
+        double tradePrice = step(dtMillis);
+        double size = tradeSize();
+        long bucket = Math.floorDiv(clock, interval) * interval;
+        if (live == null || live.id != bucket) {
+            float open = live == null ? (float) tradePrice : live.Close;
+            live = new KLineEntity();
+            live.id = bucket;
+            live.Date = dateFormat.format(new Date(bucket));
+            live.Open = open;
+            live.High = Math.max(open, (float) tradePrice);
+            live.Low = Math.min(open, (float) tradePrice);
+            live.Close = (float) tradePrice;
+            live.Volume = (float) size;
+            return true;
+        }
+        live.High = Math.max(live.High, (float) tradePrice);
+        live.Low = Math.min(live.Low, (float) tradePrice);
+        live.Close = (float) tradePrice;
+        live.Volume += (float) size;
+        return false;
+    }
+
+    KLineEntity liveCandle() {
+        return live;
+    }
+
+    /**
+     * count candles ending right before the oldest candle produced so far, oldest first.
+     * The walk runs backwards from that candle's open, so history joins the series without a gap.
+     */
+    List<KLineEntity> history(int count) {
+        List<KLineEntity> list = new ArrayList<>(count);
+        double close = firstOpen;
+        long id = firstId;
+        double dt = 1.0 / HISTORY_SUBSTEPS;
+        for (int i = 0; i < count; i++) {
+            id -= interval;
+            double high = close;
+            double low = close;
+            double value = close;
+            for (int s = 0; s < HISTORY_SUBSTEPS; s++) {
+                value = walk(value, dt);
+                high = Math.max(high, value);
+                low = Math.min(low, value);
+            }
+            KLineEntity entity = new KLineEntity();
+            entity.id = id;
+            entity.Date = dateFormat.format(new Date(id));
+            entity.Open = (float) value;
+            entity.High = (float) high;
+            entity.Low = (float) low;
+            entity.Close = (float) close;
+            entity.Volume = (float) (tradeSize() * 60.0);
+            list.add(entity);
+            close = value;
+        }
+        firstOpen = close;
+        firstId = id;
+        Collections.reverse(list);
+        return list;
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.fujianlian.klinechart.container;
+
+import org.json.JSONException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Serialisation and undo journal of HTDrawStore. Runs under Robolectric for org.json only.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class HTDrawStoreTest {
+
+    @Test
+    public void jsonRoundTripKeepsPointsAndStyle() throws JSONException {
+        HTDrawItem line = item(HTDrawType.line, 10, 101.5f, 42, 99.25f);
+        line.drawColor = 0xFF00FF00;
+        line.drawLineHeight = 2.5f;
+        line.drawDashWidth = 4;
+        line.drawDashSpace = 3;
+        line.drawIsLock = true;
+        HTDrawItem text = item(HTDrawType.text, 7, 88);
+        text.text = "say \"hi\"\n中文";
+
+        List<HTDrawItem> restored = HTDrawStore.fromJson(HTDrawStore.toJson(Arrays.asList(line, text)));
+
+        assertEquals(2, restored.size());
+        assertItemEquals(line, restored.get(0));
+        assertItemEquals(text, restored.get(1));
+    }
+
+    @Test
+    public void toJsonSkipsNonFiniteAndIncompleteItems() throws JSONException {
+        HTDrawItem nan = item(HTDrawType.line, 1, Float.NaN, 2, 3);
+        HTDrawItem infinite = item(HTDrawType.horizontalLine, Float.POSITIVE_INFINITY, 3, 4, 3);
+        HTDrawItem incomplete = item(HTDrawType.line, 1, 2);
+        HTDrawItem kept = item(HTDrawType.verticalLine, 5, 6, 5, 7);
+
+        List<HTDrawItem> restored = HTDrawStore.fromJson(HTDrawStore.toJson(Arrays.asList(nan, infinite, incomplete, kept)));
+
+        assertEquals(1, restored.size());
+        assertItemEquals(kept, restored.get(0));
+    }
+
+    @Test
+    public void fromJsonSkipsUnknownTypesAndBadPoints() throws JSONException {
+        String json = "{\"version\":1,\"items\":["
+                + "{\"drawType\":999,\"points\":[1,2,3,4]},"
+                + "{\"drawType\":1,\"points\":[1,2]},"
+                + "{\"drawType\":1,\"points\":[1,\"NaN\",3,4]},"
+                + "{\"drawType\":2,\"points\":[5,6,7,6],\"drawColor\":7},"
+                + "\"not an object\"]}";
+
+        List<HTDrawItem> restored = HTDrawStore.fromJson(json);
+
+        assertEquals(1, restored.size());
+        assertEquals(HTDrawType.horizontalLine, restored.get(0).drawType);
+        assertEquals(7, restored.get(0).drawColor);
+    }
+
+    @Test
+    public void fromJsonAcceptsBareArrayAndEmptyDocument() throws JSONException {
+        assertEquals(1, HTDrawStore.fromJson("[{\"drawType\":3,\"points\":[1,2,1,3]}]").size());
+        assertTrue(HTDrawStore.fromJson("{\"version\":1}").isEmpty());
+    }
+
+    @Test
+    public void fromJsonRejectsNewerVersion() {
+        try {
+            HTDrawStore.fromJson("{\"version\":" + (HTDrawStore.FORMAT_VERSION + 1) + ",\"items\":[]}");
+            fail("expected JSONException");
+        } catch (JSONException expected) {
+            // Newer files are left untouched instead of being read half-way
+        }
+    }
+
+    @Test
+    public void undoAndRedoAddAndRemove() {
+        HTDrawContext drawContext = new HTDrawContext(null, null);
+        HTDrawStore store = drawContext.drawStore;
+        HTDrawItem a = item(HTDrawType.text, 1, 1);
+        HTDrawItem b = item(HTDrawType.text, 2, 2);
+        HTDrawItem c = item(HTDrawType.text, 3, 3);
+
+        drawContext.drawItemList.add(a);
+        store.recordAdd(a, 0);
+        drawContext.drawItemList.add(b);
+        store.recordAdd(b, 1);
+        drawContext.drawItemList.add(1, c);
+        store.recordAdd(c, 1);
+        drawContext.drawItemList.remove(0);
+        store.recordRemove(a, 0);
+        assertList(drawContext, c, b);
+
+        assertTrue(store.undo(drawContext));
+        assertList(drawContext, a, c, b);
+        assertTrue(store.undo(drawContext));
+        assertList(drawContext, a, b);
+        assertTrue(store.undo(drawContext));
+        assertList(drawContext, a);
+        assertTrue(store.undo(drawContext));
+        assertList(drawContext);
+        assertFalse(store.undo(drawContext));
+
+        assertTrue(store.redo(drawContext));
+        assertTrue(store.redo(drawContext));
+        assertTrue(store.redo(drawContext));
+        assertList(drawContext, a, c, b);
+        assertTrue(store.redo(drawContext));
+        assertList(drawContext, c, b);
+        assertFalse(store.redo(drawContext));
+    }
+
+    @Test
+    public void undoAndRedoUpdate() {
+        HTDrawContext drawContext = new HTDrawContext(null, null);
+        HTDrawStore store = drawContext.drawStore;
+        HTDrawItem line = item(HTDrawType.line, 1, 10, 2, 20);
+        drawContext.drawItemList.add(line);
+
+        int color = line.drawColor;
+        HTDrawStore.State before = HTDrawStore.State.of(line);
+        assertFalse(store.recordUpdate(line, before));
+        line.pointList.get(1).y = 25;
+        line.drawColor = 0xFF0000FF;
+        line.text = "moved";
+        assertTrue(store.recordUpdate(line, before));
+
+        assertTrue(store.undo(drawContext));
+        assertEquals(20, line.pointList.get(1).y, 0);
+        assertEquals(color, line.drawColor);
+        assertEquals("", line.text);
+        assertTrue(store.redo(drawContext));
+        assertEquals(25, line.pointList.get(1).y, 0);
+        assertEquals(0xFF0000FF, line.drawColor);
+        assertEquals("moved", line.text);
+        assertList(drawContext, line);
+    }
+
+    @Test
+    public void undoAndRedoReplace() {
+        HTDrawContext drawContext = new HTDrawContext(null, null);
+        HTDrawStore store = drawContext.drawStore;
+        HTDrawItem a = item(HTDrawType.text, 1, 1);
+        HTDrawItem b = item(HTDrawType.text, 2, 2);
+        drawContext.drawItemList.add(a);
+        List<HTDrawItem> beforeList = drawContext.drawItemList;
+        List<HTDrawItem> afterList = new ArrayList<>(Arrays.asList(b));
+        drawContext.drawItemList = afterList;
+        store.recordReplace(beforeList, afterList);
+
+        assertTrue(store.undo(drawContext));
+        assertSame(beforeList, drawContext.drawItemList);
+        assertList(drawContext, a);
+        assertTrue(store.redo(drawContext));
+        assertSame(afterList, drawContext.drawItemList);
+        assertList(drawContext, b);
+    }
+
+    @Test
+    public void newEditClearsRedoAndJournalIsBounded() {
+        HTDrawContext drawContext = new HTDrawContext(null, null);
+        HTDrawStore store = drawContext.drawStore;
+        store.maxJournalSize = 3;
+        for (int i = 0; i < 5; i++) {
+            HTDrawItem drawItem = item(HTDrawType.text, i, i);
+            drawContext.drawItemList.add(drawItem);
+            store.recordAdd(drawItem, i);
+        }
+        int undone = 0;
+        while (store.undo(drawContext)) {
+            undone++;
+        }
+        assertEquals(3, undone);
+        assertEquals(2, drawContext.drawItemList.size());
+
+        HTDrawItem drawItem = item(HTDrawType.text, 9, 9);
+        drawContext.drawItemList.add(drawItem);
+        store.recordAdd(drawItem, 2);
+        assertFalse(store.canRedo());
+    }
+
+    private static HTDrawItem item(HTDrawType drawType, float... points) {
+        HTDrawItem drawItem = new HTDrawItem(drawType, new HTPoint(points[0], points[1]));
+        for (int i = 2; i < points.length; i += 2) {
+            drawItem.pointList.add(new HTPoint(points[i], points[i + 1]));
+        }
+        return drawItem;
+    }
+
+    private static void assertItemEquals(HTDrawItem expected, HTDrawItem actual) {
+        assertEquals(expected.drawType, actual.drawType);
+        assertEquals(expected.pointList.size(), actual.pointList.size());
+        for (int i = 0; i < expected.pointList.size(); i++) {
+            assertEquals(expected.pointList.get(i).x, actual.pointList.get(i).x, 0);
+            assertEquals(expected.pointList.get(i).y, actual.pointList.get(i).y, 0);
+        }
+        assertEquals(expected.drawColor, actual.drawColor);
+        assertEquals(expected.drawLineHeight, actual.drawLineHeight, 0);
+        assertEquals(expected.drawDashWidth, actual.drawDashWidth, 0);
+        assertEquals(expected.drawDashSpace, actual.drawDashSpace, 0);
+        assertEquals(expected.drawIsLock, actual.drawIsLock);
+        assertEquals(expected.text, actual.text);
+    }
+
+    private static void assertList(HTDrawContext drawContext, HTDrawItem... expected) {
+        assertEquals(Arrays.asList(expected), drawContext.drawItemList);
+    }
+}
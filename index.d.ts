@@ -28,7 +28,24 @@ export type IndicatorItem = {
   value?: number;
   period?: number;
   multiplier?: number;
-  kind?: "ma" | "ema" | "super";
+  /**
+   * Main pane: ma, ema, super, plus vwap (period = session minutes, default 1440), tenkan, kijun,
+   * senkoua, senkoub with `computeMode: "native"`. rsiList: rsi, stochrsi. wrList: wr, atr, obv.
+   */
+  kind?:
+    | "ma"
+    | "ema"
+    | "super"
+    | "vwap"
+    | "tenkan"
+    | "kijun"
+    | "senkoua"
+    | "senkoub"
+    | "rsi"
+    | "stochrsi"
+    | "wr"
+    | "atr"
+    | "obv";
   selected?: boolean;
   index?: number;
 };
@@ -70,6 +87,8 @@ export type DrawItemTouchPayload = {
   drawDashSpace?: number;
   drawIsLock?: boolean;
   drawColor?: number[] | number;
+  /** Note text of a text drawing (Android). */
+  drawText?: string;
 };
 
 export type DrawItemCompletePayload = JsonObject;
@@ -230,7 +249,11 @@ export type IndicatorConfig = {
   volume?: number;
   /** Default true in props-first flow. */
   autoCompute?: boolean;
-  computeMode?: "prefer_input" | "always";
+  /**
+   * "native" (Android) computes maList/rsiList/wrList values in the native view and drops them from
+   * the per-candle payload; other platforms fall back to "prefer_input".
+   */
+  computeMode?: "prefer_input" | "always" | "native";
   ema?: {
     enabled?: boolean;
     periods?: number[];
@@ -362,6 +385,8 @@ export type DrawConfig = Partial<{
   drawDashWidth: number;
   drawDashSpace: number;
   drawIsLock: boolean;
+  /** Text of new and selected text notes (`drawType` 401, Android). */
+  drawText: string;
   shouldFixDraw: boolean;
   shouldClearDraw: boolean;
 }>;
@@ -385,15 +410,210 @@ export type InteractionConfig = Partial<{
   shouldScrollToEnd: boolean; // legacy internal
   autoFollow: boolean;
   loadMoreThreshold: number;
+  /**
+   * Live update mode (Android): cap repaints caused by `updateLastCandle`/`appendTicks`
+   * at this many frames per second. Updates in between are coalesced. 0 (default) disables.
+   */
+  liveMaxFps: number;
+  /**
+   * Android: keep the rendered candles in an offscreen buffer while panning/flinging and only
+   * render newly exposed columns. Falls back to a full repaint when the price range changes.
+   */
+  scrollLayerCache: boolean;
+  /**
+   * Android: ease the main price range over this many milliseconds (max 1000) when the visible
+   * extremes change, with price grid lines on round steps. 0 (default) snaps every frame.
+   */
+  yAxisAnimationDuration: number;
+  /** Android: record per-phase frame timings and report them via `onPerfStats` about once a second. */
+  perfProfiler: boolean;
+  /** Android: draw the frame timings over the chart (implies `perfProfiler`). */
+  perfOverlay: boolean;
+  /** Android: report data command latency/throughput via `onIngestionMetrics`. */
+  ingestionMetrics: boolean;
+  /** Reporting window for `onIngestionMetrics` in ms (min 250, default 1000). */
+  ingestionMetricsInterval: number;
   configList: JsonObject;
 }>;
 
+export type PerfPhaseStats = {
+  p50: number;
+  p95: number;
+  p99: number;
+  max: number;
+};
+
+/** Frame timings in milliseconds per `onDraw` phase (calculateValue, drawGird, drawK, ..., frame). */
+export type PerfStats = {
+  reason: "interval" | "request";
+  enabled: boolean;
+  frames: number;
+  phases: Record<string, PerfPhaseStats>;
+};
+
+/** Averages are per command in the window; times in milliseconds. */
+export type IngestionCommandMetrics = {
+  count: number;
+  failed: number;
+  /** Candles delivered; for `appendTicks`, candles opened by the ticks. */
+  candles: number;
+  candlesPerSec: number;
+  /** Ticks received; only `appendTicks` carries ticks, 0 for the other commands. */
+  ticks: number;
+  ticksPerSec: number;
+  /** Estimated decoded payload size. */
+  bytes: number;
+  /** Bridge payload copy on the UI thread. */
+  copyMs: number;
+  /** packModel / packModelList on the worker thread. */
+  packMs: number;
+  /** Wait in the UI thread queue after packing. */
+  queueMs: number;
+  /** Applying to the chart (reloadConfigManager or the live path). */
+  applyMs: number;
+  totalMs: number;
+  maxTotalMs: number;
+};
+
+export type IngestionMetrics = {
+  windowMs: number;
+  queueDepth: number;
+  maxQueueDepth: number;
+  /** Live-mode last-candle updates folded into an already scheduled frame. */
+  coalesced: number;
+  droppedTicks: number;
+  commands: Partial<
+    Record<
+      "setData" | "prependData" | "appendCandle" | "updateLastCandle" | "appendTicks",
+      IngestionCommandMetrics
+    >
+  >;
+};
+
+
+  /** Candle interval in candle-id units (e.g. 60000 for 1m candles keyed by ms). */
+  interval: number;
+  /** `SimpleDateFormat` pattern for `dateString` of new candles. Default "yyyy-MM-dd HH:mm". */
+  dateFormat?: string;
+};
+
 export type FormatConfig = Partial<{
   price: number;
   volume: number;
   time: number;
 }>;
 
+/** A drawing in value space: x is the candle id, y the price. */
+export type DrawingItem = {
+  /**
+   * Same numbers as `draw.drawType`: 1 line, 2 horizontal, 3 vertical, 4 half line, 5 parallel,
+   * 101 rectangle, 102 parallelogram, 201 Fibonacci retracement, 202 Fibonacci extension,
+   * 203 regression channel, 204 pitchfork, 301 long position, 302 short position, 401 text.
+   */
+  drawType: number;
+  /** Flat [x0, y0, x1, y1, ...]. */
+  points: number[];
+  /** ARGB integer, e.g. from `processColor`. */
+  drawColor?: number;
+  drawLineHeight?: number;
+  drawDashWidth?: number;
+  drawDashSpace?: number;
+  drawIsLock?: boolean;
+  /** Note text, text drawings only. */
+  text?: string;
+};
+
+export type DrawingsDocument = {
+  version: number;
+  items: DrawingItem[];
+};
+
+export type DrawingsChange = {
+  reason: "change" | "undo" | "redo" | "load" | "restore" | "export";
+  count: number;
+  canUndo: boolean;
+  canRedo: boolean;
+  /** Symbol passed to `setDrawingSymbol`, when saving is on. */
+  symbol?: string;
+  /** Serialised `DrawingsDocument`, only for `export`. */
+  data?: string;
+};
+
+/** Overlay primitive keyed by `id`; setting an existing id replaces it. Prices are in chart units. */
+export type OverlayItem =
+  | {
+      id: string;
+      /** Horizontal price line, across the chart or between `startId` and `endId`. */
+      type: "line";
+      price: number;
+      color?: ColorValue;
+      /** dp, default 1 */
+      lineWidth?: number;
+      dashed?: boolean;
+      /** Right-edge price tag. */
+      text?: string;
+      textColor?: ColorValue;
+      /** Higher tags stay when not all fit. */
+      priority?: number;
+      startId?: number;
+      endId?: number;
+    }
+  | {
+      id: string;
+      /** Filled price band; use a translucent color. */
+      type: "zone";
+      from: number;
+      to: number;
+      color?: ColorValue;
+      text?: string;
+      textColor?: ColorValue;
+      priority?: number;
+      startId?: number;
+      endId?: number;
+    }
+  | {
+      id: string;
+      /** Shape at a candle id and price, with an optional caption. */
+      type: "marker";
+      candleId: number;
+      price: number;
+      shape?: "circle" | "arrowUp" | "arrowDown";
+      color?: ColorValue;
+      text?: string;
+    }
+  | {
+      id: string;
+      /** Right-edge price tag without a line. */
+      type: "label";
+      price: number;
+      text: string;
+      color?: ColorValue;
+      textColor?: ColorValue;
+      priority?: number;
+    };
+
+export type OverlayUpdate = {
+  /** Remove all overlays before applying `set`. */
+  clear?: boolean;
+  set?: OverlayItem[];
+  remove?: string[];
+};
+
+export type TradeMarker = {
+  /** Candle id the marker belongs to. */
+  id: number;
+  price: number;
+  /** Buy and sell draw as arrows in the rise/fall colors, events as dots. */
+  type: "buy" | "sell" | "event" | 0 | 1 | 2;
+  /** Weight for the price of a collapsed cluster. */
+  size?: number;
+};
+
+export type AppendMarkersOptions = {
+  /** Drop the stored markers first. */
+  replace?: boolean;
+};
+
 export interface RNKLineViewDataProps {
   /** Base candles for init/reset. Indicator values can be omitted; wrapper computes from config. */
   initialData?: Candle[];
@@ -413,7 +633,17 @@ export interface RNKLineViewEventProps {
   onDrawItemComplete?: (event: DrawItemCompleteEvent) => void;
   onDrawPointComplete?: (event: DrawPointCompleteEvent) => void;
   onPredictionSelect?: (event: PredictionSelectEvent) => void;
+  /**
+   * Older candles are needed. On Android this also fires as soon as a fling is predicted to end
+   * within `loadMoreThreshold`, and the fling carries on over the prepended candles.
+   */
   onLoadMore?: (ctx: LoadMoreContext) => Promise<LoadMoreResult>;
+  /** Android: periodic frame timings while `interaction.perfProfiler` is on. */
+  onPerfStats?: (stats: PerfStats) => void;
+  /** Android: data command metrics per reporting window while `interaction.ingestionMetrics` is on. */
+  onIngestionMetrics?: (metrics: IngestionMetrics) => void;
+  /** Android: drawings were edited, undone, redone, loaded or restored. */
+  onDrawingsChange?: (change: DrawingsChange) => void;
   onError?: (error: {
     code: string;
     message: string;
@@ -480,6 +710,48 @@ export interface RNKLineViewRef {
    * Clear any selected prediction state (Entry/SL/TP).
    */
   unPredictionSelect: () => void;
+  /**
+   * Roll raw trades into candles natively (Android only).
+   * `ticks` is packed as [timestamp, price, size, timestamp, price, size, ...] with
+   * timestamps in the same unit as candle ids. Ticks past the last candle's interval
+   * append a new candle. Candles built this way carry OHLCV only (no JS-computed indicators)
+   * and are not mirrored into the wrapper's data cache.
+   */
+  appendTicks: (ticks: number[] | Float64Array, options: AppendTicksOptions) => void;
+  /**
+   * Latest per-phase frame timings (Android only, resolves null elsewhere). Samples are only
+   * collected while `interaction.perfProfiler` or `perfOverlay` is on.
+   */
+  getPerfStats: () => Promise<PerfStats | null>;
+  /**
+   * Replace all drawings in one command (Android only). Accepts items, a document or the
+   * string from `exportDrawings`. The load is one undo step.
+   */
+  loadDrawings: (drawings: DrawingItem[] | DrawingsDocument | string) => void;
+  /** Serialised `DrawingsDocument` of the current drawings (Android only, resolves null elsewhere). */
+  exportDrawings: () => Promise<string | null>;
+  /** Undo the last finished drawing edit (Android only). */
+  undoDrawing: () => void;
+  /** Redo the last undone drawing edit (Android only). */
+  redoDrawing: () => void;
+  /**
+   * Save drawings under `symbol` in app storage and restore what was saved for it (Android only).
+   * `null` turns saving off and keeps the current drawings.
+   */
+  setDrawingSymbol: (symbol: string | null) => void;
+  /** Add, replace or remove overlays in one batch (Android only). */
+  updateOverlays: (update: OverlayUpdate) => void;
+  /**
+   * Add trade executions / events pinned to candles (Android only). Accepts markers or one packed
+   * array [id, price, type, size, ...] with type 0 buy, 1 sell, 2 event. Markers of one type that
+   * fall within one glyph width collapse into a single glyph with a count.
+   */
+  appendMarkers: (
+    markers: TradeMarker[] | number[] | Float64Array,
+    options?: AppendMarkersOptions
+  ) => void;
+  /** Remove all trade markers (Android only). */
+  clearMarkers: () => void;
 }
 
 declare const RNKLineView: React.ForwardRefExoticComponent<
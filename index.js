@@ -238,6 +238,7 @@ const DEFAULT_DRAW_LIST = {
   drawDashWidth: 1,
   drawDashSpace: 1,
   drawIsLock: false,
+  drawText: "",
   shouldFixDraw: false,
   shouldClearDraw: false,
 };
@@ -862,9 +863,21 @@ function extractIndicatorPeriods(targetList, indicatorConfig) {
   };
 }
 
-function resolveTargetList(targetList, periods, autoCompute) {
+const NATIVE_ONLY_MAIN_KINDS = ["vwap", "tenkan", "kijun", "senkoua", "senkoub"];
+
+// Android computes target list values natively; other platforms keep the JS path.
+function isNativeComputeMode(indicatorConfig) {
+  return indicatorConfig?.computeMode === "native" && Platform.OS === "android";
+}
+
+function resolveTargetList(targetList, periods, autoCompute, nativeCompute = false) {
   const base = deepMerge(DEFAULT_TARGET_LIST, targetList ?? {});
   const fallbackEnabled = autoCompute !== false;
+  const nativeMainItems = nativeCompute && Array.isArray(base.maList)
+    ? base.maList.filter((item) =>
+        NATIVE_ONLY_MAIN_KINDS.includes(String(item?.kind ?? "").toLowerCase())
+      )
+    : [];
 
   const selectedStateMap = new Map();
   if (Array.isArray(base.maList)) {
@@ -897,6 +910,14 @@ function resolveTargetList(targetList, periods, autoCompute) {
         index: item.index,
       };
     });
+    nativeMainItems.forEach((item) => {
+      base.maList.push({
+        ...item,
+        kind: String(item.kind).toLowerCase(),
+        title: String(item.title ?? item.period ?? ""),
+        index: base.maList.length,
+      });
+    });
   }
   if (
     fallbackEnabled &&
@@ -919,6 +940,7 @@ function resolveTargetList(targetList, periods, autoCompute) {
   base.kdjN = String(periods.kdjN);
   base.kdjM1 = String(periods.kdjM1);
   base.kdjM2 = String(periods.kdjM2);
+  base.nativeIndicators = nativeCompute;
   return base;
 }
 
@@ -1198,6 +1220,7 @@ function applyMainLineColors(configList, targetList, indicatorColors, options =
 function computeIndicators(candles, indicatorConfig, targetList) {
   const computeMode = indicatorConfig?.computeMode ?? "prefer_input";
   const preferInput = computeMode !== "always";
+  const nativeCompute = isNativeComputeMode(indicatorConfig);
   const periods = extractIndicatorPeriods(targetList, indicatorConfig);
   const closes = candles.map((item) => Number(item.close ?? 0));
   const highs = candles.map((item) => Number(item.high ?? 0));
@@ -1217,20 +1240,20 @@ function computeIndicators(candles, indicatorConfig, targetList) {
     periods.kdjM1,
     periods.kdjM2
   );
-  const rsiMap = periods.rsiPeriods.map((period) => ({
+  const rsiMap = (nativeCompute ? [] : periods.rsiPeriods).map((period) => ({
     period,
     values: rsiSeries(closes, period),
   }));
-  const wrMap = periods.wrPeriods.map((period) => ({
+  const wrMap = (nativeCompute ? [] : periods.wrPeriods).map((period) => ({
     period,
     values: wrSeries(highs, lows, closes, period),
   }));
-  const emaMap = periods.emaPeriods.map((period) => ({
+  const emaMap = (nativeCompute ? [] : periods.emaPeriods).map((period) => ({
     period,
     values: emaSeries(closes, period),
   }));
   const supertrendSeries = (() => {
-    if (!periods.superEnabled) return [];
+    if (!periods.superEnabled || nativeCompute) return [];
     const length = closes.length;
     const tr = new Array(length).fill(0);
     const atr = new Array(length).fill(0);
@@ -1292,7 +1315,7 @@ function computeIndicators(candles, indicatorConfig, targetList) {
   })();
 
   return candles.map((item, index) => {
-    const maList = periods.mainLineDefs.map((line) => {
+    const maList = (nativeCompute ? [] : periods.mainLineDefs).map((line) => {
       const emaSeriesValue = emaMap.find((entry) => entry.period === line.period);
       const value =
         line.kind === "ema"
@@ -1382,6 +1405,12 @@ function computeIndicators(candles, indicatorConfig, targetList) {
       nextItem.rsiList = mergeTargetListPreferInput(item.rsiList, rsiList);
       nextItem.wrList = mergeTargetListPreferInput(item.wrList, wrList);
     }
+    if (nativeCompute) {
+      // Filled per candle by the native indicator engine
+      delete nextItem.maList;
+      delete nextItem.rsiList;
+      delete nextItem.wrList;
+    }
     return nextItem;
   });
 }
@@ -1496,7 +1525,12 @@ function composeOptionList({
     resolvedIndicator?.targetList ?? {},
     resolvedIndicator
   );
-  const targetList = resolveTargetList(resolvedIndicator?.targetList, periods, autoCompute);
+  const targetList = resolveTargetList(
+    resolvedIndicator?.targetList,
+    periods,
+    autoCompute,
+    isNativeComputeMode(resolvedIndicator)
+  );
   let modelArray = [];
   if (preserveModelArray !== true) {
     modelArray = normalizeCandles(candles);
@@ -1771,10 +1805,43 @@ function toLegacyPropsConfig({
     },
     interaction: {
       shouldScrollToEnd: interaction?.autoFollow === true,
+      configList: interactionConfigList(interaction),
     },
   };
 }
 
+/**
+ * Interaction options that the native side reads from configList.
+ */
+function interactionConfigList(interaction) {
+  const next = {};
+  const liveMaxFps = toFiniteOptionalNumber(interaction?.liveMaxFps);
+  if (typeof liveMaxFps === "number") {
+    next.liveMaxFps = Math.max(0, Math.round(liveMaxFps));
+  }
+  if (typeof interaction?.scrollLayerCache === "boolean") {
+    next.scrollLayerCache = interaction.scrollLayerCache;
+  }
+  const yAxisAnimationDuration = toFiniteOptionalNumber(interaction?.yAxisAnimationDuration);
+  if (typeof yAxisAnimationDuration === "number") {
+    next.yAxisAnimationDuration = Math.max(0, Math.round(yAxisAnimationDuration));
+  }
+  if (typeof interaction?.perfProfiler === "boolean") {
+    next.perfProfiler = interaction.perfProfiler;
+  }
+  if (typeof interaction?.perfOverlay === "boolean") {
+    next.perfOverlay = interaction.perfOverlay;
+  }
+  if (typeof interaction?.ingestionMetrics === "boolean") {
+    next.ingestionMetrics = interaction.ingestionMetrics;
+  }
+  const ingestionMetricsInterval = toFiniteOptionalNumber(interaction?.ingestionMetricsInterval);
+  if (typeof ingestionMetricsInterval === "number") {
+    next.ingestionMetricsInterval = Math.round(ingestionMetricsInterval);
+  }
+  return next;
+}
+
 /**
  * Dispatch a native view command:
  * - iOS: use NativeModules.RNKLineView methods directly
@@ -1829,6 +1896,12 @@ function runCommand(nativeRef, commandName, payload) {
  * - setData(candles): replace all candles
  * - appendCandle(candle): append one candle
  * - updateLastCandle(candle): replace the last candle (or append if empty)
+ * - appendTicks(ticks, options): roll packed trades into candles natively (Android)
+ * - getPerfStats(): resolve with the latest per-phase frame timings (Android)
+ * - loadDrawings / exportDrawings / undoDrawing / redoDrawing / setDrawingSymbol: native
+ *   drawing store with undo history and per-symbol persistence (Android)
+ * - updateOverlays(update): batched price lines, zones, markers and labels (Android)
+ * - appendMarkers(markers, options) / clearMarkers(): clustered trade and event markers (Android)
  */
 const RNKLineView = forwardRef((props, ref) => {
   const {
@@ -1849,13 +1922,24 @@ const RNKLineView = forwardRef((props, ref) => {
     optionList,
     onLoadMore,
     onError,
+    onPerfStats,
+    onIngestionMetrics,
+    onDrawingsChange,
     ...restProps
   } = props;
   const nativeRef = useRef(null);
   const onLoadMoreRef = useRef(onLoadMore);
   const onErrorRef = useRef(onError);
+  const onPerfStatsRef = useRef(onPerfStats);
+  const perfStatsWaitersRef = useRef([]);
+  const onIngestionMetricsRef = useRef(onIngestionMetrics);
+  const onDrawingsChangeRef = useRef(onDrawingsChange);
+  const exportWaitersRef = useRef([]);
   onLoadMoreRef.current = onLoadMore;
   onErrorRef.current = onError;
+  onPerfStatsRef.current = onPerfStats;
+  onIngestionMetricsRef.current = onIngestionMetrics;
+  onDrawingsChangeRef.current = onDrawingsChange;
   const dataCacheRef = useRef([]);
   const computedCacheRef = useRef([]);
   const lastComputeSignatureRef = useRef("");
@@ -1869,6 +1953,32 @@ const RNKLineView = forwardRef((props, ref) => {
     if (typeof onErrorRef.current !== "function") return;
     onErrorRef.current(error);
   }, []);
+  const handlePerfStats = useCallback((event) => {
+    const stats = event?.nativeEvent ?? event;
+    const waiters = perfStatsWaitersRef.current;
+    if (waiters.length > 0) {
+      perfStatsWaitersRef.current = [];
+      waiters.forEach((resolve) => resolve(stats));
+    }
+    if (typeof onPerfStatsRef.current === "function") {
+      onPerfStatsRef.current(stats);
+    }
+  }, []);
+  const handleIngestionMetrics = useCallback((event) => {
+    if (typeof onIngestionMetricsRef.current !== "function") return;
+    onIngestionMetricsRef.current(event?.nativeEvent ?? event);
+  }, []);
+  const handleDrawingsChange = useCallback((event) => {
+    const change = event?.nativeEvent ?? event;
+    if (change?.reason === "export") {
+      const waiters = exportWaitersRef.current;
+      exportWaitersRef.current = [];
+      waiters.forEach((resolve) => resolve(change.data ?? null));
+    }
+    if (typeof onDrawingsChangeRef.current === "function") {
+      onDrawingsChangeRef.current(change);
+    }
+  }, []);
   const invalidateLoadMoreState = useCallback(() => {
     loadRequestSeqRef.current += 1;
     loadingMoreRef.current = false;
@@ -1943,7 +2053,8 @@ const RNKLineView = forwardRef((props, ref) => {
     const targetList = resolveTargetList(
       resolvedIndicator?.targetList,
       periods,
-      autoCompute
+      autoCompute,
+      isNativeComputeMode(resolvedIndicator)
     );
     const computeSignature = JSON.stringify({
       indicator: resolvedIndicator,
@@ -2167,6 +2278,119 @@ const RNKLineView = forwardRef((props, ref) => {
       scheduleLoadMoreRecompute();
     },
     unPredictionSelect: () => runCommand(nativeRef, "unPredictionSelect", null),
+    appendTicks: (ticks, options) => {
+      const interval = ensureFiniteNumber(options?.interval, 0);
+      if (interval <= 0) {
+        emitError({
+          code: "E_APPEND_TICKS",
+          message: "appendTicks requires a positive interval.",
+          source: "js",
+          fatal: false,
+        });
+        return;
+      }
+      // Typed arrays are not bridge-serializable; send one flat number array.
+      const packed = Array.isArray(ticks)
+        ? ticks
+        : ticks && typeof ticks.length === "number"
+        ? Array.from(ticks)
+        : [];
+      if (packed.length < 3) return;
+      runCommand(nativeRef, "appendTicks", {
+        ticks: packed,
+        interval,
+        ...(typeof options?.dateFormat === "string" ? { dateFormat: options.dateFormat } : {}),
+      });
+    },
+    getPerfStats: () => {
+      if (Platform.OS !== "android" || !findNodeHandle(nativeRef.current)) {
+        return Promise.resolve(null);
+      }
+      return new Promise((resolve) => {
+        perfStatsWaitersRef.current.push(resolve);
+        runCommand(nativeRef, "getPerfStats", null);
+      });
+    },
+    loadDrawings: (drawings) => {
+      if (Platform.OS !== "android") return;
+      // One JSON string crosses the bridge instead of a map per item
+      const data =
+        typeof drawings === "string"
+          ? drawings
+          : JSON.stringify(
+              Array.isArray(drawings) ? { version: 1, items: drawings } : drawings ?? { items: [] }
+            );
+      runCommand(nativeRef, "loadDrawings", { data });
+    },
+    exportDrawings: () => {
+      if (Platform.OS !== "android" || !findNodeHandle(nativeRef.current)) {
+        return Promise.resolve(null);
+      }
+      return new Promise((resolve) => {
+        exportWaitersRef.current.push(resolve);
+        runCommand(nativeRef, "exportDrawings", null);
+      });
+    },
+    undoDrawing: () => {
+      if (Platform.OS !== "android") return;
+      runCommand(nativeRef, "undoDrawing", null);
+    },
+    redoDrawing: () => {
+      if (Platform.OS !== "android") return;
+      runCommand(nativeRef, "redoDrawing", null);
+    },
+    setDrawingSymbol: (symbol) => {
+      if (Platform.OS !== "android") return;
+      runCommand(nativeRef, "setDrawingSymbol", {
+        symbol: typeof symbol === "string" && symbol.length > 0 ? symbol : null,
+      });
+    },
+    updateOverlays: (update) => {
+      if (Platform.OS !== "android" || !update) return;
+      const set = Array.isArray(update.set)
+        ? update.set.map((item) => ({
+            ...item,
+            ...(item?.color != null ? { color: toColorNumber(item.color, 0xff2563eb) } : {}),
+            ...(item?.textColor != null ? { textColor: toColorNumber(item.textColor, 0xffffffff) } : {}),
+          }))
+        : [];
+      // One JSON string per batch, parsed natively off the UI thread
+      const data = JSON.stringify({
+        clear: update.clear === true,
+        set,
+        remove: Array.isArray(update.remove) ? update.remove.map(String) : [],
+      });
+      runCommand(nativeRef, "updateOverlays", { data });
+    },
+    appendMarkers: (markers, options) => {
+      if (Platform.OS !== "android") return;
+      const replace = options?.replace === true;
+      let packed;
+      if (Array.isArray(markers) && markers.length > 0 && typeof markers[0] === "object") {
+        // Flatten to [id, price, type, size, ...]; one number array crosses the bridge cheaply
+        packed = new Array(markers.length * 4);
+        markers.forEach((marker, index) => {
+          const type = marker?.type;
+          packed[index * 4] = ensureFiniteNumber(marker?.id, NaN);
+          packed[index * 4 + 1] = ensureFiniteNumber(marker?.price, NaN);
+          packed[index * 4 + 2] =
+            type === "buy" ? 0 : type === "sell" ? 1 : type === "event" ? 2 : ensureFiniteNumber(type, 2);
+          packed[index * 4 + 3] = ensureFiniteNumber(marker?.size, 0);
+        });
+      } else {
+        packed = Array.isArray(markers)
+          ? markers
+          : markers && typeof markers.length === "number"
+          ? Array.from(markers)
+          : [];
+      }
+      if (packed.length < 4 && !replace) return;
+      runCommand(nativeRef, "appendMarkers", { markers: packed, replace });
+    },
+    clearMarkers: () => {
+      if (Platform.OS !== "android") return;
+      runCommand(nativeRef, "appendMarkers", { markers: [], replace: true });
+    },
   }));
 
   useEffect(() => {
@@ -2257,6 +2481,9 @@ const RNKLineView = forwardRef((props, ref) => {
       config={runtimeConfig.resolvedConfig}
       onLoadMore={handleLoadMore}
       onChartError={(event) => emitError(event?.nativeEvent ?? event)}
+      onPerfStats={handlePerfStats}
+      onIngestionMetrics={handleIngestionMetrics}
+      onDrawingsChange={handleDrawingsChange}
     />
   );
 });